@@ -0,0 +1,102 @@
+package com.czacha994.twitchvoting;
+
+/**
+ * Estimates unique voters and per-option reach with HyperLogLog sketches instead of keeping ballots.
+ * Memory is fixed by the sketch precision no matter how large the audience grows.
+ * Only meaningful for multiple vote mode: a viewer can never be removed from an option's sketch,
+ * so votes are never replaced.
+ */
+public class ApproximateBallotStore implements BallotStore {
+    // 2^10 registers per option (~3.3% error), 2^12 for the overall voter sketch (~1.6% error)
+    private static final int OPTION_PRECISION = 10;
+    private static final int VOTER_PRECISION = 12;
+
+    private final HyperLogLog voters = new HyperLogLog(VOTER_PRECISION);
+    private final HyperLogLog[] optionReach;
+    private long votesCast = 0;
+
+    /**
+     * @param optionCount The number of voting options available
+     */
+    public ApproximateBallotStore(int optionCount) {
+        this.optionReach = new HyperLogLog[optionCount];
+        for (int i = 0; i < optionCount; i++) {
+            optionReach[i] = new HyperLogLog(OPTION_PRECISION);
+        }
+    }
+
+    @Override
+    public synchronized void vote(long userId, String userName, int option, boolean singleVote) {
+        long hash = HyperLogLog.mix(userId);
+        voters.offer(hash);
+        optionReach[option - 1].offer(hash);
+        votesCast++;
+    }
+
+    @Override
+    public synchronized int[] counts() {
+        int[] counts = new int[optionReach.length];
+        for (int i = 0; i < optionReach.length; i++) {
+            counts[i] = (int) optionReach[i].estimate();
+        }
+        return counts;
+    }
+
+    /**
+     * Estimates each option's reach across both stores from the union of their sketches, so a
+     * viewer in both counts once instead of twice.
+     */
+    @Override
+    public int[] countsWith(BallotStore other) {
+        if (!(other instanceof ApproximateBallotStore approximate)) return BallotStore.super.countsWith(other);
+
+        HyperLogLog[] merged = approximate.copySketches();
+        synchronized (this) {
+            int[] counts = new int[optionReach.length];
+            for (int i = 0; i < optionReach.length && i < merged.length; i++) {
+                merged[i].merge(optionReach[i]);
+                counts[i] = (int) merged[i].estimate();
+            }
+            return counts;
+        }
+    }
+
+    private synchronized HyperLogLog[] copySketches() {
+        HyperLogLog[] copies = new HyperLogLog[optionReach.length];
+        for (int i = 0; i < optionReach.length; i++) {
+            copies[i] = optionReach[i].copy();
+        }
+        return copies;
+    }
+
+    @Override
+    public synchronized int voterCount() {
+        return (int) voters.estimate();
+    }
+
+    /**
+     * @return The total number of votes received, including repeats
+     */
+    public synchronized long getVotesCast() {
+        return votesCast;
+    }
+
+    @Override
+    public boolean isExact() {
+        return false;
+    }
+
+    @Override
+    public double errorBound() {
+        return optionReach.length > 0 ? optionReach[0].relativeError() : voters.relativeError();
+    }
+
+    @Override
+    public synchronized void clear() {
+        voters.clear();
+        for (HyperLogLog sketch : optionReach) {
+            sketch.clear();
+        }
+        votesCast = 0;
+    }
+}
@@ -0,0 +1,82 @@
+package com.czacha994.twitchvoting;
+
+/**
+ * Storage for the ballots collected during a vote session.
+ * Implementations must be safe to call from the Twitch event thread and timer threads at the same time.
+ */
+public interface BallotStore {
+
+    // How many leading options stores track for displays
+    int LEADERBOARD_SIZE = 10;
+
+    /**
+     * Records a vote from a viewer.
+     *
+     * @param userId The numeric Twitch user ID (never 0)
+     * @param userName The viewer's Twitch username, kept only where ballots can be resolved back to names
+     * @param option The voted option number (1-based, already range checked)
+     * @param singleVote Whether this vote replaces the viewer's previous votes
+     */
+    void vote(long userId, String userName, int option, boolean singleVote);
+
+    /**
+     * @return An array of vote counts where index 0 corresponds to option 1
+     */
+    int[] counts();
+
+    /**
+     * @param limit The maximum number of options to return
+     * @return Option numbers with the most votes, highest first
+     */
+    default int[] leaders(int limit) {
+        return SparseTally.topOptions(counts(), limit);
+    }
+
+    /**
+     * Moves a viewer's ballot to another store, e.g. into quarantine once the viewer turns out to be
+     * part of a raid. Only stores that keep each viewer's ballot can do this.
+     *
+     * @param userId The viewer
+     * @param target The store to move the ballot to
+     * @return Whether a ballot was moved
+     */
+    default boolean moveBallot(long userId, BallotStore target) {
+        return false;
+    }
+
+    /**
+     * Counts this store's votes together with another store's of the same kind, counting a viewer
+     * found in both once per option where the store can tell.
+     *
+     * @param other The other store
+     * @return An array of vote counts where index 0 corresponds to option 1
+     */
+    default int[] countsWith(BallotStore other) {
+        int[] counts = counts();
+        int[] more = other.counts();
+        for (int i = 0; i < counts.length && i < more.length; i++) {
+            counts[i] += more[i];
+        }
+        return counts;
+    }
+
+    /**
+     * @return The number of distinct viewers that voted
+     */
+    int voterCount();
+
+    /**
+     * @return Whether counts are exact, false when they are estimates
+     */
+    boolean isExact();
+
+    /**
+     * @return The relative standard error of the counts, 0 for exact storage
+     */
+    double errorBound();
+
+    /**
+     * Clears all recorded votes.
+     */
+    void clear();
+}
@@ -0,0 +1,207 @@
+package com.czacha994.twitchvoting;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Follows a session's Twitch chat connection: when it dropped, for how long, and how fast votes
+ * came in before and after, so results gathered across a reconnect can be judged.
+ *
+ * The connection state is sampled by {@link #update}, a couple of times a second. Vote rates are
+ * taken from those samples over {@value #RATE_WINDOW_SECONDS} seconds, so memory stays fixed no
+ * matter how long the session runs; only the last {@value #MAX_OUTAGES} outages are kept in detail.
+ */
+public class ChatConnectionTracker {
+    private static final int RATE_WINDOW_SECONDS = 30;
+    private static final int MAX_OUTAGES = 20;
+    // Enough samples to cover the rate window at the tally refresh rate
+    private static final int SAMPLES = 128;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final LongAdder votes = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    // Guarded by this
+    private final long[] sampleMillis = new long[SAMPLES];
+    private final long[] sampleVotes = new long[SAMPLES];
+    private int samples = 0;
+    private boolean everConnected = false;
+    private long outageStart = -1;
+    private double outageRateBefore = 0;
+    private long outageCount = 0;
+    private long downtimeMillis = 0;
+    private final Deque<Outage> outages = new ArrayDeque<>();
+
+    /**
+     * A time the chat connection was lost.
+     *
+     * @param startMillis When it was lost
+     * @param endMillis When it came back, or -1 if it is still down
+     * @param votesPerSecondBefore The vote rate over the half minute before it was lost
+     * @param votesPerSecondAfter The vote rate over the half minute after it came back, NaN until measured
+     */
+    public record Outage(long startMillis, long endMillis, double votesPerSecondBefore, double votesPerSecondAfter) {
+
+        /**
+         * @return How long the connection was down, so far if it still is
+         */
+        public long durationMillis() {
+            return (endMillis >= 0 ? endMillis : System.currentTimeMillis()) - startMillis;
+        }
+
+        /**
+         * @return The outage in one line, for logs and chat
+         */
+        public String describe() {
+            String at = LocalTime.ofInstant(Instant.ofEpochMilli(startMillis), ZoneId.systemDefault()).format(TIME_FORMAT);
+            String rates = Double.isNaN(votesPerSecondAfter)
+                    ? String.format("%.1f votes/s before", votesPerSecondBefore)
+                    : String.format("%.1f votes/s before, %.1f after", votesPerSecondBefore, votesPerSecondAfter);
+            return String.format("%s for %ds%s, %s", at, durationMillis() / 1000, endMillis >= 0 ? "" : " (still down)", rates);
+        }
+    }
+
+    /**
+     * Counts a vote taken from chat.
+     */
+    void voteCounted() {
+        votes.increment();
+    }
+
+    /**
+     * Counts a chat message dropped because it was already seen.
+     */
+    void duplicateDropped() {
+        duplicates.increment();
+    }
+
+    /**
+     * Records the connection state. Outages are only counted once the first connection succeeded.
+     *
+     * @param connected Whether chat is connected right now
+     */
+    synchronized void update(boolean connected) {
+        long now = System.currentTimeMillis();
+        long total = votes.sum();
+        if (!everConnected) {
+            if (!connected) return;
+            everConnected = true;
+        }
+
+        if (!connected && outageStart < 0) {
+            outageStart = now;
+            outageRateBefore = rateSince(now - RATE_WINDOW_SECONDS * 1000L, now, total);
+            outageCount++;
+        } else if (connected && outageStart >= 0) {
+            downtimeMillis += now - outageStart;
+            addOutage(new Outage(outageStart, now, outageRateBefore, Double.NaN));
+            outageStart = -1;
+        } else if (connected) {
+            measureRateAfter(now, total);
+        }
+
+        sampleMillis[samples % SAMPLES] = now;
+        sampleVotes[samples % SAMPLES] = total;
+        samples++;
+    }
+
+    /**
+     * Fills in the rate after the last outage once the connection has been back for a full window.
+     */
+    private void measureRateAfter(long now, long total) {
+        Outage last = outages.peekLast();
+        if (last == null || !Double.isNaN(last.votesPerSecondAfter())) return;
+        if (now - last.endMillis() < RATE_WINDOW_SECONDS * 1000L) return;
+
+        outages.pollLast();
+        outages.addLast(new Outage(last.startMillis(), last.endMillis(), last.votesPerSecondBefore(),
+                rateSince(last.endMillis(), now, total)));
+    }
+
+    /**
+     * The vote rate from the oldest sample taken at or after {@code fromMillis} until now.
+     */
+    private double rateSince(long fromMillis, long now, long total) {
+        int oldest = Math.max(0, samples - SAMPLES);
+        for (int i = oldest; i < samples; i++) {
+            long at = sampleMillis[i % SAMPLES];
+            if (at >= fromMillis) {
+                long elapsed = now - at;
+                return elapsed > 0 ? (total - sampleVotes[i % SAMPLES]) * 1000.0 / elapsed : 0;
+            }
+        }
+        return 0;
+    }
+
+    private void addOutage(Outage outage) {
+        if (outages.size() == MAX_OUTAGES) {
+            outages.pollFirst();
+        }
+        outages.addLast(outage);
+    }
+
+    /**
+     * @return How many times the connection was lost
+     */
+    public synchronized long getOutageCount() {
+        return outageCount;
+    }
+
+    /**
+     * @return How long the connection was down in total, including an outage still going on
+     */
+    public synchronized long getDowntimeMillis() {
+        return downtimeMillis + (outageStart >= 0 ? System.currentTimeMillis() - outageStart : 0);
+    }
+
+    /**
+     * @return Whether the connection is down right now
+     */
+    public synchronized boolean isDown() {
+        return outageStart >= 0;
+    }
+
+    /**
+     * @return The most recent outages, oldest first, including one still going on
+     */
+    public synchronized List<Outage> getOutages() {
+        List<Outage> list = new ArrayList<>(outages);
+        if (outageStart >= 0) {
+            list.add(new Outage(outageStart, -1, outageRateBefore, Double.NaN));
+        }
+        return list;
+    }
+
+    /**
+     * @return How many duplicate chat messages were dropped
+     */
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    /**
+     * @return The connection's history, labelled, for logs and chat
+     */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        long count = getOutageCount();
+        if (count == 0) {
+            lines.add("Twitch chat: no outages");
+        } else {
+            lines.add(String.format("Twitch chat: %d outage%s, %ds disconnected in total", count,
+                    count == 1 ? "" : "s", getDowntimeMillis() / 1000));
+            for (Outage outage : getOutages()) {
+                lines.add("  Outage at " + outage.describe());
+            }
+        }
+        lines.add("Duplicate messages dropped: " + getDuplicates());
+        return lines;
+    }
+}
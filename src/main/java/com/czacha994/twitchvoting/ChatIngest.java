@@ -0,0 +1,60 @@
+package com.czacha994.twitchvoting;
+
+/**
+ * A chat connection a vote session reads messages from.
+ *
+ * Keeps the chat client's classes out of the rest of the plugin: only the implementation refers to
+ * them, so they are loaded when the first vote connects instead of when the plugin enables.
+ */
+public interface ChatIngest extends AutoCloseable {
+
+    /**
+     * Receives chat messages on the chat client's threads. Called for every message, so the fields
+     * are passed as the client holds them instead of in an object made for each message.
+     */
+    @FunctionalInterface
+    interface Listener {
+        /**
+         * @param id The message's ID, or null if it carried none
+         * @param channel The channel it was sent in, not necessarily lowercased
+         * @param userId The sender's numeric Twitch user ID, or null if the message carried none
+         * @param userName The sender's username
+         * @param text The message
+         */
+        void onMessage(String id, String channel, String userId, String userName, String text);
+    }
+
+    /**
+     * Opens chat connections for vote sessions; tests swap in one that needs no network.
+     */
+    @FunctionalInterface
+    interface Factory {
+        /**
+         * Connects to chat. Blocks, so it should run on an async thread.
+         *
+         * @param listener Receives the messages of the joined channels
+         */
+        ChatIngest connect(Listener listener);
+    }
+
+    /**
+     * Joins a channel; its messages go to the listener the connection was created with.
+     */
+    void join(String channel);
+
+    /**
+     * Leaves a channel.
+     */
+    void leave(String channel);
+
+    /**
+     * @return Whether the connection to chat is up right now
+     */
+    boolean isConnected();
+
+    /**
+     * Closes the connection and stops its threads.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,44 @@
+package com.czacha994.twitchvoting;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Carries tally frames from the cluster leader to its followers.
+ * Frames are opaque byte arrays; each one is delivered whole and in order, or not at all.
+ */
+public interface ClusterTransport {
+
+    /**
+     * Starts accepting followers.
+     *
+     * @param welcome Supplies the frame sent first to each newly connected follower, or null when
+     *                there is nothing to catch up on. Called on a transport thread.
+     * @throws IOException If the transport could not be opened
+     */
+    void startLeader(Supplier<byte[]> welcome) throws IOException;
+
+    /**
+     * Starts receiving frames from the leader, reconnecting as needed.
+     *
+     * @param receiver Called with every frame, on a transport thread
+     * @throws IOException If the transport could not be opened
+     */
+    void startFollower(Consumer<byte[]> receiver) throws IOException;
+
+    /**
+     * Sends a frame to every connected follower without waiting for them. Leader only.
+     */
+    void broadcast(byte[] frame);
+
+    /**
+     * @return The number of connected followers, or 1 while a follower is connected to its leader
+     */
+    int getConnectionCount();
+
+    /**
+     * Closes all connections. Safe to call more than once.
+     */
+    void stop();
+}
@@ -0,0 +1,59 @@
+package com.czacha994.twitchvoting;
+
+import java.util.Locale;
+
+/**
+ * Where players in the vote's world see the live tally.
+ * Player preferences are stored by ordinal, so new modes must be added at the end.
+ */
+public enum DisplayMode {
+    /** Sidebar scoreboard with every option */
+    SCOREBOARD("Scoreboard"),
+    /** Table posted to chat every few seconds */
+    CHAT("Chat"),
+    /** One boss bar per leading option, filled by vote share */
+    BOSSBAR("Boss bar"),
+    /** Leading options and their shares in the action bar */
+    ACTIONBAR("Action bar"),
+    /** Nothing while the vote runs; only chosen by individual players */
+    HIDDEN("Hidden");
+
+    private final String displayName;
+
+    DisplayMode(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * @return A human readable name for messages
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return The next server-wide mode, used by /vote togglemode without an argument
+     */
+    public DisplayMode next() {
+        DisplayMode[] modes = values();
+        DisplayMode next = modes[(ordinal() + 1) % modes.length];
+        return next == HIDDEN ? next.next() : next;
+    }
+
+    /**
+     * Parses a mode name as written in config.yml or a command, ignoring case.
+     *
+     * @param name The mode name (e.g. "bossbar")
+     * @return The mode, or null if the name is unknown
+     */
+    public static DisplayMode fromName(String name) {
+        if (name == null) return null;
+        String normalized = name.trim().toUpperCase(Locale.ROOT).replace("_", "").replace(" ", "");
+        for (DisplayMode mode : values()) {
+            if (mode.name().equals(normalized)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,237 @@
+package com.czacha994.twitchvoting;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Each player's own choice of display mode, stored in {@code display-prefs.dat}.
+ *
+ * The file is a log of fixed 17-byte records (UUID, then the mode's ordinal or -1 for "use the
+ * server default"); the last record for a player wins. Changes are appended, and the log is rewritten
+ * with one record per player on shutdown once it has grown well past that. The file is read off the
+ * main thread when the plugin enables; choices made before it finishes win over the file.
+ */
+public class DisplayPreferences {
+    private static final String FILE_NAME = "display-prefs.dat";
+    private static final int RECORD_SIZE = 17;
+    private static final byte DEFAULT_MODE = -1;
+    // Rewrite the log on shutdown once it holds this many times more records than players
+    private static final int COMPACT_RATIO = 2;
+
+    private final TwitchVotingPlugin plugin;
+    private final File file;
+    private final Map<UUID, DisplayMode> modes = new ConcurrentHashMap<>();
+    private final Object fileLock = new Object();
+
+    // Guarded by loadLock, since Folia calls in from the region thread of each joining player
+    private final Object loadLock = new Object();
+    private boolean loadStarted = false;
+    private boolean loaded = false;
+    private final List<Runnable> waiting = new ArrayList<>();
+    // Players whose choice changed before the file was read, the file must not undo it
+    private final Set<UUID> changedBeforeLoad = new HashSet<>();
+    // Guarded by fileLock
+    private int records = 0;
+    // Changes whose append task hasn't run yet
+    private final AtomicInteger pendingAppends = new AtomicInteger();
+
+    /**
+     * Creates the preference store. Nothing is read until {@link #load()} or {@link #whenLoaded(Runnable)}.
+     *
+     * @param plugin The plugin instance
+     */
+    public DisplayPreferences(TwitchVotingPlugin plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), FILE_NAME);
+    }
+
+    /**
+     * Runs an action once the preferences are loaded, loading them first if needed: right away on the
+     * calling thread if they are, otherwise on the main thread (Folia's global region) after the load.
+     *
+     * @param action What to run, e.g. showing a joining player the vote in their chosen mode
+     */
+    public void whenLoaded(Runnable action) {
+        synchronized (loadLock) {
+            if (!loaded) {
+                waiting.add(action);
+                load();
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * Starts reading the file on an async thread, unless it's already read or being read.
+     */
+    public void load() {
+        synchronized (loadLock) {
+            if (loadStarted) return;
+            loadStarted = true;
+        }
+
+        plugin.getVoteScheduler().runAsync(() -> {
+            Map<UUID, DisplayMode> read = readFile();
+            plugin.getVoteScheduler().run(() -> {
+                List<Runnable> ready;
+                synchronized (loadLock) {
+                    // Choices made while the file was being read are newer than the file, resets included
+                    read.forEach((playerId, mode) -> {
+                        if (!changedBeforeLoad.contains(playerId)) {
+                            modes.put(playerId, mode);
+                        }
+                    });
+                    changedBeforeLoad.clear();
+                    loaded = true;
+                    ready = new ArrayList<>(waiting);
+                    waiting.clear();
+                }
+                // Outside the lock, actions may change preferences themselves
+                for (Runnable runnable : ready) {
+                    runnable.run();
+                }
+            });
+        });
+    }
+
+    /**
+     * @param playerId The player
+     * @return The player's chosen mode, or null to use the server default
+     */
+    public DisplayMode get(UUID playerId) {
+        return modes.get(playerId);
+    }
+
+    /**
+     * Records a player's choice and appends it to the file asynchronously.
+     *
+     * @param playerId The player
+     * @param mode The chosen mode, or null to go back to the server default
+     */
+    public void set(UUID playerId, DisplayMode mode) {
+        synchronized (loadLock) {
+            if (!loaded) {
+                changedBeforeLoad.add(playerId);
+            }
+            if (mode == null) {
+                modes.remove(playerId);
+            } else {
+                modes.put(playerId, mode);
+            }
+        }
+
+        byte value = mode == null ? DEFAULT_MODE : (byte) mode.ordinal();
+        pendingAppends.incrementAndGet();
+        plugin.getVoteScheduler().runAsync(() -> {
+            append(playerId, value);
+            pendingAppends.decrementAndGet();
+        });
+    }
+
+    /**
+     * Rewrites the file with one record per player if it has grown well past that, or if some
+     * changes might not have been appended yet. Called on shutdown, after the last change.
+     */
+    public void compact() {
+        synchronized (loadLock) {
+            if (!loaded) return;
+        }
+        synchronized (fileLock) {
+            boolean grown = records > Math.max(16, modes.size() * COMPACT_RATIO);
+            if (!grown && pendingAppends.get() == 0) return;
+
+            File temp = new File(plugin.getDataFolder(), FILE_NAME + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                for (Map.Entry<UUID, DisplayMode> entry : modes.entrySet()) {
+                    writeRecord(out, entry.getKey(), (byte) entry.getValue().ordinal());
+                }
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to compact " + FILE_NAME + ": " + e.getMessage());
+                return;
+            }
+
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                records = modes.size();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to replace " + FILE_NAME + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private Map<UUID, DisplayMode> readFile() {
+        Map<UUID, DisplayMode> read = new HashMap<>();
+        synchronized (fileLock) {
+            if (!file.exists()) return read;
+
+            DisplayMode[] values = DisplayMode.values();
+            int count = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                while (true) {
+                    UUID playerId = new UUID(in.readLong(), in.readLong());
+                    byte value = in.readByte();
+                    count++;
+                    if (value >= 0 && value < values.length) {
+                        read.put(playerId, values[value]);
+                    } else {
+                        read.remove(playerId);
+                    }
+                }
+            } catch (EOFException e) {
+                // End of the log
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to read " + FILE_NAME + ": " + e.getMessage());
+                return read;
+            }
+            records = count;
+
+            // Drop a record cut short by a crash, so later appends stay aligned
+            if (file.length() != (long) count * RECORD_SIZE) {
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.setLength((long) count * RECORD_SIZE);
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Failed to repair " + FILE_NAME + ": " + e.getMessage());
+                }
+            }
+        }
+        return read;
+    }
+
+    private void append(UUID playerId, byte value) {
+        synchronized (fileLock) {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)))) {
+                writeRecord(out, playerId, value);
+                records++;
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to save display preference: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, UUID playerId, byte value) throws IOException {
+        out.writeLong(playerId.getMostSignificantBits());
+        out.writeLong(playerId.getLeastSignificantBits());
+        out.writeByte(value);
+    }
+}
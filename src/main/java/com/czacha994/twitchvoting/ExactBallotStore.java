@@ -0,0 +1,345 @@
+package com.czacha994.twitchvoting;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps every viewer's ballot, giving exact counts and supporting single vote mode.
+ * Ballots live in an open-addressing table keyed by the numeric Twitch user ID, with each
+ * viewer's choices packed into a single long, so recording a vote allocates nothing. In votes with
+ * more than 64 options, choices beyond the newest four are kept in a side map so none are lost.
+ * Per-option counts and the leaderboard are maintained incrementally as ballots change.
+ */
+public class ExactBallotStore implements BallotStore {
+    // Up to 64 options a ballot is a bitmask with one bit per option; larger votes pack
+    // the viewer's most recent choices into 16-bit slots, older ones move to a side map
+    static final int BITMASK_OPTIONS = Long.SIZE;
+    static final int MAX_OPTIONS = 0xFFFF;
+    static final int MAX_PACKED_CHOICES = 4;
+    private static final int INITIAL_CAPACITY = 1024;
+    // Empty slot marker, user IDs are never 0
+    private static final long EMPTY = 0L;
+
+    private final int optionCount;
+    private final boolean packed;
+    private final SparseTally tally = new SparseTally(LEADERBOARD_SIZE);
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] ballots = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    // User IDs in first-vote order, a cursor into it stays valid while the table is resized
+    private long[] order = new long[INITIAL_CAPACITY];
+    private int size = 0;
+    // Viewers still in the table whose ballot was moved to another store
+    private int moved = 0;
+    // Choices that no longer fit a packed ballot, oldest first, with the count in element 0.
+    // Only viewers with more than MAX_PACKED_CHOICES choices have an entry
+    private final Map<Long, int[]> overflow = new HashMap<>();
+
+    /**
+     * @param optionCount The number of voting options available (at most 65535)
+     */
+    public ExactBallotStore(int optionCount) {
+        if (optionCount > MAX_OPTIONS) {
+            throw new IllegalArgumentException("Exact ballots support at most " + MAX_OPTIONS + " options: " + optionCount);
+        }
+        this.optionCount = optionCount;
+        this.packed = optionCount > BITMASK_OPTIONS;
+    }
+
+    @Override
+    public synchronized void vote(long userId, String userName, int option, boolean singleVote) {
+        int slot = slotFor(userId);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = userId;
+            // Keep the name the event already carries; it's only read when ballots are resolved
+            names[slot] = userName;
+            if (size == order.length) {
+                order = Arrays.copyOf(order, order.length * 2);
+            }
+            order[size] = userId;
+            if (++size > keys.length / 2) {
+                grow();
+                slot = slotFor(userId);
+            }
+        } else if (ballots[slot] == 0) {
+            // Voting again after the ballot was moved away; every vote below changes the empty ballot
+            moved--;
+        }
+
+        long previous = ballots[slot];
+        if (packed) {
+            int[] extra = overflow.get(userId);
+            if (singleVote) {
+                // The new vote replaces all previous ones
+                if (previous == option && extra == null) return;
+                adjustPacked(previous, -1);
+                if (extra != null) {
+                    for (int i = 1; i <= extra[0]; i++) {
+                        tally.add(extra[i], -1);
+                    }
+                    overflow.remove(userId);
+                }
+                tally.add(option, 1);
+                ballots[slot] = option;
+            } else {
+                if (containsPacked(previous, option) || containsOverflow(extra, option)) return;
+                // Once all slots are used, the oldest choice moves to the side map and still counts
+                int oldest = (int) (previous >>> (16 * (MAX_PACKED_CHOICES - 1)));
+                if (oldest != 0) {
+                    overflow.put(userId, appendOverflow(extra, oldest));
+                }
+                tally.add(option, 1);
+                ballots[slot] = previous << 16 | option;
+            }
+        } else {
+            long bit = 1L << (option - 1);
+            // In single vote mode, the new vote replaces all previous ones
+            long updated = singleVote ? bit : previous | bit;
+            if (updated == previous) return;
+
+            adjustBitmask(previous & ~updated, -1);
+            adjustBitmask(updated & ~previous, 1);
+            ballots[slot] = updated;
+        }
+    }
+
+    /**
+     * Empties the viewer's ballot here and casts its choices in the target store. The viewer keeps
+     * their place in the first-vote order with an empty ballot, so chunk cursors stay valid.
+     */
+    @Override
+    public boolean moveBallot(long userId, BallotStore target) {
+        String userName;
+        int[] options;
+        int count;
+        synchronized (this) {
+            int slot = slotFor(userId);
+            long ballot = ballots[slot];
+            if (keys[slot] == EMPTY || ballot == 0) return false;
+
+            int[] extra = overflow.remove(userId);
+            options = new int[Long.SIZE + (extra != null ? extra[0] : 0)];
+            count = 0;
+            if (packed) {
+                adjustPacked(ballot, -1);
+                for (long rest = ballot; rest != 0; rest >>>= 16) {
+                    if ((rest & 0xFFFF) != 0) options[count++] = (int) (rest & 0xFFFF);
+                }
+                for (int i = extra != null ? extra[0] : 0; i >= 1; i--) {
+                    tally.add(extra[i], -1);
+                    options[count++] = extra[i];
+                }
+            } else {
+                adjustBitmask(ballot, -1);
+                for (long rest = ballot; rest != 0; rest &= rest - 1) {
+                    options[count++] = Long.numberOfTrailingZeros(rest) + 1;
+                }
+            }
+            ballots[slot] = 0;
+            moved++;
+            userName = names[slot];
+        }
+
+        // Outside this store's lock, so the two stores are never locked together
+        for (int i = count - 1; i >= 0; i--) {
+            target.vote(userId, userName, options[i], false);
+        }
+        return true;
+    }
+
+    /**
+     * Applies a count change to every option set in the bitmask.
+     */
+    private void adjustBitmask(long mask, int delta) {
+        while (mask != 0) {
+            tally.add(Long.numberOfTrailingZeros(mask) + 1, delta);
+            mask &= mask - 1;
+        }
+    }
+
+    /**
+     * Applies a count change to every option in a packed ballot.
+     */
+    private void adjustPacked(long ballot, int delta) {
+        for (; ballot != 0; ballot >>>= 16) {
+            int option = (int) (ballot & 0xFFFF);
+            if (option != 0) {
+                tally.add(option, delta);
+            }
+        }
+    }
+
+    private static boolean containsPacked(long ballot, int option) {
+        for (; ballot != 0; ballot >>>= 16) {
+            if ((ballot & 0xFFFF) == option) return true;
+        }
+        return false;
+    }
+
+    private static boolean containsOverflow(int[] extra, int option) {
+        if (extra == null) return false;
+        for (int i = 1; i <= extra[0]; i++) {
+            if (extra[i] == option) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a choice to a viewer's overflow, doubling the array when it's full.
+     */
+    private static int[] appendOverflow(int[] extra, int option) {
+        if (extra == null) {
+            extra = new int[MAX_PACKED_CHOICES + 1];
+        } else if (extra[0] == extra.length - 1) {
+            extra = Arrays.copyOf(extra, extra.length * 2);
+        }
+        extra[++extra[0]] = option;
+        return extra;
+    }
+
+    /**
+     * @return The number of voting options available, also the most choices a ballot can decode to
+     */
+    public int getOptionCount() {
+        return optionCount;
+    }
+
+    /**
+     * Decodes a ballot copied by {@link #readChunk}.
+     *
+     * @param userId The ballot's user ID, packed ballots may have older choices kept apart
+     * @param ballot The ballot value
+     * @param options Receives the option numbers, must hold at least {@link #getOptionCount} entries
+     * @return The number of options written, in ascending order for bitmasks, newest first for packed ballots
+     */
+    public int decode(long userId, long ballot, int[] options) {
+        int count = 0;
+        if (packed) {
+            for (long rest = ballot; rest != 0; rest >>>= 16) {
+                int option = (int) (rest & 0xFFFF);
+                if (option != 0) {
+                    options[count++] = option;
+                }
+            }
+            if (count == MAX_PACKED_CHOICES) {
+                synchronized (this) {
+                    int[] extra = overflow.get(userId);
+                    for (int i = extra != null ? extra[0] : 0; i >= 1; i--) {
+                        // A choice that moved here after the ballot was copied is already listed
+                        if (!containsPacked(ballot, extra[i])) {
+                            options[count++] = extra[i];
+                        }
+                    }
+                }
+            }
+        } else {
+            for (; ballot != 0; ballot &= ballot - 1) {
+                options[count++] = Long.numberOfTrailingZeros(ballot) + 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the slot holding the user, or the empty slot where it belongs (linear probing).
+     */
+    private int slotFor(long userId) {
+        int mask = keys.length - 1;
+        int slot = (int) HyperLogLog.mix(userId) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != userId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the table and reinserts all ballots.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldBallots = ballots;
+        String[] oldNames = names;
+
+        keys = new long[oldKeys.length * 2];
+        ballots = new long[oldKeys.length * 2];
+        names = new String[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotFor(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                ballots[slot] = oldBallots[i];
+                names[slot] = oldNames[i];
+            }
+        }
+    }
+
+    /**
+     * Copies the next chunk of ballots, in first-vote order, into the caller's buffers.
+     * Holds the lock only for the copy, so ballots can be streamed out while votes keep arriving.
+     *
+     * @param from Index of the first ballot to copy (0 for the first chunk)
+     * @param userIds Receives the user IDs
+     * @param userNames Receives the usernames
+     * @param choices Receives the ballots, see {@link #decode}; 0 for a ballot moved to another store
+     * @return The number of ballots copied, 0 once all ballots have been read
+     */
+    public synchronized int readChunk(int from, long[] userIds, String[] userNames, long[] choices) {
+        int count = Math.max(0, Math.min(userIds.length, size - from));
+        for (int i = 0; i < count; i++) {
+            long userId = order[from + i];
+            int slot = slotFor(userId);
+            userIds[i] = userId;
+            userNames[i] = names[slot];
+            choices[i] = ballots[slot];
+        }
+        return count;
+    }
+
+    /**
+     * Resolves the name a viewer had when they first voted.
+     *
+     * @return The Twitch username, or null if the user hasn't voted
+     */
+    public synchronized String getUserName(long userId) {
+        int slot = slotFor(userId);
+        return keys[slot] == EMPTY ? null : names[slot];
+    }
+
+    @Override
+    public synchronized int[] counts() {
+        return tally.toArray(optionCount);
+    }
+
+    @Override
+    public synchronized int[] leaders(int limit) {
+        return tally.leaders(limit);
+    }
+
+    @Override
+    public synchronized int voterCount() {
+        return size - moved;
+    }
+
+    @Override
+    public boolean isExact() {
+        return true;
+    }
+
+    @Override
+    public double errorBound() {
+        return 0;
+    }
+
+    @Override
+    public synchronized void clear() {
+        keys = new long[INITIAL_CAPACITY];
+        ballots = new long[INITIAL_CAPACITY];
+        names = new String[INITIAL_CAPACITY];
+        order = new long[INITIAL_CAPACITY];
+        overflow.clear();
+        tally.clear();
+        size = 0;
+        moved = 0;
+    }
+}
@@ -0,0 +1,115 @@
+package com.czacha994.twitchvoting;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size HyperLogLog sketch estimating the number of distinct 64-bit hashes offered to it.
+ * Uses 2^precision one-byte registers, independent of how many values are added.
+ * Not thread-safe; callers synchronize externally.
+ */
+final class HyperLogLog {
+    private final int precision;
+    private final byte[] registers;
+    private final double alphaMM;
+
+    /**
+     * @param precision Number of index bits (4-16); memory is 2^precision bytes
+     */
+    HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 16: " + precision);
+        }
+        this.precision = precision;
+        int m = 1 << precision;
+        this.registers = new byte[m];
+
+        double alpha;
+        switch (m) {
+            case 16: alpha = 0.673; break;
+            case 32: alpha = 0.697; break;
+            case 64: alpha = 0.709; break;
+            default: alpha = 0.7213 / (1 + 1.079 / m);
+        }
+        this.alphaMM = alpha * m * m;
+    }
+
+    /**
+     * Adds a well-mixed 64-bit hash to the sketch.
+     */
+    void offer(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // The guard bit caps the rank so it always fits the remaining bits
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * @return The estimated number of distinct hashes offered
+     */
+    long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) zeros++;
+        }
+
+        double estimate = alphaMM / sum;
+        // Small range correction: linear counting is more accurate while registers are still empty
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return The relative standard error of the estimate
+     */
+    double relativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * Adds every hash offered to another sketch of the same precision, as if offered here:
+     * each register keeps the larger of the two.
+     */
+    void merge(HyperLogLog other) {
+        if (other.registers.length != registers.length) {
+            throw new IllegalArgumentException("HyperLogLog precisions differ: " + other.precision + " vs " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * @return A sketch with the same registers
+     */
+    HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+
+    void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer, spreads sequential keys such as user IDs over all bits.
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,77 @@
+package com.czacha994.twitchvoting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Delivers frames within one JVM, for running a leader and followers side by side in tests.
+ * Every transport created with the same {@link Hub} is part of the same cluster.
+ */
+public class InMemoryClusterTransport implements ClusterTransport {
+
+    /**
+     * Connects the transports of one in-memory cluster.
+     */
+    public static final class Hub {
+        private final List<Consumer<byte[]>> followers = new ArrayList<>();
+        private Supplier<byte[]> welcome = null;
+    }
+
+    private final Hub hub;
+    private Consumer<byte[]> receiver = null;
+
+    /**
+     * @param hub The cluster to join
+     */
+    public InMemoryClusterTransport(Hub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void startLeader(Supplier<byte[]> welcome) {
+        synchronized (hub) {
+            hub.welcome = welcome;
+        }
+    }
+
+    @Override
+    public void startFollower(Consumer<byte[]> receiver) {
+        synchronized (hub) {
+            this.receiver = receiver;
+            hub.followers.add(receiver);
+            byte[] frame = hub.welcome != null ? hub.welcome.get() : null;
+            if (frame != null) receiver.accept(frame);
+        }
+    }
+
+    @Override
+    public void broadcast(byte[] frame) {
+        synchronized (hub) {
+            for (Consumer<byte[]> follower : hub.followers) {
+                follower.accept(frame);
+            }
+        }
+    }
+
+    @Override
+    public int getConnectionCount() {
+        synchronized (hub) {
+            if (receiver != null) return hub.followers.contains(receiver) ? 1 : 0;
+            return hub.followers.size();
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (hub) {
+            if (receiver != null) {
+                hub.followers.remove(receiver);
+                receiver = null;
+            } else {
+                hub.welcome = null;
+            }
+        }
+    }
+}
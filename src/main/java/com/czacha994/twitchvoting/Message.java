@@ -0,0 +1,208 @@
+package com.czacha994.twitchvoting;
+
+import java.util.List;
+
+/**
+ * Every message players see, with its path in the messages files and the placeholders it accepts.
+ * Placeholders are written as {@code <name>} in the templates and filled in order when rendering.
+ */
+public enum Message {
+    // Announcements in the vote's world
+    VOTE_STARTED("vote.started"),
+    POLL_STARTED("vote.poll_started", "window"),
+    KEYWORD_HINT("vote.keyword_hint"),
+    VOTE_CHANNEL("vote.channel", "channel"),
+    VOTE_MODE("vote.mode", "mode"),
+    MODE_CHANGED("vote.mode_changed", "mode"),
+    RESULTS_SHOWN("vote.results_shown"),
+    VOTE_ENDED("vote.ended"),
+
+    // Vote mode names used in the <mode> placeholders above
+    MODE_SINGLE("mode.single"),
+    MODE_MULTIPLE("mode.multiple"),
+    MODE_ROLLING("mode.rolling"),
+    MODE_APPROXIMATE("mode.approximate", "mode"),
+
+    // Chat table while the vote runs
+    TABLE_HEADER("table.header", "time"),
+    TABLE_POLL_HEADER("table.poll_header", "window"),
+    TABLE_COLUMNS("table.columns"),
+    TABLE_OPTION("table.option", "number", "option", "count"),
+    TABLE_LEADERS("table.leaders", "total"),
+    TABLE_PAGE("table.page", "from", "to", "options"),
+    TABLE_PAGE_OPTION("table.page_option", "number", "option"),
+
+    // Results in chat
+    RESULTS_HEADER("results.header"),
+    RESULTS_COLUMNS("results.columns"),
+    RESULTS_OPTION("results.option", "number", "option", "count"),
+    RESULTS_WINNER("results.winner", "number", "option", "count"),
+    RESULTS_MORE("results.more", "more"),
+    RESULTS_FOOTER("results.footer"),
+    RESULTS_ROLLING_NOTE("results.rolling_note"),
+    RESULTS_APPROXIMATE_NOTE("results.approximate_note", "voters", "error"),
+    RESULTS_OUTAGE_NOTE("results.outage_note", "outages", "seconds"),
+    RESULTS_RAID_FLAGGED("results.raid_flagged", "votes"),
+    RESULTS_RAID_INCLUDED("results.raid_included", "votes"),
+    RESULTS_RAID_EXCLUDED("results.raid_excluded", "votes"),
+
+    // Sidebar scoreboard
+    SCOREBOARD_TITLE("scoreboard.title"),
+    SCOREBOARD_RESULTS_TITLE("scoreboard.results_title"),
+    SCOREBOARD_TIME("scoreboard.time", "time"),
+    SCOREBOARD_TIME_LOW("scoreboard.time_low", "time"),
+    SCOREBOARD_POLL("scoreboard.poll", "window"),
+    SCOREBOARD_ENDED("scoreboard.ended"),
+    SCOREBOARD_SEPARATOR("scoreboard.separator"),
+    SCOREBOARD_INSTRUCTION("scoreboard.instruction"),
+    SCOREBOARD_LEADERS("scoreboard.leaders", "total"),
+    SCOREBOARD_PAGE("scoreboard.page", "from", "to"),
+    SCOREBOARD_OPTION("scoreboard.option", "number", "option", "count"),
+    SCOREBOARD_OPTION_COMPACT("scoreboard.option_compact", "number", "option", "count"),
+    SCOREBOARD_WINNER("scoreboard.winner", "number", "option", "count"),
+    SCOREBOARD_WINNER_COMPACT("scoreboard.winner_compact", "number", "option", "count"),
+
+    // Boss bars and action bar
+    BOSSBAR_TITLE("bossbar.title", "time"),
+    BOSSBAR_POLL_TITLE("bossbar.poll_title", "window"),
+    BOSSBAR_OPTION("bossbar.option", "number", "option", "percent"),
+    ACTIONBAR_OPTION("actionbar.option", "number", "option", "percent"),
+    ACTIONBAR_LEADER("actionbar.leader", "number", "option", "percent"),
+    ACTIONBAR_SEPARATOR("actionbar.separator"),
+    ACTIONBAR_TIME("actionbar.time", "seconds"),
+
+    // Map wall chart header, drawn without colors
+    MAP_WAITING("map.waiting"),
+    MAP_ENDED("map.ended"),
+    MAP_POLL("map.poll", "window"),
+    MAP_TIME("map.time", "seconds"),
+
+    // Replies to /vote commands, in the sender's language
+    COMMAND_USAGE("command.usage"),
+    COMMAND_UNKNOWN("command.unknown"),
+    COMMAND_HELP("command.help"),
+    COMMAND_FOLLOWER("command.follower"),
+    COMMAND_INVALID_SECONDS("command.invalid_seconds", "value"),
+    COMMAND_ERROR("command.error", "error"),
+
+    PERMISSION_START("permission.start"),
+    PERMISSION_STOP("permission.stop"),
+    PERMISSION_QUEUE("permission.queue"),
+    PERMISSION_RELOAD("permission.reload"),
+    PERMISSION_TOGGLEMODE("permission.togglemode"),
+    PERMISSION_DISPLAY("permission.display"),
+    PERMISSION_TOGGLEVOTE("permission.togglevote"),
+    PERMISSION_EXPORT("permission.export"),
+    PERMISSION_MAP("permission.map"),
+    PERMISSION_METRICS("permission.metrics"),
+    PERMISSION_QUARANTINE("permission.quarantine"),
+    PERMISSION_TOP("permission.top"),
+
+    START_USAGE("start.usage"),
+    START_POLL_USAGE("start.poll_usage"),
+    START_NOT_PLAYER("start.not_player"),
+    START_RUNNING("start.running"),
+    START_FAILED("start.failed", "error"),
+    START_CONFIRMED("start.confirmed", "seconds", "channel"),
+    START_POLL_CONFIRMED("start.poll_confirmed", "window", "channel"),
+
+    STOP_NOT_RUNNING("stop.not_running"),
+    STOP_STOPPING("stop.stopping"),
+    STOP_CONFIRMED("stop.confirmed"),
+
+    QUEUE_USAGE("queue.usage"),
+    QUEUE_PLAY_USAGE("queue.play_usage"),
+    QUEUE_ADD_USAGE("queue.add_usage"),
+    QUEUE_FOLLOWER("queue.follower"),
+    QUEUE_NOT_PLAYER("queue.not_player"),
+    QUEUE_EMPTY("queue.empty"),
+    QUEUE_LIST("queue.list", "count"),
+    QUEUE_ENTRY("queue.entry", "number", "vote", "status"),
+    QUEUE_READY("queue.ready"),
+    QUEUE_CONNECTING("queue.connecting"),
+    QUEUE_CLEARED("queue.cleared"),
+    QUEUE_ADDED("queue.added", "count"),
+    QUEUE_ADDED_NEXT("queue.added_next", "count"),
+
+    RELOAD_FAILED("reload.failed", "error"),
+    RELOAD_CONFIRMED("reload.confirmed", "millis", "main_thread_millis"),
+    RELOAD_NOTE("reload.note", "note"),
+
+    TOGGLEMODE_USAGE("togglemode.usage"),
+    TOGGLEMODE_CONFIRMED("togglemode.confirmed", "mode"),
+
+    DISPLAY_NOT_PLAYER("display.not_player"),
+    DISPLAY_CURRENT("display.current", "mode"),
+    DISPLAY_USAGE("display.usage"),
+    DISPLAY_CONFIRMED("display.confirmed", "mode"),
+    DISPLAY_DEFAULT("display.default"),
+
+    TOGGLEVOTE_SINGLE("togglevote.single"),
+    TOGGLEVOTE_MULTIPLE("togglevote.multiple"),
+    TOGGLEVOTE_POLL_UNCHANGED("togglevote.poll_unchanged"),
+    TOGGLEVOTE_APPROXIMATE_UNCHANGED("togglevote.approximate_unchanged"),
+
+    EXPORT_NOTHING("export.nothing"),
+    EXPORT_STARTED("export.started"),
+    EXPORT_CONFIRMED("export.confirmed", "file"),
+    EXPORT_FAILED("export.failed", "error"),
+
+    CHART_NOT_PLAYER("chart.not_player"),
+    CHART_USAGE("chart.usage"),
+    CHART_SIZE("chart.size", "max"),
+    CHART_CONFIRMED("chart.confirmed", "width", "height"),
+
+    METRICS_HEADER("metrics.header", "seconds"),
+    METRICS_HEADER_RUNNING("metrics.header_running", "seconds"),
+    METRICS_LINE("metrics.line", "line"),
+    METRICS_BASELINE_SAVED("metrics.baseline_saved"),
+    METRICS_BASELINE_FAILED("metrics.baseline_failed", "error"),
+    METRICS_NO_BASELINE("metrics.no_baseline"),
+    METRICS_WITHIN_BASELINE("metrics.within_baseline"),
+    METRICS_REGRESSION("metrics.regression", "regression"),
+
+    QUARANTINE_USAGE("quarantine.usage"),
+    QUARANTINE_NO_VOTE("quarantine.no_vote"),
+    QUARANTINE_NOT_WATCHED("quarantine.not_watched"),
+    QUARANTINE_FLAG_ONLY("quarantine.flag_only"),
+    QUARANTINE_INCLUDE("quarantine.include"),
+    QUARANTINE_EXCLUDE("quarantine.exclude"),
+    QUARANTINE_SUMMARY("quarantine.summary", "waves", "votes", "status"),
+    QUARANTINE_STATUS_FLAGGED("quarantine.status_flagged"),
+    QUARANTINE_STATUS_INCLUDED("quarantine.status_included"),
+    QUARANTINE_STATUS_EXCLUDED("quarantine.status_excluded"),
+    QUARANTINE_OPTION("quarantine.option", "number", "option", "votes"),
+    QUARANTINE_HINT("quarantine.hint"),
+    // Sent to players with voting.manage when a raid wave is detected
+    QUARANTINE_WAVE("quarantine.wave", "number", "option", "rate", "usual"),
+    QUARANTINE_WAVE_QUARANTINED("quarantine.wave_quarantined"),
+    QUARANTINE_WAVE_FLAGGED("quarantine.wave_flagged"),
+
+    TOP_USAGE("top.usage"),
+    TOP_DISABLED("top.disabled"),
+    TOP_EMPTY("top.empty"),
+    TOP_HEADER("top.header", "shown", "viewers", "votes"),
+    TOP_VIEWER("top.viewer", "rank", "name", "votes", "wins", "streak", "best");
+
+    private final String path;
+    private final List<String> placeholders;
+
+    Message(String path, String... placeholders) {
+        this.path = path;
+        this.placeholders = List.of(placeholders);
+    }
+
+    /**
+     * @return The message's path in the messages files, e.g. "vote.started"
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return The placeholder names, in the order their values are passed when rendering
+     */
+    public List<String> getPlaceholders() {
+        return placeholders;
+    }
+}
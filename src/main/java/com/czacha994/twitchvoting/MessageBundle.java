@@ -0,0 +1,90 @@
+package com.czacha994.twitchvoting;
+
+import net.kyori.adventure.text.Component;
+
+/**
+ * The compiled templates of one locale. Bundles are immutable and shared, so a display can
+ * render a message once per bundle and send the result to every player using that locale.
+ */
+public final class MessageBundle {
+    private final String locale;
+    // Indexed by Message ordinal
+    private final MessageTemplate[] templates;
+
+    MessageBundle(String locale, MessageTemplate[] templates) {
+        this.locale = locale;
+        this.templates = templates;
+    }
+
+    /**
+     * @return The locale name, e.g. "en_us"
+     */
+    public String getLocale() {
+        return locale;
+    }
+
+    /**
+     * Renders a message.
+     *
+     * @param message The message
+     * @param values The placeholder values, in the order of {@link Message#getPlaceholders()}
+     * @return The message with legacy section color codes
+     */
+    public String render(Message message, Object... values) {
+        return templates[message.ordinal()].render(values);
+    }
+
+    /**
+     * Renders a message as a Component, for chat, boss bars and the action bar.
+     *
+     * @param message The message
+     * @param values The placeholder values, in the order of {@link Message#getPlaceholders()}
+     * @return The message
+     */
+    public Component renderComponent(Message message, Object... values) {
+        return templates[message.ordinal()].renderComponent(values);
+    }
+
+    /**
+     * @param message The message
+     * @return Whether the message is set to "" in the messages file, so it isn't sent
+     */
+    public boolean isEmpty(Message message) {
+        return templates[message.ordinal()].isEmpty();
+    }
+
+    /**
+     * Renders a message without its color codes, for text drawn where they can't be shown.
+     *
+     * @param message The message
+     * @param values The placeholder values, in the order of {@link Message#getPlaceholders()}
+     * @return The plain message
+     */
+    public String renderPlain(Message message, Object... values) {
+        String text = render(message, values);
+        StringBuilder plain = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '§') {
+                i++;
+            } else {
+                plain.append(text.charAt(i));
+            }
+        }
+        return plain.toString();
+    }
+
+    MessageTemplate template(Message message) {
+        return templates[message.ordinal()];
+    }
+
+    /**
+     * @return Whether the other bundle is for the same locale and renders every message the same
+     */
+    boolean sameAs(MessageBundle other) {
+        if (!locale.equals(other.locale)) return false;
+        for (int i = 0; i < templates.length; i++) {
+            if (!templates[i].sameAs(other.templates[i])) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,95 @@
+package com.czacha994.twitchvoting;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the IDs of recent chat messages so a message delivered twice, e.g. replayed around a
+ * reconnect, is only counted once.
+ *
+ * Memory is fixed: IDs are kept as 64-bit fingerprints in two generations of open-addressing
+ * tables. When the current generation fills up, the older one is dropped and the tables swap, so
+ * the last {@code capacity} to {@code 2 * capacity} messages are always remembered. A fingerprint
+ * collision would drop a genuine message, but with 64 bits that is vanishingly unlikely.
+ */
+public class MessageDeduplicator {
+    private static final long EMPTY = 0L;
+
+    private final int capacity;
+    private final int mask;
+    private long[] current;
+    private long[] previous;
+    private int currentSize = 0;
+
+    /**
+     * @param capacity How many messages a generation holds
+     */
+    public MessageDeduplicator(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        // Tables are kept at most half full so probes stay short
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.mask = tableSize - 1;
+        this.current = new long[tableSize];
+        this.previous = new long[tableSize];
+    }
+
+    /**
+     * Records a message ID.
+     *
+     * @param id The message's ID tag, or null if it carried none
+     * @return Whether the message is new; messages without an ID always are
+     */
+    public synchronized boolean firstSeen(String id) {
+        if (id == null || id.isEmpty()) return true;
+
+        long fingerprint = fingerprint(id);
+        if (contains(previous, fingerprint) || contains(current, fingerprint)) return false;
+
+        if (currentSize >= capacity) {
+            long[] dropped = previous;
+            previous = current;
+            current = dropped;
+            Arrays.fill(current, EMPTY);
+            currentSize = 0;
+        }
+        insert(current, fingerprint);
+        currentSize++;
+        return true;
+    }
+
+    private boolean contains(long[] table, long fingerprint) {
+        for (int i = slot(fingerprint); ; i = (i + 1) & mask) {
+            long entry = table[i];
+            if (entry == EMPTY) return false;
+            if (entry == fingerprint) return true;
+        }
+    }
+
+    private void insert(long[] table, long fingerprint) {
+        int i = slot(fingerprint);
+        while (table[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        table[i] = fingerprint;
+    }
+
+    private int slot(long fingerprint) {
+        return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+    }
+
+    /**
+     * 64-bit FNV-1a of the ID, finished with a mixer so the table slots spread evenly.
+     * Never returns {@link #EMPTY}.
+     */
+    private static long fingerprint(String id) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            h ^= id.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h == EMPTY ? 1L : h;
+    }
+}
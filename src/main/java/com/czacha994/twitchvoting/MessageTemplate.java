@@ -0,0 +1,190 @@
+package com.czacha994.twitchvoting;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.flattener.ComponentFlattener;
+import net.kyori.adventure.text.flattener.FlattenerListener;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message template compiled once when the messages are loaded.
+ *
+ * The MiniMessage markup is parsed a single time with each placeholder swapped for a private-use
+ * marker character, and the result is serialized to legacy section codes and split at the markers.
+ * Rendering then only joins the fixed segments with the slot values, so refreshing a display never
+ * parses markup again. Values are inserted as they are and never parsed as markup.
+ *
+ * For chat, boss bars and the action bar the parsed text is also kept as styled pieces, so those
+ * get Components without a trip through legacy codes; the scoreboard and map use the legacy text.
+ */
+public final class MessageTemplate {
+    // Markers stand in for placeholders while parsing; templates never contain private-use characters
+    private static final char FIRST_MARKER = '\uE000';
+    // Section codes with hex colors as §x§r§r§g§g§b§b, which Bukkit's legacy text understands
+    private static final LegacyComponentSerializer SERIALIZER = LegacyComponentSerializer.builder()
+            .character('§')
+            .hexColors()
+            .useUnusualXRepeatedCharacterHexFormat()
+            .build();
+
+    // Text between slots, one more than there are slots
+    private final String[] segments;
+    // Which value goes into each slot
+    private final int[] slots;
+    private final int length;
+    // The same text as styled pieces, each fixed text or a slot with the style its value gets
+    private final Piece[] pieces;
+
+    private record Piece(Component text, int slot, Style style) {}
+
+    private MessageTemplate(String[] segments, int[] slots, Piece[] pieces) {
+        this.segments = segments;
+        this.slots = slots;
+        this.pieces = pieces;
+        int total = 0;
+        for (String segment : segments) total += segment.length();
+        this.length = total;
+    }
+
+    /**
+     * Compiles a MiniMessage template.
+     *
+     * @param source The template text, e.g. "<aqua><number>. <white><option>"
+     * @param placeholders The placeholder names the template may use, in value order
+     * @param tags Custom tags replaced before parsing, e.g. "highlight" to "light_purple"
+     * @return The compiled template
+     * @throws RuntimeException If MiniMessage rejects the markup
+     */
+    public static MessageTemplate compile(String source, List<String> placeholders, Map<String, String> tags) {
+        String markup = source;
+        for (int i = 0; i < placeholders.size(); i++) {
+            markup = markup.replace("<" + placeholders.get(i) + ">", String.valueOf((char) (FIRST_MARKER + i)));
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            markup = markup.replace("<" + tag.getKey() + ">", "<" + tag.getValue() + ">")
+                           .replace("</" + tag.getKey() + ">", "</" + tag.getValue() + ">");
+        }
+
+        Component component = MiniMessage.miniMessage().deserialize(markup);
+        String legacy = SERIALIZER.serialize(component);
+
+        List<String> segments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < legacy.length(); i++) {
+            int slot = legacy.charAt(i) - FIRST_MARKER;
+            if (slot < 0 || slot >= placeholders.size()) continue;
+            segments.add(legacy.substring(start, i));
+            slots.add(slot);
+            start = i + 1;
+        }
+        segments.add(legacy.substring(start));
+
+        return new MessageTemplate(segments.toArray(new String[0]), slots.stream().mapToInt(Integer::intValue).toArray(),
+                pieces(component, placeholders.size()));
+    }
+
+    /**
+     * Splits parsed markup into runs of text in their full style, cut at the placeholder markers.
+     */
+    private static Piece[] pieces(Component component, int placeholderCount) {
+        List<Piece> pieces = new ArrayList<>();
+        Deque<Style> styles = new ArrayDeque<>();
+        styles.push(Style.empty());
+        ComponentFlattener.basic().flatten(component, new FlattenerListener() {
+            @Override
+            public void pushStyle(Style style) {
+                styles.push(styles.peek().merge(style));
+            }
+
+            @Override
+            public void component(String text) {
+                Style style = styles.peek();
+                int start = 0;
+                for (int i = 0; i < text.length(); i++) {
+                    int slot = text.charAt(i) - FIRST_MARKER;
+                    if (slot < 0 || slot >= placeholderCount) continue;
+                    if (i > start) pieces.add(new Piece(Component.text(text.substring(start, i), style), -1, style));
+                    pieces.add(new Piece(null, slot, style));
+                    start = i + 1;
+                }
+                if (start < text.length()) pieces.add(new Piece(Component.text(text.substring(start), style), -1, style));
+            }
+
+            @Override
+            public void popStyle(Style style) {
+                styles.pop();
+            }
+        });
+        return pieces.toArray(new Piece[0]);
+    }
+
+    /**
+     * Fills the placeholders.
+     *
+     * @param values The placeholder values, in the order of {@link Message#getPlaceholders()}
+     * @return The message with legacy section color codes
+     */
+    public String render(Object... values) {
+        if (slots.length == 0) return segments[0];
+
+        StringBuilder text = new StringBuilder(length + 16 * slots.length);
+        text.append(segments[0]);
+        for (int i = 0; i < slots.length; i++) {
+            int slot = slots[i];
+            if (slot < values.length) {
+                text.append(values[slot] instanceof Component component ? SERIALIZER.serialize(component) : values[slot]);
+            }
+            text.append(segments[i + 1]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Fills the placeholders into a Component, for chat, boss bars and the action bar.
+     * A Component value, e.g. another rendered message, keeps its own style.
+     *
+     * @param values The placeholder values, in the order of {@link Message#getPlaceholders()}
+     * @return The message
+     */
+    public Component renderComponent(Object... values) {
+        if (pieces.length == 1 && pieces[0].text() != null) return pieces[0].text();
+
+        TextComponent.Builder builder = Component.text();
+        for (Piece piece : pieces) {
+            if (piece.text() != null) {
+                builder.append(piece.text());
+            } else if (piece.slot() < values.length) {
+                Object value = values[piece.slot()];
+                builder.append(value instanceof Component component
+                        ? component.applyFallbackStyle(piece.style())
+                        : Component.text(String.valueOf(value), piece.style()));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return Whether the template is blank, which turns its announcement off
+     */
+    boolean isEmpty() {
+        return slots.length == 0 && segments[0].isEmpty();
+    }
+
+    /**
+     * @return Whether the other template renders exactly the same text for the same values
+     */
+    boolean sameAs(MessageTemplate other) {
+        return Arrays.equals(segments, other.segments) && Arrays.equals(slots, other.slots)
+                && Arrays.equals(pieces, other.pieces);
+    }
+}
@@ -0,0 +1,179 @@
+package com.czacha994.twitchvoting;
+
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Player-facing messages, loaded from {@code messages/<locale>.yml} in the plugin folder.
+ *
+ * Every template is compiled once on load or reload. A locale file only needs the messages it
+ * changes: missing ones come from the server locale, then from the bundled English file. Players
+ * are matched to a locale by their client language, exactly or by language alone. Shared displays
+ * (scoreboard, boss bars, action bar) are rendered once for everyone, in the server locale.
+ */
+public final class Messages {
+    private static final String FOLDER = "messages";
+    private static final String BUNDLED_LOCALE = "en_us";
+
+    private final MessageBundle server;
+    private final Map<String, MessageBundle> bundles;
+    // First bundle per language, for clients whose exact locale has no file
+    private final Map<String, MessageBundle> byLanguage;
+    private final boolean perPlayerLocale;
+
+    private Messages(MessageBundle server, Map<String, MessageBundle> bundles, boolean perPlayerLocale) {
+        this.server = server;
+        this.bundles = bundles;
+        this.perPlayerLocale = perPlayerLocale;
+        this.byLanguage = new HashMap<>();
+        for (MessageBundle bundle : bundles.values()) {
+            byLanguage.putIfAbsent(language(bundle.getLocale()), bundle);
+        }
+    }
+
+    /**
+     * Loads and compiles the messages files, writing the bundled English file if it is missing.
+     *
+     * @param plugin The plugin instance
+     * @param config The settings naming the server locale and the highlight and winner colors
+     * @return The compiled messages
+     */
+    public static Messages load(TwitchVotingPlugin plugin, VoteConfig config) {
+        File folder = new File(plugin.getDataFolder(), FOLDER);
+        if (!new File(folder, BUNDLED_LOCALE + ".yml").exists()) {
+            plugin.saveResource(FOLDER + "/" + BUNDLED_LOCALE + ".yml", false);
+        }
+
+        // <highlight> and <winner> in templates use the colors from config.yml
+        Map<String, String> tags = Map.of(
+                "highlight", colorTag(plugin, config.highlightColor(), "light_purple"),
+                "winner", colorTag(plugin, config.winnerColor(), "gold"));
+
+        YamlConfiguration bundledFile = new YamlConfiguration();
+        try (InputStream in = plugin.getResource(FOLDER + "/" + BUNDLED_LOCALE + ".yml")) {
+            if (in != null) {
+                bundledFile = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to read the bundled messages: " + e.getMessage());
+        }
+        MessageBundle bundled = compile(plugin, BUNDLED_LOCALE, bundledFile, null, tags);
+
+        Map<String, YamlConfiguration> files = new HashMap<>();
+        File[] ymlFiles = folder.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (ymlFiles != null) {
+            for (File file : ymlFiles) {
+                String locale = file.getName().substring(0, file.getName().length() - 4).toLowerCase(Locale.ROOT);
+                files.put(locale, YamlConfiguration.loadConfiguration(file));
+            }
+        }
+
+        // The server locale fills in for other locales, so it is compiled first
+        String serverLocale = config.messageLocale();
+        YamlConfiguration serverFile = files.get(serverLocale);
+        if (serverFile == null && !serverLocale.equals(BUNDLED_LOCALE)) {
+            plugin.getLogger().warning("No messages file for locale " + serverLocale + ", using " + BUNDLED_LOCALE);
+        }
+        MessageBundle server = serverFile != null
+                ? compile(plugin, serverLocale, serverFile, bundled, tags)
+                : bundled;
+
+        Map<String, MessageBundle> bundles = new HashMap<>();
+        bundles.put(server.getLocale(), server);
+        for (Map.Entry<String, YamlConfiguration> file : files.entrySet()) {
+            if (bundles.containsKey(file.getKey())) continue;
+            bundles.put(file.getKey(), compile(plugin, file.getKey(), file.getValue(), server, tags));
+        }
+
+        return new Messages(server, bundles, config.perPlayerLocale());
+    }
+
+    /**
+     * @return The server locale's messages, used for displays shared by all players
+     */
+    public MessageBundle server() {
+        return server;
+    }
+
+    /**
+     * @param player The player
+     * @return The messages in the player's client language, or the server locale if there is no file for it
+     */
+    public MessageBundle forPlayer(Player player) {
+        if (!perPlayerLocale) return server;
+
+        Locale locale = player.locale();
+        MessageBundle bundle = bundles.get(locale.toString().toLowerCase(Locale.ROOT));
+        if (bundle == null) bundle = byLanguage.get(locale.getLanguage());
+        return bundle != null ? bundle : server;
+    }
+
+    /**
+     * Compiles every message of a locale, taking missing or broken ones from the fallback bundle.
+     */
+    private static MessageBundle compile(TwitchVotingPlugin plugin, String locale, YamlConfiguration file,
+                                         MessageBundle fallback, Map<String, String> tags) {
+        Message[] messages = Message.values();
+        MessageTemplate[] templates = new MessageTemplate[messages.length];
+        for (Message message : messages) {
+            String source = file.getString(message.getPath());
+            if (source != null) {
+                try {
+                    templates[message.ordinal()] = MessageTemplate.compile(source, message.getPlaceholders(), tags);
+                    continue;
+                } catch (RuntimeException e) {
+                    plugin.getLogger().warning("Invalid message " + message.getPath() + " in " + locale + ".yml: " + e.getMessage());
+                }
+            }
+            templates[message.ordinal()] = fallback != null
+                    ? fallback.template(message)
+                    : MessageTemplate.compile(message.getPath(), message.getPlaceholders(), tags);
+        }
+        return new MessageBundle(locale, templates);
+    }
+
+    /**
+     * Turns a color setting (a Bukkit color name or #rrggbb) into a MiniMessage color tag name.
+     */
+    private static String colorTag(TwitchVotingPlugin plugin, String color, String fallback) {
+        if (color == null) return fallback;
+        if (color.matches("#[0-9a-fA-F]{6}")) return color;
+        try {
+            if (ChatColor.valueOf(color.trim().toUpperCase(Locale.ROOT)).isColor()) {
+                return color.trim().toLowerCase(Locale.ROOT);
+            }
+        } catch (IllegalArgumentException e) {
+            // Reported below
+        }
+        plugin.getLogger().warning("Unknown color " + color + ", using " + fallback);
+        return fallback;
+    }
+
+    /**
+     * Compares reloaded messages with these, so displays are only rebuilt when their text changed.
+     *
+     * @return Whether the other messages render every message the same for every player
+     */
+    public boolean sameAs(Messages other) {
+        if (perPlayerLocale != other.perPlayerLocale || !server.sameAs(other.server)
+                || !bundles.keySet().equals(other.bundles.keySet())) return false;
+        for (Map.Entry<String, MessageBundle> bundle : bundles.entrySet()) {
+            if (!bundle.getValue().sameAs(other.bundles.get(bundle.getKey()))) return false;
+        }
+        return true;
+    }
+
+    private static String language(String locale) {
+        int separator = locale.indexOf('_');
+        return separator < 0 ? locale : locale.substring(0, separator);
+    }
+}
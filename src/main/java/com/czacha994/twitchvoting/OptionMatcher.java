@@ -0,0 +1,304 @@
+package com.czacha994.twitchvoting;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Finds the options a chat message votes for in a single pass over its characters.
+ * Standalone numbers always count; with keywords enabled, option names and their aliases
+ * (e.g. emote codes) are matched case-insensitively as whole words by an Aho-Corasick automaton
+ * compiled once when the session starts, so the cost per message doesn't grow with the alias count.
+ * Names and aliases that are option numbers themselves are left to the number scan, so an option
+ * named "1" doesn't get the votes for option 1 as well.
+ */
+public final class OptionMatcher {
+
+    /**
+     * Receives each option matched in a message, in the order they appear.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onOption(int option);
+    }
+
+    // Digit run states while scanning
+    private static final int NO_NUMBER = -1;
+    private static final int EMBEDDED_NUMBER = -2;
+
+    private final int optionCount;
+
+    // Keyword automaton, all null when only numbers are matched
+    private final int[] transitions;        // [state * alphabetSize + column] -> next state
+    private final int alphabetSize;
+    private final int[] asciiColumns;       // column of each ASCII char, -1 if no keyword uses it
+    private final char[] otherChars;        // sorted non-ASCII keyword chars
+    private final int[] otherColumns;
+    private final int[] outputOption;       // option (1-based) of the keyword ending in a state, 0 for none
+    private final int[] outputLength;       // length of that keyword
+    private final int[] outputLink;         // next state on the suffix chain with an output, 0 for none
+
+    private OptionMatcher(int optionCount) {
+        this.optionCount = optionCount;
+        this.transitions = null;
+        this.alphabetSize = 0;
+        this.asciiColumns = null;
+        this.otherChars = null;
+        this.otherColumns = null;
+        this.outputOption = null;
+        this.outputLength = null;
+        this.outputLink = null;
+    }
+
+    /**
+     * Creates a matcher that only recognizes option numbers.
+     *
+     * @param optionCount The number of voting options available
+     */
+    public static OptionMatcher numeric(int optionCount) {
+        return new OptionMatcher(optionCount);
+    }
+
+    /**
+     * Creates a matcher that recognizes option numbers, option names and their aliases.
+     *
+     * @param options The voting options, in display order
+     * @param aliases Extra keywords per option, keyed by lowercased option name
+     */
+    public static OptionMatcher withKeywords(List<String> options, Map<String, List<String>> aliases) {
+        List<String> keywords = new ArrayList<>();
+        List<Integer> keywordOptions = new ArrayList<>();
+        for (int i = 0; i < options.size(); i++) {
+            String name = options.get(i).toLowerCase(Locale.ROOT);
+            addKeyword(keywords, keywordOptions, name, i + 1, options.size());
+            for (String alias : aliases.getOrDefault(name, List.of())) {
+                addKeyword(keywords, keywordOptions, alias.toLowerCase(Locale.ROOT), i + 1, options.size());
+            }
+        }
+
+        if (keywords.isEmpty()) {
+            return numeric(options.size());
+        }
+        return new OptionMatcher(options.size(), keywords, keywordOptions);
+    }
+
+    private static void addKeyword(List<String> keywords, List<Integer> keywordOptions, String keyword, int option,
+                                   int optionCount) {
+        keyword = keyword.trim();
+        // Option numbers already vote for themselves, so an option named "1" must not vote twice
+        if (isOptionNumber(keyword, optionCount)) return;
+        // The first option to claim a keyword keeps it
+        if (!keyword.isEmpty() && !keywords.contains(keyword)) {
+            keywords.add(keyword);
+            keywordOptions.add(option);
+        }
+    }
+
+    /**
+     * @return Whether the keyword is a number the number scan counts as an option, like "3" or "03"
+     */
+    private static boolean isOptionNumber(String keyword, int optionCount) {
+        if (keyword.isEmpty() || keyword.length() > 9) return false;
+        for (int i = 0; i < keyword.length(); i++) {
+            if (!isDigit(keyword.charAt(i))) return false;
+        }
+        int number = Integer.parseInt(keyword);
+        return number >= 1 && number <= optionCount;
+    }
+
+    /**
+     * Compiles the keywords into a dense transition table over the characters they use.
+     */
+    private OptionMatcher(int optionCount, List<String> keywords, List<Integer> keywordOptions) {
+        this.optionCount = optionCount;
+
+        // Build the trie
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<Integer> options = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        children.add(new HashMap<>());
+        options.add(0);
+        lengths.add(0);
+        StringBuilder alphabet = new StringBuilder();
+
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k);
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (alphabet.indexOf(String.valueOf(c)) < 0) {
+                    alphabet.append(c);
+                }
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new HashMap<>());
+                    options.add(0);
+                    lengths.add(0);
+                    children.get(state).put(c, next);
+                }
+                state = next;
+            }
+            options.set(state, keywordOptions.get(k));
+            lengths.set(state, keyword.length());
+        }
+
+        // Assign a column to every character used by a keyword
+        char[] chars = alphabet.toString().toCharArray();
+        Arrays.sort(chars);
+        this.alphabetSize = chars.length;
+        this.asciiColumns = new int[128];
+        Arrays.fill(asciiColumns, -1);
+        int otherCount = 0;
+        for (char c : chars) {
+            if (c >= 128) otherCount++;
+        }
+        this.otherChars = new char[otherCount];
+        this.otherColumns = new int[otherCount];
+        int other = 0;
+        for (int column = 0; column < chars.length; column++) {
+            char c = chars[column];
+            if (c < 128) {
+                asciiColumns[c] = column;
+            } else {
+                otherChars[other] = c;
+                otherColumns[other++] = column;
+            }
+        }
+
+        // Breadth-first pass computing failure links and the full transition table
+        int stateCount = children.size();
+        this.transitions = new int[stateCount * alphabetSize];
+        this.outputOption = new int[stateCount];
+        this.outputLength = new int[stateCount];
+        this.outputLink = new int[stateCount];
+        int[] fail = new int[stateCount];
+        for (int s = 0; s < stateCount; s++) {
+            outputOption[s] = options.get(s);
+            outputLength[s] = lengths.get(s);
+        }
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int column = 0; column < alphabetSize; column++) {
+            Integer child = children.get(0).get(chars[column]);
+            if (child != null) {
+                transitions[column] = child;
+                queue.add(child);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int failState = fail[state];
+            outputLink[state] = outputOption[failState] != 0 ? failState : outputLink[failState];
+            for (int column = 0; column < alphabetSize; column++) {
+                Integer child = children.get(state).get(chars[column]);
+                int fallback = transitions[failState * alphabetSize + column];
+                if (child != null) {
+                    fail[child] = fallback;
+                    transitions[state * alphabetSize + column] = child;
+                    queue.add(child);
+                } else {
+                    transitions[state * alphabetSize + column] = fallback;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of voting options available
+     */
+    public int getOptionCount() {
+        return optionCount;
+    }
+
+    /**
+     * @return Whether option names and aliases are matched in addition to numbers
+     */
+    public boolean hasKeywords() {
+        return transitions != null;
+    }
+
+    /**
+     * Reports every option voted for in a message: standalone numbers (like {@code \b\d+\b})
+     * and, with keywords, whole-word option names and aliases.
+     *
+     * @param message The chat message
+     * @param listener Receives each matched option number
+     * @return How many options were matched
+     */
+    public int scan(String message, Listener listener) {
+        int matches = 0;
+        int length = message.length();
+        int number = NO_NUMBER;
+        int state = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+
+            // Numbers: accumulate digit runs that start at a word boundary
+            if (isDigit(c)) {
+                if (number == NO_NUMBER) {
+                    number = i > 0 && isWordChar(message.charAt(i - 1)) ? EMBEDDED_NUMBER : 0;
+                }
+                // Stop accumulating once out of range, so long digit runs can't overflow
+                if (number >= 0 && number <= optionCount) {
+                    number = number * 10 + (c - '0');
+                }
+            } else if (number != NO_NUMBER) {
+                if (number >= 1 && number <= optionCount && !isWordChar(c)) {
+                    listener.onOption(number);
+                    matches++;
+                }
+                number = NO_NUMBER;
+            }
+
+            // Keywords: advance the automaton and report whole-word matches ending here
+            if (transitions != null) {
+                int column = columnOf(Character.toLowerCase(c));
+                state = column < 0 ? 0 : transitions[state * alphabetSize + column];
+                for (int s = outputOption[state] != 0 ? state : outputLink[state]; s != 0; s = outputLink[s]) {
+                    if (isWholeWord(message, i - outputLength[s] + 1, i)) {
+                        listener.onOption(outputOption[s]);
+                        matches++;
+                    }
+                }
+            }
+        }
+
+        if (number >= 1 && number <= optionCount) {
+            listener.onOption(number);
+            matches++;
+        }
+        return matches;
+    }
+
+    private int columnOf(char c) {
+        if (c < 128) {
+            return asciiColumns[c];
+        }
+        int index = Arrays.binarySearch(otherChars, c);
+        return index >= 0 ? otherColumns[index] : -1;
+    }
+
+    /**
+     * Checks that a match isn't part of a longer word, like {@code \b} around it.
+     */
+    private static boolean isWholeWord(String message, int start, int end) {
+        boolean startOk = start == 0 || !isWordChar(message.charAt(start)) || !isWordChar(message.charAt(start - 1));
+        boolean endOk = end == message.length() - 1 || !isWordChar(message.charAt(end)) || !isWordChar(message.charAt(end + 1));
+        return startOk && endOk;
+    }
+
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+}
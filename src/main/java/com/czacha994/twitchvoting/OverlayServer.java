@@ -0,0 +1,340 @@
+package com.czacha994.twitchvoting;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serves the live tally to stream overlays (e.g. an OBS browser source) over local HTTP.
+ * {@code /} returns the overlay page and {@code /events} streams Server-Sent Events.
+ *
+ * A single ticker samples the published {@link VoteState} at a fixed frame rate and encodes
+ * only the counts that changed since the previous frame. Every connected client waits on its
+ * own virtual thread for the next frame and is sent that delta, or a full snapshot when it has
+ * just connected or fell behind. The main thread is never involved.
+ */
+public class OverlayServer {
+    private static final long KEEPALIVE_MILLIS = 15_000;
+    private static final byte[] KEEPALIVE = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final TwitchVotingPlugin plugin;
+    private final Supplier<VoteState> source;
+    private final String bindAddress;
+    private final int port;
+    private final int fps;
+    private final AtomicInteger clients = new AtomicInteger();
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private ScheduledExecutorService ticker;
+    private byte[] page;
+    private volatile boolean running = false;
+
+    // Frame state, guarded by frameLock. Clients wait on frameReady; a ReentrantLock is used
+    // instead of a monitor so waiting virtual threads don't pin their carrier threads.
+    private final ReentrantLock frameLock = new ReentrantLock();
+    private final Condition frameReady = frameLock.newCondition();
+    private long frameSeq = 0;
+    private VoteState published = null;
+    private byte[] deltaFrame = null;
+    private long fullSeq = -1;
+    private byte[] fullFrame = null;
+
+    /**
+     * Creates a new overlay server. Call {@link #start()} to open the port.
+     *
+     * @param plugin The plugin instance
+     * @param source Supplies the current vote state, or null when no vote is running
+     * @param config The settings to use for address, port and frame rate
+     */
+    public OverlayServer(TwitchVotingPlugin plugin, Supplier<VoteState> source, VoteConfig config) {
+        this.plugin = plugin;
+        this.source = source;
+        this.bindAddress = config.overlayBind();
+        this.port = config.overlayPort();
+        this.fps = config.overlayFps();
+    }
+
+    /**
+     * Opens the HTTP port and starts producing frames.
+     *
+     * @throws IOException If the port could not be bound
+     */
+    public void start() throws IOException {
+        page = loadPage();
+
+        server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/events", this::handleEvents);
+        server.createContext("/", this::handlePage);
+
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "TwitchVoting-Overlay");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        running = true;
+        server.start();
+        long period = 1000L / fps;
+        ticker.scheduleAtFixedRate(this::produceFrame, period, period, TimeUnit.MILLISECONDS);
+
+        plugin.getLogger().info("Overlay available at http://" + bindAddress + ":" + port + "/ (" + fps + " fps)");
+    }
+
+    /**
+     * Closes all client streams and the HTTP port.
+     */
+    public void stop() {
+        if (!running) return;
+        running = false;
+
+        ticker.shutdownNow();
+        frameLock.lock();
+        try {
+            frameReady.signalAll();
+        } finally {
+            frameLock.unlock();
+        }
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return Whether the server was started with these address, port and frame rate settings
+     */
+    public boolean matches(VoteConfig config) {
+        return bindAddress.equals(config.overlayBind()) && port == config.overlayPort() && fps == config.overlayFps();
+    }
+
+    /**
+     * @return The number of overlay clients currently connected
+     */
+    public int getClientCount() {
+        return clients.get();
+    }
+
+    /**
+     * Loads the overlay page, preferring a customized copy in the plugin's data folder.
+     */
+    private byte[] loadPage() throws IOException {
+        File custom = new File(plugin.getDataFolder(), "overlay.html");
+        if (custom.isFile()) {
+            return Files.readAllBytes(custom.toPath());
+        }
+        try (InputStream in = plugin.getResource("overlay.html")) {
+            if (in == null) throw new IOException("overlay.html is missing from the plugin jar");
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Samples the vote state and publishes a delta frame if anything visible changed.
+     * Runs on the ticker thread.
+     */
+    private void produceFrame() {
+        try {
+            VoteState current = source.get();
+            VoteState previous = published;
+            if (current == previous) return;
+
+            byte[] delta;
+            if (current == null) {
+                delta = event("idle", "{}");
+            } else if (previous == null || previous.session() != current.session()) {
+                // A new vote: clients need the option list, so everyone gets a full frame
+                delta = null;
+            } else {
+                String changes = encodeDelta(previous, current);
+                if (changes == null) {
+                    // Same counts and time, just remember the newer state
+                    frameLock.lock();
+                    try {
+                        published = current;
+                    } finally {
+                        frameLock.unlock();
+                    }
+                    return;
+                }
+                delta = event("delta", changes);
+            }
+
+            frameLock.lock();
+            try {
+                published = current;
+                deltaFrame = delta;
+                frameSeq++;
+                frameReady.signalAll();
+            } finally {
+                frameLock.unlock();
+            }
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the repeating task
+            plugin.getLogger().warning("Overlay frame failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Encodes the counts and time that changed between two states of the same vote.
+     *
+     * @return The delta as JSON, or null if nothing changed
+     */
+    private static String encodeDelta(VoteState previous, VoteState current) {
+        StringBuilder json = new StringBuilder(64).append('{');
+        int[] before = previous.counts();
+        int[] after = current.counts();
+        if (before != after) {
+            boolean first = true;
+            for (int i = 0; i < after.length; i++) {
+                int old = i < before.length ? before[i] : 0;
+                if (after[i] == old) continue;
+                json.append(first ? "\"counts\":{" : ",").append('"').append(i).append("\":").append(after[i]);
+                first = false;
+            }
+            if (!first) json.append("},");
+        }
+        if (current.remainingSeconds() != previous.remainingSeconds()) {
+            json.append("\"remaining\":").append(current.remainingSeconds()).append(',');
+        }
+        if (json.length() == 1) return null;
+
+        json.setLength(json.length() - 1);
+        return json.append('}').toString();
+    }
+
+    /**
+     * Encodes everything an overlay needs to draw a vote from scratch.
+     */
+    private static String encodeFull(VoteState state) {
+        List<String> options = state.options();
+        int[] counts = state.counts();
+        StringBuilder json = new StringBuilder(32 + options.size() * 16);
+        json.append("{\"channel\":");
+        appendString(json, state.session().getChannel());
+        json.append(",\"rolling\":").append(state.isRolling())
+            .append(",\"window\":").append(state.windowSeconds())
+            .append(",\"total\":").append(state.totalSeconds())
+            .append(",\"remaining\":").append(state.remainingSeconds())
+            .append(",\"options\":[");
+        for (int i = 0; i < options.size(); i++) {
+            if (i > 0) json.append(',');
+            appendString(json, options.get(i));
+        }
+        json.append("],\"counts\":[");
+        for (int i = 0; i < options.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append(i < counts.length ? counts[i] : 0);
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Appends a JSON string literal.
+     */
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private static byte[] event(String name, String data) {
+        return ("event: " + name + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return The full snapshot for the current frame, encoding it once per frame however many clients need it
+     */
+    private byte[] currentFullFrame() {
+        if (fullSeq != frameSeq) {
+            fullFrame = published == null ? event("idle", "{}") : event("full", encodeFull(published));
+            fullSeq = frameSeq;
+        }
+        return fullFrame;
+    }
+
+    /**
+     * Serves the overlay page.
+     */
+    private void handlePage(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestURI().getPath().equals("/")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, page.length);
+            exchange.getResponseBody().write(page);
+        }
+    }
+
+    /**
+     * Streams frames to one client until it disconnects or the server stops.
+     * Runs on the client's own virtual thread.
+     */
+    private void handleEvents(HttpExchange exchange) throws IOException {
+        clients.incrementAndGet();
+        try (exchange) {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+
+            long seen = -1;
+            while (running) {
+                byte[] frame;
+                frameLock.lock();
+                try {
+                    if (frameSeq == seen) {
+                        frameReady.await(KEEPALIVE_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                    if (!running) break;
+                    if (frameSeq == seen) {
+                        frame = KEEPALIVE;
+                    } else {
+                        // A client that missed a frame can't apply the next delta, so it gets a snapshot
+                        boolean inSequence = seen >= 0 && frameSeq == seen + 1 && deltaFrame != null;
+                        frame = inSequence ? deltaFrame : currentFullFrame();
+                        seen = frameSeq;
+                    }
+                } finally {
+                    frameLock.unlock();
+                }
+
+                out.write(frame);
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+            // Client went away
+        } finally {
+            clients.decrementAndGet();
+        }
+    }
+}
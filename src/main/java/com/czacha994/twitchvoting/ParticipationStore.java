@@ -0,0 +1,419 @@
+package com.czacha994.twitchvoting;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps how often each Twitch viewer takes part in votes, across restarts, for rewarding regulars.
+ *
+ * Viewers live in a memory-mapped open-addressing hash file keyed by their Twitch user ID, with a
+ * fixed-size record each, so opening it reads nothing but the header and recording a vote touches
+ * only the records of its voters. The file doubles when it gets 70% full: the bigger table is built
+ * in a separate file straight from the old mapping, then copied over the old one, so a server that
+ * stops midway either keeps the old table or finishes the copy on the next start. At the largest
+ * size new viewers are refused instead. The best {@value #TOP_SIZE} viewers by votes taken part in
+ * are kept in an index in the header, which stays exact because counts only grow.
+ *
+ * Only votes with exact ballots can be recorded, the other stores don't know who voted for what.
+ */
+public class ParticipationStore implements AutoCloseable {
+    static final String FILE_NAME = "participation.dat";
+    static final int TOP_SIZE = 100;
+
+    private static final int MAGIC = 0x54565031; // "TVP1"
+    private static final int VERSION = 1;
+    private static final int INITIAL_CAPACITY = 1 << 14;
+    // Largest table a single mapping can hold
+    private static final int MAX_CAPACITY = 1 << 24;
+    private static final int FLAG_RESIZING = 1;
+
+    // Header: magic, version, capacity, size, votes recorded, flags, then the top index as user IDs
+    private static final int HEADER_SIZE = 1024;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_SIZE = 12;
+    private static final int H_VOTES = 16;
+    private static final int H_FLAGS = 20;
+    private static final int H_TOP = 64;
+
+    // Record: user ID (0 = empty), votes, wins, streak, best streak, last vote number, last seen, name
+    private static final int RECORD_SIZE = 64;
+    private static final int R_USER = 0;
+    private static final int R_VOTES = 8;
+    private static final int R_WINS = 12;
+    private static final int R_STREAK = 16;
+    private static final int R_BEST_STREAK = 20;
+    private static final int R_LAST_VOTE = 24;
+    private static final int R_LAST_SEEN = 28;
+    private static final int R_NAME_LENGTH = 36;
+    private static final int R_NAME = 37;
+    private static final int MAX_NAME = RECORD_SIZE - R_NAME;
+
+    private static final int CHUNK_SIZE = 1024;
+
+    private final File file;
+    // Where the bigger table is built while growing
+    private final File resizeFile;
+    private RandomAccessFile raf;
+    private MappedByteBuffer map;
+    private int capacity;
+    private int size;
+    private int votesRecorded;
+    // User IDs of the best viewers, best first
+    private long[] top = new long[0];
+    private boolean closed = false;
+
+    /**
+     * A viewer's participation.
+     *
+     * @param userId The numeric Twitch user ID
+     * @param name The Twitch username they last voted with
+     * @param votes How many votes they took part in
+     * @param wins How many of those they backed a winning option in
+     * @param streak How many votes in a row they took part in, 0 if they missed the last one recorded
+     * @param bestStreak Their longest streak
+     * @param lastSeenMillis When they last took part
+     */
+    public record Viewer(long userId, String name, int votes, int wins, int streak, int bestStreak, long lastSeenMillis) {}
+
+    /**
+     * Opens the store, creating the file if needed. Only the header is read.
+     *
+     * @param folder The plugin's data folder
+     * @throws IOException If the file can't be opened or isn't a participation file
+     */
+    public ParticipationStore(File folder) throws IOException {
+        this.file = new File(folder, FILE_NAME);
+        this.resizeFile = new File(folder, FILE_NAME + ".resize");
+
+        boolean created = !file.exists() || file.length() == 0;
+        raf = new RandomAccessFile(file, "rw");
+        if (created) {
+            capacity = INITIAL_CAPACITY;
+            map(capacity);
+            map.putInt(H_MAGIC, MAGIC);
+            map.putInt(H_VERSION, VERSION);
+            writeHeader();
+            return;
+        }
+
+        if (raf.length() < HEADER_SIZE) throw invalid("too short");
+        map = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (map.getInt(H_MAGIC) != MAGIC || map.getInt(H_VERSION) != VERSION) throw invalid("unknown format");
+        if ((map.getInt(H_FLAGS) & FLAG_RESIZING) != 0) {
+            // The server stopped while the bigger table was copied over, finish the copy
+            finishResize();
+        } else if (resizeFile.exists() && !resizeFile.delete()) {
+            throw new IOException("Could not delete the unfinished " + resizeFile.getName());
+        }
+        capacity = map.getInt(H_CAPACITY);
+        if (Integer.bitCount(capacity) != 1 || capacity > MAX_CAPACITY
+            || raf.length() < HEADER_SIZE + (long) capacity * RECORD_SIZE) throw invalid("bad size");
+        map(capacity);
+        size = map.getInt(H_SIZE);
+        if (size < 0 || size * 10L > capacity * 7L) throw invalid("bad size");
+        votesRecorded = map.getInt(H_VOTES);
+
+        long[] ids = new long[TOP_SIZE];
+        int count = 0;
+        for (int i = 0; i < TOP_SIZE; i++) {
+            long userId = map.getLong(H_TOP + i * Long.BYTES);
+            if (userId == 0) break;
+            ids[count++] = userId;
+        }
+        top = Arrays.copyOf(ids, count);
+    }
+
+    private IOException invalid(String reason) throws IOException {
+        raf.close();
+        return new IOException(file.getName() + " is not a participation file (" + reason + ")");
+    }
+
+    private void map(int capacity) throws IOException {
+        map = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+    }
+
+    private void writeHeader() {
+        writeHeader(map, capacity);
+    }
+
+    private void writeHeader(MappedByteBuffer to, int capacity) {
+        to.putInt(H_MAGIC, MAGIC);
+        to.putInt(H_VERSION, VERSION);
+        to.putInt(H_CAPACITY, capacity);
+        to.putInt(H_SIZE, size);
+        to.putInt(H_VOTES, votesRecorded);
+        to.putInt(H_FLAGS, 0);
+        for (int i = 0; i < TOP_SIZE; i++) {
+            to.putLong(H_TOP + i * Long.BYTES, i < top.length ? top[i] : 0);
+        }
+    }
+
+    /**
+     * Records a finished vote for everyone who voted in it, and writes the file out.
+     * Streams the ballots in chunks, so it can run on an async thread while the ballots are kept.
+     *
+     * @param ballots The vote's ballots
+     * @param winners The winning option numbers, empty if nobody voted
+     * @return How many viewers were updated, 0 once the store is closed
+     * @throws IOException If the file couldn't grow, or is full and some new viewers weren't recorded
+     */
+    public synchronized int recordVote(ExactBallotStore ballots, Set<Integer> winners) throws IOException {
+        if (closed) return 0;
+        int vote = ++votesRecorded;
+        long now = System.currentTimeMillis();
+        long[] userIds = new long[CHUNK_SIZE];
+        String[] userNames = new String[CHUNK_SIZE];
+        long[] choices = new long[CHUNK_SIZE];
+        int[] options = new int[ballots.getOptionCount()];
+
+        int from = 0;
+        int updated = 0;
+        int refused = 0;
+        int read;
+        while ((read = ballots.readChunk(from, userIds, userNames, choices)) > 0) {
+            for (int i = 0; i < read; i++) {
+                // Moved into raid quarantine
+                if (choices[i] == 0) continue;
+                boolean won = false;
+                int count = ballots.decode(userIds[i], choices[i], options);
+                for (int j = 0; j < count && !won; j++) {
+                    won = winners.contains(options[j]);
+                }
+                if (update(userIds[i], userNames[i], vote, won, now)) {
+                    updated++;
+                } else {
+                    refused++;
+                }
+            }
+            from += read;
+        }
+
+        writeHeader();
+        map.force();
+        if (refused > 0) {
+            throw new IOException(file.getName() + " is full, " + refused + " new viewers were not recorded ("
+                    + updated + " were)");
+        }
+        return updated;
+    }
+
+    /**
+     * @return Whether the viewer was updated, false if they are new and the table is full
+     */
+    private boolean update(long userId, String name, int vote, boolean won, long now) throws IOException {
+        int offset = find(userId);
+        if (map.getLong(offset + R_USER) == 0) {
+            if ((size + 1) * 10L > capacity * 7L) {
+                // Kept below 70% full even at the largest size, so probing always reaches an empty record
+                if (capacity >= MAX_CAPACITY) return false;
+                grow();
+                offset = find(userId);
+            }
+            map.putLong(offset + R_USER, userId);
+            size++;
+        }
+
+        int votes = map.getInt(offset + R_VOTES) + 1;
+        int wins = map.getInt(offset + R_WINS) + (won ? 1 : 0);
+        int streak = map.getInt(offset + R_LAST_VOTE) == vote - 1 ? map.getInt(offset + R_STREAK) + 1 : 1;
+        map.putInt(offset + R_VOTES, votes);
+        map.putInt(offset + R_WINS, wins);
+        map.putInt(offset + R_STREAK, streak);
+        map.putInt(offset + R_BEST_STREAK, Math.max(streak, map.getInt(offset + R_BEST_STREAK)));
+        map.putInt(offset + R_LAST_VOTE, vote);
+        map.putLong(offset + R_LAST_SEEN, now);
+        if (name != null) writeName(offset, name);
+
+        offerTop(userId, votes, wins);
+        return true;
+    }
+
+    /**
+     * Finds the viewer's record, or the empty one where it belongs (linear probing).
+     *
+     * @return The record's byte offset
+     */
+    private int find(long userId) {
+        return find(map, capacity, userId);
+    }
+
+    private static int find(MappedByteBuffer table, int capacity, long userId) {
+        int mask = capacity - 1;
+        int slot = (int) HyperLogLog.mix(userId) & mask;
+        // The table is never full, but a damaged file shouldn't hang the server
+        for (int probes = 0; probes < capacity; probes++) {
+            int offset = HEADER_SIZE + slot * RECORD_SIZE;
+            long key = table.getLong(offset + R_USER);
+            if (key == 0 || key == userId) return offset;
+            slot = (slot + 1) & mask;
+        }
+        throw new IllegalStateException(FILE_NAME + " has no empty record left");
+    }
+
+    /**
+     * Doubles the table. The records are rehashed straight from the old mapping into a mapping of
+     * {@link #resizeFile}, which is then copied over the old table; the resizing flag is set
+     * in between, so a start after a crash knows the new table is complete and finishes the copy.
+     */
+    private void grow() throws IOException {
+        int grown = capacity * 2;
+        try (RandomAccessFile out = new RandomAccessFile(resizeFile, "rw")) {
+            out.setLength(0);
+            MappedByteBuffer table = out.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) grown * RECORD_SIZE);
+            for (int slot = 0; slot < capacity; slot++) {
+                int offset = HEADER_SIZE + slot * RECORD_SIZE;
+                long userId = map.getLong(offset + R_USER);
+                if (userId != 0) {
+                    table.put(find(table, grown, userId), map, offset, RECORD_SIZE);
+                }
+            }
+            writeHeader(table, grown);
+            table.force();
+
+            map.putInt(H_FLAGS, FLAG_RESIZING);
+            map.force();
+            copyTable(table, grown);
+        }
+        capacity = grown;
+        // A file still mapped can't be deleted everywhere, the next start deletes it then
+        resizeFile.delete();
+    }
+
+    /**
+     * Copies the finished bigger table in, after the server stopped while it was copied over.
+     */
+    private void finishResize() throws IOException {
+        if (!resizeFile.exists()) throw invalid("resize interrupted and the new table is missing");
+        try (RandomAccessFile in = new RandomAccessFile(resizeFile, "r")) {
+            MappedByteBuffer table = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+            int grown = table.getInt(H_CAPACITY);
+            if (table.getInt(H_MAGIC) != MAGIC || Integer.bitCount(grown) != 1 || grown > MAX_CAPACITY
+                || in.length() < HEADER_SIZE + (long) grown * RECORD_SIZE) throw invalid("bad resize file");
+            copyTable(table, grown);
+        }
+        resizeFile.delete();
+    }
+
+    /**
+     * Copies a table over this one, records first and the header last, so the header only
+     * claims the new capacity once the records are all there.
+     */
+    private void copyTable(MappedByteBuffer table, int capacity) throws IOException {
+        map(capacity);
+        map.put(HEADER_SIZE, table, HEADER_SIZE, capacity * RECORD_SIZE);
+        map.force();
+        map.put(0, table, 0, HEADER_SIZE);
+        map.force();
+    }
+
+    private void writeName(int offset, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_NAME);
+        map.put(offset + R_NAME_LENGTH, (byte) length);
+        map.put(offset + R_NAME, bytes, 0, length);
+    }
+
+    private String readName(int offset) {
+        byte[] bytes = new byte[map.get(offset + R_NAME_LENGTH) & 0xFF];
+        map.get(offset + R_NAME, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Moves a viewer into or up the top index. Usually a single comparison with the last place.
+     */
+    private void offerTop(long userId, int votes, int wins) {
+        int at = -1;
+        for (int i = 0; i < top.length; i++) {
+            if (top[i] == userId) {
+                at = i;
+                break;
+            }
+        }
+        if (at < 0) {
+            if (top.length == TOP_SIZE) {
+                int last = find(top[TOP_SIZE - 1]);
+                if (!ranksAbove(votes, wins, map.getInt(last + R_VOTES), map.getInt(last + R_WINS))) return;
+                at = TOP_SIZE - 1;
+            } else {
+                top = Arrays.copyOf(top, top.length + 1);
+                at = top.length - 1;
+            }
+            top[at] = userId;
+        }
+
+        // Counts only grow, so the viewer can only move up
+        while (at > 0) {
+            int above = find(top[at - 1]);
+            if (!ranksAbove(votes, wins, map.getInt(above + R_VOTES), map.getInt(above + R_WINS))) break;
+            top[at] = top[at - 1];
+            top[at - 1] = userId;
+            at--;
+        }
+    }
+
+    private static boolean ranksAbove(int votes, int wins, int otherVotes, int otherWins) {
+        return votes > otherVotes || (votes == otherVotes && wins > otherWins);
+    }
+
+    /**
+     * @param limit How many viewers to return, at most {@value #TOP_SIZE}
+     * @return The viewers who took part in the most votes, best first
+     */
+    public synchronized List<Viewer> top(int limit) {
+        List<Viewer> viewers = new ArrayList<>();
+        for (int i = 0; i < top.length && i < limit; i++) {
+            viewers.add(read(find(top[i])));
+        }
+        return viewers;
+    }
+
+    /**
+     * @return The viewer's participation, or null if they never took part
+     */
+    public synchronized Viewer get(long userId) {
+        int offset = find(userId);
+        return map.getLong(offset + R_USER) == 0 ? null : read(offset);
+    }
+
+    private Viewer read(int offset) {
+        // A streak is broken once a vote is recorded without them
+        int streak = map.getInt(offset + R_LAST_VOTE) == votesRecorded ? map.getInt(offset + R_STREAK) : 0;
+        return new Viewer(map.getLong(offset + R_USER), readName(offset), map.getInt(offset + R_VOTES),
+                map.getInt(offset + R_WINS), streak, map.getInt(offset + R_BEST_STREAK),
+                map.getLong(offset + R_LAST_SEEN));
+    }
+
+    /**
+     * @return How many viewers are stored
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return How many votes were recorded
+     */
+    public synchronized int getVotesRecorded() {
+        return votesRecorded;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        map.force();
+        raf.close();
+    }
+}
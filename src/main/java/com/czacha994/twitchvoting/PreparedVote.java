@@ -0,0 +1,24 @@
+package com.czacha994.twitchvoting;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A vote whose session is connected to Twitch and ready to open, with the settings it was prepared for.
+ *
+ * @param session The connected session, ignoring chat until opened
+ * @param worldName The world to show the vote in
+ * @param starterUuid The player who started the vote, or null
+ * @param options The voting options
+ * @param seconds The vote duration, or the window for rolling polls
+ * @param rolling Whether this is a rolling poll
+ * @param keywordMode Whether option names typed in chat count
+ * @param approximate Whether counts are estimated with sketches
+ */
+public record PreparedVote(TwitchVoteSession session, String worldName, UUID starterUuid, List<String> options,
+                           int seconds, boolean rolling, boolean keywordMode, boolean approximate) {
+
+    public PreparedVote {
+        options = List.copyOf(options);
+    }
+}
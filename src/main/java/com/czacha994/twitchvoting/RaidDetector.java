@@ -0,0 +1,308 @@
+package com.czacha994.twitchvoting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Spots waves of votes from accounts new to the chat, as when a raid brings in a bot farm that
+ * votes for one option within seconds, and flags or quarantines them.
+ *
+ * Each option keeps two exponentially weighted vote rates, a short one reacting within seconds and a
+ * long one following the usual pace of the vote. An option is in a burst while its short rate is
+ * both above {@code raid.min_rate} and {@code raid.burst_factor} times its long rate. Votes for an
+ * option in a burst from viewers first seen in chat shortly before or during it are suspicious, and
+ * so is every later vote of a viewer once suspicious. Viewers who chatted before the burst are trusted.
+ *
+ * Everything is O(1) per message in fixed memory: rates are per option, and first-seen times are kept
+ * in an open-addressing table of {@value #USER_SLOTS} recent chatters that evicts the oldest on overflow.
+ * In quarantine mode suspicious votes go to their own ballot store, so moderators can add them to the
+ * results or leave them out when the vote ends without recounting. A viewer's earlier ballot follows
+ * them into quarantine where the store keeps ballots; sketches can't forget a viewer, so there a
+ * viewer in both stores is counted once when quarantined votes are included.
+ */
+public class RaidDetector {
+    // Time constants of the short and long vote rates
+    private static final double SHORT_TAU_MILLIS = 2_000;
+    private static final double LONG_TAU_MILLIS = 120_000;
+    // Viewers first seen this long before a burst was detected still belong to it
+    private static final long LOOKBACK_MILLIS = 5_000;
+    private static final int USER_SLOTS = 1 << 16;
+    private static final int PROBES = 8;
+    private static final int SUSPICIOUS = Integer.MIN_VALUE;
+    private static final int MAX_PENDING_BURSTS = 16;
+
+    private final Mode mode;
+    private final double burstFactor;
+    private final double minRate;
+    private final BallotStore quarantine;
+    private volatile boolean includeQuarantined;
+
+    // Guarded by this; index 0 is option 1
+    private long startMillis = System.currentTimeMillis();
+    private final double[] shortRates;
+    private final double[] longRates;
+    private final long[] rateMillis;
+    private final long[] burstStarts;
+    private final int[] suspiciousVotes;
+    private final long[] userKeys = new long[USER_SLOTS];
+    // Tenths of a second since the start when the viewer was first seen, with the sign bit set once suspicious
+    private final int[] userInfo = new int[USER_SLOTS];
+    private long totalSuspicious = 0;
+    private int burstCount = 0;
+    private final List<Burst> pendingBursts = new ArrayList<>();
+
+    /**
+     * What the detector does with suspicious votes.
+     */
+    public enum Mode {
+        /** Not watching for raids */
+        OFF,
+        /** Counting suspicious votes as usual, but reporting them */
+        FLAG,
+        /** Keeping suspicious votes apart until a moderator decides on them */
+        QUARANTINE;
+
+        /**
+         * @return The mode with this name (ignoring case), or OFF if there is none
+         */
+        public static Mode fromName(String name) {
+            if (name != null) {
+                for (Mode mode : values()) {
+                    if (mode.name().equalsIgnoreCase(name.trim())) return mode;
+                }
+            }
+            return OFF;
+        }
+    }
+
+    /**
+     * The start of a suspected raid wave on one option.
+     *
+     * @param option The option number (1-based)
+     * @param startMillis When it was detected
+     * @param votesPerSecond The option's short vote rate when it was detected
+     * @param usualVotesPerSecond The option's long vote rate when it was detected
+     */
+    public record Burst(int option, long startMillis, double votesPerSecond, double usualVotesPerSecond) {}
+
+    /**
+     * Creates a detector for one session.
+     *
+     * @param mode FLAG or QUARANTINE
+     * @param optionCount The number of voting options
+     * @param burstFactor How many times its usual rate an option must get votes at to be in a burst
+     * @param minRate Votes per second an option needs before it can be in a burst
+     * @param quarantine Where suspicious votes go in quarantine mode; the same kind of store as the session's
+     * @param includeQuarantined Whether quarantined votes are counted when the vote ends, until a moderator decides
+     */
+    public RaidDetector(Mode mode, int optionCount, double burstFactor, double minRate, BallotStore quarantine,
+                        boolean includeQuarantined) {
+        this.mode = mode;
+        this.burstFactor = burstFactor;
+        this.minRate = minRate;
+        this.quarantine = quarantine;
+        this.includeQuarantined = includeQuarantined;
+        this.shortRates = new double[optionCount];
+        this.longRates = new double[optionCount];
+        this.rateMillis = new long[optionCount];
+        this.burstStarts = new long[optionCount];
+        this.suspiciousVotes = new int[optionCount];
+        Arrays.fill(burstStarts, -1);
+    }
+
+    /**
+     * Starts the clock rates are corrected with. Called when the vote opens, which for a queued vote
+     * is long after the detector was created, so its opening rush isn't taken for a raid.
+     *
+     * @param nowMillis The current time
+     */
+    public synchronized void start(long nowMillis) {
+        startMillis = nowMillis;
+    }
+
+    /**
+     * Notes a chat message from a viewer, remembering when they were first seen.
+     */
+    public synchronized void observe(long userId) {
+        long now = System.currentTimeMillis();
+        int slot = findSlot(userId);
+        if (userKeys[slot] != userId) {
+            userKeys[slot] = userId;
+            userInfo[slot] = sinceStart(now);
+        }
+    }
+
+    /**
+     * Picks where a vote is recorded, updating the option's rates and burst state.
+     *
+     * @param userId The voter, already passed to {@link #observe}
+     * @param option The voted option number (1-based)
+     * @param ballots The session's ballot store
+     * @return The quarantine store for suspicious votes in quarantine mode, otherwise the session's store
+     */
+    public synchronized BallotStore route(long userId, int option, BallotStore ballots) {
+        long now = System.currentTimeMillis();
+        int index = option - 1;
+        updateRates(index, now);
+        updateBurst(index, now);
+
+        int slot = findSlot(userId);
+        if (userKeys[slot] != userId) {
+            // Evicted since its message was observed, so it is as new as can be
+            userKeys[slot] = userId;
+            userInfo[slot] = sinceStart(now);
+        }
+        int info = userInfo[slot];
+        boolean suspicious = (info & SUSPICIOUS) != 0;
+        if (!suspicious && burstStarts[index] >= 0) {
+            suspicious = info >= sinceStart(burstStarts[index] - LOOKBACK_MILLIS);
+        }
+        if (!suspicious) return ballots;
+
+        if ((info & SUSPICIOUS) == 0 && mode == Mode.QUARANTINE) {
+            // Votes cast before the viewer turned suspicious are held back with the rest
+            ballots.moveBallot(userId, quarantine);
+        }
+        userInfo[slot] = info | SUSPICIOUS;
+        suspiciousVotes[index]++;
+        totalSuspicious++;
+        return mode == Mode.QUARANTINE ? quarantine : ballots;
+    }
+
+    /**
+     * Decays an option's rates to now and adds one vote. The usual rate doesn't learn from a burst,
+     * so a long wave can't make itself look normal.
+     */
+    private void updateRates(int index, long now) {
+        long elapsed = now - rateMillis[index];
+        rateMillis[index] = now;
+        shortRates[index] = shortRates[index] * Math.exp(-elapsed / SHORT_TAU_MILLIS) + 1000 / SHORT_TAU_MILLIS;
+        longRates[index] *= Math.exp(-elapsed / LONG_TAU_MILLIS);
+        if (burstStarts[index] < 0) {
+            longRates[index] += 1000 / LONG_TAU_MILLIS;
+        }
+    }
+
+    /**
+     * Starts or ends an option's burst. Rates are corrected for the time the session has run, so
+     * the rush of votes right after a vote starts matches its own average and isn't a burst; a wave
+     * within the first seconds of a vote can't be told apart from that rush.
+     */
+    private void updateBurst(int index, long now) {
+        double running = Math.max(1, now - startMillis);
+        double shortRate = shortRates[index] / (1 - Math.exp(-running / SHORT_TAU_MILLIS));
+        double longRate = longRates[index] / (1 - Math.exp(-running / LONG_TAU_MILLIS));
+
+        if (burstStarts[index] < 0) {
+            if (shortRate >= minRate && shortRate > burstFactor * longRate) {
+                burstStarts[index] = now;
+                burstCount++;
+                if (pendingBursts.size() < MAX_PENDING_BURSTS) {
+                    pendingBursts.add(new Burst(index + 1, now, shortRate, longRate));
+                }
+            }
+        } else if (shortRate < minRate / 2 || shortRate < burstFactor / 2 * longRate) {
+            // Halfway back to normal, so a wave hovering at the threshold doesn't flap
+            burstStarts[index] = -1;
+        }
+    }
+
+    /**
+     * Finds the viewer's slot, or the slot to put them in: an empty one, or else the one of the
+     * longest known viewer among the probed slots.
+     */
+    private int findSlot(long userId) {
+        long h = userId * 0x9e3779b97f4a7c15L;
+        int start = (int) (h ^ (h >>> 32)) & (USER_SLOTS - 1);
+        int oldest = start;
+        for (int i = 0; i < PROBES; i++) {
+            int slot = (start + i) & (USER_SLOTS - 1);
+            long key = userKeys[slot];
+            if (key == userId || key == 0) return slot;
+            if ((userInfo[slot] & ~SUSPICIOUS) < (userInfo[oldest] & ~SUSPICIOUS)) oldest = slot;
+        }
+        return oldest;
+    }
+
+    private int sinceStart(long millis) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, (millis - startMillis) / 100));
+    }
+
+    /**
+     * @return Bursts detected since the last call, oldest first
+     */
+    public synchronized List<Burst> takeNewBursts() {
+        if (pendingBursts.isEmpty()) return List.of();
+        List<Burst> bursts = List.copyOf(pendingBursts);
+        pendingBursts.clear();
+        return bursts;
+    }
+
+    /**
+     * @return What is done with suspicious votes
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return How many bursts were detected
+     */
+    public synchronized int getBurstCount() {
+        return burstCount;
+    }
+
+    /**
+     * @return How many votes were suspicious, flagged or quarantined
+     */
+    public synchronized long getSuspiciousVotes() {
+        return totalSuspicious;
+    }
+
+    /**
+     * @return Suspicious votes per option, index 0 is option 1
+     */
+    public synchronized int[] suspiciousCounts() {
+        return suspiciousVotes.clone();
+    }
+
+    /**
+     * @return Whether quarantined votes are added to the results when the vote ends
+     */
+    public boolean isIncludeQuarantined() {
+        return includeQuarantined;
+    }
+
+    /**
+     * Decides whether quarantined votes are added to the results when the vote ends.
+     */
+    public void setIncludeQuarantined(boolean includeQuarantined) {
+        this.includeQuarantined = includeQuarantined;
+    }
+
+    /**
+     * @return The store holding the quarantined votes, or null unless in quarantine mode
+     */
+    public BallotStore getQuarantine() {
+        return mode == Mode.QUARANTINE ? quarantine : null;
+    }
+
+    /**
+     * @return The votes kept in quarantine, per option
+     */
+    public int[] quarantinedCounts() {
+        return quarantine != null && mode == Mode.QUARANTINE ? quarantine.counts() : new int[shortRates.length];
+    }
+
+    /**
+     * Applies the moderators' decision to a vote's final counts.
+     *
+     * @param ballots The session's own store
+     * @return The counts with the quarantined votes merged in if they are included, otherwise the store's counts
+     */
+    public int[] finalCounts(BallotStore ballots) {
+        if (mode != Mode.QUARANTINE || !includeQuarantined) return ballots.counts();
+        return ballots.countsWith(quarantine);
+    }
+}
@@ -0,0 +1,89 @@
+package com.czacha994.twitchvoting;
+
+/**
+ * Tally of a vote held on the cluster leader, shown on a follower server.
+ * No ballots are stored here; the counts are replaced by the tally frames the leader sends.
+ */
+public class RemoteBallotStore implements BallotStore {
+    private final boolean exact;
+    private final boolean rolling;
+    private volatile int[] counts;
+    private volatile int voterCount = 0;
+    private volatile double errorBound = 0;
+
+    /**
+     * @param optionCount The number of voting options
+     * @param exact Whether the leader counts exactly
+     * @param rolling Whether the vote is a rolling poll
+     */
+    public RemoteBallotStore(int optionCount, boolean exact, boolean rolling) {
+        this.counts = new int[optionCount];
+        this.exact = exact;
+        this.rolling = rolling;
+    }
+
+    @Override
+    public void vote(long userId, String userName, int option, boolean singleVote) {
+        // Votes are only collected on the leader
+    }
+
+    @Override
+    public int[] counts() {
+        return counts.clone();
+    }
+
+    /**
+     * Replaces all counts with the leader's. Called from the frame handler only.
+     */
+    void setCounts(int[] counts) {
+        this.counts = counts.clone();
+    }
+
+    /**
+     * Applies the counts that changed in a delta frame. Called from the frame handler only.
+     *
+     * @param changed Pairs of option index and new count
+     */
+    void applyChanges(int[] changed) {
+        int[] updated = counts.clone();
+        for (int i = 0; i + 1 < changed.length; i += 2) {
+            if (changed[i] < updated.length) updated[changed[i]] = changed[i + 1];
+        }
+        counts = updated;
+    }
+
+    /**
+     * Takes the leader's accuracy figures, shown with approximate results.
+     */
+    void setAccuracy(int voterCount, double errorBound) {
+        this.voterCount = voterCount;
+        this.errorBound = errorBound;
+    }
+
+    /**
+     * @return Whether the vote is a rolling poll
+     */
+    public boolean isRolling() {
+        return rolling;
+    }
+
+    @Override
+    public int voterCount() {
+        return voterCount;
+    }
+
+    @Override
+    public boolean isExact() {
+        return exact;
+    }
+
+    @Override
+    public double errorBound() {
+        return errorBound;
+    }
+
+    @Override
+    public void clear() {
+        counts = new int[counts.length];
+    }
+}
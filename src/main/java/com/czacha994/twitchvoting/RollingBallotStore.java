@@ -0,0 +1,240 @@
+package com.czacha994.twitchvoting;
+
+import java.util.Arrays;
+
+/**
+ * Sliding-window tally for continuous polls: only votes from the last window count.
+ * The window is a ring of time buckets, each holding per-option counts for its slice of time.
+ * Expiring a bucket subtracts just the options it touched from the totals.
+ *
+ * Each viewer counts at most once per option in the window, so the poll follows how many viewers
+ * want something rather than how often they repeat it. Voting again moves the viewer's vote to the
+ * current bucket, keeping it alive; in single vote mode a viewer has one vote, for their latest choice.
+ * The mode of the poll's first vote holds until it ends, so no viewer is counted both ways.
+ * The last vote of each viewer is kept in a hash table that forgets viewers once their vote has
+ * left the window, so memory follows the number of viewers active in the last window.
+ */
+public class RollingBallotStore implements BallotStore {
+    private static final int BUCKETS = 30;
+    private static final long MIN_BUCKET_MILLIS = 100;
+    private static final int MIN_VOTERS = 1024;
+
+    private final int optionCount;
+    private final long bucketMillis;
+    private final int[] totals;
+    private final int[][] bucketCounts;
+    // Options touched per bucket, so expiry only visits those
+    private final int[][] touched;
+    private final int[] touchedCount;
+    private final boolean[][] listed;
+    private long currentEpoch;
+
+    // Each recent viewer's vote per key (the option, or 0 for their one vote in single vote mode):
+    // the bucket epoch it is counted in and its option, 0 for an empty slot (linear probing)
+    private long[] voterUsers = new long[MIN_VOTERS];
+    private int[] voterKeys = new int[MIN_VOTERS];
+    private long[] voterEpochs = new long[MIN_VOTERS];
+    private int[] voterOptions = new int[MIN_VOTERS];
+    // Slots in use, including viewers whose vote has expired
+    private int voterSlots = 0;
+    // Single vote mode as of the first vote: 1 or 0, -1 before it
+    private int singleVoteMode = -1;
+    private int votesInWindow = 0;
+    private final int[] bucketVotes = new int[BUCKETS];
+
+    /**
+     * @param optionCount The number of voting options available
+     * @param windowSeconds How many recent seconds of votes count
+     */
+    public RollingBallotStore(int optionCount, int windowSeconds) {
+        this.optionCount = optionCount;
+        this.bucketMillis = Math.max(MIN_BUCKET_MILLIS, windowSeconds * 1000L / BUCKETS);
+        this.totals = new int[optionCount];
+        this.bucketCounts = new int[BUCKETS][optionCount];
+        this.touched = new int[BUCKETS][optionCount];
+        this.touchedCount = new int[BUCKETS];
+        this.listed = new boolean[BUCKETS][optionCount];
+        this.currentEpoch = now();
+    }
+
+    @Override
+    public synchronized void vote(long userId, String userName, int option, boolean singleVote) {
+        advance();
+
+        // One vote per viewer and option in the window, so "1 2" counts both but spamming "1" doesn't;
+        // in single vote mode one vote per viewer
+        if (singleVoteMode < 0) singleVoteMode = singleVote ? 1 : 0;
+        int key = singleVoteMode == 1 ? 0 : option;
+        int slot = findVoter(userId, key);
+        if (voterOptions[slot] != 0 && voterUsers[slot] == userId && voterKeys[slot] == key) {
+            // Voted before: the vote moves to now, and to the new choice in single vote mode
+            if (inWindow(voterEpochs[slot])) {
+                remove((int) (voterEpochs[slot] % BUCKETS), voterOptions[slot] - 1);
+            }
+        } else {
+            boolean empty = voterOptions[slot] == 0;
+            voterUsers[slot] = userId;
+            voterKeys[slot] = key;
+            if (empty) voterSlots++;
+        }
+        voterEpochs[slot] = currentEpoch;
+        voterOptions[slot] = option;
+        add((int) (currentEpoch % BUCKETS), option - 1);
+
+        if (voterSlots * 10L > voterUsers.length * 7L) {
+            rehashVoters();
+        }
+    }
+
+    private void add(int bucket, int index) {
+        bucketCounts[bucket][index]++;
+        if (!listed[bucket][index]) {
+            listed[bucket][index] = true;
+            touched[bucket][touchedCount[bucket]++] = index;
+        }
+        totals[index]++;
+        bucketVotes[bucket]++;
+        votesInWindow++;
+    }
+
+    private void remove(int bucket, int index) {
+        // Stays in the bucket's touched list, expiring it subtracts 0 then
+        bucketCounts[bucket][index]--;
+        totals[index]--;
+        bucketVotes[bucket]--;
+        votesInWindow--;
+    }
+
+    /**
+     * @return Whether a vote counted in the bucket of this epoch is still in the window
+     */
+    private boolean inWindow(long epoch) {
+        return epoch > currentEpoch - BUCKETS;
+    }
+
+    /**
+     * Finds the viewer's slot for a key, or else the slot to store it in: the first one whose vote
+     * has expired along the probe sequence, or the empty slot that ends it.
+     */
+    private int findVoter(long userId, int key) {
+        int mask = voterUsers.length - 1;
+        int slot = (int) HyperLogLog.mix(userId * 31 + key) & mask;
+        int expired = -1;
+        // Kept below 70% full, so an empty slot always ends the probing
+        while (voterOptions[slot] != 0) {
+            if (voterUsers[slot] == userId && voterKeys[slot] == key) return slot;
+            if (expired < 0 && !inWindow(voterEpochs[slot])) expired = slot;
+            slot = (slot + 1) & mask;
+        }
+        return expired >= 0 ? expired : slot;
+    }
+
+    /**
+     * Rebuilds the viewer table without the viewers whose vote expired, at a size for the rest.
+     */
+    private void rehashVoters() {
+        long[] users = voterUsers;
+        int[] keys = voterKeys;
+        long[] epochs = voterEpochs;
+        int[] options = voterOptions;
+
+        int live = 0;
+        for (int i = 0; i < users.length; i++) {
+            if (options[i] != 0 && inWindow(epochs[i])) live++;
+        }
+        int capacity = Math.max(MIN_VOTERS, Integer.highestOneBit(Math.max(1, live * 4)));
+        voterUsers = new long[capacity];
+        voterKeys = new int[capacity];
+        voterEpochs = new long[capacity];
+        voterOptions = new int[capacity];
+        voterSlots = live;
+
+        int mask = capacity - 1;
+        for (int i = 0; i < users.length; i++) {
+            if (options[i] == 0 || !inWindow(epochs[i])) continue;
+            int slot = (int) HyperLogLog.mix(users[i] * 31 + keys[i]) & mask;
+            while (voterOptions[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            voterUsers[slot] = users[i];
+            voterKeys[slot] = keys[i];
+            voterEpochs[slot] = epochs[i];
+            voterOptions[slot] = options[i];
+        }
+    }
+
+    /**
+     * Expires every bucket that has fallen out of the window since the last call.
+     */
+    private void advance() {
+        long epoch = now();
+        if (epoch <= currentEpoch) return;
+
+        // After a full window of silence every bucket is stale, no need to step through each one
+        long steps = Math.min(epoch - currentEpoch, BUCKETS);
+        for (long e = epoch - steps + 1; e <= epoch; e++) {
+            expire((int) (e % BUCKETS));
+        }
+        currentEpoch = epoch;
+    }
+
+    private void expire(int bucket) {
+        int[] counts = bucketCounts[bucket];
+        for (int i = 0; i < touchedCount[bucket]; i++) {
+            int index = touched[bucket][i];
+            totals[index] -= counts[index];
+            counts[index] = 0;
+            listed[bucket][index] = false;
+        }
+        touchedCount[bucket] = 0;
+        votesInWindow -= bucketVotes[bucket];
+        bucketVotes[bucket] = 0;
+    }
+
+    private long now() {
+        return System.nanoTime() / 1_000_000L / bucketMillis;
+    }
+
+    @Override
+    public synchronized int[] counts() {
+        advance();
+        return totals.clone();
+    }
+
+    /**
+     * @return The number of votes in the window; viewers count once per option (once in single vote mode)
+     */
+    @Override
+    public synchronized int voterCount() {
+        advance();
+        return votesInWindow;
+    }
+
+    @Override
+    public boolean isExact() {
+        return false;
+    }
+
+    @Override
+    public double errorBound() {
+        return 0;
+    }
+
+    @Override
+    public synchronized void clear() {
+        Arrays.fill(totals, 0);
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            Arrays.fill(bucketCounts[bucket], 0);
+            Arrays.fill(listed[bucket], false);
+        }
+        Arrays.fill(touchedCount, 0);
+        Arrays.fill(bucketVotes, 0);
+        voterUsers = new long[MIN_VOTERS];
+        voterKeys = new int[MIN_VOTERS];
+        voterEpochs = new long[MIN_VOTERS];
+        voterOptions = new int[MIN_VOTERS];
+        voterSlots = 0;
+        singleVoteMode = -1;
+        votesInWindow = 0;
+    }
+}
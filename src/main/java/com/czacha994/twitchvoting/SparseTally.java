@@ -0,0 +1,203 @@
+package com.czacha994.twitchvoting;
+
+import java.util.Arrays;
+
+/**
+ * Per-option vote counts stored sparsely, with the leading options kept up to date incrementally.
+ * Only options that received votes take space, and each change costs O(leaderboard size)
+ * no matter how many options the vote has. Not thread-safe; guarded by the owning store.
+ */
+final class SparseTally {
+    // Options are 1-based, so 0 marks an empty slot
+    private static final int EMPTY = 0;
+
+    private int[] keys = new int[16];
+    private int[] values = new int[16];
+    private int size = 0;
+
+    // Top options by count, highest first, with their counts alongside
+    private final int[] leaders;
+    private final int[] leaderVotes;
+    private int leaderCount = 0;
+    // Set when a leader lost votes and a non-leader might now rank higher
+    private boolean leadersStale = false;
+
+    /**
+     * @param leaderboardSize How many leading options to track
+     */
+    SparseTally(int leaderboardSize) {
+        this.leaders = new int[leaderboardSize];
+        this.leaderVotes = new int[leaderboardSize];
+    }
+
+    /**
+     * Changes an option's count and updates the leaderboard.
+     */
+    void add(int option, int delta) {
+        int slot = slotFor(option);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = option;
+            if (++size > keys.length / 2) {
+                grow();
+                slot = slotFor(option);
+            }
+        }
+        values[slot] += delta;
+        updateLeaders(option, values[slot], delta);
+    }
+
+    /**
+     * @return The option's current count
+     */
+    int get(int option) {
+        int slot = slotFor(option);
+        return keys[slot] == EMPTY ? 0 : values[slot];
+    }
+
+    /**
+     * @return Dense counts where index 0 corresponds to option 1
+     */
+    int[] toArray(int optionCount) {
+        int[] counts = new int[optionCount];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && keys[i] <= optionCount) {
+                counts[keys[i] - 1] = values[i];
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return Up to {@code limit} option numbers with the most votes, highest first
+     */
+    int[] leaders(int limit) {
+        if (leadersStale) {
+            rebuildLeaders();
+        }
+        return Arrays.copyOf(leaders, Math.min(limit, leaderCount));
+    }
+
+    void clear() {
+        keys = new int[16];
+        values = new int[16];
+        size = 0;
+        leaderCount = 0;
+        leadersStale = false;
+    }
+
+    private void updateLeaders(int option, int count, int delta) {
+        int pos = -1;
+        for (int i = 0; i < leaderCount; i++) {
+            if (leaders[i] == option) {
+                pos = i;
+                break;
+            }
+        }
+
+        if (delta > 0) {
+            if (pos < 0) {
+                if (leaderCount < leaders.length) {
+                    pos = leaderCount++;
+                } else if (count > leaderVotes[leaderCount - 1]) {
+                    // Displaces the lowest leader
+                    pos = leaderCount - 1;
+                } else {
+                    return;
+                }
+                leaders[pos] = option;
+            }
+            leaderVotes[pos] = count;
+            while (pos > 0 && leaderVotes[pos - 1] < count) {
+                swapLeaders(pos, pos - 1);
+                pos--;
+            }
+        } else if (pos >= 0) {
+            leaderVotes[pos] = count;
+            while (pos < leaderCount - 1 && leaderVotes[pos + 1] > count) {
+                swapLeaders(pos, pos + 1);
+                pos++;
+            }
+            // An option without votes isn't leading anything
+            if (count <= 0) {
+                leaderCount = pos;
+            }
+            // Options outside the leaderboard aren't tracked, one of them may now rank higher
+            if (pos >= leaderCount - 1 && size > leaderCount) {
+                leadersStale = true;
+            }
+        }
+    }
+
+    private void swapLeaders(int a, int b) {
+        int option = leaders[a];
+        int votes = leaderVotes[a];
+        leaders[a] = leaders[b];
+        leaderVotes[a] = leaderVotes[b];
+        leaders[b] = option;
+        leaderVotes[b] = votes;
+    }
+
+    /**
+     * Recomputes the leaderboard from all counts, only needed after a leader lost votes.
+     */
+    private void rebuildLeaders() {
+        leaderCount = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == EMPTY || values[i] <= 0) continue;
+            int count = values[i];
+            int pos;
+            if (leaderCount < leaders.length) {
+                pos = leaderCount++;
+            } else if (count > leaderVotes[leaderCount - 1]) {
+                pos = leaderCount - 1;
+            } else {
+                continue;
+            }
+            leaders[pos] = keys[i];
+            leaderVotes[pos] = count;
+            while (pos > 0 && leaderVotes[pos - 1] < count) {
+                swapLeaders(pos, pos - 1);
+                pos--;
+            }
+        }
+        leadersStale = false;
+    }
+
+    private int slotFor(int option) {
+        int mask = keys.length - 1;
+        int slot = (int) HyperLogLog.mix(option) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != option) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotFor(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Picks the top options from dense counts, for stores that don't track leaders incrementally.
+     *
+     * @return Up to {@code limit} option numbers with the most votes, highest first
+     */
+    static int[] topOptions(int[] counts, int limit) {
+        SparseTally tally = new SparseTally(limit);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                tally.add(i + 1, counts[i]);
+            }
+        }
+        return tally.leaders(limit);
+    }
+}
@@ -0,0 +1,232 @@
+package com.czacha994.twitchvoting;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A tally frame sent from the cluster leader to its followers.
+ *
+ * A FULL frame carries the whole vote: channel, world, options, times and every count. It is
+ * sent when a vote starts, to followers that just connected, and now and then so a follower that
+ * missed a frame catches up. DELTA frames carry the times and only the counts that changed, as
+ * varint pairs of (gap since the previous changed option, new count), so a busy vote with thousands
+ * of options still sends a few bytes per update. END carries the final counts.
+ *
+ * @param type FULL, DELTA or END
+ * @param voteId Identifies the vote, so frames of an older vote are never applied to a newer one
+ * @param sequence Frame number within the vote; a delta only applies right after the previous frame
+ * @param channel Twitch channel (FULL only)
+ * @param worldName The leader's vote world (FULL only)
+ * @param options The options (FULL only)
+ * @param flags FLAG_* bits (FULL only)
+ * @param totalSeconds The vote duration (FULL only)
+ * @param remainingSeconds Seconds left (FULL and DELTA)
+ * @param elapsedSeconds Seconds since the start (FULL and DELTA)
+ * @param windowSeconds Rolling poll window (FULL only)
+ * @param voterCount Distinct voters, for approximate results (FULL and END)
+ * @param errorBound Relative error of approximate counts (FULL and END)
+ * @param counts All counts (FULL and END)
+ * @param changed Pairs of option index and new count (DELTA only)
+ */
+record TallyFrame(byte type, long voteId, int sequence, String channel, String worldName, List<String> options,
+                  int flags, int totalSeconds, int remainingSeconds, int elapsedSeconds, int windowSeconds,
+                  int voterCount, double errorBound, int[] counts, int[] changed) {
+
+    static final byte FULL = 1;
+    static final byte DELTA = 2;
+    static final byte END = 3;
+
+    static final int FLAG_ROLLING = 1;
+    static final int FLAG_EXACT = 2;
+    static final int FLAG_KEYWORDS = 4;
+    static final int FLAG_SINGLE_VOTE = 8;
+
+    /**
+     * Encodes a full frame of a vote.
+     */
+    static byte[] full(long voteId, int sequence, VoteState state, int flags) {
+        BallotStore ballots = state.session().getBallots();
+        return write(out -> {
+            out.writeByte(FULL);
+            out.writeLong(voteId);
+            out.writeInt(sequence);
+            out.writeUTF(state.session().getChannel());
+            out.writeUTF(state.worldName());
+            writeVarInt(out, flags);
+            writeVarInt(out, state.totalSeconds());
+            writeVarInt(out, state.remainingSeconds());
+            writeVarInt(out, state.elapsedSeconds());
+            writeVarInt(out, state.windowSeconds());
+            writeVarInt(out, ballots.voterCount());
+            out.writeFloat((float) ballots.errorBound());
+            writeVarInt(out, state.options().size());
+            for (String option : state.options()) {
+                out.writeUTF(option);
+            }
+            for (int count : state.counts()) {
+                writeVarInt(out, count);
+            }
+        });
+    }
+
+    /**
+     * Encodes the counts that changed since the previous frame.
+     *
+     * @return The frame, or null when most counts changed and a full frame is as small
+     */
+    static byte[] delta(long voteId, int sequence, VoteState state, int[] previous) {
+        int[] counts = state.counts();
+        int changes = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != previous[i]) changes++;
+        }
+        if (changes > counts.length / 2 && counts.length > 1) return null;
+
+        int changeCount = changes;
+        return write(out -> {
+            out.writeByte(DELTA);
+            out.writeLong(voteId);
+            out.writeInt(sequence);
+            writeVarInt(out, state.remainingSeconds());
+            writeVarInt(out, state.elapsedSeconds());
+            writeVarInt(out, changeCount);
+            int last = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == previous[i]) continue;
+                writeVarInt(out, i - last);
+                writeVarInt(out, counts[i]);
+                last = i;
+            }
+        });
+    }
+
+    /**
+     * Encodes the final counts of a vote.
+     */
+    static byte[] end(long voteId, int sequence, int[] counts, BallotStore ballots) {
+        return write(out -> {
+            out.writeByte(END);
+            out.writeLong(voteId);
+            out.writeInt(sequence);
+            writeVarInt(out, ballots.voterCount());
+            out.writeFloat((float) ballots.errorBound());
+            writeVarInt(out, counts.length);
+            for (int count : counts) {
+                writeVarInt(out, count);
+            }
+        });
+    }
+
+    /**
+     * Decodes a frame.
+     *
+     * @throws IOException If the frame is truncated or of an unknown type
+     */
+    static TallyFrame decode(byte[] frame) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+        byte type = in.readByte();
+        long voteId = in.readLong();
+        int sequence = in.readInt();
+
+        switch (type) {
+            case FULL: {
+                String channel = in.readUTF();
+                String worldName = in.readUTF();
+                int flags = readVarInt(in);
+                int total = readVarInt(in);
+                int remaining = readVarInt(in);
+                int elapsed = readVarInt(in);
+                int window = readVarInt(in);
+                int voters = readVarInt(in);
+                double error = in.readFloat();
+                int optionCount = readCount(in);
+                List<String> options = new ArrayList<>(optionCount);
+                for (int i = 0; i < optionCount; i++) {
+                    options.add(in.readUTF());
+                }
+                int[] counts = readCounts(in, optionCount);
+                return new TallyFrame(type, voteId, sequence, channel, worldName, options, flags, total, remaining,
+                        elapsed, window, voters, error, counts, null);
+            }
+            case DELTA: {
+                int remaining = readVarInt(in);
+                int elapsed = readVarInt(in);
+                int changeCount = readCount(in);
+                int[] changed = new int[changeCount * 2];
+                int index = 0;
+                for (int i = 0; i < changeCount; i++) {
+                    index += readVarInt(in);
+                    changed[2 * i] = index;
+                    changed[2 * i + 1] = readVarInt(in);
+                }
+                return new TallyFrame(type, voteId, sequence, null, null, null, 0, 0, remaining, elapsed, 0,
+                        0, 0, null, changed);
+            }
+            case END: {
+                int voters = readVarInt(in);
+                double error = in.readFloat();
+                int[] counts = readCounts(in, readCount(in));
+                return new TallyFrame(type, voteId, sequence, null, null, null, 0, 0, 0, 0, 0,
+                        voters, error, counts, null);
+            }
+            default:
+                throw new IOException("Unknown frame type " + type);
+        }
+    }
+
+    boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    private interface FrameWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] write(FrameWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            // Writing to memory doesn't fail
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int[] readCounts(DataInputStream in, int optionCount) throws IOException {
+        int[] counts = new int[optionCount];
+        for (int i = 0; i < optionCount; i++) {
+            counts[i] = readVarInt(in);
+        }
+        return counts;
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = readVarInt(in);
+        if (count > ExactBallotStore.MAX_OPTIONS) throw new IOException("Too many options: " + count);
+        return count;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,255 @@
+package com.czacha994.twitchvoting;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Sends tally frames over TCP. The leader listens on cluster.port and followers connect to
+ * cluster.host, proving they belong to the cluster with the shared secret.
+ *
+ * Frames are length prefixed. Each follower has its own small queue and writer thread, so a slow
+ * or stalled follower is disconnected instead of holding up the others; it catches up from the
+ * welcome frame when it reconnects. Followers retry every few seconds while the leader is away.
+ * All connections run on virtual threads.
+ */
+public class TcpClusterTransport implements ClusterTransport {
+    private static final int MAGIC = 0x54565431; // "TVT1"
+    private static final int MAX_FRAME = 16 * 1024 * 1024;
+    private static final int QUEUE_SIZE = 64;
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5_000;
+    private static final long RECONNECT_MILLIS = 5_000;
+    private static final byte[] CLOSE = new byte[0];
+
+    private final TwitchVotingPlugin plugin;
+    private final String host;
+    private final int port;
+    private final String secret;
+
+    private ExecutorService threads;
+    private ServerSocket server;
+    private volatile Socket leaderSocket;
+    private volatile boolean running = false;
+    // Leader side: the connected followers
+    private final List<Follower> followers = new CopyOnWriteArrayList<>();
+
+    private final class Follower {
+        final Socket socket;
+        final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+        Follower(Socket socket) {
+            this.socket = socket;
+        }
+
+        /**
+         * Queues a frame, disconnecting the follower if it is too far behind.
+         */
+        void send(byte[] frame) {
+            if (!queue.offer(frame)) {
+                plugin.getLogger().warning("Cluster follower " + socket.getRemoteSocketAddress() + " is not keeping up, disconnecting");
+                close();
+            }
+        }
+
+        void close() {
+            if (followers.remove(this)) {
+                queue.clear();
+                queue.offer(CLOSE);
+            }
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Creates a TCP transport. Call one of the start methods to connect.
+     *
+     * @param plugin The plugin instance
+     * @param host The leader's address; followers connect to it, the leader listens on it
+     * @param port The leader's port
+     * @param secret Shared by all servers of the cluster
+     */
+    public TcpClusterTransport(TwitchVotingPlugin plugin, String host, int port, String secret) {
+        this.plugin = plugin;
+        this.host = host;
+        this.port = port;
+        this.secret = secret;
+    }
+
+    @Override
+    public void startLeader(Supplier<byte[]> welcome) throws IOException {
+        server = new ServerSocket();
+        try {
+            server.bind(new InetSocketAddress(host, port));
+        } catch (IOException e) {
+            closeQuietly(server);
+            throw e;
+        }
+        threads = Executors.newVirtualThreadPerTaskExecutor();
+        running = true;
+        threads.execute(() -> acceptLoop(welcome));
+        plugin.getLogger().info("Cluster leader listening on " + host + ":" + port);
+    }
+
+    private void acceptLoop(Supplier<byte[]> welcome) {
+        while (running) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                if (running) plugin.getLogger().warning("Cluster leader stopped accepting: " + e.getMessage());
+                return;
+            }
+            threads.execute(() -> serveFollower(socket, welcome));
+        }
+    }
+
+    private void serveFollower(Socket socket, Supplier<byte[]> welcome) {
+        Follower follower = new Follower(socket);
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            if (in.readInt() != MAGIC || !secret.equals(in.readUTF())) {
+                plugin.getLogger().warning("Rejected cluster connection from " + socket.getRemoteSocketAddress());
+                closeQuietly(socket);
+                return;
+            }
+
+            // Queue the welcome before any broadcast can reach this follower, so it never sees a delta first
+            synchronized (followers) {
+                byte[] frame = welcome.get();
+                if (frame != null) follower.queue.offer(frame);
+                followers.add(follower);
+            }
+            plugin.getLogger().info("Cluster follower connected from " + socket.getRemoteSocketAddress());
+
+            // Accepted followers get the magic number back before any frame
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(MAGIC);
+            out.flush();
+            while (running) {
+                byte[] frame = follower.queue.take();
+                if (frame == CLOSE) break;
+                out.writeInt(frame.length);
+                out.write(frame);
+                if (follower.queue.isEmpty()) out.flush();
+            }
+        } catch (IOException e) {
+            plugin.getLogger().info("Cluster follower " + socket.getRemoteSocketAddress() + " disconnected: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            follower.close();
+        }
+    }
+
+    @Override
+    public void broadcast(byte[] frame) {
+        synchronized (followers) {
+            for (Follower follower : followers) {
+                follower.send(frame);
+            }
+        }
+    }
+
+    @Override
+    public void startFollower(Consumer<byte[]> receiver) {
+        threads = Executors.newVirtualThreadPerTaskExecutor();
+        running = true;
+        threads.execute(() -> followLoop(receiver));
+    }
+
+    private void followLoop(Consumer<byte[]> receiver) {
+        boolean reported = false;
+        while (running) {
+            try (Socket socket = new Socket()) {
+                leaderSocket = socket;
+                socket.connect(new InetSocketAddress(host, port), HANDSHAKE_TIMEOUT_MILLIS);
+                socket.setTcpNoDelay(true);
+                socket.setKeepAlive(true);
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                out.writeInt(MAGIC);
+                out.writeUTF(secret);
+                out.flush();
+
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+                if (in.readInt() != MAGIC) throw new IOException("Not a vote cluster leader");
+                socket.setSoTimeout(0);
+                plugin.getLogger().info("Connected to cluster leader at " + host + ":" + port);
+                reported = false;
+                while (running) {
+                    int length = in.readInt();
+                    if (length < 0 || length > MAX_FRAME) throw new IOException("Invalid frame length " + length);
+                    byte[] frame = new byte[length];
+                    in.readFully(frame);
+                    receiver.accept(frame);
+                }
+            } catch (IOException e) {
+                // Only the first failure of an outage is logged
+                if (running && !reported) {
+                    String reason = e.getMessage() != null ? e.getMessage() : "connection closed, check cluster.secret";
+                    plugin.getLogger().warning("Lost cluster leader at " + host + ":" + port + ": " + reason +
+                                               " (retrying every " + RECONNECT_MILLIS / 1000 + " seconds)");
+                    reported = true;
+                }
+            } finally {
+                leaderSocket = null;
+            }
+
+            try {
+                Thread.sleep(RECONNECT_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int getConnectionCount() {
+        if (server != null) return followers.size();
+        Socket socket = leaderSocket;
+        return socket != null && socket.isConnected() ? 1 : 0;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+
+        if (server != null) closeQuietly(server);
+        Socket socket = leaderSocket;
+        if (socket != null) closeQuietly(socket);
+        for (Follower follower : followers) {
+            follower.close();
+        }
+        threads.shutdownNow();
+        try {
+            threads.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Already closed
+        }
+    }
+}
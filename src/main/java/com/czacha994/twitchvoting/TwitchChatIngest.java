@@ -0,0 +1,136 @@
+package com.czacha994.twitchvoting;
+
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.twitch4j.chat.TwitchChat;
+import com.github.twitch4j.chat.TwitchChatBuilder;
+import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.client.websocket.domain.WebsocketConnectionState;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads Twitch chat anonymously with Twitch4J's chat module. The only class that uses Twitch4J.
+ *
+ * Twitch4J is loaded the first time a connection is created, or earlier on an async thread by
+ * {@link #prewarm} when twitch.prewarm is on. Each connection runs on its own named thread pool that
+ * is shut down when it closes, so no Twitch threads are left while no vote runs.
+ */
+public class TwitchChatIngest implements ChatIngest {
+    private static final String THREAD_PREFIX = "TwitchVoting-chat-";
+    // Twitch4J's chat needs a thread for its queue and one for reconnects
+    private static final int THREADS = 2;
+
+    private static final AtomicInteger connections = new AtomicInteger();
+    private static final AtomicInteger liveThreads = new AtomicInteger();
+    // How long loading Twitch4J took and about how many classes it loaded, -1 until it was loaded
+    private static volatile long loadNanos = -1;
+    private static volatile long loadedClasses = -1;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final TwitchChat chat;
+
+    /**
+     * Connects to Twitch chat anonymously. Blocks, so it should run on an async thread.
+     *
+     * @param listener Receives the messages of the joined channels, on Twitch4J's threads
+     */
+    public TwitchChatIngest(Listener listener) {
+        prewarm();
+
+        int number = connections.incrementAndGet();
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(THREADS, task -> {
+            Thread thread = new Thread(() -> {
+                try {
+                    task.run();
+                } finally {
+                    liveThreads.decrementAndGet();
+                }
+            }, THREAD_PREFIX + number + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            liveThreads.incrementAndGet();
+            return thread;
+        });
+        // No account means anonymous (justinfan)
+        chat = TwitchChatBuilder.builder()
+                .withScheduledThreadPoolExecutor(executor)
+                .build();
+        // Passes on the strings the event already holds, nothing is allocated per message here
+        chat.getEventManager().onEvent(ChannelMessageEvent.class, event -> listener.onMessage(
+                event.getMessageEvent().getRawTagString("id"),
+                event.getChannel().getName(),
+                event.getUser().getId(),
+                event.getUser().getName(),
+                event.getMessage()));
+    }
+
+    /**
+     * Loads and initializes Twitch4J's main chat classes, once. Safe to call from any thread.
+     */
+    static synchronized void prewarm() {
+        if (loadNanos >= 0) return;
+
+        long start = System.nanoTime();
+        long classesBefore = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+        ClassLoader loader = TwitchChatIngest.class.getClassLoader();
+        for (Class<?> type : new Class<?>[] {TwitchChatBuilder.class, TwitchChat.class, EventManager.class,
+                ChannelMessageEvent.class, IRCMessageEvent.class, WebsocketConnectionState.class}) {
+            try {
+                Class.forName(type.getName(), true, loader);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Twitch4J is missing from the plugin jar", e);
+            }
+        }
+        // Other plugins may load classes meanwhile, so the count is approximate
+        loadedClasses = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount() - classesBefore;
+        loadNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * @return How long loading Twitch4J took, or -1 if it isn't loaded yet
+     */
+    static long getLoadNanos() {
+        return loadNanos;
+    }
+
+    /**
+     * @return About how many classes loading Twitch4J loaded, or -1 if it isn't loaded yet
+     */
+    static long getLoadedClasses() {
+        return loadedClasses;
+    }
+
+    /**
+     * @return How many threads of chat connections are alive
+     */
+    static int countThreads() {
+        return liveThreads.get();
+    }
+
+    @Override
+    public void join(String channel) {
+        chat.joinChannel(channel);
+    }
+
+    @Override
+    public void leave(String channel) {
+        chat.leaveChannel(channel);
+    }
+
+    @Override
+    public boolean isConnected() {
+        return chat.getConnection().getConnectionState() == WebsocketConnectionState.CONNECTED;
+    }
+
+    @Override
+    public void close() {
+        try {
+            chat.close();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,31 +1,31 @@
 package com.czacha994.twitchvoting;
 
-import com.github.twitch4j.TwitchClient;
-import com.github.twitch4j.TwitchClientBuilder;
-import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Manages a Twitch chat voting session, connecting to a specified channel
- * and collecting votes from chat messages.
+ * and collecting votes from chat messages. Chat is read through a {@link ChatIngest}, so the
+ * Twitch client is only loaded once a session starts.
  */
 public class TwitchVoteSession {
+    // Chat messages remembered for spotting duplicates, per generation of the deduplicator
+    private static final int DEDUP_CAPACITY = 4096;
+
     private final JavaPlugin plugin;
     private final String channel;
-    private final int optionCount;
-    private TwitchClient twitchClient;
-    private final ConcurrentHashMap<String, Set<Integer>> votes = new ConcurrentHashMap<>();
+    private final OptionMatcher matcher;
+    private ChatIngest chat;
+    private final BallotStore ballots;
+    private final RaidDetector raids;
     private final AtomicBoolean running = new AtomicBoolean(false);
-    private final Pattern numberPattern = Pattern.compile("\\b\\d+\\b");
+    private volatile boolean open = false;
     private final ReentrantReadWriteLock clientLock = new ReentrantReadWriteLock();
+    private final MessageDeduplicator seenMessages = new MessageDeduplicator(DEDUP_CAPACITY);
+    private final ChatConnectionTracker connection = new ChatConnectionTracker();
+    private final VoteSink sink = new VoteSink();
 
     /**
      * Creates a new Twitch voting session.
@@ -35,49 +35,84 @@ public class TwitchVoteSession {
      * @param optionCount The number of voting options available
      */
     public TwitchVoteSession(JavaPlugin plugin, String channel, int optionCount) {
+        this(plugin, channel, optionCount, false);
+    }
+
+    /**
+     * Creates a new Twitch voting session.
+     *
+     * @param plugin The JavaPlugin instance
+     * @param channel The Twitch channel to connect to
+     * @param optionCount The number of voting options available
+     * @param approximate Whether to estimate counts with fixed-size sketches instead of storing every ballot
+     */
+    public TwitchVoteSession(JavaPlugin plugin, String channel, int optionCount, boolean approximate) {
+        this(plugin, channel, OptionMatcher.numeric(optionCount), approximate);
+    }
+
+    /**
+     * Creates a new Twitch voting session.
+     *
+     * @param plugin The JavaPlugin instance
+     * @param channel The Twitch channel to connect to
+     * @param matcher Recognizes the options voted for in each chat message
+     * @param approximate Whether to estimate counts with fixed-size sketches instead of storing every ballot
+     */
+    public TwitchVoteSession(JavaPlugin plugin, String channel, OptionMatcher matcher, boolean approximate) {
+        this(plugin, channel, matcher, approximate
+                ? new ApproximateBallotStore(matcher.getOptionCount())
+                : new ExactBallotStore(matcher.getOptionCount()));
+    }
+
+    /**
+     * Creates a new Twitch voting session.
+     *
+     * @param plugin The JavaPlugin instance
+     * @param channel The Twitch channel to connect to
+     * @param matcher Recognizes the options voted for in each chat message
+     * @param ballots Where votes are recorded
+     */
+    public TwitchVoteSession(JavaPlugin plugin, String channel, OptionMatcher matcher, BallotStore ballots) {
+        this(plugin, channel, matcher, ballots, null);
+    }
+
+    /**
+     * Creates a new Twitch voting session.
+     *
+     * @param plugin The JavaPlugin instance
+     * @param channel The Twitch channel to connect to
+     * @param matcher Recognizes the options voted for in each chat message
+     * @param ballots Where votes are recorded
+     * @param raids Watches for raid waves and routes their votes, or null to count every vote as usual
+     */
+    public TwitchVoteSession(JavaPlugin plugin, String channel, OptionMatcher matcher, BallotStore ballots,
+                             RaidDetector raids) {
         this.plugin = plugin;
         this.channel = channel.toLowerCase();
-        this.optionCount = optionCount;
+        this.matcher = matcher;
+        this.ballots = ballots;
+        this.raids = raids;
     }
 
     /**
-     * Starts the Twitch chat connection and begins listening for votes.
+     * Starts the Twitch chat connection. Votes are counted once the session is {@link #open() opened}.
      * Should be called from an async thread.
      */
     public void start() {
         if (running.getAndSet(true)) return;
 
+        VoteEvents.SessionStart connect = new VoteEvents.SessionStart();
+        boolean connected = false;
         clientLock.writeLock().lock();
         try {
-            this.twitchClient = TwitchClientBuilder.builder()
-                    .withEnableChat(true)
-                    .withChatAccount(null) // null = anonymous (justinfan)
-                    .build();
-
-            twitchClient.getEventManager().onEvent(ChannelMessageEvent.class, event -> {
-                if (!event.getChannel().getName().equalsIgnoreCase(channel)) return;
-
-                String user = event.getUser().getName().toLowerCase();
-                Set<Integer> userVotes = votes.computeIfAbsent(user, k -> new CopyOnWriteArraySet<>());
-
-                Matcher matcher = numberPattern.matcher(event.getMessage());
-                while (matcher.find()) {
-                    try {
-                        int num = Integer.parseInt(matcher.group());
-                        if (num >= 1 && num <= optionCount) {
-                            // In single vote mode, clear previous votes before adding the new one
-                            if (plugin instanceof TwitchVotingPlugin &&
-                                ((TwitchVotingPlugin) plugin).isSingleVoteMode()) {
-                                userVotes.clear();
-                            }
-                            userVotes.add(num);
-                        }
-                    } catch (NumberFormatException ignored) {}
-                }
-            });
+            this.chat = plugin instanceof TwitchVotingPlugin votingPlugin
+                    ? votingPlugin.getChatIngestFactory().connect(this::onMessage)
+                    : new TwitchChatIngest(this::onMessage);
 
+            connect.begin();
             try {
-                twitchClient.getChat().joinChannel(channel);
+                chat.join(channel);
+                connected = true;
                 plugin.getLogger().info("Connected to Twitch channel: " + channel);
             } catch (Exception e) {
                 plugin.getLogger().severe("Failed to join Twitch channel: " + channel);
@@ -86,6 +121,98 @@ public class TwitchVoteSession {
         } finally {
             clientLock.writeLock().unlock();
         }
+
+        if (connect.shouldCommit()) {
+            connect.channel = channel;
+            connect.options = matcher.getOptionCount();
+            connect.connected = connected;
+            connect.commit();
+        }
+    }
+
+    /**
+     * Counts the votes in a chat message. Runs on the chat client's threads.
+     */
+    private void onMessage(String id, String messageChannel, String userIdTag, String userName, String text) {
+        // Compared without lowercasing, which would copy the name for every message
+        if (!open || !messageChannel.equalsIgnoreCase(channel)) return;
+        // Twitch4J can deliver a message again around a reconnect
+        if (!seenMessages.firstSeen(id)) {
+            connection.duplicateDropped();
+            return;
+        }
+
+        VoteEvents.MessageParsed parsed = new VoteEvents.MessageParsed();
+        parsed.begin();
+        long userId = userIdOf(userIdTag, userName);
+        if (raids != null) raids.observe(userId);
+        int votes;
+        synchronized (sink) {
+            sink.userId = userId;
+            sink.userName = userName;
+            sink.singleVote = plugin instanceof TwitchVotingPlugin &&
+                    ((TwitchVotingPlugin) plugin).isSingleVoteMode();
+            votes = matcher.scan(text, sink);
+            sink.userName = null;
+        }
+        if (parsed.shouldCommit()) {
+            parsed.channel = channel;
+            parsed.messageLength = text.length();
+            parsed.votes = votes;
+            parsed.commit();
+        }
+    }
+
+    /**
+     * Records the options matched in one message for its sender. One per session and reused for
+     * every message, so counting votes allocates nothing; locked while a message is scanned.
+     */
+    private final class VoteSink implements OptionMatcher.Listener {
+        private long userId;
+        private String userName;
+        private boolean singleVote;
+
+        @Override
+        public void onOption(int option) {
+            BallotStore store = raids != null ? raids.route(userId, option, ballots) : ballots;
+            store.vote(userId, userName, option, singleVote);
+            connection.voteCounted();
+        }
+    }
+
+    /**
+     * Starts counting votes. Chat sent between {@link #start()} and this is ignored, so a queued vote
+     * can join its channel while the previous vote still runs.
+     */
+    public void open() {
+        // The opening rush is measured from now, not from when the session connected
+        if (raids != null) raids.start(System.currentTimeMillis());
+        open = true;
+    }
+
+    /**
+     * Resolves the numeric Twitch user ID, which stays stable when viewers rename.
+     * Falls back to a hash of the lowercased name if the message carried no ID tag.
+     *
+     * @param id The user ID tag, or null
+     * @param name The username
+     */
+    static long userIdOf(String id, String name) {
+        if (id != null) {
+            try {
+                long parsed = Long.parseLong(id);
+                if (parsed > 0) return parsed;
+            } catch (NumberFormatException ignored) {}
+        }
+
+        // Synthetic IDs are negative so they never collide with real ones, and never 0
+        String lowercased = name.toLowerCase();
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < lowercased.length(); i++) {
+            h ^= lowercased.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h | Long.MIN_VALUE;
     }
 
     /**
@@ -95,13 +222,15 @@ public class TwitchVoteSession {
     public void stop() {
         if (!running.getAndSet(false)) return;
 
+        VoteEvents.SessionStop disconnect = new VoteEvents.SessionStop();
+        disconnect.begin();
         clientLock.writeLock().lock();
         try {
-            if (twitchClient != null) {
+            if (chat != null) {
                 try {
                     // First attempt to leave channel
                     try {
-                        twitchClient.getChat().leaveChannel(channel);
+                        chat.leave(channel);
                     } catch (Exception e) {
                         plugin.getLogger().warning("Error leaving Twitch channel: " + e.getMessage());
                         // Continue with cleanup even if leaving fails
@@ -109,7 +238,7 @@ public class TwitchVoteSession {
 
                     // Then close the client
                     try {
-                        twitchClient.close();
+                        chat.close();
                     } catch (Exception e) {
                         plugin.getLogger().severe("Error closing Twitch client: " + e.getMessage());
                         // Continue with cleanup even if close fails
@@ -118,7 +247,7 @@ public class TwitchVoteSession {
                     plugin.getLogger().info("Disconnected from Twitch channel: " + channel);
                 } finally {
                     // Ensure client is nulled out even if exceptions occur
-                    twitchClient = null;
+                    chat = null;
                 }
             }
         } finally {
@@ -126,42 +255,82 @@ public class TwitchVoteSession {
             clientLock.writeLock().unlock();
         }
 
-        // Clear votes after connection is closed
-        clearVotes();
+        if (disconnect.shouldCommit()) {
+            disconnect.channel = channel;
+            disconnect.voters = ballots.voterCount();
+            disconnect.commit();
+        }
+
+        // Ballots are kept after the connection closes so the finished vote can be exported;
+        // they are released together with the session
+    }
+
+    /**
+     * Samples the chat connection's state for outage tracking. Thread-safe; called on every tally
+     * refresh. Does nothing before the session starts or after it stops.
+     */
+    public void checkConnection() {
+        if (!running.get()) return;
+
+        clientLock.readLock().lock();
+        try {
+            if (chat == null) return;
+            connection.update(chat.isConnected());
+        } finally {
+            clientLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The history of this session's chat connection
+     */
+    public ChatConnectionTracker getConnection() {
+        return connection;
+    }
+
+    /**
+     * @return The session's raid detector, or null if it doesn't watch for raids
+     */
+    public RaidDetector getRaidDetector() {
+        return raids;
+    }
+
+    /**
+     * @return The lowercased Twitch channel this session listens to
+     */
+    public String getChannel() {
+        return channel;
     }
 
     /**
-     * @return The current votes map (username → set of voted option numbers)
+     * @return The ballot storage backing this session
      */
-    public ConcurrentHashMap<String, Set<Integer>> getVotes() {
-        return votes;
+    public BallotStore getBallots() {
+        return ballots;
     }
 
     /**
      * Clears all recorded votes.
      */
     public void clearVotes() {
-        votes.clear();
+        ballots.clear();
     }
 
     /**
      * Calculates the current vote count for each option.
+     * In approximate mode these are estimated unique voters per option.
      *
      * @return An array of vote counts where index 0 corresponds to option 1
      */
     public int[] getVoteCounts() {
-        int[] counts = new int[optionCount];
-
-        // Thread-safe read of votes
-        for (Set<Integer> userVotes : votes.values()) {
-            for (int num : userVotes) {
-                if (num >= 1 && num <= optionCount) {
-                    counts[num - 1]++;
-                }
-            }
-        }
+        return ballots.counts();
+    }
 
-        return counts;
+    /**
+     * @return Whether this session estimates counts instead of storing every ballot
+     */
+    public boolean isApproximate() {
+        return !ballots.isExact();
     }
 
     /**
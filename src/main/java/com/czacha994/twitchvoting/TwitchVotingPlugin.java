@@ -1,5 +1,10 @@
 package com.czacha994.twitchvoting;
 
+import com.czacha994.twitchvoting.api.TwitchVotingApi;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.command.BlockCommandSender;
@@ -12,18 +17,88 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Main plugin class for TwitchVoting, handles configuration and initialization.
  */
 public class TwitchVotingPlugin extends JavaPlugin implements Listener {
     private VoteCommandExecutor voteExecutor;
+    // What votes cost the server, and the scheduler that measures most of it
+    private final VoteMetrics voteMetrics = new VoteMetrics(this);
+    // Runs tasks on the Bukkit scheduler, or on Folia's region schedulers
+    private final VoteScheduler voteScheduler = new VoteScheduler(this, voteMetrics);
+    // Wait this long after the last setting change before writing config.yml (2 seconds)
+    private static final long CONFIG_SAVE_DELAY_TICKS = 40L;
+
     private VoteScoreboard voteScoreboard;
-    private boolean useScoreboard = true; // Default value
-    private boolean singleVoteMode = false; // Default value
+    private VoteBarDisplay voteBarDisplay;
+    private DisplayPreferences displayPreferences;
+    private OverlayServer overlayServer;
+    private VoteCluster voteCluster;
+    // The settings the running cluster was started with
+    private VoteConfig clusterConfig;
+    private VoteMapChart voteMapChart;
+    private VotingService votingService;
+    private WinnerActionRunner winnerActionRunner;
+    private volatile ParticipationStore participationStore;
+    // How vote sessions connect to chat. A lambda, not TwitchChatIngest::new, so Twitch4J still loads
+    // only when a vote connects
+    private volatile ChatIngest.Factory chatIngestFactory = listener -> new TwitchChatIngest(listener);
+    // Compiled settings, replaced as a whole on reload or toggle
+    private volatile VoteConfig voteConfig;
+    // Compiled message templates, replaced as a whole on reload
+    private volatile Messages messages;
+    private VoteScheduler.Task pendingConfigSave = null;
+    // Settings from config.yml, replaced as a whole on reload
+    private FileConfiguration config;
+    // How long onEnable took
+    private long enableNanos = 0;
+    // Counts setting changes made in game, so a reload doesn't overwrite one made while it reads the file
+    private int configEdits = 0;
+    // Guards config.yml and the edit count of the contents it last got
+    private final Object configFileLock = new Object();
+    private int writtenConfigEdits = -1;
+
+    /**
+     * Settings read from config.yml and compiled, not yet in use.
+     *
+     * @param file The settings as read, with missing defaults added
+     * @param defaultsAdded Whether defaults were added, so config.yml should be written
+     * @param config The compiled settings
+     * @param messages The compiled messages
+     */
+    private record LoadedConfig(FileConfiguration file, boolean defaultsAdded, VoteConfig config, Messages messages) {}
+
+    /**
+     * The contents of config.yml to write, serialized on the main thread.
+     *
+     * @param yaml The serialized settings
+     * @param edits How many in-game edits they include, so an older write never replaces a newer one
+     */
+    private record ConfigSnapshot(String yaml, int edits) {}
+
+    /**
+     * The outcome of {@link #reloadConfigAsync}.
+     *
+     * @param error Why config.yml couldn't be loaded, or null if it is in use now
+     * @param loadNanos Time spent reading and compiling config.yml off the main thread
+     * @param swapNanos Time the main thread spent putting it in place
+     * @param notes Settings that only take effect later
+     */
+    public record ReloadResult(String error, long loadNanos, long swapNanos, List<String> notes) {}
 
     @Override
     public void onEnable() {
+        long enableStart = System.nanoTime();
+
         // Create config.yml with defaults if it doesn't exist
         try {
             if (!getDataFolder().exists()) {
@@ -35,29 +110,31 @@ public class TwitchVotingPlugin extends JavaPlugin implements Listener {
                 saveDefaultConfig();
                 getLogger().info("Created default config.yml");
             }
+
+            // An example for /vote queue play, written once
+            if (!new File(getDataFolder(), VoteQueue.FOLDER).exists()) {
+                saveResource(VoteQueue.FOLDER + "/example.yml", false);
+            }
         } catch (Exception e) {
             getLogger().severe("Failed to create config file: " + e.getMessage());
         }
 
-        // Load configuration
+        // Load, validate and compile the configuration
         reloadConfig();
 
-        // Validate and apply defaults if needed
-        validateConfig();
-
-        // Load display mode from config
-        useScoreboard = getConfig().getBoolean("display.use_scoreboard", true);
-
-        // Load single vote mode from config
-        singleVoteMode = getConfig().getBoolean("voting.single_vote_mode", false);
-
         // Initialize scoreboard manager
         this.voteScoreboard = new VoteScoreboard(this);
+        this.voteBarDisplay = new VoteBarDisplay(this);
+        this.displayPreferences = new DisplayPreferences(this);
+        // Read preferences now, so the first players to join don't wait for the file
+        this.displayPreferences.load();
+        this.winnerActionRunner = new WinnerActionRunner(this);
 
         // Register the /vote command
         PluginCommand voteCommand = this.getCommand("vote");
         if (voteCommand != null) {
             this.voteExecutor = new VoteCommandExecutor(this);
+            this.votingService = new VotingService(this, voteExecutor);
             voteCommand.setExecutor(this.voteExecutor);
         } else {
             getLogger().severe("Failed to register /vote command!");
@@ -68,7 +145,25 @@ public class TwitchVotingPlugin extends JavaPlugin implements Listener {
         // Register event listeners
         getServer().getPluginManager().registerEvents(this, this);
 
-        getLogger().info("TwitchVoting enabled.");
+        // Let other plugins start, stop and follow votes
+        getServer().getServicesManager().register(TwitchVotingApi.class, votingService, this, ServicePriority.Normal);
+
+        // Start the stream overlay server if enabled
+        updateOverlayServer();
+        updateCluster();
+        updateParticipationStore();
+
+        // Draw the chart on the saved map wall, if one was created
+        this.voteMapChart = new VoteMapChart(this, voteExecutor::getVoteState);
+        voteMapChart.restoreWall();
+
+        // The Twitch client otherwise loads with the first vote
+        if (voteConfig.twitchPrewarm()) {
+            voteScheduler.runAsync(TwitchChatIngest::prewarm);
+        }
+
+        enableNanos = System.nanoTime() - enableStart;
+        getLogger().info(String.format("TwitchVoting enabled in %.1f ms.", enableNanos / 1e6));
     }
 
     // Event handlers for player tracking
@@ -78,6 +173,9 @@ public class TwitchVotingPlugin extends JavaPlugin implements Listener {
         if (voteScoreboard != null) {
             voteScoreboard.hideScoreboard(event.getPlayer());
         }
+        if (voteBarDisplay != null) {
+            voteBarDisplay.hide(event.getPlayer());
+        }
     }
 
     @EventHandler
@@ -90,6 +188,7 @@ public class TwitchVotingPlugin extends JavaPlugin implements Listener {
             // If the player is leaving the vote world, hide scoreboard
             if (voteWorld != null && event.getFrom().getName().equals(voteWorld)) {
                 voteScoreboard.hideScoreboard(player);
+                voteBarDisplay.hide(player);
             }
             // If the player is entering the vote world, show scoreboard
             else if (voteWorld != null && player.getWorld().getName().equals(voteWorld)) {
@@ -100,28 +199,61 @@ public class TwitchVotingPlugin extends JavaPlugin implements Listener {
 
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
-        // Show scoreboard to newly joined players if vote is active in their world
-        if (voteExecutor != null && voteExecutor.isVoteActive()) {
-            Player player = event.getPlayer();
+        // Show scoreboard to newly joined players if vote is active in their world,
+        // once their display preference is known
+        Player player = event.getPlayer();
+        displayPreferences.whenLoaded(() -> {
+            if (voteExecutor == null || !voteExecutor.isVoteActive() || !player.isOnline()) return;
             String voteWorld = voteExecutor.getVoteWorldName();
 
             if (voteWorld != null && player.getWorld().getName().equals(voteWorld)) {
                 voteExecutor.showScoreboardToPlayer(player);
             }
-        }
+        });
     }
 
     @Override
     public void onDisable() {
+        // Write any pending setting changes before the scheduler goes away
+        flushConfigSave();
+
+        getServer().getServicesManager().unregisterAll(this);
+        if (this.winnerActionRunner != null) {
+            this.winnerActionRunner.cancel();
+        }
+
+        if (this.overlayServer != null) {
+            this.overlayServer.stop();
+            this.overlayServer = null;
+        }
+        if (this.voteCluster != null) {
+            this.voteCluster.stop();
+            this.voteCluster = null;
+        }
+        if (this.voteMapChart != null) {
+            this.voteMapChart.detach();
+        }
+
         // Shutdown logic: Stop any active vote and clean up resources
         if (this.voteExecutor != null) {
             this.voteExecutor.shutdown();
         }
 
-        // Hide all scoreboards
+        // Hide all scoreboards and bars
         if (this.voteScoreboard != null) {
             this.voteScoreboard.hideAllScoreboards();
         }
+        if (this.voteBarDisplay != null) {
+            this.voteBarDisplay.hide();
+        }
+
+        // Waits for a vote still being recorded
+        closeParticipationStore();
+
+        // Write preference changes that are still queued and shrink the file
+        if (this.displayPreferences != null) {
+            this.displayPreferences.compact();
+        }
 
         getLogger().info("TwitchVoting disabled.");
     }
@@ -133,23 +265,155 @@ public class TwitchVotingPlugin extends JavaPlugin implements Listener {
         return voteScoreboard;
     }
 
+    /**
+     * @return The boss bar and action bar display manager for this plugin
+     */
+    public VoteBarDisplay getVoteBarDisplay() {
+        return voteBarDisplay;
+    }
+
+    /**
+     * @return The map wall chart manager for this plugin
+     */
+    public VoteMapChart getVoteMapChart() {
+        return voteMapChart;
+    }
+
+    /**
+     * @return The current compiled configuration snapshot
+     */
+    public VoteConfig getVoteConfig() {
+        return voteConfig;
+    }
+
+    /**
+     * @return The scheduler all of the plugin's tasks go through
+     */
+    public VoteScheduler getVoteScheduler() {
+        return voteScheduler;
+    }
+
+    /**
+     * @return What the current or last vote cost the server
+     */
+    public VoteMetrics getVoteMetrics() {
+        return voteMetrics;
+    }
+
+    /**
+     * @return The public API, which also fires the vote events
+     */
+    public VotingService getVotingService() {
+        return votingService;
+    }
+
+    /**
+     * @return The viewers' participation across votes, or null when participation.enabled is off
+     */
+    public ParticipationStore getParticipationStore() {
+        return participationStore;
+    }
+
+    /**
+     * @return The vote cluster this server is part of, or null when cluster.mode is off
+     */
+    public VoteCluster getVoteCluster() {
+        return voteCluster;
+    }
+
+    /**
+     * @return How vote sessions connect to chat
+     */
+    public ChatIngest.Factory getChatIngestFactory() {
+        return chatIngestFactory;
+    }
+
+    /**
+     * Replaces how vote sessions connect to chat, for tests that feed chat themselves.
+     */
+    void setChatIngestFactory(ChatIngest.Factory chatIngestFactory) {
+        this.chatIngestFactory = chatIngestFactory;
+    }
+
+    /**
+     * @return The /vote command handler, which runs the votes
+     */
+    VoteCommandExecutor getVoteExecutor() {
+        return voteExecutor;
+    }
+
+    /**
+     * @return The runner for the winning options' actions
+     */
+    public WinnerActionRunner getWinnerActionRunner() {
+        return winnerActionRunner;
+    }
+
+    /**
+     * Describes what the plugin costs the server while idle: how long it took to enable, its jar,
+     * and whether the Twitch client was loaded and how many chat threads run.
+     *
+     * @return The figures, labelled, for chat and logs
+     */
+    public List<String> describeFootprint() {
+        long loadNanos = TwitchChatIngest.getLoadNanos();
+        return List.of(
+                String.format("Enabled in %.1f ms, jar %.1f MB", enableNanos / 1e6, getFile().length() / 1048576.0),
+                loadNanos < 0 ? "Twitch client: not loaded yet"
+                        : String.format("Twitch client: loaded in %.0f ms (about %d classes)", loadNanos / 1e6,
+                                TwitchChatIngest.getLoadedClasses()),
+                "Twitch chat threads: " + TwitchChatIngest.countThreads());
+    }
+
+    /**
+     * @return The compiled player-facing messages
+     */
+    public Messages getMessages() {
+        return messages;
+    }
+
     /**
      * Get the current display mode preference
-     * @return true if scoreboard mode should be used, false for chat mode
+     * @return Where the live tally is shown
+     */
+    public DisplayMode getDisplayMode() {
+        return voteConfig.displayMode();
+    }
+
+    /**
+     * Get the display mode a player sees votes in
+     * @param player The player
+     * @return The player's own choice, or the server-wide mode if they haven't made one
+     */
+    public DisplayMode getDisplayMode(Player player) {
+        DisplayMode chosen = displayPreferences.get(player.getUniqueId());
+        return chosen != null ? chosen : voteConfig.displayMode();
+    }
+
+    /**
+     * @return The per-player display preference store
+     */
+    public DisplayPreferences getDisplayPreferences() {
+        return displayPreferences;
+    }
+
+    /**
+     * Get whether the current display mode is the scoreboard
+     * @return true if scoreboard mode should be used
      */
     public boolean isUsingScoreboard() {
-        return useScoreboard;
+        return voteConfig.displayMode() == DisplayMode.SCOREBOARD;
     }
 
     /**
      * Update the display mode setting and save to config
-     * @param useScoreboard true for scoreboard mode, false for chat mode
+     * @param displayMode Where the live tally should be shown
      */
-    public void setUsingScoreboard(boolean useScoreboard) {
-        this.useScoreboard = useScoreboard;
-        getConfig().set("display.use_scoreboard", useScoreboard);
-        saveConfig();
-        getLogger().info("Display mode set to: " + (useScoreboard ? "Scoreboard" : "Chat"));
+    public void setDisplayMode(DisplayMode displayMode) {
+        voteConfig = voteConfig.withDisplayMode(displayMode);
+        getConfig().set("display.mode", displayMode.name().toLowerCase());
+        scheduleConfigSave();
+        getLogger().info("Display mode set to: " + displayMode.getDisplayName());
     }
 
     /**
@@ -157,7 +421,7 @@ public class TwitchVotingPlugin extends JavaPlugin implements Listener {
      * @return true if only counting the last vote from each user, false if counting all votes
      */
     public boolean isSingleVoteMode() {
-        return singleVoteMode;
+        return voteConfig.singleVoteMode();
     }
 
     /**
@@ -165,12 +429,185 @@ public class TwitchVotingPlugin extends JavaPlugin implements Listener {
      * @param singleVoteMode true to count only the last vote per user, false to count all votes
      */
     public void setSingleVoteMode(boolean singleVoteMode) {
-        this.singleVoteMode = singleVoteMode;
+        voteConfig = voteConfig.withSingleVoteMode(singleVoteMode);
         getConfig().set("voting.single_vote_mode", singleVoteMode);
-        saveConfig();
+        scheduleConfigSave();
         getLogger().info("Single vote mode set to: " + (singleVoteMode ? "Enabled" : "Disabled"));
     }
 
+    /**
+     * Get the approximate counting setting
+     * @return true if multiple vote sessions should estimate counts with HyperLogLog sketches
+     */
+    public boolean isApproximateMode() {
+        return voteConfig.approximateMode();
+    }
+
+    /**
+     * Remembers the maps of the chart wall, so the chart can be redrawn on them after a restart
+     * @param width Maps per row
+     * @param height Rows of maps
+     * @param ids The map IDs, row by row from the top left
+     */
+    public void saveMapWall(int width, int height, List<Integer> ids) {
+        getConfig().set("map.wall.width", width);
+        getConfig().set("map.wall.height", height);
+        getConfig().set("map.wall.ids", ids);
+        scheduleConfigSave();
+    }
+
+    /**
+     * Schedules config.yml to be written shortly, so repeated toggles cause a single write.
+     * The YAML is serialized on the main thread and written to disk asynchronously.
+     */
+    private void scheduleConfigSave() {
+        configEdits++;
+        if (pendingConfigSave != null) {
+            pendingConfigSave.cancel();
+        }
+
+        pendingConfigSave = getVoteScheduler().runLater(() -> {
+            pendingConfigSave = null;
+            ConfigSnapshot snapshot = new ConfigSnapshot(getConfig().saveToString(), configEdits);
+            getVoteScheduler().runAsync(() -> writeConfigFile(snapshot));
+        }, CONFIG_SAVE_DELAY_TICKS);
+    }
+
+    /**
+     * Writes a scheduled config save immediately, if one is pending. Blocks on file I/O.
+     */
+    private void flushConfigSave() {
+        ConfigSnapshot unsaved = takeConfigSave();
+        if (unsaved != null) {
+            writeConfigFile(unsaved);
+        }
+    }
+
+    /**
+     * Cancels a scheduled config save and serializes what it would have written. Main thread only.
+     *
+     * @return The settings to write, or null if no save was pending
+     */
+    private ConfigSnapshot takeConfigSave() {
+        if (pendingConfigSave == null) return null;
+        pendingConfigSave.cancel();
+        pendingConfigSave = null;
+        return new ConfigSnapshot(getConfig().saveToString(), configEdits);
+    }
+
+    /**
+     * Writes serialized config to config.yml through a temporary file, so readers never see a partial file.
+     * A save that was overtaken by a newer one, like a debounced write that finished after a flush, is dropped.
+     */
+    private void writeConfigFile(ConfigSnapshot snapshot) {
+        synchronized (configFileLock) {
+            if (snapshot.edits() <= writtenConfigEdits) return;
+            File configFile = new File(getDataFolder(), "config.yml");
+            File tempFile = new File(getDataFolder(), "config.yml.tmp");
+            try {
+                Files.writeString(tempFile.toPath(), snapshot.yaml(), StandardCharsets.UTF_8);
+                Files.move(tempFile.toPath(), configFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                writtenConfigEdits = snapshot.edits();
+            } catch (IOException e) {
+                getLogger().severe("Failed to save config.yml: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Starts, stops or restarts the overlay server to match the current settings.
+     */
+    private void updateOverlayServer() {
+        // Nothing to serve before the command executor exists
+        if (voteExecutor == null) return;
+
+        VoteConfig config = voteConfig;
+        if (overlayServer != null) {
+            if (config.overlayEnabled() && overlayServer.matches(config)) return;
+            overlayServer.stop();
+            overlayServer = null;
+        }
+        if (!config.overlayEnabled()) return;
+
+        OverlayServer server = new OverlayServer(this, voteExecutor::getVoteState, config);
+        try {
+            server.start();
+            overlayServer = server;
+        } catch (IOException e) {
+            getLogger().severe("Failed to start overlay server on " + config.overlayBind() + ":" +
+                               config.overlayPort() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Joins, leaves or rejoins the vote cluster to match the current settings.
+     */
+    private void updateCluster() {
+        if (voteExecutor == null) return;
+
+        VoteConfig config = voteConfig;
+        if (voteCluster != null) {
+            if (config.clusterRole() == clusterConfig.clusterRole()
+                    && config.clusterHost().equals(clusterConfig.clusterHost())
+                    && config.clusterPort() == clusterConfig.clusterPort()
+                    && config.clusterSecret().equals(clusterConfig.clusterSecret())
+                    && config.clusterWorld().equals(clusterConfig.clusterWorld())) {
+                return;
+            }
+            voteCluster.stop();
+            voteCluster = null;
+        }
+        if (config.clusterRole() == VoteCluster.Role.OFF) return;
+
+        if (config.clusterSecret().isEmpty()) {
+            getLogger().warning("cluster.secret is empty; any server that can reach " + config.clusterHost() + ":" +
+                                config.clusterPort() + " can join the cluster");
+        }
+        TcpClusterTransport transport = new TcpClusterTransport(this, config.clusterHost(), config.clusterPort(),
+                config.clusterSecret());
+        VoteCluster cluster = new VoteCluster(this, voteExecutor, config.clusterRole(), transport, config.clusterWorld());
+        try {
+            cluster.start();
+            voteCluster = cluster;
+            clusterConfig = config;
+            getLogger().info("Joined the vote cluster as " + config.clusterRole().name().toLowerCase());
+        } catch (IOException e) {
+            transport.stop();
+            getLogger().severe("Failed to start the vote cluster on " + config.clusterHost() + ":" +
+                               config.clusterPort() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens or closes the participation store to match the current settings.
+     */
+    private void updateParticipationStore() {
+        if (voteExecutor == null) return;
+
+        boolean enabled = voteConfig.participationEnabled();
+        if (enabled == (participationStore != null)) return;
+        if (!enabled) {
+            closeParticipationStore();
+            return;
+        }
+        try {
+            participationStore = new ParticipationStore(getDataFolder());
+        } catch (IOException e) {
+            getLogger().severe("Failed to open " + ParticipationStore.FILE_NAME + ", participation won't be recorded: "
+                               + e.getMessage());
+        }
+    }
+
+    private void closeParticipationStore() {
+        if (participationStore == null) return;
+        try {
+            participationStore.close();
+        } catch (IOException e) {
+            getLogger().warning("Failed to write " + ParticipationStore.FILE_NAME + ": " + e.getMessage());
+        }
+        participationStore = null;
+    }
+
     /**
      * Checks if a command sender is a command block with permissions
      * @param sender The command sender to check
@@ -183,35 +620,233 @@ public class TwitchVotingPlugin extends JavaPlugin implements Listener {
 
     /**
      * Validates the configuration file and adds any missing default values
+     * @param config The settings read from config.yml
+     * @return true if defaults were added and config.yml should be written
      */
-    private void validateConfig() {
+    private static boolean validateConfig(FileConfiguration config) {
         // Check and set defaults for any missing values
-        if (!getConfig().isSet("display.use_scoreboard")) {
-            getConfig().set("display.use_scoreboard", true);
+        boolean changed = false;
+        if (!config.isSet("display.mode")) {
+            // Carry over the older boolean switch
+            boolean useScoreboard = config.getBoolean("display.use_scoreboard", true);
+            config.set("display.mode", useScoreboard ? "scoreboard" : "chat");
+            config.set("display.use_scoreboard", null);
+            changed = true;
+        }
+
+        if (!config.isSet("display.results_display_time")) {
+            config.set("display.results_display_time", 60);
+            changed = true;
+        }
+
+        if (!config.isSet("defaults.max_options")) {
+            config.set("defaults.max_options", 20);
+            changed = true;
+        }
+
+        if (!config.isSet("defaults.min_duration")) {
+            config.set("defaults.min_duration", 5);
+            changed = true;
+        }
+
+        if (!config.isSet("defaults.max_duration")) {
+            config.set("defaults.max_duration", 3600);
+            changed = true;
+        }
+
+        if (!config.isSet("voting.single_vote_mode")) {
+            config.set("voting.single_vote_mode", false);
+            changed = true;
+        }
+
+        if (!config.isSet("voting.approximate_mode")) {
+            config.set("voting.approximate_mode", false);
+            changed = true;
+        }
+
+        if (!config.isSet("voting.keyword_mode")) {
+            config.set("voting.keyword_mode", false);
+            changed = true;
+        }
+
+        if (!config.isSet("export.on_vote_end")) {
+            config.set("export.on_vote_end", true);
+            changed = true;
+        }
+
+        if (!config.isSet("export.gzip")) {
+            config.set("export.gzip", false);
+            changed = true;
         }
 
-        if (!getConfig().isSet("display.results_display_time")) {
-            getConfig().set("display.results_display_time", 60);
+        if (!config.isSet("overlay.enabled")) {
+            config.set("overlay.enabled", false);
+            changed = true;
         }
 
-        if (!getConfig().isSet("defaults.max_options")) {
-            getConfig().set("defaults.max_options", 20);
+        if (!config.isSet("overlay.bind")) {
+            config.set("overlay.bind", "127.0.0.1");
+            changed = true;
         }
 
-        if (!getConfig().isSet("defaults.min_duration")) {
-            getConfig().set("defaults.min_duration", 5);
+        if (!config.isSet("overlay.port")) {
+            config.set("overlay.port", 8089);
+            changed = true;
         }
 
-        if (!getConfig().isSet("defaults.max_duration")) {
-            getConfig().set("defaults.max_duration", 3600);
+        if (!config.isSet("overlay.fps")) {
+            config.set("overlay.fps", 5);
+            changed = true;
         }
 
-        if (!getConfig().isSet("voting.single_vote_mode")) {
-            getConfig().set("voting.single_vote_mode", false);
+        if (!config.isSet("map.fps")) {
+            config.set("map.fps", 4);
+            changed = true;
         }
 
-        // Save any changes made
-        saveConfig();
+        if (!config.isSet("events.tally_per_second")) {
+            config.set("events.tally_per_second", 2);
+            changed = true;
+        }
+
+        if (!config.isSet("actions.tick_budget_ms")) {
+            config.set("actions.tick_budget_ms", 5);
+            changed = true;
+        }
+
+        if (!config.isSet("cluster.mode")) {
+            config.set("cluster.mode", "off");
+            changed = true;
+        }
+
+        if (!config.isSet("cluster.host")) {
+            config.set("cluster.host", "127.0.0.1");
+            changed = true;
+        }
+
+        if (!config.isSet("cluster.port")) {
+            config.set("cluster.port", 8090);
+            changed = true;
+        }
+
+        if (!config.isSet("cluster.secret")) {
+            config.set("cluster.secret", "");
+            changed = true;
+        }
+
+        if (!config.isSet("cluster.world")) {
+            config.set("cluster.world", "");
+            changed = true;
+        }
+
+        if (!config.isSet("raid.mode")) {
+            config.set("raid.mode", "off");
+            changed = true;
+        }
+
+        if (!config.isSet("raid.burst_factor")) {
+            config.set("raid.burst_factor", 5.0);
+            changed = true;
+        }
+
+        if (!config.isSet("raid.min_rate")) {
+            config.set("raid.min_rate", 10.0);
+            changed = true;
+        }
+
+        if (!config.isSet("raid.include_quarantined")) {
+            config.set("raid.include_quarantined", false);
+            changed = true;
+        }
+
+        if (!config.isSet("participation.enabled")) {
+            config.set("participation.enabled", true);
+            changed = true;
+        }
+
+        if (!config.isSet("twitch.prewarm")) {
+            config.set("twitch.prewarm", false);
+            changed = true;
+        }
+
+        if (!config.isSet("messages.locale")) {
+            config.set("messages.locale", "en_us");
+            changed = true;
+        }
+
+        if (!config.isSet("messages.per_player_locale")) {
+            config.set("messages.per_player_locale", true);
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    /**
+     * Reads config.yml and compiles it, without touching the settings in use. Safe off the main thread.
+     * @return The compiled settings, ready for {@link #applyConfig}
+     * @throws IOException If config.yml can't be read
+     * @throws InvalidConfigurationException If config.yml isn't valid YAML
+     */
+    private LoadedConfig loadConfig() throws IOException, InvalidConfigurationException {
+        YamlConfiguration file = new YamlConfiguration();
+        File configFile = new File(getDataFolder(), "config.yml");
+        // Not while a save replaces it
+        synchronized (configFileLock) {
+            if (configFile.exists()) {
+                file.load(configFile);
+            }
+        }
+        return compileConfig(file);
+    }
+
+    private LoadedConfig compileConfig(YamlConfiguration file) {
+        try (InputStream in = getResource("config.yml")) {
+            if (in != null) {
+                file.setDefaults(YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8)));
+            }
+        } catch (IOException e) {
+            getLogger().warning("Failed to read the bundled config.yml: " + e.getMessage());
+        }
+        boolean defaultsAdded = validateConfig(file);
+        VoteConfig config = VoteConfig.from(file);
+        return new LoadedConfig(file, defaultsAdded, config, Messages.load(this, config));
+    }
+
+    /**
+     * Puts compiled settings in place and reconfigures the parts whose settings changed. Main thread only.
+     * @param loaded The settings from {@link #loadConfig}
+     * @return Notes on settings that only take effect later, for the admin who reloaded
+     */
+    private List<String> applyConfig(LoadedConfig loaded) {
+        VoteConfig previous = voteConfig;
+        Messages previousMessages = messages;
+        config = loaded.file();
+        voteConfig = loaded.config();
+        messages = loaded.messages();
+        if (loaded.defaultsAdded()) {
+            // Only write the file when defaults were actually added
+            scheduleConfigSave();
+        }
+
+        updateOverlayServer();
+        updateCluster();
+        updateParticipationStore();
+        if (previous == null) return List.of();
+
+        if (voteMapChart != null && previous.mapFps() != voteConfig.mapFps()) {
+            voteMapChart.reschedule();
+        }
+        boolean messagesChanged = previousMessages == null || !previousMessages.sameAs(messages);
+        return voteExecutor != null ? voteExecutor.configReloaded(previous, voteConfig, messagesChanged) : List.of();
+    }
+
+    @Override
+    public FileConfiguration getConfig() {
+        if (config == null) {
+            reloadConfig();
+        }
+        return config;
     }
 
     /**
@@ -219,15 +854,60 @@ public class TwitchVotingPlugin extends JavaPlugin implements Listener {
      */
     @Override
     public void reloadConfig() {
-        super.reloadConfig();
-
-        // Validate and fix the config after reload
-        validateConfig();
+        // Don't lose toggles that haven't been written yet
+        flushConfigSave();
 
-        // Update current settings from reloaded config
-        useScoreboard = getConfig().getBoolean("display.use_scoreboard", true);
-        singleVoteMode = getConfig().getBoolean("voting.single_vote_mode", false);
+        LoadedConfig loaded;
+        try {
+            loaded = loadConfig();
+        } catch (IOException | InvalidConfigurationException e) {
+            // Run on the defaults, and leave the broken file for the admin to fix
+            getLogger().severe("Cannot load config.yml, using the defaults: " + e.getMessage());
+            YamlConfiguration defaults = new YamlConfiguration();
+            loaded = compileConfig(defaults);
+            loaded = new LoadedConfig(defaults, false, loaded.config(), loaded.messages());
+        }
+        applyConfig(loaded);
 
         getLogger().info("Configuration reloaded.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Reloads config.yml while a vote keeps running. The file is read and compiled on an async
+     * thread, so a mistake in it leaves the settings in use untouched; only the swap runs on the
+     * main thread.
+     * @param done Called on the main thread with the outcome
+     */
+    public void reloadConfigAsync(Consumer<ReloadResult> done) {
+        // Toggles not written yet are written by the reload's own thread, right before it reads the file
+        ConfigSnapshot unsaved = takeConfigSave();
+        int expectedEdits = configEdits;
+        long start = System.nanoTime();
+        getVoteScheduler().runAsync(() -> {
+            LoadedConfig loaded;
+            try {
+                if (unsaved != null) {
+                    writeConfigFile(unsaved);
+                }
+                loaded = loadConfig();
+            } catch (IOException | InvalidConfigurationException e) {
+                getVoteScheduler().run(() -> done.accept(new ReloadResult(e.getMessage(), 0, 0, List.of())));
+                return;
+            }
+            long loadNanos = System.nanoTime() - start;
+            getVoteScheduler().run(() -> {
+                if (expectedEdits != configEdits) {
+                    // A setting was toggled while the file was read; read it again with the toggle written
+                    reloadConfigAsync(done);
+                    return;
+                }
+                long swapStart = System.nanoTime();
+                List<String> notes = applyConfig(loaded);
+                long swapNanos = System.nanoTime() - swapStart;
+                getLogger().info(String.format("Configuration reloaded (%.1f ms to load, %.2f ms to swap).",
+                        loadNanos / 1e6, swapNanos / 1e6));
+                done.accept(new ReloadResult(null, loadNanos, swapNanos, notes));
+            });
+        });
+    }
+}
@@ -0,0 +1,309 @@
+package com.czacha994.twitchvoting;
+
+import net.kyori.adventure.bossbar.BossBar;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Shows the live tally in boss bars or the action bar.
+ *
+ * Boss bar mode uses one shared set of bars for the whole audience: a header bar with the time
+ * and one bar per leading option, filled by its share of the votes. A bar's name and progress are
+ * only updated when its option or rounded share changes, so a steady vote sends almost nothing.
+ * Action bar mode sends one shared line to every viewer when the shares change, and repeats it
+ * before the client fades it out. Each player sees the mode they chose, so both run side by side.
+ */
+public class VoteBarDisplay {
+    // Option bars shown in boss bar mode, and options listed in the action bar
+    static final int BAR_OPTIONS = 5;
+    static final int ACTIONBAR_OPTIONS = 3;
+    // The client fades the action bar after about 3 seconds, so unchanged text is resent this often
+    private static final int ACTIONBAR_REFRESH_SECONDS = 2;
+    // Time in the action bar only during the final seconds, so it doesn't change every second
+    private static final int ACTIONBAR_TIME_SECONDS = 10;
+
+    private final TwitchVotingPlugin plugin;
+    // Players currently shown the boss bars or action bar, so each is only added or removed once
+    private final Map<UUID, Player> bossBarViewers = new HashMap<>();
+    private final Map<UUID, Player> actionBarViewers = new HashMap<>();
+
+    private VoteScheduler.Task updateTask = null;
+    private BossBar header = null;
+    private BossBar[] bars = new BossBar[0];
+    // Option and rounded percent last shown on each bar (-1 = nothing shown yet)
+    private int[] shownOptions = new int[0];
+    private int[] shownPercents = new int[0];
+    private Component headerName = null;
+    private Component actionBarLine = null;
+    private int actionBarAge = 0;
+
+    /**
+     * Creates a new bar display manager.
+     *
+     * @param plugin The plugin instance
+     */
+    public VoteBarDisplay(TwitchVotingPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts showing the live tally to the players in the vote's world who use the boss bar or
+     * action bar mode, updating once per second. Must be called on the main thread.
+     *
+     * @param source Supplies the latest published vote state (null once the vote is over)
+     */
+    public void showVoting(Supplier<VoteState> source) {
+        if (updateTask != null) return;
+
+        header = BossBar.bossBar(Component.empty(), 1f, BossBar.Color.YELLOW, BossBar.Overlay.NOTCHED_10);
+        bars = new BossBar[BAR_OPTIONS];
+        for (int i = 0; i < bars.length; i++) {
+            bars[i] = BossBar.bossBar(Component.empty(), 0f, BossBar.Color.BLUE, BossBar.Overlay.PROGRESS);
+        }
+        shownOptions = new int[BAR_OPTIONS];
+        shownPercents = new int[BAR_OPTIONS];
+        Arrays.fill(shownOptions, -1);
+
+        update(source.get());
+        updateTask = plugin.getVoteScheduler().runTimer(() -> {
+            VoteState current = source.get();
+            if (current == null) {
+                hide();
+                return;
+            }
+            update(current);
+        }, 20L, 20L);
+    }
+
+    /**
+     * Hides the bars from everyone and stops updating. Safe to call when nothing is shown.
+     */
+    public void hide() {
+        if (updateTask != null) {
+            updateTask.cancel();
+            updateTask = null;
+        }
+
+        for (Player player : bossBarViewers.values()) {
+            if (player.isOnline()) hideBossBars(player);
+        }
+        bossBarViewers.clear();
+        actionBarViewers.clear();
+
+        header = null;
+        bars = new BossBar[0];
+        shownOptions = new int[0];
+        shownPercents = new int[0];
+        headerName = null;
+        actionBarLine = null;
+        actionBarAge = 0;
+    }
+
+    /**
+     * Renders the header, every option bar and the action bar line again on the next update,
+     * after the messages changed. Nobody is added or removed, so the bars don't flicker.
+     */
+    public void rerender() {
+        Arrays.fill(shownPercents, -1);
+        headerName = null;
+        actionBarLine = null;
+    }
+
+    /**
+     * Removes a player from the audience, e.g. when they leave the vote's world.
+     */
+    public void hide(Player player) {
+        actionBarViewers.remove(player.getUniqueId());
+        if (bossBarViewers.remove(player.getUniqueId()) != null) {
+            hideBossBars(player);
+        }
+    }
+
+    private void hideBossBars(Player player) {
+        player.hideBossBar(header);
+        for (BossBar bar : bars) {
+            player.hideBossBar(bar);
+        }
+    }
+
+    /**
+     * Brings the audience and the bars up to date with a vote state.
+     */
+    private void update(VoteState current) {
+        if (current == null || header == null) return;
+
+        VoteEvents.RenderPass event = new VoteEvents.RenderPass();
+        event.begin();
+        updateViewers(current.worldName());
+        updateBossBars(current);
+        if (!actionBarViewers.isEmpty()) {
+            updateActionBar(current);
+        }
+        if (event.shouldCommit()) {
+            event.display = "bar";
+            event.options = current.options().size();
+            event.players = bossBarViewers.size() + actionBarViewers.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Adds players who entered the vote's world or picked a bar mode, and drops those who left,
+     * went offline or picked another mode.
+     */
+    private void updateViewers(String worldName) {
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) return;
+
+        bossBarViewers.values().removeIf(player -> {
+            if (player.isOnline() && player.getWorld().equals(world)
+                    && plugin.getDisplayMode(player) == DisplayMode.BOSSBAR) return false;
+            if (player.isOnline()) hideBossBars(player);
+            return true;
+        });
+        actionBarViewers.values().removeIf(player -> !player.isOnline() || !player.getWorld().equals(world)
+                || plugin.getDisplayMode(player) != DisplayMode.ACTIONBAR);
+
+        for (Player player : world.getPlayers()) {
+            DisplayMode mode = plugin.getDisplayMode(player);
+            if (mode == DisplayMode.BOSSBAR) {
+                if (bossBarViewers.putIfAbsent(player.getUniqueId(), player) != null) continue;
+                player.showBossBar(header);
+                // Unused bars are only shown once an option moves into them
+                for (int i = 0; i < bars.length; i++) {
+                    if (shownOptions[i] >= 0) player.showBossBar(bars[i]);
+                }
+            } else if (mode == DisplayMode.ACTIONBAR) {
+                if (actionBarViewers.putIfAbsent(player.getUniqueId(), player) != null) continue;
+                if (actionBarLine != null) {
+                    player.sendActionBar(actionBarLine);
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the header and option bars that changed since the last second.
+     */
+    private void updateBossBars(VoteState current) {
+        MessageBundle messages = plugin.getMessages().server();
+        Component name = current.isRolling()
+                ? messages.renderComponent(Message.BOSSBAR_POLL_TITLE, current.windowSeconds())
+                : messages.renderComponent(Message.BOSSBAR_TITLE, formatTime(current.remainingSeconds()));
+        if (!name.equals(headerName)) {
+            headerName = name;
+            header.name(name);
+            if (!current.isRolling() && current.totalSeconds() > 0) {
+                header.progress(clamp((float) current.remainingSeconds() / current.totalSeconds()));
+            }
+        }
+
+        int[] counts = current.counts();
+        long total = total(counts);
+        int[] slots = fillSlots(current, BAR_OPTIONS);
+        for (int i = 0; i < bars.length; i++) {
+            int option = i < slots.length ? slots[i] : -1;
+            int percent = option >= 0 ? percent(counts[option], total) : 0;
+            if (option == shownOptions[i] && percent == shownPercents[i]) continue;
+
+            BossBar bar = bars[i];
+            if (option < 0) {
+                for (Player player : bossBarViewers.values()) player.hideBossBar(bar);
+            } else {
+                bar.name(messages.renderComponent(Message.BOSSBAR_OPTION,
+                        option + 1, current.options().get(option), percent));
+                bar.progress(percent / 100f);
+                bar.color(i == 0 && total > 0 ? BossBar.Color.PURPLE : BossBar.Color.BLUE);
+                if (shownOptions[i] < 0) {
+                    for (Player player : bossBarViewers.values()) player.showBossBar(bar);
+                }
+            }
+            shownOptions[i] = option;
+            shownPercents[i] = percent;
+        }
+    }
+
+    /**
+     * Sends the action bar line when it changed, or when the client is about to fade it out.
+     */
+    private void updateActionBar(VoteState current) {
+        int[] counts = current.counts();
+        long total = total(counts);
+        int[] slots = fillSlots(current, ACTIONBAR_OPTIONS);
+
+        MessageBundle messages = plugin.getMessages().server();
+        TextComponent.Builder text = Component.text();
+        for (int i = 0; i < slots.length; i++) {
+            int option = slots[i];
+            if (i > 0) text.append(messages.renderComponent(Message.ACTIONBAR_SEPARATOR));
+            text.append(messages.renderComponent(i == 0 && total > 0 ? Message.ACTIONBAR_LEADER : Message.ACTIONBAR_OPTION,
+                    option + 1, current.options().get(option), percent(counts[option], total)));
+        }
+        if (!current.isRolling() && current.remainingSeconds() <= ACTIONBAR_TIME_SECONDS) {
+            text.append(messages.renderComponent(Message.ACTIONBAR_TIME, current.remainingSeconds()));
+        }
+
+        Component line = text.build();
+        actionBarAge++;
+        if (line.equals(actionBarLine) && actionBarAge < ACTIONBAR_REFRESH_SECONDS) return;
+
+        actionBarLine = line;
+        actionBarAge = 0;
+        for (Player player : actionBarViewers.values()) {
+            plugin.getVoteScheduler().runForPlayer(player, () -> player.sendActionBar(line));
+        }
+    }
+
+    /**
+     * Picks the options to show: the leaders, then the first options in order while there are fewer leaders.
+     */
+    private static int[] fillSlots(VoteState current, int slotCount) {
+        int optionCount = current.options().size();
+        int[] slots = new int[Math.min(slotCount, optionCount)];
+        int filled = 0;
+        int[] counts = current.counts();
+        for (int leader : current.leaders()) {
+            if (filled == slots.length) break;
+            if (counts[leader - 1] > 0) slots[filled++] = leader - 1;
+        }
+        for (int option = 0; filled < slots.length && option < optionCount; option++) {
+            if (!contains(slots, filled, option)) slots[filled++] = option;
+        }
+        return slots;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private static long total(int[] counts) {
+        long total = 0;
+        for (int count : counts) total += count;
+        return total;
+    }
+
+    private static int percent(int count, long total) {
+        return total == 0 ? 0 : (int) Math.round(count * 100.0 / total);
+    }
+
+    private static float clamp(float value) {
+        return Math.max(0f, Math.min(1f, value));
+    }
+
+    private static String formatTime(int seconds) {
+        return seconds > 60 ? seconds / 60 + "m " + seconds % 60 + "s" : seconds + "s";
+    }
+}
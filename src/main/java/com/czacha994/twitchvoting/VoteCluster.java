@@ -0,0 +1,315 @@
+package com.czacha994.twitchvoting;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Shares one Twitch vote across the servers of a proxy network.
+ *
+ * The leader is the only server connected to Twitch and the only one counting ballots. It samples
+ * its published tally twice a second and sends followers the counts that changed as a small
+ * {@link TallyFrame}, with a full frame when a vote starts, every few seconds, and to followers
+ * that just connected. Followers show the leader's vote as their own, with all displays working
+ * as usual, but have no Twitch connection and can't start or stop votes.
+ */
+public class VoteCluster {
+    // How often the leader samples the tally (10 ticks = 0.5 seconds)
+    private static final long PUBLISH_TICKS = 10L;
+    // Unchanged votes still send a frame this often, so followers know the leader is alive
+    private static final int HEARTBEAT_FRAMES = 10;
+    // A full frame every this many frames resynchronizes followers that missed one
+    private static final int FULL_FRAMES = 20;
+    // Followers end a vote whose leader has gone silent for this long
+    private static final long FOLLOWER_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * The part a server plays in the cluster.
+     */
+    public enum Role {
+        OFF, LEADER, FOLLOWER;
+
+        /**
+         * @return The role with this name (ignoring case), or OFF if there is none
+         */
+        public static Role fromName(String name) {
+            if (name != null) {
+                for (Role role : values()) {
+                    if (role.name().equalsIgnoreCase(name.trim())) return role;
+                }
+            }
+            return OFF;
+        }
+    }
+
+    /**
+     * What the leader last sent, for encoding deltas and welcome frames.
+     */
+    private record Sent(long voteId, int sequence, VoteState state, int flags) {}
+
+    private final TwitchVotingPlugin plugin;
+    private final VoteCommandExecutor executor;
+    private final Role role;
+    private final ClusterTransport transport;
+    private final String worldOverride;
+    private VoteScheduler.Task task = null;
+
+    // Leader state: written by the publisher under this object's lock, read by transport threads
+    private volatile Sent sent = null;
+    private int framesSinceFull = 0;
+    private int idleFrames = 0;
+
+    // Follower state, main thread only
+    private long remoteVoteId = 0;
+    private int remoteSequence = 0;
+    private RemoteBallotStore remoteBallots = null;
+    private volatile long lastFrameMillis = 0;
+
+    /**
+     * Creates the cluster manager. Call {@link #start()} to connect.
+     *
+     * @param plugin The plugin instance
+     * @param executor The executor running the votes
+     * @param role Whether this server leads or follows
+     * @param transport Carries frames between the servers
+     * @param worldOverride The world followers show votes in, or empty to use the leader's world name
+     */
+    public VoteCluster(TwitchVotingPlugin plugin, VoteCommandExecutor executor, Role role,
+                       ClusterTransport transport, String worldOverride) {
+        this.plugin = plugin;
+        this.executor = executor;
+        this.role = role;
+        this.transport = transport;
+        this.worldOverride = worldOverride;
+    }
+
+    /**
+     * Opens the transport and starts publishing or following votes.
+     *
+     * @throws IOException If the transport could not be opened
+     */
+    public void start() throws IOException {
+        if (role == Role.LEADER) {
+            transport.startLeader(this::welcomeFrame);
+            task = plugin.getVoteScheduler().runAsyncTimer(this::publish, PUBLISH_TICKS, PUBLISH_TICKS);
+        } else if (role == Role.FOLLOWER) {
+            transport.startFollower(this::receive);
+            task = plugin.getVoteScheduler().runTimer(this::checkLeader, 20L, 20L);
+        }
+    }
+
+    /**
+     * Closes the transport. A vote followed from the leader ends on this server.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        transport.stop();
+        if (role == Role.FOLLOWER && remoteBallots != null) {
+            remoteBallots = null;
+            executor.stopVote();
+        }
+    }
+
+    /**
+     * @return Whether this server leads or follows
+     */
+    public Role getRole() {
+        return role;
+    }
+
+    /**
+     * @return Whether this server only shows the leader's votes
+     */
+    public boolean isFollower() {
+        return role == Role.FOLLOWER;
+    }
+
+    /**
+     * @return The number of connected followers, or 1 while a follower is connected to its leader
+     */
+    public int getConnectionCount() {
+        return transport.getConnectionCount();
+    }
+
+    // ---- Leader ----
+
+    /**
+     * Sends followers what changed in the published vote since the previous frame.
+     */
+    private synchronized void publish() {
+        VoteState current = executor.getVoteState();
+        if (current == null || current.isRemote()) return;
+
+        Sent previous = sent;
+        if (previous == null || previous.state().session() != current.session()) {
+            // A new vote: followers start it from a full frame
+            long voteId = ThreadLocalRandom.current().nextLong() | 1L;
+            int flags = flags(current);
+            sendFull(new Sent(voteId, 0, current, flags));
+            return;
+        }
+
+        VoteState last = previous.state();
+        boolean unchanged = Arrays.equals(current.counts(), last.counts())
+                && current.remainingSeconds() == last.remainingSeconds()
+                && current.elapsedSeconds() == last.elapsedSeconds();
+        if (unchanged && ++idleFrames < HEARTBEAT_FRAMES) return;
+
+        Sent next = new Sent(previous.voteId(), previous.sequence() + 1, current, previous.flags());
+        byte[] delta = ++framesSinceFull < FULL_FRAMES
+                ? TallyFrame.delta(next.voteId(), next.sequence(), current, last.counts())
+                : null;
+        if (delta == null) {
+            sendFull(next);
+            return;
+        }
+        idleFrames = 0;
+        sent = next;
+        transport.broadcast(delta);
+    }
+
+    private void sendFull(Sent next) {
+        framesSinceFull = 0;
+        idleFrames = 0;
+        // Published before the broadcast, so a follower connecting meanwhile is welcomed with this frame or a later one
+        sent = next;
+        transport.broadcast(TallyFrame.full(next.voteId(), next.sequence(), next.state(), next.flags()));
+    }
+
+    /**
+     * Sends followers the final counts of a vote that ended on the leader. Main thread only.
+     *
+     * @param finished The vote's last published state
+     * @param finalCounts The final counts
+     */
+    synchronized void voteEnded(VoteState finished, int[] finalCounts) {
+        if (role != Role.LEADER) return;
+        Sent previous = sent;
+        if (previous == null || previous.state().session() != finished.session()) return;
+
+        sent = null;
+        transport.broadcast(TallyFrame.end(previous.voteId(), previous.sequence() + 1, finalCounts,
+                finished.session().getBallots()));
+    }
+
+    /**
+     * Encodes the vote for a follower that just connected.
+     */
+    private byte[] welcomeFrame() {
+        Sent current = sent;
+        return current != null
+                ? TallyFrame.full(current.voteId(), current.sequence(), current.state(), current.flags())
+                : null;
+    }
+
+    private int flags(VoteState state) {
+        VoteConfig config = plugin.getVoteConfig();
+        int flags = 0;
+        if (state.isRolling()) flags |= TallyFrame.FLAG_ROLLING;
+        if (state.session().getBallots().isExact()) flags |= TallyFrame.FLAG_EXACT;
+        if (config.keywordMode()) flags |= TallyFrame.FLAG_KEYWORDS;
+        if (plugin.isSingleVoteMode()) flags |= TallyFrame.FLAG_SINGLE_VOTE;
+        return flags;
+    }
+
+    // ---- Follower ----
+
+    /**
+     * Decodes a frame on the transport thread and applies it on the main thread.
+     */
+    private void receive(byte[] bytes) {
+        lastFrameMillis = System.currentTimeMillis();
+        TallyFrame frame;
+        try {
+            frame = TallyFrame.decode(bytes);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Ignoring invalid cluster frame: " + e.getMessage());
+            return;
+        }
+        plugin.getVoteScheduler().run(() -> apply(frame));
+    }
+
+    private void apply(TallyFrame frame) {
+        switch (frame.type()) {
+            case TallyFrame.FULL:
+                if (frame.voteId() != remoteVoteId || remoteBallots == null || !executor.isVoteActive()) {
+                    startRemoteVote(frame);
+                    return;
+                }
+                remoteBallots.setCounts(frame.counts());
+                remoteBallots.setAccuracy(frame.voterCount(), frame.errorBound());
+                remoteSequence = frame.sequence();
+                executor.syncRemoteTime(frame.remainingSeconds(), frame.elapsedSeconds());
+                break;
+            case TallyFrame.DELTA:
+                // After a missed frame, wait for the next full one
+                if (frame.voteId() != remoteVoteId || remoteBallots == null || frame.sequence() != remoteSequence + 1) return;
+                remoteBallots.applyChanges(frame.changed());
+                remoteSequence = frame.sequence();
+                executor.syncRemoteTime(frame.remainingSeconds(), frame.elapsedSeconds());
+                break;
+            case TallyFrame.END:
+                if (frame.voteId() != remoteVoteId || remoteBallots == null) return;
+                remoteBallots.setCounts(frame.counts());
+                remoteBallots.setAccuracy(frame.voterCount(), frame.errorBound());
+                remoteBallots = null;
+                remoteVoteId = 0;
+                executor.stopVote();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void startRemoteVote(TallyFrame frame) {
+        // The previous vote's end was missed; finish it before showing the new one
+        if (remoteBallots != null) {
+            remoteBallots = null;
+            executor.stopVote();
+        }
+        if (executor.isVoteActive() || executor.isStarting()) {
+            plugin.getLogger().warning("Not showing the cluster vote, a local vote is running");
+            return;
+        }
+
+        String worldName = worldOverride.isEmpty() ? frame.worldName() : worldOverride;
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            plugin.getLogger().warning("World " + worldName + " of the cluster vote doesn't exist here; set cluster.world");
+            return;
+        }
+
+        RemoteBallotStore ballots = new RemoteBallotStore(frame.options().size(),
+                frame.hasFlag(TallyFrame.FLAG_EXACT), frame.hasFlag(TallyFrame.FLAG_ROLLING));
+        ballots.setCounts(frame.counts());
+        ballots.setAccuracy(frame.voterCount(), frame.errorBound());
+        remoteBallots = ballots;
+        remoteVoteId = frame.voteId();
+        remoteSequence = frame.sequence();
+
+        executor.startRemoteVote(world.getName(), frame.channel(), frame.options(), ballots, frame.totalSeconds(),
+                frame.remainingSeconds(), frame.elapsedSeconds(), frame.windowSeconds(),
+                frame.hasFlag(TallyFrame.FLAG_KEYWORDS), frame.hasFlag(TallyFrame.FLAG_SINGLE_VOTE));
+        plugin.getLogger().info("Showing cluster vote from channel " + frame.channel() + " in " + world.getName());
+    }
+
+    /**
+     * Ends a followed vote whose leader stopped sending frames.
+     */
+    private void checkLeader() {
+        if (remoteBallots == null) return;
+        if (System.currentTimeMillis() - lastFrameMillis < FOLLOWER_TIMEOUT_MILLIS) return;
+
+        plugin.getLogger().warning("No frames from the cluster leader for " + FOLLOWER_TIMEOUT_MILLIS / 1000 +
+                                   " seconds, ending the followed vote");
+        remoteBallots = null;
+        remoteVoteId = 0;
+        executor.stopVote();
+    }
+}
@@ -1,5 +1,8 @@
 package com.czacha994.twitchvoting;
 
+import com.czacha994.twitchvoting.api.VoteSnapshot;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.command.BlockCommandSender;
@@ -7,33 +10,52 @@ import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 
 /**
  * Handles the /vote command and manages the active Twitch vote session.
  */
 public class VoteCommandExecutor implements CommandExecutor {
+    // How often the published vote counts are recomputed from the session (10 ticks = 0.5 seconds)
+    private static final long TALLY_REFRESH_TICKS = 10L;
+
     private final TwitchVotingPlugin plugin;
-    private TwitchVoteSession currentSession = null;
-    private BukkitTask stopTask = null;
-    private BukkitTask updateTask = null;
-    private UUID voteStarterUuid = null;
-    private String voteWorldName = null;
-    private List<String> voteOptions = null;
-    private int totalSeconds = 0;
-    private int remainingSeconds = 0;
-    private BukkitTask countdownTask = null;
+    // Snapshot of the active vote, null when no vote is running
+    private final AtomicReference<VoteState> state = new AtomicReference<>();
+    // Set on the main thread while a session is connecting, guards against double starts
+    private boolean starting = false;
+    private VoteScheduler.Task stopTask = null;
+    private VoteScheduler.Task updateTask = null;
+    private VoteScheduler.Task countdownTask = null;
+    private VoteScheduler.Task tallyTask = null;
+    private final VoteExporter exporter;
+    private final VoteQueue voteQueue;
+    // The most recently finished vote, kept for /vote export until the next vote starts
+    private volatile VoteResult lastResult = null;
 
     // Track result display tasks separately
-    private List<BukkitTask> resultDisplayTasks = new ArrayList<>();
+    private List<VoteScheduler.Task> resultDisplayTasks = new ArrayList<>();
     private boolean showingResults = false;
 
     /**
@@ -43,12 +65,14 @@ public class VoteCommandExecutor implements CommandExecutor {
      */
     public VoteCommandExecutor(TwitchVotingPlugin plugin) {
         this.plugin = plugin;
+        this.exporter = new VoteExporter(plugin);
+        this.voteQueue = new VoteQueue(plugin, this);
     }
 
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
         if (args.length == 0) {
-            sender.sendMessage("§cUsage: /vote <start|stop|help>");
+            reply(sender, Message.COMMAND_USAGE);
             return true;
         }
 
@@ -56,30 +80,53 @@ public class VoteCommandExecutor implements CommandExecutor {
 
         switch (args[0].toLowerCase()) {
             case "start":
-                return handleStartCommand(sender, args, isCommandBlock);
+                return handleStartCommand(sender, args, isCommandBlock, false);
+            case "poll":
+                return handleStartCommand(sender, args, isCommandBlock, true);
             case "stop":
                 return handleStopCommand(sender, isCommandBlock);
             case "reload":
                 return handleReloadCommand(sender);
             case "togglemode":
-                return handleToggleModeCommand(sender);
+                return handleToggleModeCommand(sender, args);
             case "togglevote":
                 return handleToggleVoteCommand(sender);
+            case "export":
+                return handleExportCommand(sender, isCommandBlock);
+            case "map":
+                return handleMapCommand(sender, args);
+            case "display":
+                return handleDisplayCommand(sender, args);
+            case "metrics":
+                return handleMetricsCommand(sender, args);
+            case "quarantine":
+                return handleQuarantineCommand(sender, args);
+            case "queue":
+                return handleQueueCommand(sender, args, isCommandBlock);
+            case "top":
+                return handleTopCommand(sender, args);
             case "help":
                 showHelpMessage(sender);
                 return true;
             default:
-                sender.sendMessage("§cUnknown subcommand. Use /vote help");
+                reply(sender, Message.COMMAND_UNKNOWN);
                 return true;
         }
     }
 
     /**
-     * Handles the /vote start command.
+     * Handles the /vote start and /vote poll commands.
+     *
+     * @param rolling Whether to start a rolling poll (runs until stopped, counting only recent votes)
      */
-    private boolean handleStartCommand(CommandSender sender, String[] args, boolean isCommandBlock) {
+    private boolean handleStartCommand(CommandSender sender, String[] args, boolean isCommandBlock, boolean rolling) {
         if (!sender.hasPermission("voting.manage") && !isCommandBlock) {
-            sender.sendMessage("§cYou do not have permission to start a vote.");
+            reply(sender, Message.PERMISSION_START);
+            return true;
+        }
+
+        if (isClusterFollower()) {
+            reply(sender, Message.COMMAND_FOLLOWER);
             return true;
         }
 
@@ -96,101 +143,436 @@ public class VoteCommandExecutor implements CommandExecutor {
             BlockCommandSender blockSender = (BlockCommandSender) sender;
             worldName = blockSender.getBlock().getWorld().getName();
         } else {
-            sender.sendMessage("§cOnly players or command blocks can start a vote.");
+            reply(sender, Message.START_NOT_PLAYER);
             return true;
         }
 
-        if (currentSession != null) {
-            sender.sendMessage("§cA voting session is already running.");
+        if (state.get() != null || starting) {
+            reply(sender, Message.START_RUNNING);
             return true;
         }
 
         if (args.length < 4) {
-            sender.sendMessage("§cUsage: /vote start <seconds> <streamer> <option1> <option2> ...");
+            reply(sender, rolling ? Message.START_POLL_USAGE : Message.START_USAGE);
             return true;
         }
 
         int seconds;
         try {
             seconds = Integer.parseInt(args[1]);
-            if (seconds < 5 || seconds > 3600) {
-                sender.sendMessage("§cVoting duration must be between 5 and 3600 seconds.");
-                return true;
-            }
         } catch (NumberFormatException e) {
-            sender.sendMessage("§cInvalid number for seconds: " + args[1]);
+            reply(sender, Message.COMMAND_INVALID_SECONDS, args[1]);
             return true;
         }
 
         String streamer = args[2];
-        List<String> options = Arrays.asList(Arrays.copyOfRange(args, 3, args.length));
+        List<String> options = expandOptions(Arrays.copyOfRange(args, 3, args.length), Bukkit.getWorld(worldName));
 
-        if (options.size() < 1) {
-            sender.sendMessage("§cYou must provide at least one voting option.");
+        String problem = checkVote(seconds, options, rolling);
+        if (problem != null) {
+            reply(sender, Message.COMMAND_ERROR, problem);
+            return true;
+        }
+
+        startVote(worldName, starterUuid, streamer, options, seconds, rolling).whenComplete((started, error) -> {
+            if (error != null) {
+                reply(sender, Message.START_FAILED, error.getMessage());
+                return;
+            }
+            reply(sender, rolling ? Message.START_POLL_CONFIRMED : Message.START_CONFIRMED, seconds, streamer);
+        });
+        return true;
+    }
+
+    /**
+     * Handles the /vote queue command: lists the queue, plays a playlist, adds a vote or clears it.
+     */
+    private boolean handleQueueCommand(CommandSender sender, String[] args, boolean isCommandBlock) {
+        if (!sender.hasPermission("voting.manage") && !isCommandBlock) {
+            reply(sender, Message.PERMISSION_QUEUE);
             return true;
         }
 
-        if (options.size() > 20) {
-            sender.sendMessage("§cMaximum 20 voting options allowed.");
+        String action = args.length > 1 ? args[1].toLowerCase() : "list";
+        if (action.equals("list")) {
+            List<VoteQueue.Entry> entries = voteQueue.getEntries();
+            if (entries.isEmpty()) {
+                reply(sender, Message.QUEUE_EMPTY);
+                return true;
+            }
+            reply(sender, Message.QUEUE_LIST, entries.size());
+            MessageBundle messages = messagesFor(sender);
+            for (int i = 0; i < entries.size(); i++) {
+                Object status = i > 0 ? ""
+                        : messages.renderComponent(voteQueue.isNextReady() ? Message.QUEUE_READY : Message.QUEUE_CONNECTING);
+                reply(sender, Message.QUEUE_ENTRY, i + 1, entries.get(i).describe(), status);
+            }
+            return true;
+        }
+        if (action.equals("clear")) {
+            voteQueue.clear();
+            reply(sender, Message.QUEUE_CLEARED);
+            return true;
+        }
+        if (!action.equals("play") && !action.equals("add")) {
+            reply(sender, Message.QUEUE_USAGE);
+            return true;
+        }
+
+        if (isClusterFollower()) {
+            reply(sender, Message.QUEUE_FOLLOWER);
+            return true;
+        }
+        String worldName;
+        UUID starterUuid = null;
+        if (sender instanceof Player player) {
+            worldName = player.getWorld().getName();
+            starterUuid = player.getUniqueId();
+        } else if (isCommandBlock) {
+            worldName = ((BlockCommandSender) sender).getBlock().getWorld().getName();
+        } else {
+            reply(sender, Message.QUEUE_NOT_PLAYER);
             return true;
         }
 
+        List<VoteQueue.Entry> entries;
+        if (action.equals("play")) {
+            if (args.length < 3) {
+                reply(sender, Message.QUEUE_PLAY_USAGE);
+                return true;
+            }
+            try {
+                entries = voteQueue.loadPlaylist(args[2]);
+            } catch (IllegalArgumentException e) {
+                reply(sender, Message.COMMAND_ERROR, e.getMessage());
+                return true;
+            }
+        } else {
+            if (args.length < 5) {
+                reply(sender, Message.QUEUE_ADD_USAGE);
+                return true;
+            }
+            int seconds;
+            try {
+                seconds = Integer.parseInt(args[2]);
+            } catch (NumberFormatException e) {
+                reply(sender, Message.COMMAND_INVALID_SECONDS, args[2]);
+                return true;
+            }
+            List<String> options = List.of(Arrays.copyOfRange(args, 4, args.length));
+            String problem = checkVote(seconds, options, false);
+            if (problem != null) {
+                reply(sender, Message.COMMAND_ERROR, problem);
+                return true;
+            }
+            entries = List.of(new VoteQueue.Entry(args[3], options, seconds, VoteQueue.DEFAULT_DELAY_SECONDS));
+        }
+
+        boolean idle = state.get() == null && !starting;
+        voteQueue.enqueue(worldName, starterUuid, entries);
+        reply(sender, idle ? Message.QUEUE_ADDED : Message.QUEUE_ADDED_NEXT, entries.size());
+        return true;
+    }
+
+    /**
+     * @return Whether votes on this server are followed from a cluster leader instead of started here
+     */
+    boolean isClusterFollower() {
+        VoteCluster cluster = plugin.getVoteCluster();
+        return cluster != null && cluster.isFollower();
+    }
+
+    /**
+     * Checks a vote's duration and options against the configured limits.
+     *
+     * @param seconds The vote duration, or the window for rolling polls
+     * @param options The voting options
+     * @param rolling Whether this is a rolling poll
+     * @return What is wrong, or null if the vote can be started
+     */
+    String checkVote(int seconds, List<String> options, boolean rolling) {
+        VoteConfig config = plugin.getVoteConfig();
+        if (seconds < config.minDuration() || seconds > config.maxDuration()) {
+            return (rolling ? "Poll window" : "Voting duration") + " must be between " +
+                   config.minDuration() + " and " + config.maxDuration() + " seconds.";
+        }
+        if (options.size() < 1) {
+            return "You must provide at least one voting option.";
+        }
+        if (options.size() > config.maxOptions()) {
+            return "Maximum " + config.maxOptions() + " voting options allowed.";
+        }
+        return null;
+    }
+
+    /**
+     * Starts a vote that passed {@link #checkVote}: connects to Twitch asynchronously, then publishes
+     * the vote, announces it and shows it. Must be called on the main thread while no vote is running.
+     *
+     * @param worldName The world to show the vote in
+     * @param starterUuid The player who started the vote, or null
+     * @param streamer The Twitch channel to read votes from
+     * @param options The voting options
+     * @param seconds The vote duration, or the window for rolling polls
+     * @param rolling Whether to start a rolling poll (runs until stopped, counting only recent votes)
+     * @return Completes on the main thread with the published state once the vote is shown, or exceptionally
+     *         if it couldn't be started
+     */
+    CompletableFuture<VoteState> startVote(String worldName, UUID starterUuid, String streamer, List<String> options,
+                                           int seconds, boolean rolling) {
+        CompletableFuture<VoteState> started = new CompletableFuture<>();
+        clearPreviousVote();
+
+        // Connect to Twitch asynchronously
+        starting = true;
+        plugin.getVoteScheduler().runAsync(() -> {
+            PreparedVote prepared;
+            try {
+                prepared = prepareVote(worldName, starterUuid, streamer, options, seconds, rolling);
+            } catch (RuntimeException e) {
+                plugin.getVoteScheduler().run(() -> startFailed(started, e));
+                return;
+            }
+
+            // Back to main thread to publish the vote, schedule tasks and send messages
+            plugin.getVoteScheduler().run(() -> {
+                try {
+                    VoteState opened = openVote(prepared);
+                    starting = false;
+                    started.complete(opened);
+                } catch (RuntimeException e) {
+                    // Take down whatever was published before it failed
+                    if (!stopVote()) {
+                        plugin.getVoteScheduler().runAsync(prepared.session()::stop);
+                    }
+                    startFailed(started, e);
+                }
+            });
+        });
+
+        return started;
+    }
+
+    /**
+     * Lets votes be started again after one failed to, and passes the error on. Main thread only.
+     */
+    private void startFailed(CompletableFuture<VoteState> started, RuntimeException error) {
+        starting = false;
+        plugin.getLogger().log(Level.SEVERE, "Failed to start a vote", error);
+        started.completeExceptionally(error);
+        // Queued votes waited for this one
+        voteQueue.startFailed();
+    }
+
+    /**
+     * Builds a vote's session and connects it to Twitch, so it can be opened later without waiting.
+     * Blocks while connecting, so call it off the main thread. The session ignores chat until opened.
+     *
+     * @param worldName The world to show the vote in
+     * @param starterUuid The player who started the vote, or null
+     * @param streamer The Twitch channel to read votes from
+     * @param options The voting options
+     * @param seconds The vote duration, or the window for rolling polls
+     * @param rolling Whether this is a rolling poll
+     * @return The connected vote
+     * @throws RuntimeException If the session couldn't be built or connected; nothing is left running then
+     */
+    PreparedVote prepareVote(String worldName, UUID starterUuid, String streamer, List<String> options, int seconds,
+                             boolean rolling) {
+        VoteConfig config = plugin.getVoteConfig();
+        // Approximate counting only applies to multiple vote mode, single vote mode needs exact ballots
+        boolean approximate = !rolling && config.approximateMode() && !config.singleVoteMode();
+
+        // Compile option names and aliases once per session, off the main thread
+        OptionMatcher matcher = config.keywordMode()
+                ? OptionMatcher.withKeywords(options, config.aliases())
+                : OptionMatcher.numeric(options.size());
+        Supplier<BallotStore> newStore;
+        if (rolling) {
+            newStore = () -> new RollingBallotStore(options.size(), seconds);
+        } else if (approximate) {
+            newStore = () -> new ApproximateBallotStore(options.size());
+        } else {
+            newStore = () -> new ExactBallotStore(options.size());
+        }
+        // Quarantined votes are kept in a store like the session's so they can be added to its counts
+        RaidDetector raids = config.raidMode() == RaidDetector.Mode.OFF ? null
+                : new RaidDetector(config.raidMode(), options.size(), config.raidBurstFactor(), config.raidMinRate(),
+                        config.raidMode() == RaidDetector.Mode.QUARANTINE ? newStore.get() : null,
+                        config.raidIncludeQuarantined());
+        TwitchVoteSession session = new TwitchVoteSession(plugin, streamer, matcher, newStore.get(), raids);
+        try {
+            session.start();
+        } catch (RuntimeException e) {
+            session.stop();
+            throw e;
+        }
+        return new PreparedVote(session, worldName, starterUuid, options, seconds, rolling, config.keywordMode(), approximate);
+    }
+
+    /**
+     * Opens a prepared vote: starts counting its chat, publishes it, announces it and shows it.
+     * Main thread only, while no vote is running.
+     *
+     * @return The published state
+     */
+    VoteState openVote(PreparedVote prepared) {
+        clearPreviousVote();
+        prepared.session().open();
+        VoteState initial = prepared.rolling()
+                ? VoteState.startRolling(prepared.session(), prepared.options(), prepared.worldName(),
+                        prepared.starterUuid(), prepared.seconds())
+                : VoteState.start(prepared.session(), prepared.options(), prepared.worldName(),
+                        prepared.starterUuid(), prepared.seconds());
+        publishVote(initial, prepared.keywordMode(), plugin.isSingleVoteMode(), prepared.approximate(), true);
+
+        // Set up automatic vote ending, rolling polls run until stopped
+        if (stopTask != null) {
+            stopTask.cancel();
+            stopTask = null;
+        }
+        if (!prepared.rolling()) {
+            stopTask = plugin.getVoteScheduler().runLater(this::stopVote, prepared.seconds() * 20L);
+        }
+
+        // Let other plugins know, then start their throttled tally updates
+        plugin.getVotingService().fireStart(initial);
+        plugin.getVotingService().startTallyEvents(state::get);
+        voteQueue.voteOpened();
+        return initial;
+    }
+
+    /**
+     * Takes down the previous vote's results and timers, and releases its ballots.
+     */
+    private void clearPreviousVote() {
         // If showing results from a previous vote, clean those up first
         if (showingResults) {
+            // Cut short before its results were hidden, so its metrics are logged now
+            plugin.getVoteMetrics().voteFinished();
             cleanupResultTasks();
             // Also make sure scoreboard results are removed
             plugin.getVoteScoreboard().hideAllScoreboards();
+            plugin.getVoteBarDisplay().hide();
         }
 
         // Ensure any previous timers are fully cancelled
         cleanupTasks();
 
-        // Store vote session data
-        this.voteStarterUuid = starterUuid;  // May be null for command blocks
-        this.voteWorldName = worldName;
-        this.voteOptions = options;
-        this.totalSeconds = seconds;
-        this.remainingSeconds = seconds;
+        // Release the previous vote's ballots
+        lastResult = null;
+    }
 
-        // Connect to Twitch asynchronously
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            TwitchVoteSession session = new TwitchVoteSession(plugin, streamer, options.size());
-            session.start();
-            this.currentSession = session;
-
-            // Back to main thread to schedule tasks and send messages
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                sender.sendMessage("§aVoting started for " + seconds + " seconds in Twitch channel: " + streamer);
-
-                sendMessageToWorld("§eA vote has started! Use Twitch chat to vote.");
-                sendMessageToWorld("§eVote in Twitch chat: twitch.tv/" + streamer);
-
-                // Inform about current vote mode
-                String voteMode = plugin.isSingleVoteMode() ? "last vote only" : "multiple votes";
-                sendMessageToWorld("§eVote mode: §6" + voteMode);
-
-                // Start timer for countdown on main thread
-                startCountdownTimer();
-
-                // Setup display based on current mode
-                if (plugin.isUsingScoreboard()) {
-                    // Get players in world and show scoreboard
-                    List<Player> worldPlayers = getPlayersInWorld(getWorld());
-                    plugin.getVoteScoreboard().showVoting(voteOptions, currentSession, worldPlayers, seconds);
-                } else {
-                    // If chat mode, start updates
-                    startChatUpdates();
-                }
+    /**
+     * Publishes a vote that is ready to show, announces it and starts its timers and displays.
+     *
+     * @param restartCountdown Whether the countdown starts from the full duration; false for votes
+     *                         followed from a cluster leader, which keep the leader's time
+     */
+    private void publishVote(VoteState initial, boolean keywordMode, boolean singleVote, boolean approximate,
+                             boolean restartCountdown) {
+        String worldName = initial.worldName();
+        // Followers never connect to Twitch, so there is no connection to report on
+        plugin.getVoteMetrics().reset(initial.isRemote() ? null : initial.session().getConnection());
+        state.set(initial);
+        if (initial.isRolling()) {
+            sendMessageToWorld(Message.POLL_STARTED, initial.windowSeconds());
+        } else {
+            sendMessageToWorld(Message.VOTE_STARTED);
+        }
+        if (keywordMode) {
+            sendMessageToWorld(Message.KEYWORD_HINT);
+        }
+        sendMessageToWorld(Message.VOTE_CHANNEL, initial.session().getChannel());
 
-                // Set up automatic vote ending
-                if (stopTask != null) {
-                    stopTask.cancel();
-                }
-                stopTask = Bukkit.getScheduler().runTaskLater(plugin, this::stopVote, seconds * 20L);
-            });
-        });
+        // Inform about current vote mode
+        boolean rolling = initial.isRolling();
+        sendMessageToWorld(worldName, Message.VOTE_MODE, messages -> messages.renderComponent(Message.VOTE_MODE,
+                describeVoteMode(messages, rolling, singleVote, approximate)));
 
-        return true;
+        // Start timer for countdown on main thread and keep the published counts fresh
+        startCountdownTimer(restartCountdown);
+        startTallyRefresh();
+
+        // Setup display based on current mode
+        showLiveDisplay();
+    }
+
+    /**
+     * Shows a vote running on the cluster leader. Its counts and time are updated by the cluster's
+     * frames, and it ends when the leader's does. Main thread only, while no vote is running.
+     *
+     * @param worldName The world to show the vote in
+     * @param channel The leader's Twitch channel
+     * @param options The voting options
+     * @param ballots Holds the counts sent by the leader
+     * @param keywordMode Whether the leader counts option names typed in chat
+     * @param singleVote Whether the leader only counts each viewer's last vote
+     */
+    void startRemoteVote(String worldName, String channel, List<String> options, RemoteBallotStore ballots,
+                         int totalSeconds, int remainingSeconds, int elapsedSeconds, int windowSeconds,
+                         boolean keywordMode, boolean singleVote) {
+        if (showingResults) {
+            cleanupResultTasks();
+            plugin.getVoteScoreboard().hideAllScoreboards();
+            plugin.getVoteBarDisplay().hide();
+        }
+        cleanupTasks();
+        lastResult = null;
+
+        // The session is never started, this server doesn't connect to Twitch
+        TwitchVoteSession session = new TwitchVoteSession(plugin, channel, OptionMatcher.numeric(options.size()), ballots);
+        int[] counts = ballots.counts();
+        VoteState initial = new VoteState(session, options, worldName, null, totalSeconds, remainingSeconds,
+                elapsedSeconds, windowSeconds, counts, SparseTally.topOptions(counts, BallotStore.LEADERBOARD_SIZE));
+        publishVote(initial, keywordMode, singleVote, !ballots.isExact() && !ballots.isRolling(), false);
+
+        plugin.getVotingService().fireStart(initial);
+        plugin.getVotingService().startTallyEvents(state::get);
+    }
+
+    /**
+     * Corrects the countdown of a vote followed from the cluster leader. Main thread only.
+     */
+    void syncRemoteTime(int remainingSeconds, int elapsedSeconds) {
+        VoteState current = state.updateAndGet(s -> s != null && s.isRemote()
+                ? s.withTime(remainingSeconds, elapsedSeconds) : s);
+        if (current != null && current.isRemote() && !current.isRolling()) {
+            plugin.getVoteScoreboard().updateRemainingTime(current.remainingSeconds());
+        }
+    }
+
+    /**
+     * Names a vote mode for the start and mode change announcements.
+     */
+    private static Component describeVoteMode(MessageBundle messages, boolean rolling, boolean singleVote, boolean approximate) {
+        Component mode = messages.renderComponent(rolling ? Message.MODE_ROLLING
+                : singleVote ? Message.MODE_SINGLE : Message.MODE_MULTIPLE);
+        return approximate ? messages.renderComponent(Message.MODE_APPROXIMATE, mode) : mode;
+    }
+
+    /**
+     * Expands option shorthands for large votes: {@code #N} becomes the numbers 1 to N,
+     * and {@code @players} the names of the players in the vote's world.
+     */
+    List<String> expandOptions(String[] args, World world) {
+        List<String> options = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equalsIgnoreCase("@players")) {
+                for (Player player : getPlayersInWorld(world)) {
+                    options.add(player.getName());
+                }
+            } else if (arg.matches("#\\d{1,9}")) {
+                // Stop at the first number past the supported maximum, the option count check reports it
+                int count = Math.min(Integer.parseInt(arg.substring(1)), ExactBallotStore.MAX_OPTIONS + 1);
+                for (int i = 1; i <= count; i++) {
+                    options.add(String.valueOf(i));
+                }
+            } else {
+                options.add(arg);
+            }
+        }
+        return options;
     }
 
     /**
@@ -214,6 +596,15 @@ public class VoteCommandExecutor implements CommandExecutor {
             updateTask.cancel();
             updateTask = null;
         }
+
+        // Cancel any existing tally refresh task
+        if (tallyTask != null) {
+            tallyTask.cancel();
+            tallyTask = null;
+        }
+
+        // Stop the API's tally events
+        plugin.getVotingService().stopTallyEvents();
     }
 
     /**
@@ -221,7 +612,7 @@ public class VoteCommandExecutor implements CommandExecutor {
      */
     private void cleanupResultTasks() {
         // Cancel any result display tasks
-        for (BukkitTask task : resultDisplayTasks) {
+        for (VoteScheduler.Task task : resultDisplayTasks) {
             try {
                 task.cancel();
             } catch (Exception e) {
@@ -237,228 +628,650 @@ public class VoteCommandExecutor implements CommandExecutor {
      */
     private boolean handleStopCommand(CommandSender sender, boolean isCommandBlock) {
         if (!sender.hasPermission("voting.manage") && !isCommandBlock) {
-            sender.sendMessage("§cYou do not have permission to stop a vote.");
+            reply(sender, Message.PERMISSION_STOP);
             return true;
         }
 
-        if (currentSession == null) {
-            sender.sendMessage("§cNo voting session is currently running.");
+        if (isClusterFollower()) {
+            reply(sender, Message.COMMAND_FOLLOWER);
+            return true;
+        }
+
+        if (state.get() == null) {
+            reply(sender, Message.STOP_NOT_RUNNING);
             return true;
         }
 
         // First inform the user that we're stopping
-        sender.sendMessage("§eStopping the vote...");
+        reply(sender, Message.STOP_STOPPING);
 
         // Run on main thread to ensure proper synchronization
-        Bukkit.getScheduler().runTask(plugin, () -> {
+        plugin.getVoteScheduler().run(() -> {
             // Stop the vote and clean up
             stopVote();
             // Notify the sender once complete
-            sender.sendMessage("§aVoting session stopped.");
+            reply(sender, Message.STOP_CONFIRMED);
         });
 
         return true;
     }
 
     /**
-     * Handles the /vote reload command.
+     * Handles the /vote reload command. The running vote keeps counting throughout.
      */
     private boolean handleReloadCommand(CommandSender sender) {
         if (!sender.hasPermission("voting.admin")) {
-            sender.sendMessage("§cYou do not have permission to reload the configuration.");
+            reply(sender, Message.PERMISSION_RELOAD);
             return true;
         }
 
-        // Check if a vote is currently running
-        boolean voteWasActive = false;
-        int remainingTimeBackup = 0;
+        plugin.reloadConfigAsync(result -> {
+            if (result.error() != null) {
+                reply(sender, Message.RELOAD_FAILED, result.error());
+                return;
+            }
+            reply(sender, Message.RELOAD_CONFIRMED, String.format("%.1f", (result.loadNanos() + result.swapNanos()) / 1e6),
+                    String.format("%.2f", result.swapNanos() / 1e6));
+            for (String note : result.notes()) {
+                reply(sender, Message.RELOAD_NOTE, note);
+            }
+        });
+        return true;
+    }
 
-        if (currentSession != null) {
-            voteWasActive = true;
-            remainingTimeBackup = remainingSeconds;
-            sender.sendMessage("§eWARNING: A vote is in progress. Stopping it before reload.");
+    /**
+     * Moves the running vote over to reloaded settings. Only displays whose settings changed are
+     * touched: new messages (including colors and locales) rebuild the sidebar and re-render the bars,
+     * and a new default mode moves the players without a preference. Chat tables pick both up on their
+     * next refresh; the map chart and overlay are handled by the plugin. The tally events follow their
+     * new rate; how chat is counted stays as the vote started, so its ballots aren't counted two ways.
+     * Main thread only.
+     *
+     * @param previous The settings before the reload
+     * @param current The reloaded settings, already in use
+     * @param messagesChanged Whether the reloaded messages render anything differently
+     * @return Notes on settings that only take effect from the next vote
+     */
+    List<String> configReloaded(VoteConfig previous, VoteConfig current, boolean messagesChanged) {
+        VoteState running = state.get();
+        if (running == null || running.isRemote()) return List.of();
 
-            // Stop the vote - run synchronously since we're in the command thread
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                stopVote();
-                sender.sendMessage("§eVote stopped for configuration reload.");
-            });
+        if (messagesChanged) {
+            // The sidebar's title and fixed lines are only rendered when it is created
+            plugin.getVoteScoreboard().hideAllScoreboards();
+            showSidebar();
+            plugin.getVoteBarDisplay().rerender();
+        } else if (previous.displayMode() != current.displayMode()) {
+            // Bars and chat follow display modes on their own
+            for (Player player : getPlayersInWorld(getWorld())) {
+                if (plugin.getDisplayMode(player) != DisplayMode.SCOREBOARD) {
+                    plugin.getVoteScoreboard().hideScoreboard(player);
+                }
+            }
+            showSidebar();
+        }
+        if (previous.tallyEventsPerSecond() != current.tallyEventsPerSecond()) {
+            plugin.getVotingService().startTallyEvents(state::get);
         }
 
-        // Reload the plugin's configuration
-        plugin.reloadConfig();
-        sender.sendMessage("§aConfiguration reloaded successfully.");
+        List<String> later = new ArrayList<>();
+        if (previous.keywordMode() != current.keywordMode() || !previous.aliases().equals(current.aliases())) {
+            later.add("keyword mode and aliases");
+        }
+        if (previous.approximateMode() != current.approximateMode()) {
+            later.add("approximate mode");
+        }
+        if (previous.raidMode() != current.raidMode() || previous.raidBurstFactor() != current.raidBurstFactor()
+                || previous.raidMinRate() != current.raidMinRate()
+                || previous.raidIncludeQuarantined() != current.raidIncludeQuarantined()) {
+            later.add("raid settings");
+        }
+        if (later.isEmpty()) return List.of("The running vote kept counting and now uses the new settings.");
+        return List.of("The running vote kept counting; its " + String.join(", ", later)
+                + " apply from the next vote.");
+    }
 
-        // If a vote was active, inform the user it was stopped
-        if (voteWasActive) {
-            sender.sendMessage("§cThe active vote was stopped during config reload.");
-            sender.sendMessage("§eIt had " + remainingTimeBackup + " seconds remaining.");
-            sender.sendMessage("§eYou may start a new vote if needed.");
+    /**
+     * Handles the /vote togglemode command. Without an argument it cycles to the next display mode.
+     */
+    private boolean handleToggleModeCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("voting.manage")) {
+            reply(sender, Message.PERMISSION_TOGGLEMODE);
+            return true;
+        }
+
+        DisplayMode newMode;
+        if (args.length > 1) {
+            newMode = DisplayMode.fromName(args[1]);
+            if (newMode == null) {
+                reply(sender, Message.TOGGLEMODE_USAGE);
+                return true;
+            }
+        } else {
+            newMode = plugin.getDisplayMode().next();
+        }
+
+        plugin.setDisplayMode(newMode);
+        reply(sender, Message.TOGGLEMODE_CONFIRMED, newMode.getDisplayName());
+
+        // If there's an active vote, refresh the display with the new mode
+        if (state.get() != null) {
+            hideLiveDisplay();
+            showLiveDisplay();
         }
 
         return true;
     }
 
     /**
-     * Handles the /vote togglemode command.
+     * Shows the running vote to every player in the vote's world in their display mode.
+     * Each mode renders once per refresh and is shared by all players who chose it.
      */
-    private boolean handleToggleModeCommand(CommandSender sender) {
-        if (!sender.hasPermission("voting.manage")) {
-            sender.sendMessage("§cYou do not have permission to toggle display mode.");
-            return true;
+    private void showLiveDisplay() {
+        showSidebar();
+        startChatUpdates();
+        // Shared bars follow the players in the vote's world on their own
+        plugin.getVoteBarDisplay().showVoting(state::get);
+    }
+
+    /**
+     * Shows the running vote's sidebar to the players in the vote's world who use it.
+     */
+    private void showSidebar() {
+        List<Player> sidebarPlayers = getPlayersInMode(getWorld(), DisplayMode.SCOREBOARD);
+        if (!sidebarPlayers.isEmpty()) {
+            plugin.getVoteScoreboard().showVoting(state::get, sidebarPlayers);
         }
+    }
 
-        boolean newMode = !plugin.isUsingScoreboard();
-        plugin.setUsingScoreboard(newMode);
-        sender.sendMessage("§aDisplay mode set to: " + (newMode ? "Scoreboard" : "Chat"));
+    /**
+     * Handles the /vote display command, which sets the player's own display mode.
+     */
+    private boolean handleDisplayCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("voting.use")) {
+            reply(sender, Message.PERMISSION_DISPLAY);
+            return true;
+        }
+        if (!(sender instanceof Player)) {
+            reply(sender, Message.DISPLAY_NOT_PLAYER);
+            return true;
+        }
 
-        // If there's an active vote, update the display
-        if (currentSession != null) {
-            // Refresh the display with the new mode
-            if (newMode) {
-                // Show scoreboard for current vote
-                List<Player> worldPlayers = getPlayersInWorld(getWorld());
-                plugin.getVoteScoreboard().showVoting(voteOptions, currentSession, worldPlayers, remainingSeconds);
-            } else {
-                // Hide scoreboards and show chat display instead
-                plugin.getVoteScoreboard().hideAllScoreboards();
-                sendVotingTable(false);
-            }
+        Player player = (Player) sender;
+        DisplayMode mode = null;
+        if (args.length < 2 || (!args[1].equalsIgnoreCase("default") && (mode = DisplayMode.fromName(args[1])) == null)) {
+            DisplayMode current = plugin.getDisplayPreferences().get(player.getUniqueId());
+            reply(sender, Message.DISPLAY_CURRENT, current != null ? current.getDisplayName()
+                    : messagesFor(sender).renderComponent(Message.DISPLAY_DEFAULT));
+            reply(sender, Message.DISPLAY_USAGE);
+            return true;
         }
 
+        plugin.getDisplayPreferences().set(player.getUniqueId(), mode);
+        reply(sender, Message.DISPLAY_CONFIRMED, mode != null ? mode.getDisplayName()
+                : messagesFor(sender).renderComponent(Message.DISPLAY_DEFAULT));
+
+        // Move the player to the new display right away; bars and chat pick it up on their next refresh
+        if (state.get() != null) {
+            plugin.getVoteScoreboard().hideScoreboard(player);
+            plugin.getVoteBarDisplay().hide(player);
+            showScoreboardToPlayer(player);
+        }
         return true;
     }
 
+    /**
+     * Removes the live display of the running vote in every mode.
+     */
+    private void hideLiveDisplay() {
+        plugin.getVoteScoreboard().hideAllScoreboards();
+        plugin.getVoteBarDisplay().hide();
+        if (updateTask != null) {
+            updateTask.cancel();
+            updateTask = null;
+        }
+    }
+
     /**
      * Handles the /vote togglevote command to switch between single and multiple vote modes.
      */
     private boolean handleToggleVoteCommand(CommandSender sender) {
         if (!sender.hasPermission("voting.manage")) {
-            sender.sendMessage("§cYou do not have permission to toggle vote mode.");
+            reply(sender, Message.PERMISSION_TOGGLEVOTE);
             return true;
         }
 
         boolean newMode = !plugin.isSingleVoteMode();
         plugin.setSingleVoteMode(newMode);
 
-        String modeDescription = newMode ?
-            "Single vote mode (only last vote counts)" :
-            "Multiple vote mode (all votes count)";
-
-        sender.sendMessage("§aVote mode set to: " + modeDescription);
+        reply(sender, newMode ? Message.TOGGLEVOTE_SINGLE : Message.TOGGLEVOTE_MULTIPLE);
 
         // If there's an active vote, let users know about the mode change
-        if (currentSession != null) {
-            sendMessageToWorld("§eVote mode changed to: §6" + modeDescription);
+        VoteState current = state.get();
+        if (current != null) {
+            if (current.isRolling()) {
+                // Rolling polls keep the mode they started with, so no viewer is counted both ways
+                reply(sender, Message.TOGGLEVOTE_POLL_UNCHANGED);
+            } else if (current.session().isApproximate()) {
+                // Sketches cannot replace votes, so the running vote keeps counting all votes
+                reply(sender, Message.TOGGLEVOTE_APPROXIMATE_UNCHANGED);
+            } else {
+                sendMessageToWorld(current.worldName(), Message.MODE_CHANGED, messages ->
+                        messages.renderComponent(Message.MODE_CHANGED, describeVoteMode(messages, false, newMode, false)));
+            }
         }
 
         return true;
     }
 
     /**
-     * Displays the help message for the /vote command.
+     * Handles the /vote export command, writing the running or last finished vote's ballots to disk.
      */
-    private void showHelpMessage(CommandSender sender) {
-        sender.sendMessage("§e/vote start <seconds> <streamer> <option1> <option2> ...");
-        sender.sendMessage("§e/vote stop");
-        sender.sendMessage("§e/vote togglemode - Switch between scoreboard and chat display");
-        sender.sendMessage("§e/vote togglevote - Switch between single vote and multiple votes mode");
-        sender.sendMessage("§e/vote reload - Reload plugin configuration");
-        sender.sendMessage("§e/vote help");
+    private boolean handleExportCommand(CommandSender sender, boolean isCommandBlock) {
+        if (!sender.hasPermission("voting.manage") && !isCommandBlock) {
+            reply(sender, Message.PERMISSION_EXPORT);
+            return true;
+        }
+
+        VoteResult result;
+        VoteState current = state.get();
+        if (current != null) {
+            // Live export of the running vote, ballots keep arriving while it streams
+            RaidDetector raids = current.session().getRaidDetector();
+            result = resultOf(current.session(), current.options(),
+                    raids != null ? raids.finalCounts(current.session().getBallots()) : current.counts());
+        } else {
+            result = lastResult;
+        }
+
+        if (result == null) {
+            reply(sender, Message.EXPORT_NOTHING);
+            return true;
+        }
+
+        reply(sender, Message.EXPORT_STARTED);
+        exportAsync(result, sender);
+        return true;
     }
 
     /**
-     * Stops the current voting session and displays results.
+     * Snapshots a vote for export, with its raid quarantine and whether the counts include it.
      */
-    private void stopVote() {
-        if (currentSession != null) {
-            // Create a local reference to prevent race conditions
-            TwitchVoteSession sessionToStop = currentSession;
-
-            // First mark session as stopping to prevent new votes
-            synchronized (sessionToStop) {
-                // Capture the final results before stopping the session
-                final int[] finalResults = sessionToStop.getVoteCounts();
-                final List<String> finalOptions = new ArrayList<>(voteOptions);
-                final String finalWorldName = voteWorldName;
-
-                // Disconnect from Twitch in async thread (we're already in async context)
-                sessionToStop.stop();
-
-                // Send results table and schedule cleanup on main thread
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    // Cancel all scheduled tasks
-                    cleanupTasks();
-
-                    // Clean up any previous result tasks just in case
-                    cleanupResultTasks();
-
-                    // Mark that we're showing results
-                    showingResults = true;
-
-                    // Display results based on current mode
-                    if (plugin.isUsingScoreboard()) {
-                        // Show scoreboard results
-                        List<Player> worldPlayers = getPlayersInWorld(getWorld());
-                        plugin.getVoteScoreboard().showResults(finalOptions, finalResults, worldPlayers);
-
-                        // Schedule scoreboards to be hidden after configured display time
-                        int displayTime = plugin.getConfig().getInt("display.results_display_time", 60);
-                        BukkitTask hideTask = Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                            plugin.getVoteScoreboard().hideAllScoreboards();
-                            sendMessageToWorld("§eThe vote has ended.");
-                            showingResults = false;
-                            resultDisplayTasks.clear();
-                        }, displayTime * 20L);
-                        resultDisplayTasks.add(hideTask);
-                    } else {
-                        // Use chat display with the captured results
-                        displayChatResults(finalOptions, finalResults, finalWorldName);
-
-                        // Remove table after configured display time
-                        int displayTime = plugin.getConfig().getInt("display.results_display_time", 60);
-                        BukkitTask hideTask = Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                            clearVotingTable();
-                            sendMessageToWorld("§eThe vote has ended.");
-                            showingResults = false;
-                            resultDisplayTasks.clear();
-                        }, displayTime * 20L);
-                        resultDisplayTasks.add(hideTask);
-                    }
+    private static VoteResult resultOf(TwitchVoteSession session, List<String> options, int[] counts) {
+        RaidDetector raids = session.getRaidDetector();
+        BallotStore quarantine = raids != null ? raids.getQuarantine() : null;
+        return new VoteResult(session.getChannel(), options, counts, session.getBallots(), quarantine,
+                quarantine != null && raids.isIncludeQuarantined(), Instant.now());
+    }
 
-                    // Delay the final notification to show it after results are displayed
-                    // For scoreboard mode, show immediately, for chat mode delay by a bit
-                    if (plugin.isUsingScoreboard()) {
-                        sendMessageToWorld("§6§lThe vote has ended! Results are displayed.");
-                    } else {
-                        // For chat mode, delay to ensure results are shown first
-                        // Delay is based on number of options (options + header + footer = options.size() + 5)
-                        BukkitTask messageTask = Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                            sendMessageToWorld("§6§lThe vote has ended! Results are displayed.");
-                        }, finalOptions.size() + 6);
-                        resultDisplayTasks.add(messageTask);
-                    }
-                });
+    /**
+     * Handles the /vote map command, which gives the player a new wall of chart maps.
+     */
+    private boolean handleMapCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("voting.manage")) {
+            reply(sender, Message.PERMISSION_MAP);
+            return true;
+        }
+        if (!(sender instanceof Player)) {
+            reply(sender, Message.CHART_NOT_PLAYER);
+            return true;
+        }
+
+        int width = 4;
+        int height = 3;
+        try {
+            if (args.length > 1) width = Integer.parseInt(args[1]);
+            if (args.length > 2) height = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            reply(sender, Message.CHART_USAGE);
+            return true;
+        }
+        if (width < 1 || height < 1 || width > VoteMapChart.MAX_WALL_SIZE || height > VoteMapChart.MAX_WALL_SIZE) {
+            reply(sender, Message.CHART_SIZE, VoteMapChart.MAX_WALL_SIZE);
+            return true;
+        }
+
+        Player player = (Player) sender;
+        List<ItemStack> maps = plugin.getVoteMapChart().createWall(player.getWorld(), width, height);
+        for (ItemStack leftover : player.getInventory().addItem(maps.toArray(new ItemStack[0])).values()) {
+            player.getWorld().dropItemNaturally(player.getLocation(), leftover);
+        }
+
+        reply(sender, Message.CHART_CONFIRMED, width, height);
+        return true;
+    }
+
+    /**
+     * Handles the /vote metrics command, which shows what the current or last vote cost the server
+     * and compares it with the saved baseline, or saves it as the new baseline.
+     */
+    private boolean handleMetricsCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("voting.admin")) {
+            reply(sender, Message.PERMISSION_METRICS);
+            return true;
+        }
+
+        VoteMetrics metrics = plugin.getVoteMetrics();
+        VoteMetrics.Summary summary = metrics.summary();
+        if (args.length > 1 && args[1].equalsIgnoreCase("baseline")) {
+            try {
+                metrics.saveBaseline(summary);
+                reply(sender, Message.METRICS_BASELINE_SAVED);
+            } catch (IOException e) {
+                reply(sender, Message.METRICS_BASELINE_FAILED, e.getMessage());
+                return true;
+            }
+        }
+
+        reply(sender, state.get() != null ? Message.METRICS_HEADER_RUNNING : Message.METRICS_HEADER,
+                String.format("%.0f", summary.seconds()));
+        for (String line : summary.describe()) {
+            reply(sender, Message.METRICS_LINE, line);
+        }
+        ChatConnectionTracker connection = metrics.getConnection();
+        if (connection != null) {
+            for (String line : connection.describe()) {
+                reply(sender, Message.METRICS_LINE, line);
             }
+        }
+        for (String line : plugin.describeFootprint()) {
+            reply(sender, Message.METRICS_LINE, line);
+        }
 
-            currentSession = null;
-            voteStarterUuid = null;
-            voteWorldName = null;
-            voteOptions = null;
-            remainingSeconds = 0; // Reset the timer to prevent lingering timer state
-            totalSeconds = 0; // Also reset total seconds
+        VoteMetrics.Summary baseline = metrics.loadBaseline();
+        if (baseline == null) {
+            reply(sender, Message.METRICS_NO_BASELINE);
+            return true;
+        }
+        List<String> regressions = VoteMetrics.regressions(summary, baseline);
+        if (regressions.isEmpty()) {
+            reply(sender, Message.METRICS_WITHIN_BASELINE);
         } else {
+            for (String regression : regressions) {
+                reply(sender, Message.METRICS_REGRESSION, regression);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Handles the /vote quarantine command: shows the running vote's suspected raid votes, and
+     * with include or exclude decides whether quarantined votes count when it ends.
+     */
+    private boolean handleQuarantineCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("voting.manage")) {
+            reply(sender, Message.PERMISSION_QUARANTINE);
+            return true;
+        }
+
+        VoteState current = state.get();
+        RaidDetector raids = current != null ? current.session().getRaidDetector() : null;
+        if (raids == null) {
+            reply(sender, current == null ? Message.QUARANTINE_NO_VOTE : Message.QUARANTINE_NOT_WATCHED);
+            return true;
+        }
+        boolean quarantine = raids.getMode() == RaidDetector.Mode.QUARANTINE;
+
+        if (args.length > 1) {
+            String decision = args[1].toLowerCase();
+            if (!decision.equals("include") && !decision.equals("exclude")) {
+                reply(sender, Message.QUARANTINE_USAGE);
+                return true;
+            }
+            if (!quarantine) {
+                reply(sender, Message.QUARANTINE_FLAG_ONLY);
+                return true;
+            }
+            raids.setIncludeQuarantined(decision.equals("include"));
+            reply(sender, raids.isIncludeQuarantined() ? Message.QUARANTINE_INCLUDE : Message.QUARANTINE_EXCLUDE);
+            return true;
+        }
+
+        Message status = !quarantine ? Message.QUARANTINE_STATUS_FLAGGED
+                : raids.isIncludeQuarantined() ? Message.QUARANTINE_STATUS_INCLUDED : Message.QUARANTINE_STATUS_EXCLUDED;
+        reply(sender, Message.QUARANTINE_SUMMARY, raids.getBurstCount(), raids.getSuspiciousVotes(),
+                messagesFor(sender).renderComponent(status));
+        int[] suspicious = raids.suspiciousCounts();
+        for (int option : SparseTally.topOptions(suspicious, BallotStore.LEADERBOARD_SIZE)) {
+            reply(sender, Message.QUARANTINE_OPTION, option, current.options().get(option - 1), suspicious[option - 1]);
+        }
+        if (quarantine) {
+            reply(sender, Message.QUARANTINE_HINT);
+        }
+        return true;
+    }
+
+    /**
+     * Exports a vote on an async thread and reports the outcome.
+     *
+     * @param result The vote to export
+     * @param sender Who to notify when done, or null to only log
+     */
+    private void exportAsync(VoteResult result, CommandSender sender) {
+        boolean gzip = plugin.getVoteConfig().exportGzip();
+        plugin.getVoteScheduler().runAsync(() -> {
+            try {
+                File file = exporter.export(result, gzip);
+                plugin.getLogger().info("Exported " + result.ballots().voterCount() + " ballots to " + file.getName());
+                if (sender != null) {
+                    plugin.getVoteScheduler().run(() ->
+                            reply(sender, Message.EXPORT_CONFIRMED, file.getName()));
+                }
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to export ballots: " + e.getMessage());
+                if (sender != null) {
+                    plugin.getVoteScheduler().run(() ->
+                            reply(sender, Message.EXPORT_FAILED, e.getMessage()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a finished vote to every voter's participation, off the main thread.
+     *
+     * @param counts The final counts, to find the winning options
+     */
+    private void recordParticipationAsync(ParticipationStore participation, ExactBallotStore ballots, int[] counts) {
+        int highest = Arrays.stream(counts).max().orElse(0);
+        Set<Integer> winners = new HashSet<>();
+        for (int i = 0; i < counts.length && highest > 0; i++) {
+            if (counts[i] == highest) winners.add(i + 1);
+        }
+        plugin.getVoteScheduler().runAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                int viewers = participation.recordVote(ballots, winners);
+                plugin.getLogger().info(String.format("Recorded participation of %d viewers in %.1f ms", viewers,
+                        (System.nanoTime() - start) / 1e6));
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to record participation: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Handles /vote top: the viewers who took part in the most votes, from the participation store.
+     */
+    private boolean handleTopCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("voting.manage")) {
+            reply(sender, Message.PERMISSION_TOP);
+            return true;
+        }
+
+        ParticipationStore participation = plugin.getParticipationStore();
+        if (participation == null) {
+            reply(sender, Message.TOP_DISABLED);
+            return true;
+        }
+        int limit = 10;
+        if (args.length > 1) {
+            try {
+                limit = Math.max(1, Math.min(ParticipationStore.TOP_SIZE, Integer.parseInt(args[1])));
+            } catch (NumberFormatException e) {
+                reply(sender, Message.TOP_USAGE);
+                return true;
+            }
+        }
+
+        List<ParticipationStore.Viewer> top = participation.top(limit);
+        if (top.isEmpty()) {
+            reply(sender, Message.TOP_EMPTY);
+            return true;
+        }
+        reply(sender, Message.TOP_HEADER, top.size(), participation.size(), participation.getVotesRecorded());
+        for (int i = 0; i < top.size(); i++) {
+            ParticipationStore.Viewer viewer = top.get(i);
+            reply(sender, Message.TOP_VIEWER, i + 1, viewer.name(), viewer.votes(), viewer.wins(), viewer.streak(),
+                    viewer.bestStreak());
+        }
+        return true;
+    }
+
+    /**
+     * Displays the help message for the /vote command.
+     */
+    private void showHelpMessage(CommandSender sender) {
+        reply(sender, Message.COMMAND_HELP);
+    }
+
+    /**
+     * Stops the current voting session and displays results.
+     *
+     * @return Whether a vote was running
+     */
+    boolean stopVote() {
+        // Atomically take the active vote so concurrent stop requests only finish it once
+        VoteState finished = state.getAndSet(null);
+        if (finished == null) {
             // Handle case where tasks need to be cancelled but session is already null
-            Bukkit.getScheduler().runTask(plugin, () -> {
+            plugin.getVoteScheduler().run(() -> {
                 cleanupTasks();
             });
+            return false;
+        }
+
+        // Capture the final results before stopping the session
+        TwitchVoteSession sessionToStop = finished.session();
+        // Quarantined raid votes are added here if moderators let them count
+        RaidDetector raids = sessionToStop.getRaidDetector();
+        final int[] finalResults = raids != null
+                ? raids.finalCounts(sessionToStop.getBallots())
+                : sessionToStop.getVoteCounts();
+        final List<String> finalOptions = finished.options();
+        final String finalWorldName = finished.worldName();
+        final BallotStore finalBallots = sessionToStop.getBallots();
+
+        // Disconnect from Twitch
+        sessionToStop.stop();
+
+        // Send cluster followers the final counts
+        VoteCluster cluster = plugin.getVoteCluster();
+        if (cluster != null) {
+            cluster.voteEnded(finished, finalResults);
+        }
+
+        // Keep the ballots for auditing until the next vote starts
+        VoteResult result = resultOf(sessionToStop, finalOptions, finalResults);
+        lastResult = result;
+        if (plugin.getVoteConfig().exportOnVoteEnd()) {
+            exportAsync(result, null);
+        }
+        // Only exact ballots say who voted for what
+        ParticipationStore participation = plugin.getParticipationStore();
+        if (participation != null && finalBallots instanceof ExactBallotStore exact) {
+            recordParticipationAsync(participation, exact, finalResults);
         }
+
+        // Send results table and schedule cleanup on main thread
+        final int displayTime = plugin.getVoteConfig().resultsDisplayTime();
+        plugin.getVoteScheduler().run(() -> {
+            VoteEvents.ResultsFinalized event = new VoteEvents.ResultsFinalized();
+            event.begin();
+
+            // Cancel all scheduled tasks
+            cleanupTasks();
+
+            // Clean up any previous result tasks just in case
+            cleanupResultTasks();
+
+            // Mark that we're showing results
+            showingResults = true;
+
+            // Sidebar players get the results scoreboard; chat and bar modes get the results in chat
+            plugin.getVoteBarDisplay().hide();
+            List<Player> sidebarPlayers = getPlayersInMode(Bukkit.getWorld(finalWorldName), DisplayMode.SCOREBOARD);
+            if (!sidebarPlayers.isEmpty()) {
+                plugin.getVoteScoreboard().showResults(finalOptions, finalResults, sidebarPlayers,
+                        describeAccuracy(finalBallots, plugin.getMessages().server()::render));
+            } else {
+                plugin.getVoteScoreboard().hideAllScoreboards();
+            }
+            displayChatResults(finalOptions, finalResults, finalWorldName, finalBallots,
+                    finished.isRemote() ? null : sessionToStop.getConnection(), raids);
+            if (event.shouldCommit()) {
+                event.channel = sessionToStop.getChannel();
+                event.options = finalOptions.size();
+                event.voters = finalBallots.voterCount();
+                event.totalVotes = Arrays.stream(finalResults).asLongStream().sum();
+                event.exact = finalBallots.isExact();
+                event.commit();
+            }
+
+            // Remove scoreboards and the chat table after configured display time
+            VoteScheduler.Task hideTask = plugin.getVoteScheduler().runLater(() -> {
+                plugin.getVoteScoreboard().hideAllScoreboards();
+                clearVotingTable(finalWorldName);
+                sendMessageToWorld(finalWorldName, Message.VOTE_ENDED);
+                showingResults = false;
+                resultDisplayTasks.clear();
+                plugin.getVoteMetrics().voteFinished();
+            }, displayTime * 20L);
+            resultDisplayTasks.add(hideTask);
+
+            // Delay the final notification to show it after the chat results
+            // Delay is based on number of result lines (lines + header + footer = lines + 5)
+            int resultLines = finalOptions.size() > VoteScoreboard.FULL_LAYOUT_LIMIT
+                    ? BallotStore.LEADERBOARD_SIZE + 1
+                    : finalOptions.size();
+            VoteScheduler.Task messageTask = plugin.getVoteScheduler().runLater(() -> {
+                sendMessageToWorld(finalWorldName, Message.RESULTS_SHOWN);
+            }, resultLines + 6);
+            resultDisplayTasks.add(messageTask);
+
+            // Let other plugins act on the outcome, then run the winners' actions
+            VoteSnapshot outcome = VotingService.snapshot(finished.withTally(finalResults,
+                    SparseTally.topOptions(finalResults, BallotStore.LEADERBOARD_SIZE)), true);
+            plugin.getVotingService().fireEnd(outcome);
+            plugin.getWinnerActionRunner().runWinnerActions(outcome);
+
+            // Queued votes follow once this one's delay is up
+            voteQueue.voteEnded();
+        });
+        return true;
+    }
+
+    /**
+     * Describes how accurate the final counts are.
+     *
+     * @param render Renders the note, as text for the sidebar or a Component for chat
+     * @return A note for approximate results, or null when counts are exact
+     */
+    private static <T> T describeAccuracy(BallotStore ballots, BiFunction<Message, Object[], T> render) {
+        if (ballots.isExact()) return null;
+        if (ballots instanceof RollingBallotStore
+                || (ballots instanceof RemoteBallotStore remote && remote.isRolling())) {
+            return render.apply(Message.RESULTS_ROLLING_NOTE, new Object[0]);
+        }
+        return render.apply(Message.RESULTS_APPROXIMATE_NOTE, new Object[] {ballots.voterCount(),
+                String.format("%.1f", ballots.errorBound() * 100)});
     }
 
     /**
      * Displays the vote results in chat format.
      */
-    private void displayChatResults(List<String> options, int[] counts, String worldName) {
+    private void displayChatResults(List<String> options, int[] counts, String worldName, BallotStore ballots,
+                                    ChatConnectionTracker connection, RaidDetector raids) {
         if (options == null || worldName == null) return;
         if (counts == null) {
             plugin.getLogger().warning("Vote counts array is null when displaying results");
@@ -483,9 +1296,9 @@ public class VoteCommandExecutor implements CommandExecutor {
         final String worldNameFinal = worldName;
 
         // Run on main thread to ensure proper message delivery
-        Bukkit.getScheduler().runTask(plugin, () -> {
+        plugin.getVoteScheduler().run(() -> {
             // Clear any existing display first
-            clearVotingTable();
+            clearVotingTable(worldNameFinal);
 
             // Find highest vote count
             int maxVotes = 0;
@@ -497,39 +1310,23 @@ public class VoteCommandExecutor implements CommandExecutor {
 
             final int highestVote = maxVotes;
 
-            // Collect all messages first
-            List<String> messages = new ArrayList<>();
-
-            // Header messages
-            messages.add("§6§l==== VOTE RESULTS ====");
-            messages.add("§e#  Option    Votes");
-            messages.add(" ");  // Add empty line for better visibility
-
-            // Option results with winner highlighted
-            for (int i = 0; i < optionsFinal.size(); i++) {
-                String line;
-                if (countsFinal[i] == highestVote && highestVote > 0) {
-                    // Highlight winning option(s) in purple with gold vote count
-                    line = "§d§l" + (i + 1) + ". §d§l" + optionsFinal.get(i) + "    §6" + countsFinal[i];
-                } else {
-                    line = "§b" + (i + 1) + ". §f" + optionsFinal.get(i) + "    §a" + countsFinal[i];
-                }
-                messages.add(line);
-            }
-
-            // Add footer
-            messages.add(" ");
-            messages.add("§6§l===================");
+            // The table is rendered once per locale, the first time a player using it is sent a line
+            Map<MessageBundle, List<Component>> rendered = new ConcurrentHashMap<>();
+            Function<MessageBundle, List<Component>> render =
+                    messages -> renderResults(messages, optionsFinal, countsFinal, highestVote, ballots, connection, raids);
+            int lineCount = rendered.computeIfAbsent(plugin.getMessages().server(), render).size();
 
             // Send messages with a small delay to ensure correct order
             World world = Bukkit.getWorld(worldNameFinal);
             if (world != null) {
-                for (int i = 0; i < messages.size(); i++) {
+                for (int i = 0; i < lineCount; i++) {
                     final int index = i;
                     // Small delay between messages (1 tick per message)
-                    Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                    plugin.getVoteScheduler().runLater(() -> {
                         forEachPlayerInWorld(world, player -> {
-                            player.sendMessage(messages.get(index));
+                            if (!showsChatResults(player)) return;
+                            List<Component> lines = rendered.computeIfAbsent(plugin.getMessages().forPlayer(player), render);
+                            if (index < lines.size()) player.sendMessage(lines.get(index));
                         });
                     }, i);
                 }
@@ -537,65 +1334,156 @@ public class VoteCommandExecutor implements CommandExecutor {
         });
     }
 
+    /**
+     * Renders the results table in one locale.
+     */
+    private List<Component> renderResults(MessageBundle messages, List<String> options, int[] counts, int highestVote,
+                                          BallotStore ballots, ChatConnectionTracker connection, RaidDetector raids) {
+        List<Component> lines = new ArrayList<>();
+
+        // Header messages
+        lines.add(messages.renderComponent(Message.RESULTS_HEADER));
+        lines.add(messages.renderComponent(Message.RESULTS_COLUMNS));
+        lines.add(Component.space());  // Add empty line for better visibility
+
+        // Option results with winner highlighted; large votes only list the leaders
+        boolean large = options.size() > VoteScoreboard.FULL_LAYOUT_LIMIT;
+        int[] shown = large ? SparseTally.topOptions(counts, BallotStore.LEADERBOARD_SIZE) : null;
+        int lineCount = large ? shown.length : options.size();
+        for (int n = 0; n < lineCount; n++) {
+            int i = large ? shown[n] - 1 : n;
+            // Highlight winning option(s)
+            Message line = counts[i] == highestVote && highestVote > 0 ? Message.RESULTS_WINNER : Message.RESULTS_OPTION;
+            lines.add(messages.renderComponent(line, i + 1, options.get(i), counts[i]));
+        }
+        if (large) {
+            lines.add(messages.renderComponent(Message.RESULTS_MORE, options.size() - lineCount));
+        }
+
+        // Add footer
+        lines.add(Component.space());
+        Component note = describeAccuracy(ballots, messages::renderComponent);
+        if (note != null) {
+            lines.add(note);
+        }
+        if (connection != null && connection.getOutageCount() > 0) {
+            lines.add(messages.renderComponent(Message.RESULTS_OUTAGE_NOTE, connection.getOutageCount(),
+                    connection.getDowntimeMillis() / 1000));
+        }
+        if (raids != null && raids.getSuspiciousVotes() > 0) {
+            Message raidNote = raids.getMode() != RaidDetector.Mode.QUARANTINE ? Message.RESULTS_RAID_FLAGGED
+                    : raids.isIncludeQuarantined() ? Message.RESULTS_RAID_INCLUDED : Message.RESULTS_RAID_EXCLUDED;
+            lines.add(messages.renderComponent(raidNote, raids.getSuspiciousVotes()));
+        }
+        lines.add(messages.renderComponent(Message.RESULTS_FOOTER));
+        return lines;
+    }
+
     /**
      * Sends the current voting table as chat messages.
      */
     private void sendVotingTable(boolean showResults) {
-        if (voteOptions == null || voteWorldName == null || plugin.isUsingScoreboard()) return;
+        // Read one consistent snapshot for the whole table
+        VoteState current = state.get();
+        if (current == null) return;
+        // Rendered once per locale for everyone in chat mode, and not at all when nobody is
+        List<Player> chatPlayers = getPlayersInMode(getWorld(), DisplayMode.CHAT);
+        if (chatPlayers.isEmpty()) return;
 
         // When used for real-time updates (not final results)
         if (!showResults) {
-            // Get vote counts
-            final int[] counts;
-            if (currentSession != null) {
-                counts = currentSession.getVoteCounts();
-            } else {
-                counts = new int[voteOptions.size()];
+            VoteEvents.RenderPass event = new VoteEvents.RenderPass();
+            event.begin();
+            Map<MessageBundle, List<Component>> tables = new HashMap<>();
+            for (Player player : chatPlayers) {
+                List<Component> lines = tables.computeIfAbsent(plugin.getMessages().forPlayer(player),
+                        messages -> renderVotingTable(messages, current));
+                plugin.getVoteScheduler().runForPlayer(player, () -> {
+                    for (Component line : lines) {
+                        player.sendMessage(line);
+                    }
+                });
             }
-
-            // Calculate highest vote
-            int maxVotes = 0;
-            for (int c : counts) if (c > maxVotes) maxVotes = c;
-            final int highestVote = maxVotes;
-
-            // Format time remaining for header
-            final String timeDisplay;
-            if (remainingSeconds > 60) {
-                int minutes = remainingSeconds / 60;
-                int seconds = remainingSeconds % 60;
-                timeDisplay = minutes + "m " + seconds + "s";
-            } else {
-                timeDisplay = remainingSeconds + "s";
+            if (event.shouldCommit()) {
+                event.display = "chat";
+                event.options = current.options().size();
+                event.players = chatPlayers.size();
+                event.commit();
             }
+        }
+        // Final results are now handled by displayChatResults method
+    }
 
-            // Collect messages first
-            final ConcurrentHashMap<Integer, String> messages = new ConcurrentHashMap<>();
-            messages.put(0, "§6§lVote Now! §e(" + timeDisplay + " left)");
-            messages.put(1, "§e#  Option    Votes");
+    /**
+     * Renders the live voting table in one locale.
+     */
+    private List<Component> renderVotingTable(MessageBundle messages, VoteState current) {
+        List<String> voteOptions = current.options();
+        int[] counts = current.counts();
 
+        List<Component> lines = new ArrayList<>();
+        if (current.isRolling()) {
+            lines.add(messages.renderComponent(Message.TABLE_POLL_HEADER, formatDuration(current.windowSeconds())));
+        } else {
+            lines.add(messages.renderComponent(Message.TABLE_HEADER, formatDuration(current.remainingSeconds())));
+        }
+        lines.add(messages.renderComponent(Message.TABLE_COLUMNS));
+
+        if (voteOptions.size() <= VoteScoreboard.FULL_LAYOUT_LIMIT) {
             for (int i = 0; i < voteOptions.size(); i++) {
                 // During voting, don't highlight winning options - display all options in same format
-                String line = "§b" + (i + 1) + ". §f" + voteOptions.get(i) + "    §a" + counts[i];
-                messages.put(i + 2, line);
+                lines.add(messages.renderComponent(Message.TABLE_OPTION, i + 1, voteOptions.get(i), counts[i]));
             }
+        } else {
+            addLargeVotingTable(lines, messages, current);
+        }
+        return lines;
+    }
 
-            // Send all messages on the main thread to avoid ConcurrentModificationException
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                for (int i = 0; i < messages.size(); i++) {
-                    sendMessageToWorld(messages.get(i));
-                }
-            });
+    /**
+     * Formats seconds for the chat table header.
+     */
+    private static String formatDuration(int seconds) {
+        if (seconds > 60) {
+            return seconds / 60 + "m " + seconds % 60 + "s";
         }
-        // Final results are now handled by displayChatResults method
+        return seconds + "s";
+    }
+
+    /**
+     * Adds the leaders and a rotating page of the option list to a chat table,
+     * so large votes send the same few lines per refresh however many options there are.
+     */
+    private void addLargeVotingTable(List<Component> lines, MessageBundle messages, VoteState current) {
+        List<String> voteOptions = current.options();
+        int[] counts = current.counts();
+        int[] leaders = current.leaders();
+
+        lines.add(messages.renderComponent(Message.TABLE_LEADERS, voteOptions.size()));
+        for (int n = 0; n < Math.min(leaders.length, VoteScoreboard.LARGE_LEADERS); n++) {
+            int i = leaders[n] - 1;
+            lines.add(messages.renderComponent(Message.TABLE_OPTION, i + 1, voteOptions.get(i), counts[i]));
+        }
+
+        // Each refresh shows the next page
+        int pageCount = (voteOptions.size() + VoteScoreboard.PAGE_SIZE - 1) / VoteScoreboard.PAGE_SIZE;
+        int page = (current.elapsedSeconds() / VoteScoreboard.PAGE_ROTATE_SECONDS) % pageCount;
+        int start = page * VoteScoreboard.PAGE_SIZE;
+        int end = Math.min(voteOptions.size(), start + VoteScoreboard.PAGE_SIZE);
+        TextComponent.Builder pageOptions = Component.text();
+        for (int i = start; i < end; i++) {
+            pageOptions.append(messages.renderComponent(Message.TABLE_PAGE_OPTION, i + 1, voteOptions.get(i)));
+        }
+        lines.add(messages.renderComponent(Message.TABLE_PAGE, start + 1, end, pageOptions.build()));
     }
 
     /**
      * Clears the voting table from chat by sending empty lines.
      */
-    private void clearVotingTable() {
+    private void clearVotingTable(String worldName) {
         // Clear previous messages visually by sending multiple empty messages with a delay
-        if (voteWorldName != null) {
-            World world = getWorld();
+        if (worldName != null) {
+            World world = Bukkit.getWorld(worldName);
             if (world == null) return;
 
             // Store final reference for use in lambda
@@ -604,9 +1492,9 @@ public class VoteCommandExecutor implements CommandExecutor {
             // Send multiple empty lines with small delays to ensure proper visual separation
             for (int i = 0; i < 5; i++) {
                 final int index = i;
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                plugin.getVoteScheduler().runLater(() -> {
                     forEachPlayerInWorld(worldFinal, player -> {
-                        player.sendMessage(" ");
+                        if (showsChatResults(player)) player.sendMessage(Component.space());
                     });
                 }, index);
             }
@@ -616,23 +1504,59 @@ public class VoteCommandExecutor implements CommandExecutor {
     /**
      * Sends a message to all players in the vote's world.
      */
-    private void sendMessageToWorld(String message) {
-        if (voteWorldName == null) return;
+    private void sendMessageToWorld(Message message, Object... values) {
+        VoteState current = state.get();
+        sendMessageToWorld(current != null ? current.worldName() : null, message, values);
+    }
+
+    /**
+     * Sends a message to all players in the given world.
+     * Used once the vote state has already been cleared, e.g. for results.
+     */
+    private void sendMessageToWorld(String worldName, Message message, Object... values) {
+        sendMessageToWorld(worldName, message, messages -> messages.renderComponent(message, values));
+    }
 
-        World world = getWorld();
+    /**
+     * Sends a message to all players in the given world, rendered once per locale.
+     * Messages set to "" in the messages file are not sent.
+     */
+    private void sendMessageToWorld(String worldName, Message message, Function<MessageBundle, Component> render) {
+        if (worldName == null) return;
+
+        World world = Bukkit.getWorld(worldName);
         if (world == null) return;
 
-        // Collect players first, then send messages
+        Map<MessageBundle, Component> rendered = new ConcurrentHashMap<>();
         forEachPlayerInWorld(world, player -> {
-            player.sendMessage(message);
+            MessageBundle messages = plugin.getMessages().forPlayer(player);
+            if (messages.isEmpty(message)) return;
+            player.sendMessage(rendered.computeIfAbsent(messages, render));
         });
     }
 
+    /**
+     * Sends a reply to a command sender, in the player's language or else the server locale.
+     */
+    private void reply(CommandSender sender, Message message, Object... values) {
+        sender.sendMessage(messagesFor(sender).renderComponent(message, values));
+    }
+
+    /**
+     * @return The messages for a command sender: the player's language, or the server locale for the console
+     */
+    private MessageBundle messagesFor(CommandSender sender) {
+        return sender instanceof Player player
+                ? plugin.getMessages().forPlayer(player)
+                : plugin.getMessages().server();
+    }
+
     /**
      * Gets the world where the vote is taking place.
      */
     private World getWorld() {
-        return voteWorldName != null ? Bukkit.getWorld(voteWorldName) : null;
+        VoteState current = state.get();
+        return current != null ? Bukkit.getWorld(current.worldName()) : null;
     }
 
     /**
@@ -651,14 +1575,32 @@ public class VoteCommandExecutor implements CommandExecutor {
     }
 
     /**
-     * Helper method to process players in a world with proper thread safety.
+     * Gets the players in the specified world who see votes in the given display mode.
+     */
+    private List<Player> getPlayersInMode(World world, DisplayMode mode) {
+        List<Player> players = getPlayersInWorld(world);
+        players.removeIf(player -> plugin.getDisplayMode(player) != mode);
+        return players;
+    }
+
+    /**
+     * @return Whether a player is sent the results table in chat (everyone but sidebar and hidden players)
+     */
+    private boolean showsChatResults(Player player) {
+        DisplayMode mode = plugin.getDisplayMode(player);
+        return mode != DisplayMode.SCOREBOARD && mode != DisplayMode.HIDDEN;
+    }
+
+    /**
+     * Runs an action for every player in a world, each on the thread that owns the player.
+     * Actions may run concurrently on Folia, so anything they share must be thread-safe.
      */
     private void forEachPlayerInWorld(World world, Consumer<Player> action) {
         if (world == null) return;
 
         for (Player player : Bukkit.getOnlinePlayers()) {
             if (player.getWorld().equals(world)) {
-                action.accept(player);
+                plugin.getVoteScheduler().runForPlayer(player, () -> action.accept(player));
             }
         }
     }
@@ -670,30 +1612,27 @@ public class VoteCommandExecutor implements CommandExecutor {
     public void shutdown() {
         plugin.getLogger().info("Shutting down vote executor...");
 
+        // Disconnect the queue's prepared vote
+        voteQueue.clear();
+
         // Clean up result display tasks
         cleanupResultTasks();
 
-        // Hide all scoreboards if active
+        // Hide all scoreboards and bars if active
         plugin.getVoteScoreboard().hideAllScoreboards();
+        plugin.getVoteBarDisplay().hide();
 
         // During shutdown, we need to clean up synchronously instead of using async tasks
         // which can fail during server shutdown
-        if (currentSession != null) {
+        VoteState current = state.getAndSet(null);
+        if (current != null) {
             try {
                 // Stop Twitch session directly
-                currentSession.stop();
-                currentSession = null;
+                current.session().stop();
 
                 // Clean up all tasks
                 cleanupTasks();
 
-                // Clean up references
-                voteStarterUuid = null;
-                voteWorldName = null;
-                voteOptions = null;
-                totalSeconds = 0;
-                remainingSeconds = 0;
-
                 plugin.getLogger().info("Vote session stopped during shutdown.");
             } catch (Exception e) {
                 plugin.getLogger().warning("Error stopping vote session during shutdown: " + e.getMessage());
@@ -703,9 +1642,13 @@ public class VoteCommandExecutor implements CommandExecutor {
 
     /**
      * Starts the countdown timer for the vote duration.
+     *
+     * @param restart Whether to start counting from the full duration
      */
-    private void startCountdownTimer() {
-        plugin.getLogger().info("Starting countdown timer for " + totalSeconds + " seconds");
+    private void startCountdownTimer(boolean restart) {
+        VoteState initial = state.get();
+        if (initial == null) return;
+        plugin.getLogger().info("Starting countdown timer for " + initial.totalSeconds() + " seconds");
 
         // Always cancel any existing countdown task first
         if (countdownTask != null) {
@@ -718,14 +1661,17 @@ public class VoteCommandExecutor implements CommandExecutor {
         }
 
         // Ensure a fresh timer by explicitly resetting
-        remainingSeconds = totalSeconds;
+        if (restart) {
+            state.updateAndGet(s -> s == null ? null : s.restarted());
+        }
 
         // Create the runnable first
         Runnable countdownRunnable = new Runnable() {
             @Override
             public void run() {
-                // First check if we still have a valid session
-                if (currentSession == null) {
+                // Publish the decremented time; a null result means the vote has been stopped
+                VoteState current = state.updateAndGet(s -> s == null ? null : s.tick());
+                if (current == null) {
                     // Vote has been stopped - cancel the timer
                     if (countdownTask != null) {
                         countdownTask.cancel();
@@ -734,22 +1680,16 @@ public class VoteCommandExecutor implements CommandExecutor {
                     return;
                 }
 
-                remainingSeconds--;
+                // Rolling polls have no countdown, the tick only advances the elapsed time
+                if (current.isRolling()) return;
 
-                // Debug log to track time
-                if (remainingSeconds % 10 == 0 || remainingSeconds <= 5) {
-                    plugin.getLogger().info("Vote countdown: " + remainingSeconds + " seconds remaining");
-                }
+                int remainingSeconds = current.remainingSeconds();
 
-                // Update scoreboards with new time if using scoreboard mode
-                if (plugin.isUsingScoreboard() && currentSession != null) {
-                    List<Player> worldPlayers = getPlayersInWorld(getWorld());
-                    for (Player p : worldPlayers) {
-                        plugin.getVoteScoreboard().updateRemainingTime(p, remainingSeconds);
-                    }
-                }
+                // Update the shared scoreboard with the new time
+                plugin.getVoteScoreboard().updateRemainingTime(remainingSeconds);
 
-                if (remainingSeconds <= 0) {
+                // Followed votes end with the leader's end frame
+                if (remainingSeconds <= 0 && !current.isRemote()) {
                     plugin.getLogger().info("Vote countdown reached zero - ending vote");
 
                     // Cancel task
@@ -759,16 +1699,72 @@ public class VoteCommandExecutor implements CommandExecutor {
                     }
 
                     // Auto end the vote if we reach zero
-                    if (currentSession != null) {
-                        // Run stopVote on the main thread
-                        Bukkit.getScheduler().runTask(plugin, () -> stopVote());
-                    }
+                    plugin.getVoteScheduler().run(() -> stopVote());
                 }
             }
         };
 
         // Then schedule the task and store the reference
-        countdownTask = Bukkit.getScheduler().runTaskTimer(plugin, countdownRunnable, 20L, 20L); // Run every second
+        countdownTask = plugin.getVoteScheduler().runTimer(countdownRunnable, 20L, 20L); // Run every second
+    }
+
+    /**
+     * Starts the periodic recount that publishes fresh vote counts in the snapshot.
+     * Displays read the precomputed counts, so the session is tallied at this bounded rate
+     * no matter how many players or timers are looking at it.
+     */
+    private void startTallyRefresh() {
+        if (tallyTask != null) {
+            tallyTask.cancel();
+        }
+
+        tallyTask = plugin.getVoteScheduler().runAsyncTimer(() -> {
+            VoteState current = state.get();
+            if (current == null) return;
+
+            current.session().checkConnection();
+            reportBursts(current);
+            VoteEvents.TallyApplied event = new VoteEvents.TallyApplied();
+            event.begin();
+            int[] counts = current.session().getVoteCounts();
+            int[] leaders = current.session().getBallots().leaders(BallotStore.LEADERBOARD_SIZE);
+            // Only publish into the vote the counts were taken from
+            state.updateAndGet(s -> s != null && s.session() == current.session() ? s.withTally(counts, leaders) : s);
+            if (event.shouldCommit()) {
+                event.options = counts.length;
+                event.voters = current.session().getBallots().voterCount();
+                event.totalVotes = Arrays.stream(counts).asLongStream().sum();
+                event.commit();
+            }
+        }, TALLY_REFRESH_TICKS, TALLY_REFRESH_TICKS);
+    }
+
+    /**
+     * Warns the log and players managing votes about raid waves detected since the last tally refresh.
+     */
+    private void reportBursts(VoteState current) {
+        RaidDetector raids = current.session().getRaidDetector();
+        if (raids == null) return;
+        List<RaidDetector.Burst> bursts = raids.takeNewBursts();
+        if (bursts.isEmpty()) return;
+
+        boolean quarantine = raids.getMode() == RaidDetector.Mode.QUARANTINE;
+        for (RaidDetector.Burst burst : bursts) {
+            String option = current.options().get(burst.option() - 1);
+            String rate = String.format("%.0f", burst.votesPerSecond());
+            String usual = String.format("%.1f", burst.usualVotesPerSecond());
+            plugin.getLogger().warning("Suspected raid wave on option " + burst.option() + ". " + option + ": "
+                    + rate + " votes/s, usually " + usual);
+            plugin.getVoteScheduler().run(() -> {
+                for (Player player : Bukkit.getOnlinePlayers()) {
+                    if (!player.hasPermission("voting.manage")) continue;
+                    plugin.getVoteScheduler().runForPlayer(player, () -> {
+                        reply(player, Message.QUARANTINE_WAVE, burst.option(), option, rate, usual);
+                        reply(player, quarantine ? Message.QUARANTINE_WAVE_QUARANTINED : Message.QUARANTINE_WAVE_FLAGGED);
+                    });
+                }
+            });
+        }
     }
 
     /**
@@ -782,9 +1778,11 @@ public class VoteCommandExecutor implements CommandExecutor {
         // Display initial table
         sendVotingTable(false);
 
-        // Schedule regular updates
-        updateTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
-            if (currentSession != null && remainingSeconds > 5) {  // Stop updates when 5 seconds or less remain
+        // Schedule regular updates on the main thread, which picks the recipients by display mode
+        updateTask = plugin.getVoteScheduler().runTimer(() -> {
+            VoteState current = state.get();
+            // Stop updates when 5 seconds or less remain; rolling polls update until stopped
+            if (current != null && (current.isRolling() || current.remainingSeconds() > 5)) {
                 sendVotingTable(false);
             } else {
                 // If session becomes null while task is running, cancel it
@@ -801,7 +1799,23 @@ public class VoteCommandExecutor implements CommandExecutor {
      * @return true if a vote is running, false otherwise
      */
     public boolean isVoteActive() {
-        return currentSession != null;
+        return state.get() != null;
+    }
+
+    /**
+     * @return Whether a vote is connecting to Twitch and not yet published. Main thread only.
+     */
+    boolean isStarting() {
+        return starting;
+    }
+
+    /**
+     * Gets the published state of the running vote. Safe to call from any thread.
+     *
+     * @return The current vote state, or null if no vote is active
+     */
+    public VoteState getVoteState() {
+        return state.get();
     }
 
     /**
@@ -810,7 +1824,8 @@ public class VoteCommandExecutor implements CommandExecutor {
      * @return The world name or null if no vote is active
      */
     public String getVoteWorldName() {
-        return voteWorldName;
+        VoteState current = state.get();
+        return current != null ? current.worldName() : null;
     }
 
     /**
@@ -820,7 +1835,7 @@ public class VoteCommandExecutor implements CommandExecutor {
      * @param player The player to show the scoreboard to
      */
     public void showScoreboardToPlayer(Player player) {
-        if (currentSession == null || voteOptions == null || !plugin.isUsingScoreboard()) {
+        if (state.get() == null || plugin.getDisplayMode(player) != DisplayMode.SCOREBOARD) {
             return;
         }
 
@@ -829,6 +1844,6 @@ public class VoteCommandExecutor implements CommandExecutor {
         singlePlayer.add(player);
 
         // Show the scoreboard with current state
-        plugin.getVoteScoreboard().showVoting(voteOptions, currentSession, singlePlayer, remainingSeconds);
+        plugin.getVoteScoreboard().showVoting(state::get, singlePlayer);
     }
 }
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.czacha994.twitchvoting;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, typed snapshot of config.yml.
+ * Built once on load or reload and swapped in as a whole, so hot code reads plain fields
+ * instead of looking up paths in the live configuration.
+ *
+ * @param displayMode Where the live tally is shown
+ * @param resultsDisplayTime How long results stay visible, in seconds
+ * @param highlightColor Color name used to highlight options
+ * @param winnerColor Color name used for the winning vote count
+ * @param maxOptions Maximum number of options per vote
+ * @param minDuration Minimum vote duration, in seconds
+ * @param maxDuration Maximum vote duration, in seconds
+ * @param singleVoteMode Only count each viewer's last vote
+ * @param approximateMode Estimate multiple vote counts with sketches
+ * @param keywordMode Also count option names and aliases typed in chat
+ * @param aliases Extra keywords per option, keyed by lowercased option name
+ * @param exportOnVoteEnd Export ballots automatically when a vote ends
+ * @param exportGzip Gzip export files
+ * @param overlayEnabled Serve the stream overlay over HTTP
+ * @param overlayBind Address the overlay server listens on
+ * @param overlayPort Port the overlay server listens on
+ * @param overlayFps How many tally frames per second are sent to overlays
+ * @param mapFps How many times per second the map chart is redrawn
+ * @param tallyEventsPerSecond How many tally update events other plugins get per second at most
+ * @param winnerActions Commands run when an option wins, keyed by lowercased option name ("*" for any winner)
+ * @param actionTickBudgetMs Milliseconds per tick spent running winner actions
+ * @param messageLocale Locale of the messages shown on shared displays and to players without their own
+ * @param perPlayerLocale Send chat messages in each player's client language when there is a file for it
+ * @param clusterRole Whether this server leads a cluster of servers sharing votes, follows one, or neither
+ * @param clusterHost Address the leader listens on and followers connect to
+ * @param clusterPort Port the leader listens on
+ * @param clusterSecret Shared by all servers of the cluster
+ * @param clusterWorld World followers show votes in, empty for the world with the leader's world name
+ * @param raidMode Whether suspected raid waves are ignored, flagged or quarantined
+ * @param raidBurstFactor How many times its usual vote rate an option must reach to be in a raid wave
+ * @param raidMinRate Votes per second an option must reach to be in a raid wave
+ * @param raidIncludeQuarantined Whether quarantined votes count when a vote ends, unless a moderator decides otherwise
+ * @param participationEnabled Record which viewers took part in each vote, for {@code /vote top}
+ * @param twitchPrewarm Load the Twitch chat client in the background on enable instead of with the first vote
+ */
+public record VoteConfig(DisplayMode displayMode,
+                         int resultsDisplayTime,
+                         String highlightColor,
+                         String winnerColor,
+                         int maxOptions,
+                         int minDuration,
+                         int maxDuration,
+                         boolean singleVoteMode,
+                         boolean approximateMode,
+                         boolean keywordMode,
+                         Map<String, List<String>> aliases,
+                         boolean exportOnVoteEnd,
+                         boolean exportGzip,
+                         boolean overlayEnabled,
+                         String overlayBind,
+                         int overlayPort,
+                         int overlayFps,
+                         int mapFps,
+                         int tallyEventsPerSecond,
+                         Map<String, WinnerAction> winnerActions,
+                         int actionTickBudgetMs,
+                         String messageLocale,
+                         boolean perPlayerLocale,
+                         VoteCluster.Role clusterRole,
+                         String clusterHost,
+                         int clusterPort,
+                         String clusterSecret,
+                         String clusterWorld,
+                         RaidDetector.Mode raidMode,
+                         double raidBurstFactor,
+                         double raidMinRate,
+                         boolean raidIncludeQuarantined,
+                         boolean participationEnabled,
+                         boolean twitchPrewarm) {
+
+    public VoteConfig {
+        aliases = Map.copyOf(aliases);
+        winnerActions = Map.copyOf(winnerActions);
+    }
+
+    /**
+     * Reads and sanitizes all settings from a configuration.
+     *
+     * @param config The loaded config.yml
+     * @return The compiled snapshot
+     */
+    public static VoteConfig from(ConfigurationSection config) {
+        int minDuration = Math.max(1, config.getInt("defaults.min_duration", 5));
+        return new VoteConfig(
+                readDisplayMode(config),
+                Math.max(0, config.getInt("display.results_display_time", 60)),
+                config.getString("display.highlight_color", "LIGHT_PURPLE"),
+                config.getString("display.winner_color", "GOLD"),
+                // Packed ballots use 16-bit option numbers
+                Math.max(1, Math.min(ExactBallotStore.MAX_OPTIONS, config.getInt("defaults.max_options", 20))),
+                minDuration,
+                Math.max(minDuration, config.getInt("defaults.max_duration", 3600)),
+                config.getBoolean("voting.single_vote_mode", false),
+                config.getBoolean("voting.approximate_mode", false),
+                config.getBoolean("voting.keyword_mode", false),
+                readAliases(config.getConfigurationSection("keywords.aliases")),
+                config.getBoolean("export.on_vote_end", true),
+                config.getBoolean("export.gzip", false),
+                config.getBoolean("overlay.enabled", false),
+                config.getString("overlay.bind", "127.0.0.1"),
+                Math.max(1, Math.min(65535, config.getInt("overlay.port", 8089))),
+                Math.max(1, Math.min(30, config.getInt("overlay.fps", 5))),
+                Math.max(1, Math.min(20, config.getInt("map.fps", 4))),
+                Math.max(1, Math.min(20, config.getInt("events.tally_per_second", 2))),
+                readWinnerActions(config.getConfigurationSection("actions.winners")),
+                Math.max(1, Math.min(50, config.getInt("actions.tick_budget_ms", 5))),
+                config.getString("messages.locale", "en_us").trim().toLowerCase(Locale.ROOT),
+                config.getBoolean("messages.per_player_locale", true),
+                VoteCluster.Role.fromName(config.getString("cluster.mode", "off")),
+                config.getString("cluster.host", "127.0.0.1"),
+                Math.max(1, Math.min(65535, config.getInt("cluster.port", 8090))),
+                config.getString("cluster.secret", ""),
+                config.getString("cluster.world", "").trim(),
+                RaidDetector.Mode.fromName(config.getString("raid.mode", "off")),
+                Math.max(1.5, config.getDouble("raid.burst_factor", 5.0)),
+                Math.max(1.0, config.getDouble("raid.min_rate", 10.0)),
+                config.getBoolean("raid.include_quarantined", false),
+                config.getBoolean("participation.enabled", true),
+                config.getBoolean("twitch.prewarm", false));
+    }
+
+    /**
+     * Reads the alias lists, keyed by lowercased option name.
+     */
+    private static Map<String, List<String>> readAliases(ConfigurationSection section) {
+        Map<String, List<String>> aliases = new HashMap<>();
+        if (section == null) return aliases;
+
+        for (String option : section.getKeys(false)) {
+            List<String> words = section.isList(option)
+                    ? section.getStringList(option)
+                    : List.of(section.getString(option, ""));
+            aliases.put(option.toLowerCase(Locale.ROOT), List.copyOf(words));
+        }
+        return aliases;
+    }
+
+    /**
+     * Reads the winner actions, keyed by lowercased option name. Each entry is a command,
+     * a list of commands, or a section with a commands list and a repeat count.
+     */
+    private static Map<String, WinnerAction> readWinnerActions(ConfigurationSection section) {
+        Map<String, WinnerAction> actions = new HashMap<>();
+        if (section == null) return actions;
+
+        for (String option : section.getKeys(false)) {
+            List<String> commands;
+            int repeat = 1;
+            if (section.isConfigurationSection(option)) {
+                ConfigurationSection action = section.getConfigurationSection(option);
+                commands = action.isList("commands")
+                        ? action.getStringList("commands")
+                        : List.of(action.getString("commands", ""));
+                repeat = action.getInt("repeat", 1);
+            } else if (section.isList(option)) {
+                commands = section.getStringList(option);
+            } else {
+                commands = List.of(section.getString(option, ""));
+            }
+
+            List<String> cleaned = new ArrayList<>();
+            for (String command : commands) {
+                String trimmed = command.trim();
+                if (trimmed.startsWith("/")) trimmed = trimmed.substring(1);
+                if (!trimmed.isEmpty()) cleaned.add(trimmed);
+            }
+            if (!cleaned.isEmpty()) {
+                actions.put(option.toLowerCase(Locale.ROOT), new WinnerAction(cleaned, repeat));
+            }
+        }
+        return actions;
+    }
+
+    /**
+     * Reads display.mode, falling back to the older display.use_scoreboard switch.
+     */
+    private static DisplayMode readDisplayMode(ConfigurationSection config) {
+        DisplayMode mode = DisplayMode.fromName(config.getString("display.mode"));
+        if (mode != null) return mode;
+        return config.getBoolean("display.use_scoreboard", true) ? DisplayMode.SCOREBOARD : DisplayMode.CHAT;
+    }
+
+    /**
+     * @return A copy of this snapshot with the given display mode
+     */
+    public VoteConfig withDisplayMode(DisplayMode displayMode) {
+        return new VoteConfig(displayMode, resultsDisplayTime, highlightColor, winnerColor, maxOptions,
+                minDuration, maxDuration, singleVoteMode, approximateMode, keywordMode, aliases, exportOnVoteEnd, exportGzip,
+                overlayEnabled, overlayBind, overlayPort, overlayFps, mapFps, tallyEventsPerSecond, winnerActions, actionTickBudgetMs,
+                messageLocale, perPlayerLocale, clusterRole, clusterHost, clusterPort, clusterSecret, clusterWorld,
+                raidMode, raidBurstFactor, raidMinRate, raidIncludeQuarantined, participationEnabled, twitchPrewarm);
+    }
+
+    /**
+     * @return A copy of this snapshot with the given vote mode
+     */
+    public VoteConfig withSingleVoteMode(boolean singleVoteMode) {
+        return new VoteConfig(displayMode, resultsDisplayTime, highlightColor, winnerColor, maxOptions,
+                minDuration, maxDuration, singleVoteMode, approximateMode, keywordMode, aliases, exportOnVoteEnd, exportGzip,
+                overlayEnabled, overlayBind, overlayPort, overlayFps, mapFps, tallyEventsPerSecond, winnerActions, actionTickBudgetMs,
+                messageLocale, perPlayerLocale, clusterRole, clusterHost, clusterPort, clusterSecret, clusterWorld,
+                raidMode, raidBurstFactor, raidMinRate, raidIncludeQuarantined, participationEnabled, twitchPrewarm);
+    }
+}
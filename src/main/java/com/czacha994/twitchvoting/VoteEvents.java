@@ -0,0 +1,113 @@
+package com.czacha994.twitchvoting;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the phases of a vote, so its work can be lined up with tick
+ * spikes in a recording instead of showing up as anonymous lambdas.
+ *
+ * All events are disabled by default; while disabled, {@code begin()} and {@code shouldCommit()}
+ * cost next to nothing. Enable them in a recording settings file, e.g. with
+ * {@code jfr configure +twitchvoting.RenderPass#enabled=true}.
+ */
+final class VoteEvents {
+    private static final String CATEGORY = "TwitchVoting";
+
+    private VoteEvents() {}
+
+    @Name("twitchvoting.MessageParsed")
+    @Label("Chat Message Parsed")
+    @Description("A Twitch chat message scanned for votes")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class MessageParsed extends Event {
+        @Label("Channel")
+        String channel;
+        @Label("Message Length")
+        int messageLength;
+        @Label("Votes Found")
+        int votes;
+    }
+
+    @Name("twitchvoting.TallyApplied")
+    @Label("Tally Applied")
+    @Description("The ballots received since the last refresh counted and published to displays")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class TallyApplied extends Event {
+        @Label("Options")
+        int options;
+        @Label("Voters")
+        int voters;
+        @Label("Total Votes")
+        long totalVotes;
+    }
+
+    @Name("twitchvoting.RenderPass")
+    @Label("Render Pass")
+    @Description("One refresh of a vote display")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class RenderPass extends Event {
+        @Label("Display")
+        String display;
+        @Label("Options")
+        int options;
+        // 0 for the map wall, whose image is drawn once and sent by the server
+        @Label("Players Rendered")
+        int players;
+    }
+
+    @Name("twitchvoting.SessionStart")
+    @Label("Session Start")
+    @Description("Connecting to a Twitch channel; the duration is the connect latency")
+    @Category(CATEGORY)
+    @Enabled(false)
+    static final class SessionStart extends Event {
+        @Label("Channel")
+        String channel;
+        @Label("Options")
+        int options;
+        @Label("Connected")
+        boolean connected;
+    }
+
+    @Name("twitchvoting.SessionStop")
+    @Label("Session Stop")
+    @Description("Disconnecting from a Twitch channel")
+    @Category(CATEGORY)
+    @Enabled(false)
+    static final class SessionStop extends Event {
+        @Label("Channel")
+        String channel;
+        @Label("Voters")
+        int voters;
+    }
+
+    @Name("twitchvoting.ResultsFinalized")
+    @Label("Results Finalized")
+    @Description("A vote ended and its final results were shown")
+    @Category(CATEGORY)
+    @Enabled(false)
+    static final class ResultsFinalized extends Event {
+        @Label("Channel")
+        String channel;
+        @Label("Options")
+        int options;
+        @Label("Voters")
+        int voters;
+        @Label("Total Votes")
+        long totalVotes;
+        @Label("Exact")
+        boolean exact;
+    }
+}
@@ -0,0 +1,170 @@
+package com.czacha994.twitchvoting;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the ballots of a vote to a CSV file in the plugin's data folder, for auditing results.
+ * Ballots are streamed from the store in fixed-size chunks, so exporting a large vote never
+ * copies the whole ballot set into memory. Exports block on file I/O and should run off the main thread.
+ *
+ * Votes held back in raid quarantine are exported too, marked in the quarantined column, and the
+ * header says whether the option counts include them. Ballots keep arriving during a live export,
+ * so the voter totals of exact exports follow the rows, counted as they are written.
+ */
+public class VoteExporter {
+    private static final int CHUNK_SIZE = 4096;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneId.systemDefault());
+
+    private final TwitchVotingPlugin plugin;
+
+    /**
+     * Creates a new vote exporter.
+     *
+     * @param plugin The plugin instance
+     */
+    public VoteExporter(TwitchVotingPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Exports a vote to {@code exports/vote-<time>-<channel>.csv[.gz]}.
+     *
+     * @param result The vote to export
+     * @param gzip Whether to gzip the file
+     * @return The written file
+     * @throws IOException If the file could not be written
+     */
+    public File export(VoteResult result, boolean gzip) throws IOException {
+        File folder = new File(plugin.getDataFolder(), "exports");
+        if (!folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Could not create export folder: " + folder);
+        }
+
+        String baseName = "vote-" + FILE_TIME.format(result.finishedAt()) + "-" + result.channel();
+        String extension = gzip ? ".csv.gz" : ".csv";
+        File file = new File(folder, baseName + extension);
+        for (int i = 2; file.exists(); i++) {
+            file = new File(folder, baseName + "-" + i + extension);
+        }
+
+        OutputStream out = new FileOutputStream(file);
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            writeHeader(writer, result);
+            if (result.ballots() instanceof ExactBallotStore exact) {
+                // Ballots are only readable from exact storage
+                writer.write("user_id,user_name,options,quarantined\n");
+                int voters = writeBallots(writer, exact, false);
+                int quarantined = result.quarantine() instanceof ExactBallotStore held
+                        ? writeBallots(writer, held, true)
+                        : 0;
+                writer.write("# voters," + (voters + quarantined) + "\n");
+                if (result.quarantine() != null) {
+                    writer.write("# quarantined," + quarantined + "\n");
+                }
+            }
+        }
+
+        return file;
+    }
+
+    /**
+     * Writes the vote summary as comment lines.
+     */
+    private void writeHeader(Writer writer, VoteResult result) throws IOException {
+        BallotStore ballots = result.ballots();
+        writer.write("# TwitchVoting ballot export\n");
+        writer.write("# channel," + result.channel() + "\n");
+        writer.write("# finished," + result.finishedAt() + "\n");
+        boolean rolling = ballots instanceof RollingBallotStore
+                || (ballots instanceof RemoteBallotStore remote && remote.isRolling());
+        String mode = ballots.isExact() ? "exact" : rolling ? "rolling" : "approximate";
+        writer.write("# mode," + mode + "\n");
+        if (result.quarantine() != null) {
+            writer.write("# quarantine," + (result.quarantineIncluded() ? "included" : "excluded") + "\n");
+        }
+        if (!(ballots instanceof ExactBallotStore)) {
+            // Without rows the stores' own totals are all there is
+            writer.write("# voters," + ballots.voterCount() + "\n");
+            if (result.quarantine() != null) {
+                writer.write("# quarantined," + result.quarantine().voterCount() + "\n");
+            }
+        }
+        if (ballots instanceof ApproximateBallotStore) {
+            // Sketches keep no ballots, only the estimated totals can be exported
+            writer.write(String.format("# error,%.4f\n", ballots.errorBound()));
+        }
+
+        int[] counts = result.counts();
+        for (int i = 0; i < result.options().size(); i++) {
+            int count = i < counts.length ? counts[i] : 0;
+            writer.write("# option," + (i + 1) + "," + csv(result.options().get(i)) + "," + count + "\n");
+        }
+    }
+
+    /**
+     * Streams all ballots of a store one chunk at a time, reusing the same buffers for each chunk.
+     *
+     * @param quarantined Whether the store holds quarantined votes
+     * @return How many rows were written
+     */
+    private int writeBallots(Writer writer, ExactBallotStore ballots, boolean quarantined) throws IOException {
+        long[] userIds = new long[CHUNK_SIZE];
+        String[] userNames = new String[CHUNK_SIZE];
+        long[] choices = new long[CHUNK_SIZE];
+        int[] options = new int[ballots.getOptionCount()];
+
+        int from = 0;
+        int rows = 0;
+        int read;
+        while ((read = ballots.readChunk(from, userIds, userNames, choices)) > 0) {
+            for (int i = 0; i < read; i++) {
+                // Moved into raid quarantine, written with the quarantined rows
+                if (choices[i] == 0) continue;
+                writer.write(Long.toString(userIds[i]));
+                writer.write(',');
+                writer.write(userNames[i] != null ? csv(userNames[i]) : "");
+                writer.write(',');
+                writeChoices(writer, options, ballots.decode(userIds[i], choices[i], options));
+                writer.write(quarantined ? ",true\n" : ",false\n");
+                rows++;
+            }
+            from += read;
+        }
+        return rows;
+    }
+
+    /**
+     * Writes the option numbers of a ballot separated by semicolons.
+     */
+    private void writeChoices(Writer writer, int[] options, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) writer.write(';');
+            writer.write(Integer.toString(options[i]));
+        }
+    }
+
+    /**
+     * Quotes a CSV field if needed.
+     */
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
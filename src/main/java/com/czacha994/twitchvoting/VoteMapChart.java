@@ -0,0 +1,434 @@
+package com.czacha994.twitchvoting;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.MapMeta;
+import org.bukkit.map.MapCanvas;
+import org.bukkit.map.MapFont;
+import org.bukkit.map.MapPalette;
+import org.bukkit.map.MapRenderer;
+import org.bukkit.map.MapView;
+import org.bukkit.map.MinecraftFont;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Draws the live tally as a bar chart across a wall of item frame maps.
+ *
+ * The whole chart lives in one cached pixel buffer. At most {@code map.fps} times per second the
+ * chart is compared with the vote state and only the header and the bars whose drawn height, count
+ * or option changed are redrawn. Each map tile keeps its own copy of what it last drew and copies only
+ * the differing pixels to its canvas, so an unchanged image never causes a map update, and a render
+ * call between frames costs a single version check.
+ */
+public class VoteMapChart {
+    static final int TILE_SIZE = 128;
+    static final int MAX_WALL_SIZE = 8;
+    // Most bars on the chart, and the narrowest a bar column may be at text scale 1
+    private static final int MAX_BARS = 10;
+    private static final int MIN_COLUMN_WIDTH = 20;
+
+    private static final byte BACKGROUND = color(24, 24, 24);
+    private static final byte HEADER = color(255, 170, 0);
+    private static final byte TEXT = color(255, 255, 255);
+    private static final byte LABEL = color(85, 255, 255);
+    private static final byte BAR = color(64, 96, 255);
+    private static final byte LEADER_BAR = color(145, 70, 255);
+
+    private final TwitchVotingPlugin plugin;
+    private final Supplier<VoteState> source;
+    private final MapFont font = MinecraftFont.Font;
+
+    private VoteScheduler.Task updateTask = null;
+    private final List<MapView> views = new ArrayList<>();
+    private final List<TileRenderer> renderers = new ArrayList<>();
+
+    // The chart image, tilesWide * 128 by tilesHigh * 128 map palette colors
+    private int tilesWide = 0;
+    private int tilesHigh = 0;
+    private int width = 0;
+    private int height = 0;
+    private byte[] pixels = new byte[0];
+    // Incremented whenever any pixel changes; tiles compare it with the version they drew
+    private int version = 0;
+
+    // What is currently drawn, to find the parts that need redrawing
+    private TwitchVoteSession drawnSession = null;
+    private String drawnHeader = null;
+    private int[] drawnOptions = new int[0];
+    private int[] drawnCounts = new int[0];
+    private int[] drawnHeights = new int[0];
+    private boolean[] drawnLeader = new boolean[0];
+
+    /**
+     * Creates a new map chart manager. No maps are shown until a wall is created or restored.
+     *
+     * @param plugin The plugin instance
+     * @param source Supplies the latest published vote state (null when no vote is running)
+     */
+    public VoteMapChart(TwitchVotingPlugin plugin, Supplier<VoteState> source) {
+        this.plugin = plugin;
+        this.source = source;
+    }
+
+    private static byte color(int r, int g, int b) {
+        return MapPalette.matchColor(new Color(r, g, b));
+    }
+
+    /**
+     * Creates a new wall of maps in a world, replacing the current one.
+     *
+     * @param world The world the maps belong to
+     * @param wide Maps per row
+     * @param high Rows of maps
+     * @return The map items, row by row from the top left, for the player to place in item frames
+     */
+    public List<ItemStack> createWall(World world, int wide, int high) {
+        List<MapView> created = new ArrayList<>();
+        for (int i = 0; i < wide * high; i++) {
+            created.add(Bukkit.createMap(world));
+        }
+        attach(created, wide, high);
+
+        List<Integer> ids = new ArrayList<>();
+        List<ItemStack> items = new ArrayList<>();
+        for (int i = 0; i < created.size(); i++) {
+            MapView view = created.get(i);
+            ids.add(view.getId());
+
+            ItemStack item = new ItemStack(Material.FILLED_MAP);
+            ItemMeta meta = item.getItemMeta();
+            if (meta instanceof MapMeta) {
+                ((MapMeta) meta).setMapView(view);
+                meta.setDisplayName("§6Vote chart §7(row " + (i / wide + 1) + ", column " + (i % wide + 1) + ")");
+                item.setItemMeta(meta);
+            }
+            items.add(item);
+        }
+
+        plugin.saveMapWall(wide, high, ids);
+        return items;
+    }
+
+    /**
+     * Reattaches the chart to the wall saved in the configuration, if there is one.
+     * Map renderers are not persisted by the server, so this runs on every enable.
+     */
+    public void restoreWall() {
+        int wide = plugin.getConfig().getInt("map.wall.width", 0);
+        int high = plugin.getConfig().getInt("map.wall.height", 0);
+        List<Integer> ids = plugin.getConfig().getIntegerList("map.wall.ids");
+        if (wide <= 0 || high <= 0 || ids.size() != wide * high) return;
+
+        List<MapView> restored = new ArrayList<>();
+        for (int id : ids) {
+            MapView view = Bukkit.getMap(id);
+            if (view == null) {
+                plugin.getLogger().warning("Vote chart map #" + id + " no longer exists, use /vote map to create a new wall.");
+                return;
+            }
+            restored.add(view);
+        }
+        attach(restored, wide, high);
+    }
+
+    /**
+     * Replaces the vanilla renderers of the maps with chart tiles and starts redrawing.
+     */
+    private void attach(List<MapView> wall, int wide, int high) {
+        detach();
+
+        tilesWide = wide;
+        tilesHigh = high;
+        width = wide * TILE_SIZE;
+        height = high * TILE_SIZE;
+        pixels = new byte[width * height];
+        Arrays.fill(pixels, BACKGROUND);
+        version++;
+        drawnSession = null;
+        drawnHeader = null;
+        resetBars(0);
+
+        for (int i = 0; i < wall.size(); i++) {
+            MapView view = wall.get(i);
+            for (MapRenderer renderer : new ArrayList<>(view.getRenderers())) {
+                view.removeRenderer(renderer);
+            }
+            view.setTrackingPosition(false);
+            view.setUnlimitedTracking(false);
+            view.setLocked(true);
+
+            TileRenderer renderer = new TileRenderer((i % wide) * TILE_SIZE, (i / wide) * TILE_SIZE);
+            view.addRenderer(renderer);
+            views.add(view);
+            renderers.add(renderer);
+        }
+
+        long period = Math.max(1, 20 / plugin.getVoteConfig().mapFps());
+        redraw();
+        updateTask = plugin.getVoteScheduler().runTimer(this::redraw, period, period);
+    }
+
+    /**
+     * Keeps redrawing at the current map.fps, after a reload changed it.
+     */
+    public void reschedule() {
+        if (updateTask == null) return;
+        updateTask.cancel();
+        long period = Math.max(1, 20 / plugin.getVoteConfig().mapFps());
+        updateTask = plugin.getVoteScheduler().runTimer(this::redraw, period, period);
+    }
+
+    /**
+     * Stops redrawing and removes the chart renderers from the maps.
+     */
+    public void detach() {
+        if (updateTask != null) {
+            updateTask.cancel();
+            updateTask = null;
+        }
+        for (int i = 0; i < views.size(); i++) {
+            views.get(i).removeRenderer(renderers.get(i));
+        }
+        views.clear();
+        renderers.clear();
+    }
+
+    /**
+     * Brings the cached image up to date with the vote state, redrawing only what changed.
+     * After a vote ends its final bars stay on the wall until the next vote starts.
+     */
+    private void redraw() {
+        VoteEvents.RenderPass event = new VoteEvents.RenderPass();
+        event.begin();
+        VoteState current = source.get();
+        // The wall is shared, so it's in the server locale
+        MessageBundle messages = plugin.getMessages().server();
+        String header;
+        if (current == null) {
+            header = messages.renderPlain(drawnSession == null ? Message.MAP_WAITING : Message.MAP_ENDED);
+        } else if (current.isRolling()) {
+            header = messages.renderPlain(Message.MAP_POLL, current.windowSeconds());
+        } else {
+            header = messages.renderPlain(Message.MAP_TIME, current.remainingSeconds());
+        }
+
+        int scale = textScale();
+        boolean changed = false;
+        if (!header.equals(drawnHeader)) {
+            fillRect(0, 0, width, headerHeight(scale), BACKGROUND);
+            drawText(4 * scale, 3 * scale, header, HEADER, scale, width - 8 * scale);
+            drawnHeader = header;
+            changed = true;
+        }
+
+        if (current != null) {
+            if (current.session() != drawnSession) {
+                // New vote: different options, so every bar is redrawn
+                drawnSession = current.session();
+                resetBars(Math.min(current.options().size(), maxBars(scale)));
+                fillRect(0, headerHeight(scale), width, height - headerHeight(scale), BACKGROUND);
+                changed = true;
+            }
+            changed |= drawBars(current, scale);
+        }
+
+        if (changed) {
+            version++;
+        }
+        if (event.shouldCommit()) {
+            event.display = "map";
+            event.options = current != null ? current.options().size() : 0;
+            event.commit();
+        }
+    }
+
+    private void resetBars(int bars) {
+        drawnOptions = new int[bars];
+        drawnCounts = new int[bars];
+        drawnHeights = new int[bars];
+        drawnLeader = new boolean[bars];
+        Arrays.fill(drawnOptions, -1);
+    }
+
+    /**
+     * Redraws the bar columns whose option, count, height or leader highlight changed.
+     *
+     * @return Whether any column was redrawn
+     */
+    private boolean drawBars(VoteState current, int scale) {
+        int bars = drawnOptions.length;
+        if (bars == 0) return false;
+
+        int[] counts = current.counts();
+        int[] slots = barOptions(current, bars);
+        int max = 0;
+        for (int option : slots) {
+            max = Math.max(max, counts[option]);
+        }
+
+        int lineHeight = (font.getHeight() + 2) * scale;
+        int plotTop = headerHeight(scale) + lineHeight;
+        int plotBottom = height - 2 * lineHeight - 2 * scale;
+        int columnWidth = (width - 8 * scale) / bars;
+
+        boolean changed = false;
+        for (int i = 0; i < bars; i++) {
+            int option = slots[i];
+            int count = counts[option];
+            int barHeight = max == 0 ? 0 : (int) ((long) count * (plotBottom - plotTop) / max);
+            boolean leader = i == 0 && count > 0;
+            if (option == drawnOptions[i] && count == drawnCounts[i] && barHeight == drawnHeights[i]
+                    && leader == drawnLeader[i]) {
+                continue;
+            }
+
+            int x = 4 * scale + i * columnWidth;
+            int barWidth = columnWidth - 4 * scale;
+            fillRect(x, headerHeight(scale), columnWidth, height - headerHeight(scale), BACKGROUND);
+            fillRect(x, plotBottom - barHeight, barWidth, barHeight, leader ? LEADER_BAR : BAR);
+            drawCentered(x, barWidth, plotBottom - barHeight - lineHeight + scale, Integer.toString(count), TEXT, scale);
+            drawCentered(x, barWidth, plotBottom + 2 * scale, Integer.toString(option + 1), LABEL, scale);
+            drawCentered(x, barWidth, plotBottom + 2 * scale + lineHeight, current.options().get(option), TEXT, scale);
+
+            drawnOptions[i] = option;
+            drawnCounts[i] = count;
+            drawnHeights[i] = barHeight;
+            drawnLeader[i] = leader;
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Picks the options to chart: the leaders, then the first options in order while there are fewer leaders.
+     */
+    private static int[] barOptions(VoteState current, int bars) {
+        int[] slots = new int[bars];
+        int filled = 0;
+        int[] counts = current.counts();
+        for (int leader : current.leaders()) {
+            if (filled == bars) break;
+            if (counts[leader - 1] > 0) slots[filled++] = leader - 1;
+        }
+        for (int option = 0; filled < bars; option++) {
+            boolean taken = false;
+            for (int i = 0; i < filled; i++) {
+                taken |= slots[i] == option;
+            }
+            if (!taken) slots[filled++] = option;
+        }
+        return slots;
+    }
+
+    private int textScale() {
+        return Math.max(1, Math.min(tilesWide, tilesHigh) / 2);
+    }
+
+    private int headerHeight(int scale) {
+        return (font.getHeight() + 6) * scale;
+    }
+
+    private int maxBars(int scale) {
+        return Math.max(1, Math.min(MAX_BARS, (width - 8 * scale) / (MIN_COLUMN_WIDTH * scale)));
+    }
+
+    private void fillRect(int x, int y, int w, int h, byte color) {
+        int x0 = Math.max(0, x);
+        int x1 = Math.min(width, x + w);
+        for (int row = Math.max(0, y); row < Math.min(height, y + h); row++) {
+            Arrays.fill(pixels, row * width + x0, row * width + Math.max(x0, x1), color);
+        }
+    }
+
+    /**
+     * Draws text centered in a column, cut short to fit its width.
+     */
+    private void drawCentered(int x, int columnWidth, int y, String text, byte color, int scale) {
+        String fitted = fit(text, columnWidth / scale);
+        int textWidth = font.getWidth(fitted) * scale;
+        drawText(x + Math.max(0, (columnWidth - textWidth) / 2), y, fitted, color, scale, columnWidth);
+    }
+
+    /**
+     * Drops characters the font can't draw and trims the text to a width in font pixels.
+     */
+    private String fit(String text, int maxWidth) {
+        StringBuilder fitted = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (font.getChar(c) == null) continue;
+            fitted.append(c);
+            if (font.getWidth(fitted.toString()) > maxWidth) {
+                fitted.setLength(fitted.length() - 1);
+                break;
+            }
+        }
+        return fitted.toString();
+    }
+
+    /**
+     * Draws text into the pixel buffer using the map font sprites, scaled up for large walls.
+     */
+    private void drawText(int x, int y, String text, byte color, int scale, int maxWidth) {
+        int cursor = x;
+        for (int i = 0; i < text.length(); i++) {
+            MapFont.CharacterSprite sprite = font.getChar(text.charAt(i));
+            if (sprite == null) continue;
+            if (cursor + sprite.getWidth() * scale > x + maxWidth) break;
+
+            for (int row = 0; row < sprite.getHeight(); row++) {
+                for (int col = 0; col < sprite.getWidth(); col++) {
+                    if (sprite.get(row, col)) {
+                        fillRect(cursor + col * scale, y + row * scale, scale, scale, color);
+                    }
+                }
+            }
+            cursor += (sprite.getWidth() + 1) * scale;
+        }
+    }
+
+    /**
+     * Renders one 128x128 tile of the chart. Shared by all viewers, since the chart is the same for everyone.
+     */
+    private class TileRenderer extends MapRenderer {
+        private final int offsetX;
+        private final int offsetY;
+        private final byte[] drawn = new byte[TILE_SIZE * TILE_SIZE];
+        private int drawnVersion = -1;
+
+        TileRenderer(int offsetX, int offsetY) {
+            super(false);
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+        }
+
+        @Override
+        public void render(MapView map, MapCanvas canvas, Player player) {
+            if (drawnVersion == version) return;
+
+            // Only pixels that differ from the last frame are written, so only they are sent
+            boolean first = drawnVersion == -1;
+            for (int y = 0; y < TILE_SIZE; y++) {
+                int source = (offsetY + y) * width + offsetX;
+                int target = y * TILE_SIZE;
+                for (int x = 0; x < TILE_SIZE; x++) {
+                    byte color = pixels[source + x];
+                    if (first || drawn[target + x] != color) {
+                        drawn[target + x] = color;
+                        canvas.setPixel(x, y, color);
+                    }
+                }
+            }
+            drawnVersion = version;
+        }
+    }
+}
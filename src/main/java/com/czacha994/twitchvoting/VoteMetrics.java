@@ -0,0 +1,212 @@
+package com.czacha994.twitchvoting;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures what a vote costs the server, from its start until its results are hidden: time spent
+ * in the plugin's tasks on tick threads (in total and in the worst tick), tasks scheduled, updates
+ * sent to single players and scoreboard line changes. Twitch chat outages are reported alongside.
+ *
+ * Figures are per second of vote so votes of different lengths compare. When a vote's results
+ * are hidden its figures are logged and checked against the baseline saved with
+ * {@code /vote metrics baseline}; anything more than 20% worse is logged as a regression.
+ */
+public class VoteMetrics {
+    private static final String BASELINE_FILE = "metrics-baseline.yml";
+    // How much worse than the baseline a figure may get before it is reported
+    private static final double TOLERANCE = 0.2;
+    // Figures this small are noise, whatever the baseline says
+    private static final double NOISE_FLOOR = 0.5;
+
+    private final TwitchVotingPlugin plugin;
+    private final LongAdder tasks = new LongAdder();
+    private final LongAdder playerUpdates = new LongAdder();
+    private final LongAdder scoreboardOps = new LongAdder();
+
+    // Tick thread time. Folia's regions tick in parallel, so each thread sums its own current tick
+    private final LongAdder tickNanos = new LongAdder();
+    private final LongAccumulator worstTickNanos = new LongAccumulator(Math::max, 0);
+    // Per thread: the tick, the plugin's time in it so far, and the reset it belongs to
+    private final ThreadLocal<long[]> threadTick = ThreadLocal.withInitial(() -> new long[] {-1, 0, -1});
+    private volatile long generation = 0;
+    private volatile long startedNanos = System.nanoTime();
+    private volatile ChatConnectionTracker connection;
+
+    /**
+     * A vote's costs, per second of vote.
+     *
+     * @param seconds How long the figures were collected for
+     * @param tickMsPerSecond Milliseconds spent in plugin tasks on tick threads
+     * @param worstTickMs The most milliseconds spent in plugin tasks during a single tick
+     * @param tasksPerSecond Tasks scheduled
+     * @param playerUpdatesPerSecond Updates sent to single players (chat lines, action bars, scoreboard switches)
+     * @param scoreboardOpsPerSecond Sidebar lines set or removed
+     */
+    public record Summary(double seconds, double tickMsPerSecond, double worstTickMs, double tasksPerSecond,
+                          double playerUpdatesPerSecond, double scoreboardOpsPerSecond) {
+
+        /**
+         * @return The figures, labelled, for logs and chat
+         */
+        List<String> describe() {
+            return List.of(
+                    String.format("Tick time: %.2f ms/s (worst tick %.2f ms)", tickMsPerSecond, worstTickMs),
+                    String.format("Tasks scheduled: %.1f/s", tasksPerSecond),
+                    String.format("Player updates: %.1f/s", playerUpdatesPerSecond),
+                    String.format("Scoreboard operations: %.1f/s", scoreboardOpsPerSecond));
+        }
+    }
+
+    /**
+     * Creates the metrics.
+     *
+     * @param plugin The plugin instance
+     */
+    public VoteMetrics(TwitchVotingPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts measuring a new vote.
+     *
+     * @param connection The vote's Twitch chat connection, or null if it has none
+     */
+    public synchronized void reset(ChatConnectionTracker connection) {
+        this.connection = connection;
+        tasks.reset();
+        playerUpdates.reset();
+        scoreboardOps.reset();
+        tickNanos.reset();
+        worstTickNanos.reset();
+        // Threads notice on their next task and start their tick over
+        generation++;
+        startedNanos = System.nanoTime();
+    }
+
+    void countTask() {
+        tasks.increment();
+    }
+
+    void countPlayerUpdate() {
+        playerUpdates.increment();
+    }
+
+    void countScoreboardOps(int count) {
+        scoreboardOps.add(count);
+    }
+
+    /**
+     * Adds the run time of a plugin task on a tick thread. Never blocks, tasks on every region record at once.
+     *
+     * @param tick The tick the task ran in, as counted by the scheduler
+     * @param nanos How long the task ran
+     */
+    void recordTickTime(long tick, long nanos) {
+        long[] current = threadTick.get();
+        long reset = generation;
+        if (current[0] != tick || current[2] != reset) {
+            current[0] = tick;
+            current[1] = 0;
+            current[2] = reset;
+        }
+        current[1] += nanos;
+        tickNanos.add(nanos);
+        worstTickNanos.accumulate(current[1]);
+    }
+
+    /**
+     * @return The figures collected since the current or last vote started
+     */
+    public Summary summary() {
+        double seconds = Math.max(1.0, (System.nanoTime() - startedNanos) / 1e9);
+        return new Summary(seconds, tickNanos.sum() / 1e6 / seconds, worstTickNanos.get() / 1e6, tasks.sum() / seconds,
+                playerUpdates.sum() / seconds, scoreboardOps.sum() / seconds);
+    }
+
+    /**
+     * @return The Twitch chat connection of the current or last vote, or null if it had none
+     */
+    public ChatConnectionTracker getConnection() {
+        return connection;
+    }
+
+    /**
+     * Logs a finished vote's figures and any regressions against the baseline.
+     * Called once its results are hidden.
+     */
+    void voteFinished() {
+        Summary current = summary();
+        plugin.getLogger().info(String.format("Vote metrics over %.0f seconds:", current.seconds()));
+        for (String line : current.describe()) {
+            plugin.getLogger().info("  " + line);
+        }
+        ChatConnectionTracker connection = this.connection;
+        if (connection != null) {
+            for (String line : connection.describe()) {
+                plugin.getLogger().info("  " + line);
+            }
+        }
+
+        Summary baseline = loadBaseline();
+        if (baseline == null) return;
+        for (String regression : regressions(current, baseline)) {
+            plugin.getLogger().warning("Vote metrics regression: " + regression);
+        }
+    }
+
+    /**
+     * Compares figures with a baseline.
+     *
+     * @return A line for each figure more than 20% worse than the baseline
+     */
+    public static List<String> regressions(Summary current, Summary baseline) {
+        List<String> regressions = new ArrayList<>();
+        check(regressions, "tick time", "ms/s", current.tickMsPerSecond(), baseline.tickMsPerSecond());
+        check(regressions, "worst tick", "ms", current.worstTickMs(), baseline.worstTickMs());
+        check(regressions, "tasks scheduled", "/s", current.tasksPerSecond(), baseline.tasksPerSecond());
+        check(regressions, "player updates", "/s", current.playerUpdatesPerSecond(), baseline.playerUpdatesPerSecond());
+        check(regressions, "scoreboard operations", "/s", current.scoreboardOpsPerSecond(), baseline.scoreboardOpsPerSecond());
+        return regressions;
+    }
+
+    private static void check(List<String> regressions, String name, String unit, double current, double baseline) {
+        if (current < NOISE_FLOOR || current <= baseline * (1 + TOLERANCE)) return;
+        regressions.add(String.format("%s %.2f%s, baseline %.2f%s", name, current, unit, baseline, unit));
+    }
+
+    /**
+     * @return The saved baseline, or null if none was saved
+     */
+    public Summary loadBaseline() {
+        File file = new File(plugin.getDataFolder(), BASELINE_FILE);
+        if (!file.exists()) return null;
+
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file);
+        return new Summary(yaml.getDouble("seconds", 0), yaml.getDouble("tick_ms_per_second", 0),
+                yaml.getDouble("worst_tick_ms", 0), yaml.getDouble("tasks_per_second", 0),
+                yaml.getDouble("player_updates_per_second", 0), yaml.getDouble("scoreboard_ops_per_second", 0));
+    }
+
+    /**
+     * Saves figures as the baseline later votes are compared with.
+     *
+     * @throws IOException If the file could not be written
+     */
+    public void saveBaseline(Summary summary) throws IOException {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.set("seconds", summary.seconds());
+        yaml.set("tick_ms_per_second", summary.tickMsPerSecond());
+        yaml.set("worst_tick_ms", summary.worstTickMs());
+        yaml.set("tasks_per_second", summary.tasksPerSecond());
+        yaml.set("player_updates_per_second", summary.playerUpdatesPerSecond());
+        yaml.set("scoreboard_ops_per_second", summary.scoreboardOpsPerSecond());
+        yaml.save(new File(plugin.getDataFolder(), BASELINE_FILE));
+    }
+}
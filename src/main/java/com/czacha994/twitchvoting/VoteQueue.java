@@ -0,0 +1,301 @@
+package com.czacha994.twitchvoting;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Runs votes one after another, from playlists in {@code plugins/TwitchVoting/playlists/} or added
+ * with {@code /vote queue add}.
+ *
+ * While a vote runs, the next one is prepared in the background: its options are compiled and its
+ * session joins the Twitch channel, ignoring chat until it opens. When the running vote ends and its
+ * delay is up, the prepared vote opens within a tick instead of waiting seconds for Twitch.
+ *
+ * All methods run on the main thread; only the connecting happens on an async thread.
+ */
+public class VoteQueue {
+    static final String FOLDER = "playlists";
+    static final int DEFAULT_DELAY_SECONDS = 10;
+
+    private final TwitchVotingPlugin plugin;
+    private final VoteCommandExecutor executor;
+
+    private final Deque<Entry> pending = new ArrayDeque<>();
+    private String worldName;
+    private UUID starterUuid;
+    // The next vote while it connects, then once it is ready
+    private Entry preparing;
+    private PreparedVote prepared;
+    private Entry preparedEntry;
+    // Whether the next vote opens as soon as it is ready
+    private boolean openWhenReady = false;
+    // Seconds between the running vote's end and the next vote
+    private int delaySeconds = DEFAULT_DELAY_SECONDS;
+    private VoteScheduler.Task openTask;
+    // Bumped by clear() so connections finishing afterwards are dropped
+    private int generation = 0;
+
+    /**
+     * A queued vote.
+     *
+     * @param channel The Twitch channel to read votes from
+     * @param options The voting options, with {@code #N} and {@code @players} expanded when it is prepared
+     * @param seconds The vote duration
+     * @param delaySeconds Seconds from its end until the next vote opens
+     */
+    public record Entry(String channel, List<String> options, int seconds, int delaySeconds) {
+
+        public Entry {
+            options = List.copyOf(options);
+        }
+
+        /**
+         * @return The vote in one line, for chat
+         */
+        String describe() {
+            return channel + ": " + String.join(", ", options) + " (" + seconds + "s)";
+        }
+    }
+
+    /**
+     * @param plugin The plugin instance
+     * @param executor Prepares and opens the votes
+     */
+    public VoteQueue(TwitchVotingPlugin plugin, VoteCommandExecutor executor) {
+        this.plugin = plugin;
+        this.executor = executor;
+    }
+
+    /**
+     * Reads a playlist file. Votes may leave out {@code channel} and {@code delay} to use the
+     * playlist's.
+     *
+     * @param name The playlist's file name without {@code .yml}
+     * @return The playlist's votes
+     * @throws IllegalArgumentException If the playlist is missing or a vote in it is invalid
+     */
+    public List<Entry> loadPlaylist(String name) {
+        if (!name.matches("[A-Za-z0-9_-]+")) {
+            throw new IllegalArgumentException("Playlist names may only use letters, digits, - and _");
+        }
+        File file = new File(new File(plugin.getDataFolder(), FOLDER), name + ".yml");
+        if (!file.exists()) {
+            throw new IllegalArgumentException("No playlist " + FOLDER + "/" + name + ".yml");
+        }
+
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file);
+        String defaultChannel = yaml.getString("channel", "");
+        int defaultDelay = Math.max(0, yaml.getInt("delay", DEFAULT_DELAY_SECONDS));
+        List<Entry> entries = new ArrayList<>();
+        List<Map<?, ?>> votes = yaml.getMapList("votes");
+        for (int i = 0; i < votes.size(); i++) {
+            Map<?, ?> vote = votes.get(i);
+            String where = "Vote " + (i + 1) + " of " + name;
+            Object channel = vote.get("channel");
+            String streamer = channel != null ? channel.toString() : defaultChannel;
+            if (streamer.isBlank()) throw new IllegalArgumentException(where + " has no channel");
+
+            List<String> options = new ArrayList<>();
+            if (vote.get("options") instanceof List<?> list) {
+                for (Object option : list) {
+                    options.add(String.valueOf(option));
+                }
+            }
+            int seconds = toInt(vote.get("duration"), -1);
+            // Checked again once #N and @players are expanded, when the vote is prepared
+            String problem = executor.checkVote(seconds, options, false);
+            if (problem != null) throw new IllegalArgumentException(where + ": " + problem);
+
+            entries.add(new Entry(streamer.trim(), options, seconds, Math.max(0, toInt(vote.get("delay"), defaultDelay))));
+        }
+        if (entries.isEmpty()) throw new IllegalArgumentException("Playlist " + name + " has no votes");
+        return entries;
+    }
+
+    private static int toInt(Object value, int fallback) {
+        if (value instanceof Number number) return number.intValue();
+        if (value == null) return fallback;
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Adds votes to the end of the queue. Starts the first right away if no vote is running.
+     *
+     * @param worldName The world to show the votes in
+     * @param starterUuid The player who queued them, or null
+     */
+    public void enqueue(String worldName, UUID starterUuid, List<Entry> entries) {
+        this.worldName = worldName;
+        this.starterUuid = starterUuid;
+        pending.addAll(entries);
+
+        if (!executor.isVoteActive() && !executor.isStarting() && openTask == null) {
+            openNext();
+        } else {
+            prepareNext();
+        }
+    }
+
+    /**
+     * Called whenever a vote opens, queued or not: starts preparing the next queued vote.
+     */
+    void voteOpened() {
+        prepareNext();
+    }
+
+    /**
+     * Called when a vote that isn't queued failed to start: opens the next queued vote, which waited for it.
+     */
+    void startFailed() {
+        if (isActive() && openTask == null) openNext();
+    }
+
+    /**
+     * Called when a vote's results are shown: opens the next queued vote after the delay.
+     */
+    void voteEnded() {
+        if (!isActive()) return;
+        if (openTask != null) openTask.cancel();
+        openTask = plugin.getVoteScheduler().runLater(() -> {
+            openTask = null;
+            openNext();
+        }, Math.max(1L, delaySeconds * 20L));
+    }
+
+    /**
+     * Opens the next vote if it is ready, or as soon as it is. Waits for the next end if another
+     * vote was started meanwhile.
+     */
+    private void openNext() {
+        if (executor.isVoteActive() || executor.isStarting()) return;
+        if (executor.isClusterFollower()) {
+            plugin.getLogger().warning("This server now follows a cluster leader, dropping the vote queue");
+            clear();
+            return;
+        }
+
+        if (prepared == null) {
+            openWhenReady = true;
+            prepareNext();
+            return;
+        }
+        PreparedVote next = prepared;
+        delaySeconds = preparedEntry.delaySeconds();
+        prepared = null;
+        preparedEntry = null;
+        openWhenReady = false;
+        executor.openVote(next);
+    }
+
+    /**
+     * Connects the next queued vote in the background, unless one is already prepared or connecting.
+     */
+    private void prepareNext() {
+        if (prepared != null || preparing != null) return;
+
+        while (!pending.isEmpty()) {
+            Entry entry = pending.poll();
+            // Expanded now so @players are the players there when the vote is prepared
+            List<String> options = executor.expandOptions(entry.options().toArray(new String[0]), Bukkit.getWorld(worldName));
+            String problem = executor.checkVote(entry.seconds(), options, false);
+            if (problem != null) {
+                plugin.getLogger().warning("Skipping queued vote " + entry.describe() + ": " + problem);
+                continue;
+            }
+
+            preparing = entry;
+            int expected = generation;
+            String world = worldName;
+            UUID starter = starterUuid;
+            plugin.getVoteScheduler().runAsync(() -> {
+                PreparedVote vote;
+                try {
+                    vote = executor.prepareVote(world, starter, entry.channel(), options, entry.seconds(), false);
+                } catch (RuntimeException e) {
+                    plugin.getLogger().warning("Skipping queued vote " + entry.describe() + ": " + e.getMessage());
+                    plugin.getVoteScheduler().run(() -> {
+                        if (expected != generation) return;
+                        preparing = null;
+                        prepareNext();
+                    });
+                    return;
+                }
+                plugin.getVoteScheduler().run(() -> {
+                    if (expected != generation) {
+                        // Cleared while connecting
+                        plugin.getVoteScheduler().runAsync(vote.session()::stop);
+                        return;
+                    }
+                    preparing = null;
+                    prepared = vote;
+                    preparedEntry = entry;
+                    if (openWhenReady) openNext();
+                });
+            });
+            return;
+        }
+    }
+
+    /**
+     * @return Whether votes are queued, connecting or ready
+     */
+    public boolean isActive() {
+        return !pending.isEmpty() || preparing != null || prepared != null;
+    }
+
+    /**
+     * @return The next vote, connecting or ready, followed by the rest of the queue
+     */
+    public List<Entry> getEntries() {
+        List<Entry> entries = new ArrayList<>();
+        if (preparedEntry != null) entries.add(preparedEntry);
+        if (preparing != null) entries.add(preparing);
+        entries.addAll(pending);
+        return entries;
+    }
+
+    /**
+     * @return Whether the next vote is connected and can open right away
+     */
+    public boolean isNextReady() {
+        return prepared != null;
+    }
+
+    /**
+     * Empties the queue and disconnects the prepared vote. The running vote is left alone.
+     */
+    public void clear() {
+        generation++;
+        pending.clear();
+        preparing = null;
+        preparedEntry = null;
+        openWhenReady = false;
+        delaySeconds = DEFAULT_DELAY_SECONDS;
+        if (openTask != null) {
+            openTask.cancel();
+            openTask = null;
+        }
+        if (prepared != null) {
+            TwitchVoteSession session = prepared.session();
+            prepared = null;
+            // Disconnecting can block, so it only runs here while shutting down
+            if (plugin.isEnabled()) {
+                plugin.getVoteScheduler().runAsync(session::stop);
+            } else {
+                session.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.czacha994.twitchvoting;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The outcome of a vote, kept after it ends so its ballots can still be exported.
+ *
+ * @param channel The Twitch channel the vote was held in
+ * @param options The voting options, in display order
+ * @param counts Vote counts per option (index 0 = option 1)
+ * @param ballots The ballots collected during the vote
+ * @param quarantine The suspected raid votes held back from the ballots, or null without raid quarantine
+ * @param quarantineIncluded Whether the counts include the quarantined votes
+ * @param finishedAt When the vote ended, or when the snapshot was taken for a running vote
+ */
+public record VoteResult(String channel, List<String> options, int[] counts, BallotStore ballots,
+                         BallotStore quarantine, boolean quarantineIncluded, Instant finishedAt) {
+
+    public VoteResult {
+        options = List.copyOf(options);
+    }
+}
@@ -0,0 +1,172 @@
+package com.czacha994.twitchvoting;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the plugin's tasks on Paper and on Folia's region threads.
+ *
+ * On Paper everything runs through the Bukkit scheduler as before. On Folia, vote timers and
+ * displays shared by everyone run on the global region scheduler, work for a single player (sending
+ * them messages, switching their scoreboard) runs on the scheduler of the region that owns the
+ * player, and async work uses the async scheduler. Per-player work runs right away when the calling
+ * thread already owns the player, which on Paper is always the case on the main thread.
+ *
+ * Every task is counted in {@link VoteMetrics}, and tasks on tick threads are timed.
+ */
+public final class VoteScheduler {
+    private static final boolean FOLIA = detectFolia();
+    private static final long MILLIS_PER_TICK = 50L;
+    private static final long NANOS_PER_TICK = MILLIS_PER_TICK * 1_000_000L;
+
+    private final Plugin plugin;
+    private final VoteMetrics metrics;
+
+    /**
+     * A scheduled task that can be cancelled, whichever scheduler runs it.
+     */
+    public interface Task {
+        /**
+         * Cancels the task. Safe to call more than once.
+         */
+        void cancel();
+    }
+
+    /**
+     * @param plugin The plugin owning the tasks
+     * @param metrics Where tasks are counted and timed
+     */
+    public VoteScheduler(Plugin plugin, VoteMetrics metrics) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+    }
+
+    private static boolean detectFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return Whether the server runs Folia's region threads
+     */
+    public static boolean isFolia() {
+        return FOLIA;
+    }
+
+    /**
+     * Runs a task on the next tick, on the main thread or Folia's global region.
+     */
+    public Task run(Runnable task) {
+        Runnable timed = timed(task);
+        if (FOLIA) return wrap(Bukkit.getGlobalRegionScheduler().run(plugin, scheduled -> timed.run()));
+        return wrap(Bukkit.getScheduler().runTask(plugin, timed));
+    }
+
+    /**
+     * Runs a task after a delay, on the main thread or Folia's global region.
+     */
+    public Task runLater(Runnable task, long delayTicks) {
+        if (FOLIA) {
+            // The region schedulers need a delay of at least one tick
+            if (delayTicks < 1) return run(task);
+            Runnable timed = timed(task);
+            return wrap(Bukkit.getGlobalRegionScheduler().runDelayed(plugin, scheduled -> timed.run(), delayTicks));
+        }
+        return wrap(Bukkit.getScheduler().runTaskLater(plugin, timed(task), delayTicks));
+    }
+
+    /**
+     * Runs a task repeatedly, on the main thread or Folia's global region.
+     */
+    public Task runTimer(Runnable task, long delayTicks, long periodTicks) {
+        Runnable timed = timed(task);
+        if (FOLIA) {
+            return wrap(Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, scheduled -> timed.run(),
+                    Math.max(1L, delayTicks), Math.max(1L, periodTicks)));
+        }
+        return wrap(Bukkit.getScheduler().runTaskTimer(plugin, timed, delayTicks, periodTicks));
+    }
+
+    /**
+     * Runs a task on an async thread.
+     */
+    public Task runAsync(Runnable task) {
+        metrics.countTask();
+        if (FOLIA) return wrap(Bukkit.getAsyncScheduler().runNow(plugin, scheduled -> task.run()));
+        return wrap(Bukkit.getScheduler().runTaskAsynchronously(plugin, task));
+    }
+
+    /**
+     * Runs a task repeatedly on async threads.
+     */
+    public Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        metrics.countTask();
+        if (FOLIA) {
+            return wrap(Bukkit.getAsyncScheduler().runAtFixedRate(plugin, scheduled -> task.run(),
+                    delayTicks * MILLIS_PER_TICK, Math.max(1L, periodTicks) * MILLIS_PER_TICK, TimeUnit.MILLISECONDS));
+        }
+        return wrap(Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, task, delayTicks, periodTicks));
+    }
+
+    /**
+     * Runs work for one player on the thread that owns them: right away if that is the calling
+     * thread, otherwise on their next tick. Nothing runs if the player leaves first.
+     */
+    public void runForPlayer(Player player, Runnable task) {
+        metrics.countPlayerUpdate();
+        if (FOLIA) {
+            if (Bukkit.isOwnedByCurrentRegion(player)) {
+                task.run();
+            } else {
+                Runnable timed = timed(task);
+                player.getScheduler().run(plugin, scheduled -> timed.run(), null);
+            }
+        } else if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, timed(task));
+        }
+    }
+
+    /**
+     * The tick the calling tick thread is in, for grouping task times per tick. Paper's main thread
+     * counts ticks; Folia's regions each tick on their own and keep no shared count, so there it's
+     * the 50 ms slot of the clock a tick is scheduled in.
+     */
+    private static long currentTick() {
+        return FOLIA ? System.nanoTime() / NANOS_PER_TICK : Bukkit.getCurrentTick();
+    }
+
+    /**
+     * Counts a task for a tick thread and times each of its runs.
+     */
+    private Runnable timed(Runnable task) {
+        metrics.countTask();
+        return () -> {
+            long tick = currentTick();
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                metrics.recordTickTime(tick, System.nanoTime() - start);
+            }
+        };
+    }
+
+    private static Task wrap(BukkitTask task) {
+        return task::cancel;
+    }
+
+    private static Task wrap(ScheduledTask task) {
+        return task::cancel;
+    }
+}
@@ -1,28 +1,41 @@
 package com.czacha994.twitchvoting;
 
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.scoreboard.*;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Manages the display of voting options and results as in-game scoreboards.
+ * Every player who sees the sidebar shares one scoreboard, so each refresh renders the
+ * vote once no matter how many players are watching.
  */
 public class VoteScoreboard {
+    // Votes with more options than this show leaders and a rotating page instead of every option
+    static final int FULL_LAYOUT_LIMIT = 20;
+    // Large votes: leaders shown, options per page (two per line) and seconds per page
+    static final int LARGE_LEADERS = 5;
+    static final int PAGE_SIZE = 10;
+    static final int PAGE_ROTATE_SECONDS = 5;
+
     private final TwitchVotingPlugin plugin;
     private final String objectiveName = "twitchvote";
-    private final Map<UUID, Scoreboard> playerBoards = new HashMap<>();
-    private final Map<UUID, Integer> playerUpdateTasks = new HashMap<>();
-    private final Map<UUID, Integer> remainingTimeMap = new ConcurrentHashMap<>();
+    // The shared live or results board and the players currently shown it
+    private Scoreboard board = null;
+    // Written from each player's region thread on Folia
+    private final Map<UUID, Player> viewers = new ConcurrentHashMap<>();
+    private VoteScheduler.Task updateTask = null;
+    private int remainingSeconds = 0;
+    // The time, poll window or "ended" line at the top, kept when the option lines are redrawn
+    private String statusEntry = null;
     private final AtomicBoolean votingEnded = new AtomicBoolean(false);
 
     /**
@@ -36,20 +49,26 @@ public class VoteScoreboard {
 
     /**
      * Shows the voting scoreboard to the specified players.
+     * The shared board is created on first use and refreshed once per second for all viewers.
      *
-     * @param options The voting options to display
-     * @param session The active vote session
+     * @param source Supplies the latest published vote state (null once the vote is over)
      * @param players The players to show the scoreboard to
-     * @param seconds The initial duration in seconds
      */
-    public void showVoting(List<String> options, TwitchVoteSession session, List<Player> players, int seconds) {
-        // Reset state for new vote
-        votingEnded.set(false);
+    public void showVoting(Supplier<VoteState> source, List<Player> players) {
+        VoteState current = source.get();
+        if (current == null) return;
+
+        if (board == null || updateTask == null) {
+            // Reset state for new vote
+            votingEnded.set(false);
+            remainingSeconds = current.remainingSeconds();
+            if (!createScoreboard(current.options(), source)) return;
+        }
 
-        // Initialize timers for all players
+        Scoreboard shown = board;
         for (Player player : players) {
-            remainingTimeMap.put(player.getUniqueId(), seconds);
-            createScoreboard(player, options, session, false);
+            viewers.put(player.getUniqueId(), player);
+            plugin.getVoteScheduler().runForPlayer(player, () -> player.setScoreboard(shown));
         }
     }
 
@@ -59,8 +78,9 @@ public class VoteScoreboard {
      * @param options The voting options
      * @param results The vote counts for each option
      * @param players The players to show the scoreboard to
+     * @param note An extra line shown under the results (e.g. accuracy of approximate counts), or null
      */
-    public void showResults(List<String> options, int[] results, List<Player> players) {
+    public void showResults(List<String> options, int[] results, List<Player> players, String note) {
         // Mark that voting has ended to show winner highlighting
         votingEnded.set(true);
 
@@ -71,26 +91,25 @@ public class VoteScoreboard {
             }
         }
 
-        final int highestVote = maxVotes;
-
+        if (!createResultScoreboard(options, results, maxVotes, note)) return;
+        viewers.clear();
+        Scoreboard shown = board;
         for (Player player : players) {
-            createResultScoreboard(player, options, results, highestVote);
+            viewers.put(player.getUniqueId(), player);
+            plugin.getVoteScheduler().runForPlayer(player, () -> player.setScoreboard(shown));
         }
     }
 
     /**
-     * Updates the remaining time display for a player's scoreboard.
+     * Updates the remaining time display on the shared scoreboard.
      *
-     * @param player The player whose scoreboard should be updated
      * @param seconds The remaining seconds to display
      */
-    public void updateRemainingTime(Player player, int seconds) {
-        remainingTimeMap.put(player.getUniqueId(), seconds);
+    public void updateRemainingTime(int seconds) {
+        if (seconds == remainingSeconds) return;
+        remainingSeconds = seconds;
 
-        // Update the scoreboard with new time if we have active board
-        UUID playerId = player.getUniqueId();
-        if (playerBoards.containsKey(playerId)) {
-            Scoreboard board = playerBoards.get(playerId);
+        if (board != null && updateTask != null) {
             Objective objective = board.getObjective(objectiveName);
             if (objective != null) {
                 // Update time display
@@ -104,153 +123,178 @@ public class VoteScoreboard {
      */
     private void updateTimeDisplay(Scoreboard board, Objective objective, int seconds) {
         // Clear existing time display
-        for (String entry : board.getEntries()) {
-            if (entry.contains("Time remaining:")) {
-                board.resetScores(entry);
-            }
+        if (statusEntry != null) {
+            board.resetScores(statusEntry);
         }
+        plugin.getVoteMetrics().countScoreboardOps(2);
 
         // Format time display nicely
-        String timeText;
-        if (seconds > 60) {
-            int minutes = seconds / 60;
-            int remainingSecs = seconds % 60;
-            timeText = ChatColor.YELLOW + "Time remaining: " +
-                      ChatColor.WHITE + minutes + "m " + remainingSecs + "s";
-        } else {
-            timeText = ChatColor.YELLOW + "Time remaining: " +
-                      (seconds <= 10 ? ChatColor.RED : ChatColor.WHITE) + seconds + "s";
-        }
+        String time = seconds > 60 ? seconds / 60 + "m " + seconds % 60 + "s" : seconds + "s";
+        statusEntry = plugin.getMessages().server()
+                .render(seconds <= 10 ? Message.SCOREBOARD_TIME_LOW : Message.SCOREBOARD_TIME, time);
 
         // Set the new time
-        Score timeScore = objective.getScore(timeText);
+        Score timeScore = objective.getScore(statusEntry);
         timeScore.setScore(1000); // High score to put at top
     }
 
     /**
-     * Creates and displays a scoreboard for a player.
+     * Creates the shared live scoreboard and starts refreshing it.
+     *
+     * @return Whether the board could be created
      */
-    private void createScoreboard(Player player, List<String> options, TwitchVoteSession session, boolean isResult) {
-        UUID playerId = player.getUniqueId();
-
-        // Cancel existing update task if present
-        if (playerUpdateTasks.containsKey(playerId)) {
-            Bukkit.getScheduler().cancelTask(playerUpdateTasks.get(playerId));
-            playerUpdateTasks.remove(playerId);
-        }
+    private boolean createScoreboard(List<String> options, Supplier<VoteState> source) {
+        cancelUpdateTask();
 
-        ScoreboardManager manager = Bukkit.getScoreboardManager();
-        if (manager == null) return;
+        ScoreboardManager manager = scoreboardManager();
+        if (manager == null) return false;
 
-        Scoreboard board = manager.getNewScoreboard();
+        MessageBundle messages = plugin.getMessages().server();
+        board = manager.getNewScoreboard();
+        statusEntry = null;
         Objective objective = board.registerNewObjective(objectiveName, "dummy",
-                ChatColor.GOLD + "" + ChatColor.BOLD + "TWITCH VOTE");
+                messages.render(Message.SCOREBOARD_TITLE));
         objective.setDisplaySlot(DisplaySlot.SIDEBAR);
 
-        playerBoards.put(playerId, board);
-
-        // Get current time for this player
-        int timeRemaining = remainingTimeMap.getOrDefault(playerId, 0);
-        updateTimeDisplay(board, objective, timeRemaining);
-
-        // Schedule updates for live voting
-        if (!isResult && session != null) {
-            int taskId = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
-                updateScoreboard(player, options, session.getVoteCounts());
-            }, 20L, 20L).getTaskId(); // Update every second
-            playerUpdateTasks.put(playerId, taskId);
+        // Rolling polls show their window instead of the time
+        VoteState initial = source.get();
+        if (initial != null && initial.isRolling()) {
+            statusEntry = messages.render(Message.SCOREBOARD_POLL, initial.windowSeconds());
+            objective.getScore(statusEntry).setScore(1000);
+        } else {
+            updateTimeDisplay(board, objective, remainingSeconds);
         }
 
+        // One render per second for everyone watching; counts are precomputed in the snapshot
+        updateTask = plugin.getVoteScheduler().runTimer(() -> {
+            VoteState current = source.get();
+            if (current != null) {
+                updateScoreboard(current);
+            }
+        }, 20L, 20L);
+
         // Initial display
-        if (session != null) {
-            updateScoreboard(player, options, session.getVoteCounts());
+        if (initial != null) {
+            updateScoreboard(initial);
         } else {
             // Just set empty scores for first display
-            setScores(board, objective, options, new int[options.size()], 0);
+            setScores(board, objective, options, new int[options.size()], new int[0], 0, 0);
         }
-
-        player.setScoreboard(board);
+        return true;
     }
 
     /**
-     * Creates and displays a result scoreboard for a player.
+     * Creates the shared result scoreboard.
+     *
+     * @return Whether the board could be created
      */
-    private void createResultScoreboard(Player player, List<String> options, int[] results, int highestVote) {
-        UUID playerId = player.getUniqueId();
-
-        // Cancel existing update task if present
-        if (playerUpdateTasks.containsKey(playerId)) {
-            Bukkit.getScheduler().cancelTask(playerUpdateTasks.get(playerId));
-            playerUpdateTasks.remove(playerId);
-        }
+    private boolean createResultScoreboard(List<String> options, int[] results, int highestVote, String note) {
+        cancelUpdateTask();
 
-        ScoreboardManager manager = Bukkit.getScoreboardManager();
-        if (manager == null) return;
+        ScoreboardManager manager = scoreboardManager();
+        if (manager == null) return false;
 
-        Scoreboard board = manager.getNewScoreboard();
+        MessageBundle messages = plugin.getMessages().server();
+        board = manager.getNewScoreboard();
         Objective objective = board.registerNewObjective(objectiveName, "dummy",
-                ChatColor.GOLD + "" + ChatColor.BOLD + "VOTE RESULTS");
+                messages.render(Message.SCOREBOARD_RESULTS_TITLE));
         objective.setDisplaySlot(DisplaySlot.SIDEBAR);
 
         // Add final results message
-        Score timeScore = objective.getScore(ChatColor.GREEN + "Voting has ended!");
+        statusEntry = messages.render(Message.SCOREBOARD_ENDED);
+        Score timeScore = objective.getScore(statusEntry);
         timeScore.setScore(1000);
 
-        playerBoards.put(playerId, board);
-        setScores(board, objective, options, results, highestVote);
-        player.setScoreboard(board);
+        int[] leaders = options.size() > FULL_LAYOUT_LIMIT
+                ? SparseTally.topOptions(results, BallotStore.LEADERBOARD_SIZE)
+                : new int[0];
+        setScores(board, objective, options, results, leaders, highestVote, -1);
+
+        // Add the note below the options so setScores doesn't clear it
+        if (note != null) {
+            objective.getScore(note).setScore(0);
+        }
+        return true;
     }
 
     /**
-     * Updates a player's scoreboard with current vote counts.
+     * Updates the shared scoreboard with current vote counts.
      */
-    private void updateScoreboard(Player player, List<String> options, int[] counts) {
-        if (!player.isOnline()) return;
-
-        // Make copies of the data to prevent race conditions
-        final List<String> optionsCopy = new ArrayList<>(options);
-        final int[] countsCopy = counts.clone();
+    private void updateScoreboard(VoteState current) {
+        if (board == null) return;
+        Objective objective = board.getObjective(objectiveName);
+        if (objective == null) return;
 
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            if (!player.isOnline()) return; // Check again after scheduler delay
+        VoteEvents.RenderPass event = new VoteEvents.RenderPass();
+        event.begin();
 
-            UUID playerId = player.getUniqueId();
-            if (!playerBoards.containsKey(playerId)) return;
-
-            Scoreboard board = playerBoards.get(playerId);
-            Objective objective = board.getObjective(objectiveName);
-            if (objective == null) return;
+        // Options and counts come from an immutable snapshot, so no defensive copies are needed
+        int[] counts = current.counts();
+        int page = current.elapsedSeconds() / PAGE_ROTATE_SECONDS;
 
-            // Find highest vote count for highlighting
-            int maxVotes = 0;
-            for (int count : countsCopy) {
-                if (count > maxVotes) {
-                    maxVotes = count;
-                }
+        // Find highest vote count for highlighting
+        int maxVotes = 0;
+        for (int count : counts) {
+            if (count > maxVotes) {
+                maxVotes = count;
             }
+        }
 
-            // Only highlight winners if voting has ended
-            setScores(board, objective, optionsCopy, countsCopy, votingEnded.get() ? maxVotes : 0);
-        });
+        // Only highlight winners if voting has ended
+        setScores(board, objective, current.options(), counts, current.leaders(), votingEnded.get() ? maxVotes : 0, page);
+        if (event.shouldCommit()) {
+            event.display = "scoreboard";
+            event.options = current.options().size();
+            event.players = viewers.size();
+            event.commit();
+        }
+    }
+
+    private void cancelUpdateTask() {
+        if (updateTask != null) {
+            updateTask.cancel();
+            updateTask = null;
+        }
     }
 
     /**
      * Sets the option scores on a scoreboard.
+     *
+     * @param leaders Leading option numbers, only used for votes over {@link #FULL_LAYOUT_LIMIT} options
+     * @param page Which page of options to show for large votes, or -1 to show leaders only (results)
      */
-    private void setScores(Scoreboard board, Objective objective, List<String> options, int[] counts, int highestVote) {
+    private void setScores(Scoreboard board, Objective objective, List<String> options, int[] counts,
+                           int[] leaders, int highestVote, int page) {
         // Clear any existing option scores (but leave time display)
+        int cleared = 0;
         for (String entry : new ArrayList<>(board.getEntries())) {
-            if (!entry.contains("Time remaining:") && !entry.contains("Voting has ended!")) {
+            if (!entry.equals(statusEntry)) {
                 board.resetScores(entry);
+                cleared++;
             }
         }
 
+        MessageBundle messages = plugin.getMessages().server();
+        if (options.size() > FULL_LAYOUT_LIMIT) {
+            setLargeScores(board, objective, messages, options, counts, leaders, highestVote, page);
+        } else {
+            setSmallScores(board, objective, messages, options, counts, highestVote);
+        }
+        plugin.getVoteMetrics().countScoreboardOps(cleared + board.getEntries().size());
+    }
+
+    /**
+     * Lays out a vote of up to {@link #FULL_LAYOUT_LIMIT} options, one or two options per line.
+     */
+    private void setSmallScores(Scoreboard board, Objective objective, MessageBundle messages, List<String> options,
+                                int[] counts, int highestVote) {
+
         // Add separator line
-        Score separator = objective.getScore(ChatColor.DARK_GRAY + "--------------------");
+        Score separator = objective.getScore(messages.render(Message.SCOREBOARD_SEPARATOR));
         separator.setScore(options.size() + 2);
 
         // Add instruction line
-        Score instruction = objective.getScore(ChatColor.YELLOW + "Type number in Twitch chat");
+        Score instruction = objective.getScore(messages.render(Message.SCOREBOARD_INSTRUCTION));
         instruction.setScore(options.size() + 1);
 
         // Check if we need to display options side by side (more than 10 options)
@@ -260,7 +304,7 @@ public class VoteScoreboard {
             // Original layout - one option per line
             AtomicInteger position = new AtomicInteger(options.size());
             for (int i = 0; i < options.size(); i++) {
-                String displayText = formatOptionText(i, options.get(i), counts[i], highestVote);
+                String displayText = formatOptionText(messages, i, options.get(i), counts[i], highestVote);
 
                 // Ensure entries are unique by appending spaces if needed
                 while (board.getEntries().contains(displayText)) {
@@ -278,12 +322,12 @@ public class VoteScoreboard {
                 StringBuilder displayText = new StringBuilder();
 
                 // Add first option
-                displayText.append(formatOptionText(i, options.get(i), counts[i], highestVote, true));
+                displayText.append(formatOptionText(messages, i, options.get(i), counts[i], highestVote, true));
 
                 // Add second option if available
                 if (i + 1 < options.size()) {
                     displayText.append(" | ");
-                    displayText.append(formatOptionText(i + 1, options.get(i + 1), counts[i + 1], highestVote, true));
+                    displayText.append(formatOptionText(messages, i + 1, options.get(i + 1), counts[i + 1], highestVote, true));
                 }
 
                 // Ensure entries are unique
@@ -298,75 +342,89 @@ public class VoteScoreboard {
         }
     }
 
+    /**
+     * Lays out a large vote: the current leaders, then a rotating page of the full option list
+     * so viewers can still find every number. Line count stays fixed regardless of option count.
+     */
+    private void setLargeScores(Scoreboard board, Objective objective, MessageBundle messages, List<String> options,
+                                int[] counts, int[] leaders, int highestVote, int page) {
+        int leaderLines = page < 0 ? Math.min(leaders.length, BallotStore.LEADERBOARD_SIZE)
+                                   : Math.min(leaders.length, LARGE_LEADERS);
+        int pageCount = (options.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+        int pageStart = page < 0 ? 0 : (page % pageCount) * PAGE_SIZE;
+        int pageEnd = Math.min(options.size(), pageStart + PAGE_SIZE);
+        int pageLines = page < 0 ? 0 : (pageEnd - pageStart + 1) / 2;
+
+        int position = leaderLines + pageLines + 3;
+        addUniqueScore(board, objective, messages.render(Message.SCOREBOARD_SEPARATOR), position--);
+        addUniqueScore(board, objective, messages.render(Message.SCOREBOARD_INSTRUCTION), position--);
+        addUniqueScore(board, objective, messages.render(Message.SCOREBOARD_LEADERS, options.size()), position--);
+
+        for (int i = 0; i < leaderLines; i++) {
+            int index = leaders[i] - 1;
+            addUniqueScore(board, objective,
+                    formatOptionText(messages, index, options.get(index), counts[index], highestVote), position--);
+        }
+
+        if (page < 0) return;
+
+        addUniqueScore(board, objective, messages.render(Message.SCOREBOARD_PAGE, pageStart + 1, pageEnd), position--);
+        for (int i = pageStart; i < pageEnd; i += 2) {
+            StringBuilder displayText = new StringBuilder();
+            displayText.append(formatOptionText(messages, i, options.get(i), counts[i], highestVote, true));
+            if (i + 1 < pageEnd) {
+                displayText.append(" | ");
+                displayText.append(formatOptionText(messages, i + 1, options.get(i + 1), counts[i + 1], highestVote, true));
+            }
+            addUniqueScore(board, objective, displayText.toString(), position--);
+        }
+    }
+
+    /**
+     * Adds a line to the sidebar, padding it with spaces if the same text is already shown.
+     */
+    private void addUniqueScore(Scoreboard board, Objective objective, String text, int score) {
+        while (board.getEntries().contains(text)) {
+            text += " ";
+        }
+        objective.getScore(text).setScore(score);
+    }
+
     /**
      * Formats the text for a voting option.
      */
-    private String formatOptionText(int index, String option, int count, int highestVote) {
-        return formatOptionText(index, option, count, highestVote, false);
+    private String formatOptionText(MessageBundle messages, int index, String option, int count, int highestVote) {
+        return formatOptionText(messages, index, option, count, highestVote, false);
     }
 
     /**
      * Formats the text for a voting option with compact option.
      */
-    private String formatOptionText(int index, String option, int count, int highestVote, boolean compact) {
+    private String formatOptionText(MessageBundle messages, int index, String option, int count, int highestVote,
+                                    boolean compact) {
+        Message message;
         if (count == highestVote && highestVote > 0) {
             // Highlight winning option(s)
-            if (compact) {
-                // Use shorter format for compact display
-                return ChatColor.LIGHT_PURPLE + "" + ChatColor.BOLD + (index + 1) + "." +
-                       option + ChatColor.GOLD + "[" + count + "]";
-            } else {
-                return ChatColor.LIGHT_PURPLE + "" + ChatColor.BOLD + (index + 1) + ". " +
-                       option + " " + ChatColor.GOLD + "[" + count + "]";
-            }
+            message = compact ? Message.SCOREBOARD_WINNER_COMPACT : Message.SCOREBOARD_WINNER;
         } else {
-            if (compact) {
-                // Use shorter format for compact display
-                return ChatColor.AQUA + "" + (index + 1) + "." +
-                       ChatColor.WHITE + option + " " +
-                       ChatColor.GREEN + "[" + count + "]";
-            } else {
-                return ChatColor.AQUA + "" + (index + 1) + ". " +
-                       ChatColor.WHITE + option + " " +
-                       ChatColor.GREEN + "[" + count + "]";
-            }
+            message = compact ? Message.SCOREBOARD_OPTION_COMPACT : Message.SCOREBOARD_OPTION;
         }
+        return messages.render(message, index + 1, option, count);
     }
 
     /**
      * Hides a scoreboard for a specific player.
      */
     public void hideScoreboard(Player player) {
-        UUID playerId = player.getUniqueId();
-        hideScoreboardById(playerId, player);
-    }
-
-    /**
-     * Hides a scoreboard by player UUID, handling both online and offline players.
-     */
-    private void hideScoreboardById(UUID playerId, Player player) {
-        // Cancel update task
-        if (playerUpdateTasks.containsKey(playerId)) {
-            try {
-                Bukkit.getScheduler().cancelTask(playerUpdateTasks.get(playerId));
-            } catch (Exception e) {
-                // Ignore errors from task cancellation
-            }
-            playerUpdateTasks.remove(playerId);
-        }
-
-        // Remove from time tracking
-        remainingTimeMap.remove(playerId);
+        if (viewers.remove(player.getUniqueId()) == null) return;
 
         // Reset to main scoreboard if player is online
-        if (player != null && player.isOnline()) {
-            ScoreboardManager manager = Bukkit.getScoreboardManager();
+        if (player.isOnline()) {
+            ScoreboardManager manager = scoreboardManager();
             if (manager != null) {
-                player.setScoreboard(manager.getMainScoreboard());
+                plugin.getVoteScheduler().runForPlayer(player, () -> player.setScoreboard(manager.getMainScoreboard()));
             }
         }
-
-        playerBoards.remove(playerId);
     }
 
     /**
@@ -375,27 +433,28 @@ public class VoteScoreboard {
     public void hideAllScoreboards() {
         // Mark voting as ended
         votingEnded.set(true);
+        cancelUpdateTask();
 
-        // Get a copy of keys to avoid concurrent modification
-        List<UUID> playerIds = new ArrayList<>(playerBoards.keySet());
-
-        for (UUID playerId : playerIds) {
-            Player player = Bukkit.getPlayer(playerId);
-            // Clean up for both online and offline players
-            hideScoreboardById(playerId, player);
-        }
-
-        // Cancel all update tasks
-        for (Integer taskId : new ArrayList<>(playerUpdateTasks.values())) {
-            try {
-                Bukkit.getScheduler().cancelTask(taskId);
-            } catch (Exception e) {
-                // Ignore errors from task cancellation
+        ScoreboardManager manager = scoreboardManager();
+        for (Player player : viewers.values()) {
+            if (player.isOnline() && manager != null) {
+                plugin.getVoteScheduler().runForPlayer(player, () -> player.setScoreboard(manager.getMainScoreboard()));
             }
         }
 
-        playerUpdateTasks.clear();
-        playerBoards.clear();
-        remainingTimeMap.clear();
+        viewers.clear();
+        board = null;
+        statusEntry = null;
+    }
+
+    /**
+     * @return The scoreboard manager, or null when there is none (before the first world loads, and on Folia)
+     */
+    private static ScoreboardManager scoreboardManager() {
+        try {
+            return Bukkit.getScoreboardManager();
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package com.czacha994.twitchvoting;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of the active vote.
+ * Published through a single atomic reference so readers on any thread
+ * (timers, scoreboard tasks) always see a consistent view without locking.
+ *
+ * @param session The Twitch session collecting votes
+ * @param options The voting options, in display order
+ * @param worldName The world the vote is shown in
+ * @param starterUuid The player who started the vote, or null for command blocks
+ * @param totalSeconds The configured vote duration (0 for rolling polls)
+ * @param remainingSeconds The seconds left on the countdown (0 for rolling polls)
+ * @param elapsedSeconds Seconds since the vote started, used to rotate paged displays
+ * @param windowSeconds For rolling polls, how many recent seconds of votes count; 0 for timed votes
+ * @param counts Vote counts per option (index 0 = option 1); shared between readers and must not be modified
+ * @param leaders Option numbers with the most votes, highest first; shared and must not be modified
+ */
+public record VoteState(TwitchVoteSession session,
+                        List<String> options,
+                        String worldName,
+                        UUID starterUuid,
+                        int totalSeconds,
+                        int remainingSeconds,
+                        int elapsedSeconds,
+                        int windowSeconds,
+                        int[] counts,
+                        int[] leaders) {
+
+    public VoteState {
+        options = List.copyOf(options);
+    }
+
+    /**
+     * Creates the initial state for a freshly started timed vote.
+     */
+    public static VoteState start(TwitchVoteSession session, List<String> options, String worldName,
+                                  UUID starterUuid, int seconds) {
+        return new VoteState(session, options, worldName, starterUuid, seconds, seconds, 0, 0,
+                new int[options.size()], new int[0]);
+    }
+
+    /**
+     * Creates the initial state for a rolling poll, which runs until stopped.
+     */
+    public static VoteState startRolling(TwitchVoteSession session, List<String> options, String worldName,
+                                         UUID starterUuid, int windowSeconds) {
+        return new VoteState(session, options, worldName, starterUuid, 0, 0, 0, windowSeconds,
+                new int[options.size()], new int[0]);
+    }
+
+    /**
+     * @return Whether this is a rolling poll without a fixed end
+     */
+    public boolean isRolling() {
+        return windowSeconds > 0;
+    }
+
+    /**
+     * @return Whether this vote runs on the cluster leader and is only shown here
+     */
+    public boolean isRemote() {
+        return session.getBallots() instanceof RemoteBallotStore;
+    }
+
+    /**
+     * @return A copy of this state with the countdown restarted
+     */
+    public VoteState restarted() {
+        return new VoteState(session, options, worldName, starterUuid, totalSeconds, totalSeconds, 0, windowSeconds, counts, leaders);
+    }
+
+    /**
+     * @return A copy of this state one second later
+     */
+    public VoteState tick() {
+        int remaining = isRolling() ? 0 : Math.max(0, remainingSeconds - 1);
+        return new VoteState(session, options, worldName, starterUuid, totalSeconds, remaining, elapsedSeconds + 1,
+                windowSeconds, counts, leaders);
+    }
+
+    /**
+     * @return A copy of this state with the time set by the cluster leader
+     */
+    public VoteState withTime(int remainingSeconds, int elapsedSeconds) {
+        return new VoteState(session, options, worldName, starterUuid, totalSeconds, remainingSeconds, elapsedSeconds,
+                windowSeconds, counts, leaders);
+    }
+
+    /**
+     * @return A copy of this state with freshly computed vote counts and leaders
+     */
+    public VoteState withTally(int[] counts, int[] leaders) {
+        return new VoteState(session, options, worldName, starterUuid, totalSeconds, remainingSeconds, elapsedSeconds,
+                windowSeconds, counts, leaders);
+    }
+}
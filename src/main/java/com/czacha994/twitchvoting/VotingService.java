@@ -0,0 +1,167 @@
+package com.czacha994.twitchvoting;
+
+import com.czacha994.twitchvoting.api.TwitchVotingApi;
+import com.czacha994.twitchvoting.api.VoteEndEvent;
+import com.czacha994.twitchvoting.api.VoteSnapshot;
+import com.czacha994.twitchvoting.api.VoteStartEvent;
+import com.czacha994.twitchvoting.api.VoteTallyUpdateEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The plugin's public API, registered with Bukkit's services manager, and the events it fires.
+ *
+ * Tally events are throttled: a main thread task checks the published counts at the configured
+ * rate and fires one event when they changed since the last one, so listeners see at most that many
+ * events per second however fast votes arrive. No snapshot is built while nobody listens.
+ */
+public class VotingService implements TwitchVotingApi {
+    private final TwitchVotingPlugin plugin;
+    private final VoteCommandExecutor executor;
+
+    private VoteScheduler.Task tallyTask = null;
+    // Counts of the last tally event; published arrays are never modified, so they can be kept as is
+    private int[] firedCounts = null;
+
+    /**
+     * Creates the API for a vote executor.
+     *
+     * @param plugin The plugin instance
+     * @param executor The executor running the votes
+     */
+    public VotingService(TwitchVotingPlugin plugin, VoteCommandExecutor executor) {
+        this.plugin = plugin;
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean isVoteActive() {
+        return executor.isVoteActive();
+    }
+
+    @Override
+    public VoteSnapshot getCurrentVote() {
+        VoteState current = executor.getVoteState();
+        return current != null ? snapshot(current, false) : null;
+    }
+
+    @Override
+    public CompletableFuture<VoteSnapshot> startVote(World world, String channel, List<String> options, int seconds) {
+        return start(world, channel, options, seconds, false);
+    }
+
+    @Override
+    public CompletableFuture<VoteSnapshot> startPoll(World world, String channel, List<String> options, int windowSeconds) {
+        return start(world, channel, options, windowSeconds, true);
+    }
+
+    private CompletableFuture<VoteSnapshot> start(World world, String channel, List<String> options, int seconds,
+                                                  boolean rolling) {
+        if (!Bukkit.isPrimaryThread()) {
+            throw new IllegalStateException("Votes must be started on the main thread");
+        }
+        if (executor.isClusterFollower()) {
+            throw new IllegalStateException("Votes are started on the cluster leader");
+        }
+        if (executor.isVoteActive() || executor.isStarting()) {
+            throw new IllegalStateException("A voting session is already running");
+        }
+        String problem = executor.checkVote(seconds, options, rolling);
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+
+        return executor.startVote(world.getName(), null, channel, List.copyOf(options), seconds, rolling)
+                .thenApply(started -> snapshot(started, false));
+    }
+
+    @Override
+    public boolean stopVote() {
+        if (!Bukkit.isPrimaryThread()) {
+            throw new IllegalStateException("Votes must be stopped on the main thread");
+        }
+        if (executor.isClusterFollower()) {
+            throw new IllegalStateException("Votes are stopped on the cluster leader");
+        }
+        return executor.stopVote();
+    }
+
+    @Override
+    public void addWinnerAction(Plugin owner, String option, Consumer<VoteSnapshot> action) {
+        plugin.getWinnerActionRunner().addCallback(owner, option, action);
+    }
+
+    @Override
+    public void removeWinnerActions(Plugin owner) {
+        plugin.getWinnerActionRunner().removeCallbacks(owner);
+    }
+
+    /**
+     * Fires {@link VoteStartEvent} for a vote that was just published. Main thread only.
+     */
+    void fireStart(VoteState started) {
+        if (VoteStartEvent.getHandlerList().getRegisteredListeners().length == 0) return;
+        Bukkit.getPluginManager().callEvent(new VoteStartEvent(snapshot(started, false)));
+    }
+
+    /**
+     * Fires {@link VoteEndEvent} with a vote's final tally. Main thread only.
+     */
+    void fireEnd(VoteSnapshot result) {
+        Bukkit.getPluginManager().callEvent(new VoteEndEvent(result));
+    }
+
+    /**
+     * Starts firing throttled {@link VoteTallyUpdateEvent}s for the running vote.
+     *
+     * @param source Supplies the latest published vote state (null once the vote is over)
+     */
+    void startTallyEvents(Supplier<VoteState> source) {
+        stopTallyEvents();
+
+        long period = Math.max(1L, 20L / plugin.getVoteConfig().tallyEventsPerSecond());
+        // The start event already carried the initial counts
+        VoteState initial = source.get();
+        firedCounts = initial != null ? initial.counts() : null;
+        tallyTask = plugin.getVoteScheduler().runTimer(() -> {
+            VoteState current = source.get();
+            if (current == null) return;
+
+            int[] counts = current.counts();
+            // The refresh republishes unchanged counts as new arrays, so compare contents too
+            if (counts == firedCounts || (firedCounts != null && Arrays.equals(counts, firedCounts))) return;
+            if (VoteTallyUpdateEvent.getHandlerList().getRegisteredListeners().length == 0) return;
+
+            firedCounts = counts;
+            Bukkit.getPluginManager().callEvent(new VoteTallyUpdateEvent(snapshot(current, false)));
+        }, period, period);
+    }
+
+    /**
+     * Stops the tally events. Safe to call when none are running.
+     */
+    void stopTallyEvents() {
+        if (tallyTask != null) {
+            tallyTask.cancel();
+            tallyTask = null;
+        }
+        firedCounts = null;
+    }
+
+    /**
+     * Copies a published vote state into an API snapshot.
+     */
+    static VoteSnapshot snapshot(VoteState state, boolean finished) {
+        TwitchVoteSession session = state.session();
+        return new VoteSnapshot(session.getChannel(), state.worldName(), state.options(), state.counts(),
+                state.leaders(), state.totalSeconds(), state.remainingSeconds(), state.windowSeconds(),
+                session.getBallots().isExact(), finished);
+    }
+}
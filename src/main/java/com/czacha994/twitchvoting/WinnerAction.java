@@ -0,0 +1,20 @@
+package com.czacha994.twitchvoting;
+
+import java.util.List;
+
+/**
+ * Console commands run when an option wins, as configured under actions.winners in config.yml.
+ *
+ * @param commands The commands, without a leading slash; may use the placeholders
+ *                 {@code <option>}, {@code <votes>}, {@code <world>} and {@code <channel>}
+ * @param repeat How many times the command list is run, e.g. once per mob to spawn
+ */
+public record WinnerAction(List<String> commands, int repeat) {
+    // Keeps a typo like 200000 from queueing work for hours
+    static final int MAX_REPEAT = 10000;
+
+    public WinnerAction {
+        commands = List.copyOf(commands);
+        repeat = Math.max(1, Math.min(MAX_REPEAT, repeat));
+    }
+}
@@ -0,0 +1,187 @@
+package com.czacha994.twitchvoting;
+
+import com.czacha994.twitchvoting.api.VoteSnapshot;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Runs the actions of a vote's winning options: configured console commands and callbacks
+ * registered by other plugins.
+ *
+ * Every command run and callback is one step. Steps are queued and run on the main thread, as many
+ * per tick as fit in actions.tick_budget_ms (at least one), so a winner that spawns hundreds of mobs
+ * is spread over several ticks instead of freezing one. When a vote's actions are done, the number
+ * of steps and ticks they took is logged.
+ */
+public class WinnerActionRunner {
+    // Matches every winning option
+    static final String ANY_OPTION = "*";
+
+    private final TwitchVotingPlugin plugin;
+    // Callbacks registered through the API, keyed by lowercased option name; main thread only
+    private final Map<String, List<Callback>> callbacks = new HashMap<>();
+    private final Deque<Batch> batches = new ArrayDeque<>();
+    private VoteScheduler.Task task = null;
+
+    private record Callback(Plugin owner, Consumer<VoteSnapshot> action) {}
+
+    /**
+     * The steps queued for one finished vote.
+     */
+    private static final class Batch {
+        final String description;
+        final Deque<Runnable> steps = new ArrayDeque<>();
+        int stepCount = 0;
+        int ticks = 0;
+        long slowestTickNanos = 0;
+
+        Batch(String description) {
+            this.description = description;
+        }
+    }
+
+    /**
+     * Creates a new winner action runner.
+     *
+     * @param plugin The plugin instance
+     */
+    public WinnerActionRunner(TwitchVotingPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Registers a callback for when an option wins. Main thread only.
+     *
+     * @param owner The plugin registering it, so its callbacks can be removed together
+     * @param option The option name (ignoring case), or "*" for any winning option
+     * @param action Called on the main thread with the final result
+     */
+    public void addCallback(Plugin owner, String option, Consumer<VoteSnapshot> action) {
+        callbacks.computeIfAbsent(option.toLowerCase(Locale.ROOT), key -> new ArrayList<>())
+                 .add(new Callback(owner, action));
+    }
+
+    /**
+     * Removes all callbacks registered by a plugin. Main thread only.
+     */
+    public void removeCallbacks(Plugin owner) {
+        callbacks.values().forEach(list -> list.removeIf(callback -> callback.owner() == owner));
+        callbacks.values().removeIf(List::isEmpty);
+    }
+
+    /**
+     * Queues the actions of every winning option of a finished vote; tied winners all run theirs.
+     * Nothing runs if nobody voted. Main thread only.
+     *
+     * @param result The final result
+     */
+    public void runWinnerActions(VoteSnapshot result) {
+        List<String> winners = result.getWinners();
+        if (winners.isEmpty()) return;
+
+        Batch batch = new Batch(String.join(", ", winners));
+        Map<String, WinnerAction> configured = plugin.getVoteConfig().winnerActions();
+        for (String winner : winners) {
+            String key = winner.toLowerCase(Locale.ROOT);
+            int votes = result.getCount(result.options().indexOf(winner) + 1);
+            addCommands(batch, configured.get(key), result, winner, votes);
+            addCommands(batch, configured.get(ANY_OPTION), result, winner, votes);
+            addCallbacks(batch, callbacks.get(key), result);
+            addCallbacks(batch, callbacks.get(ANY_OPTION), result);
+        }
+        if (batch.steps.isEmpty()) return;
+
+        batch.stepCount = batch.steps.size();
+        batches.add(batch);
+        if (task == null) {
+            task = plugin.getVoteScheduler().runTimer(this::runTick, 1L, 1L);
+        }
+    }
+
+    private void addCommands(Batch batch, WinnerAction action, VoteSnapshot result, String winner, int votes) {
+        if (action == null) return;
+
+        List<String> commands = new ArrayList<>(action.commands().size());
+        for (String command : action.commands()) {
+            commands.add(command.replace("<option>", winner)
+                                .replace("<votes>", String.valueOf(votes))
+                                .replace("<world>", result.worldName())
+                                .replace("<channel>", result.channel()));
+        }
+        for (int i = 0; i < action.repeat(); i++) {
+            for (String command : commands) {
+                batch.steps.add(() -> Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command));
+            }
+        }
+    }
+
+    private void addCallbacks(Batch batch, List<Callback> registered, VoteSnapshot result) {
+        if (registered == null) return;
+        for (Callback callback : registered) {
+            batch.steps.add(() -> callback.action().accept(result));
+        }
+    }
+
+    /**
+     * Runs queued steps until the tick budget is used up.
+     */
+    private void runTick() {
+        long start = System.nanoTime();
+        long budget = plugin.getVoteConfig().actionTickBudgetMs() * 1_000_000L;
+
+        Batch batch = batches.peek();
+        if (batch == null) {
+            stopTask();
+            return;
+        }
+        batch.ticks++;
+
+        // Always make progress, even when a single step is over budget
+        do {
+            Runnable step = batch.steps.poll();
+            if (step == null) break;
+            try {
+                step.run();
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("Winner action for " + batch.description + " failed: " + e.getMessage());
+            }
+        } while (System.nanoTime() - start < budget);
+        batch.slowestTickNanos = Math.max(batch.slowestTickNanos, System.nanoTime() - start);
+
+        if (batch.steps.isEmpty()) {
+            batches.poll();
+            plugin.getLogger().info(String.format("Winner actions for %s: %d steps over %d ticks (slowest tick %.1f ms)",
+                    batch.description, batch.stepCount, batch.ticks, batch.slowestTickNanos / 1_000_000.0));
+            if (batches.isEmpty()) stopTask();
+        }
+    }
+
+    private void stopTask() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Drops any actions that haven't run yet. Called when the plugin is disabled.
+     */
+    public void cancel() {
+        stopTask();
+        int pending = 0;
+        for (Batch batch : batches) pending += batch.steps.size();
+        if (pending > 0) {
+            plugin.getLogger().warning("Dropped " + pending + " winner action steps on shutdown");
+        }
+        batches.clear();
+    }
+}
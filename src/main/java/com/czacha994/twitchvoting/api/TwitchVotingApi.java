@@ -0,0 +1,84 @@
+package com.czacha994.twitchvoting.api;
+
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Lets other plugins run and watch Twitch votes. Get it from Bukkit's services manager:
+ * <pre>
+ * TwitchVotingApi voting = Bukkit.getServicesManager().load(TwitchVotingApi.class);
+ * </pre>
+ * To react to votes, listen for {@link VoteStartEvent}, {@link VoteTallyUpdateEvent} and {@link VoteEndEvent}.
+ */
+public interface TwitchVotingApi {
+
+    /**
+     * @return Whether a vote or poll is running. Safe to call from any thread.
+     */
+    boolean isVoteActive();
+
+    /**
+     * Takes a snapshot of the running vote's tally. Safe to call from any thread.
+     *
+     * @return The running vote, or null if no vote is active
+     */
+    VoteSnapshot getCurrentVote();
+
+    /**
+     * Starts a timed vote, shown to the players in a world. Must be called on the main thread.
+     *
+     * @param world The world to show the vote in
+     * @param channel The Twitch channel to read votes from
+     * @param options The voting options, within the limit set in config.yml
+     * @param seconds How long the vote runs, within the limits set in config.yml
+     * @return Completes on the main thread with the new vote once it is connected to Twitch and shown
+     * @throws IllegalArgumentException If the options or duration are outside the configured limits
+     * @throws IllegalStateException If a vote is already running or starting, or this server follows a cluster leader
+     */
+    CompletableFuture<VoteSnapshot> startVote(World world, String channel, List<String> options, int seconds);
+
+    /**
+     * Starts a rolling poll, which only counts votes from the last few seconds and runs until
+     * stopped. Must be called on the main thread.
+     *
+     * @param world The world to show the poll in
+     * @param channel The Twitch channel to read votes from
+     * @param options The voting options, within the limit set in config.yml
+     * @param windowSeconds How many recent seconds of votes count, within the duration limits set in config.yml
+     * @return Completes on the main thread with the new poll once it is connected to Twitch and shown
+     * @throws IllegalArgumentException If the options or window are outside the configured limits
+     * @throws IllegalStateException If a vote is already running or starting, or this server follows a cluster leader
+     */
+    CompletableFuture<VoteSnapshot> startPoll(World world, String channel, List<String> options, int windowSeconds);
+
+    /**
+     * Ends the running vote and shows its results, as {@code /vote stop} does. A {@link VoteEndEvent}
+     * follows on the next tick. Must be called on the main thread.
+     *
+     * @return Whether a vote was running
+     * @throws IllegalStateException If this server follows a cluster leader
+     */
+    boolean stopVote();
+
+    /**
+     * Runs an action whenever an option wins, after the {@link VoteEndEvent}. Actions share the
+     * per-tick time budget with the winner commands in config.yml, so they should do little work
+     * each. Tied winners all run their actions. Must be called on the main thread.
+     *
+     * @param owner Your plugin
+     * @param option The option name (ignoring case), or "*" for any winning option
+     * @param action Called on the main thread with the final result
+     */
+    void addWinnerAction(Plugin owner, String option, Consumer<VoteSnapshot> action);
+
+    /**
+     * Removes all winner actions added by a plugin, e.g. when it is disabled. Must be called on the main thread.
+     *
+     * @param owner Your plugin
+     */
+    void removeWinnerActions(Plugin owner);
+}
@@ -0,0 +1,33 @@
+package com.czacha994.twitchvoting.api;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called on the main thread when a vote or poll has ended, as its results are shown.
+ */
+public class VoteEndEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final VoteSnapshot result;
+
+    public VoteEndEvent(VoteSnapshot result) {
+        this.result = result;
+    }
+
+    /**
+     * @return The final tally; {@link VoteSnapshot#getWinners()} gives the winning options
+     */
+    public VoteSnapshot getResult() {
+        return result;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
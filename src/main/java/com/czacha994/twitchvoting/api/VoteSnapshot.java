@@ -0,0 +1,93 @@
+package com.czacha994.twitchvoting.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable copy of a vote's tally at one point in time, handed to other plugins.
+ * Arrays are copied in and out, so a snapshot never changes after it is taken.
+ *
+ * @param channel The Twitch channel the vote is held in
+ * @param worldName The world the vote is shown in
+ * @param options The voting options, in display order (option 1 first)
+ * @param counts Vote counts per option (index 0 = option 1)
+ * @param leaders Option numbers with the most votes, highest first, up to 10
+ * @param totalSeconds The vote duration (0 for rolling polls)
+ * @param remainingSeconds The seconds left on the countdown (0 for rolling polls)
+ * @param windowSeconds For rolling polls, how many recent seconds of votes count; 0 for timed votes
+ * @param exact Whether counts are exact, rather than estimated in approximate mode
+ * @param finished Whether this is the final result of a vote that has ended
+ */
+public record VoteSnapshot(String channel,
+                           String worldName,
+                           List<String> options,
+                           int[] counts,
+                           int[] leaders,
+                           int totalSeconds,
+                           int remainingSeconds,
+                           int windowSeconds,
+                           boolean exact,
+                           boolean finished) {
+
+    public VoteSnapshot {
+        options = List.copyOf(options);
+        counts = counts.clone();
+        leaders = leaders.clone();
+    }
+
+    /**
+     * @return A copy of the vote counts per option (index 0 = option 1)
+     */
+    @Override
+    public int[] counts() {
+        return counts.clone();
+    }
+
+    /**
+     * @return A copy of the leading option numbers, highest first
+     */
+    @Override
+    public int[] leaders() {
+        return leaders.clone();
+    }
+
+    /**
+     * @param optionNumber The option number, starting at 1
+     * @return The option's vote count
+     * @throws IndexOutOfBoundsException If there is no such option
+     */
+    public int getCount(int optionNumber) {
+        return counts[optionNumber - 1];
+    }
+
+    /**
+     * @return The sum of all counts; in multiple vote mode a viewer can count more than once
+     */
+    public long getTotalVotes() {
+        long total = 0;
+        for (int count : counts) total += count;
+        return total;
+    }
+
+    /**
+     * @return The options sharing the highest count, or an empty list if nobody voted
+     */
+    public List<String> getWinners() {
+        int highest = 0;
+        for (int count : counts) highest = Math.max(highest, count);
+
+        List<String> winners = new ArrayList<>();
+        if (highest == 0) return winners;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == highest) winners.add(options.get(i));
+        }
+        return winners;
+    }
+
+    /**
+     * @return Whether this is a rolling poll without a fixed end
+     */
+    public boolean isRolling() {
+        return windowSeconds > 0;
+    }
+}
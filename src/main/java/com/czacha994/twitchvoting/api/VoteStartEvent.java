@@ -0,0 +1,33 @@
+package com.czacha994.twitchvoting.api;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called on the main thread when a vote or poll has started and is shown to players.
+ */
+public class VoteStartEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final VoteSnapshot vote;
+
+    public VoteStartEvent(VoteSnapshot vote) {
+        this.vote = vote;
+    }
+
+    /**
+     * @return The new vote, before any votes are counted
+     */
+    public VoteSnapshot getVote() {
+        return vote;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
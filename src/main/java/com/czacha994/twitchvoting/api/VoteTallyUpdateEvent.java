@@ -0,0 +1,37 @@
+package com.czacha994.twitchvoting.api;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called on the main thread when the running vote's counts have changed.
+ *
+ * Votes arrive at chat speed, so this is fired at most {@code events.tally_per_second} times
+ * per second (see config.yml). Changes in between are combined into the next event, which always
+ * holds the latest counts. Nothing is fired while the counts stay the same.
+ */
+public class VoteTallyUpdateEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final VoteSnapshot vote;
+
+    public VoteTallyUpdateEvent(VoteSnapshot vote) {
+        this.vote = vote;
+    }
+
+    /**
+     * @return The running vote with its latest counts
+     */
+    public VoteSnapshot getVote() {
+        return vote;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,62 @@
+package com.czacha994.twitchvoting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExactBallotStoreTest {
+
+    private static int[] decodeAll(ExactBallotStore store) {
+        long[] userIds = new long[1];
+        String[] userNames = new String[1];
+        long[] choices = new long[1];
+        int[] options = new int[store.getOptionCount()];
+        store.readChunk(0, userIds, userNames, choices);
+        int[] decoded = Arrays.copyOf(options, store.decode(userIds[0], choices[0], options));
+        Arrays.sort(decoded);
+        return decoded;
+    }
+
+    @Test
+    void packedBallotsKeepEveryChoice() {
+        ExactBallotStore store = new ExactBallotStore(100);
+        for (int option = 1; option <= 10; option++) {
+            store.vote(7, "viewer", option, false);
+        }
+        store.vote(7, "viewer", 2, false);
+
+        int[] counts = store.counts();
+        for (int option = 1; option <= 10; option++) {
+            assertEquals(1, counts[option - 1], "option " + option);
+        }
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, decodeAll(store));
+    }
+
+    @Test
+    void singleVoteReplacesOverflowedChoices() {
+        ExactBallotStore store = new ExactBallotStore(100);
+        for (int option = 1; option <= 6; option++) {
+            store.vote(7, "viewer", option, false);
+        }
+        store.vote(7, "viewer", 50, true);
+
+        int[] counts = store.counts();
+        assertEquals(1, Arrays.stream(counts).sum());
+        assertEquals(1, counts[49]);
+        assertArrayEquals(new int[] {50}, decodeAll(store));
+    }
+
+    @Test
+    void bitmaskBallotsCountOncePerOption() {
+        ExactBallotStore store = new ExactBallotStore(3);
+        store.vote(1, "a", 2, false);
+        store.vote(1, "a", 2, false);
+        store.vote(2, "b", 2, false);
+        store.vote(2, "b", 3, true);
+        assertArrayEquals(new int[] {0, 1, 1}, store.counts());
+        assertEquals(2, store.voterCount());
+    }
+}
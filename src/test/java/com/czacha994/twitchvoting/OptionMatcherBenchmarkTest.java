@@ -0,0 +1,154 @@
+package com.czacha994.twitchvoting;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares OptionMatcher against matching the same keywords with one regex alternation, the way
+ * keyword votes would be found without the automaton. 60 options with 6 aliases each over a
+ * chat-like message mix. Both must find the same votes; the timing, best of several rounds after
+ * a warmup, depends on the machine and only runs with {@code -Doptionmatcher.benchmark=true}.
+ */
+class OptionMatcherBenchmarkTest {
+    private static final int OPTIONS = 60;
+    private static final int ALIASES = 6;
+    private static final int MESSAGES = 20_000;
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int ROUNDS = 10;
+    // The automaton must be at least this many times faster than the regex
+    private static final double MIN_SPEEDUP = 2.0;
+
+    private final List<String> options = new ArrayList<>();
+    private final Map<String, List<String>> aliases = new HashMap<>();
+    private final Map<String, Integer> keywordOptions = new HashMap<>();
+
+    @Test
+    void matcherFindsTheSameVotesAsRegexAlternation() {
+        OptionMatcher matcher = OptionMatcher.withKeywords(options, aliases);
+        Pattern regex = alternation();
+        long[] sink = new long[1];
+        OptionMatcher.Listener listener = option -> sink[0] += option;
+        for (String message : messages()) {
+            sink[0] = 0;
+            matcher.scan(message, listener);
+            assertEquals(regexSum(regex, message), sink[0], message);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "optionmatcher.benchmark", matches = "true")
+    void matcherBeatsRegexAlternation() {
+        OptionMatcher matcher = OptionMatcher.withKeywords(options, aliases);
+        Pattern regex = alternation();
+        String[] messages = messages();
+        long[] sink = new long[1];
+        OptionMatcher.Listener listener = option -> sink[0] += option;
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            runMatcher(matcher, messages, listener);
+            runRegex(regex, messages);
+        }
+        long matcherNanos = Long.MAX_VALUE;
+        long regexNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            matcherNanos = Math.min(matcherNanos, runMatcher(matcher, messages, listener));
+            regexNanos = Math.min(regexNanos, runRegex(regex, messages));
+        }
+
+        double speedup = (double) regexNanos / matcherNanos;
+        System.out.printf(Locale.ROOT, "OptionMatcher: %d ns/message, regex: %d ns/message (%.1fx)%n",
+                matcherNanos / MESSAGES, regexNanos / MESSAGES, speedup);
+        assertTrue(speedup >= MIN_SPEEDUP, "OptionMatcher is only " + speedup + "x faster than the regex");
+    }
+
+    /**
+     * Builds the options and their aliases, keeping which option each keyword votes for.
+     */
+    @BeforeEach
+    void createOptions() {
+        for (int i = 1; i <= OPTIONS; i++) {
+            String name = "Option" + i;
+            options.add(name);
+            keywordOptions.put(name.toLowerCase(Locale.ROOT), i);
+            List<String> optionAliases = new ArrayList<>();
+            for (int a = 0; a < ALIASES; a++) {
+                String alias = "emote" + i + "x" + a;
+                optionAliases.add(alias);
+                keywordOptions.put(alias, i);
+            }
+            aliases.put(name.toLowerCase(Locale.ROOT), optionAliases);
+        }
+    }
+
+    private Pattern alternation() {
+        StringBuilder alternation = new StringBuilder("\\b(?:\\d+");
+        for (String keyword : keywordOptions.keySet()) {
+            alternation.append('|').append(Pattern.quote(keyword));
+        }
+        return Pattern.compile(alternation.append(")\\b").toString(), Pattern.CASE_INSENSITIVE);
+    }
+
+    private String[] messages() {
+        Random random = new Random(42);
+        String[] filler = {"lol", "KEKW", "what is this", "go go go", "pog", "no way", "this is fine", "gg"};
+        String[] messages = new String[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            int option = random.nextInt(OPTIONS) + 1;
+            String base = filler[random.nextInt(filler.length)];
+            messages[i] = switch (random.nextInt(4)) {
+                case 0 -> String.valueOf(option);
+                case 1 -> "OPTION" + option + "!";
+                case 2 -> base + " emote" + option + "x" + random.nextInt(ALIASES) + " " + base;
+                default -> base;
+            };
+        }
+        return messages;
+    }
+
+    private static long runMatcher(OptionMatcher matcher, String[] messages, OptionMatcher.Listener listener) {
+        long start = System.nanoTime();
+        for (String message : messages) {
+            matcher.scan(message, listener);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long runRegex(Pattern regex, String[] messages) {
+        long start = System.nanoTime();
+        long sum = 0;
+        for (String message : messages) {
+            sum += regexSum(regex, message);
+        }
+        // Keep the work from being optimized away
+        if (sum == Long.MIN_VALUE) System.out.println(sum);
+        return System.nanoTime() - start;
+    }
+
+    private long regexSum(Pattern regex, String message) {
+        long sum = 0;
+        Matcher match = regex.matcher(message);
+        while (match.find()) {
+            String word = match.group().toLowerCase(Locale.ROOT);
+            Integer option = keywordOptions.get(word);
+            if (option == null && OptionMatcher.isDigit(word.charAt(0)) && word.length() <= 9) {
+                int number = Integer.parseInt(word);
+                option = number >= 1 && number <= OPTIONS ? number : null;
+            }
+            if (option != null) sum += option;
+        }
+        return sum;
+    }
+}
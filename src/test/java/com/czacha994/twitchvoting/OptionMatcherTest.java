@@ -0,0 +1,54 @@
+package com.czacha994.twitchvoting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OptionMatcherTest {
+
+    private static int[] scan(OptionMatcher matcher, String message) {
+        List<Integer> options = new ArrayList<>();
+        int matches = matcher.scan(message, options::add);
+        assertEquals(options.size(), matches, "returned match count");
+        return options.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void countsStandaloneNumbersOnly() {
+        OptionMatcher matcher = OptionMatcher.numeric(3);
+        assertArrayEquals(new int[] {1}, scan(matcher, "1"));
+        assertArrayEquals(new int[] {2, 3}, scan(matcher, "2 or 3!"));
+        assertArrayEquals(new int[] {}, scan(matcher, "a1 1b 4 0 99999999999999"));
+    }
+
+    @Test
+    void matchesNamesAndAliasesAsWholeWords() {
+        OptionMatcher matcher = OptionMatcher.withKeywords(List.of("Creeper", "Zombie"),
+                Map.of("zombie", List.of("BrainsEmote")));
+        assertArrayEquals(new int[] {1}, scan(matcher, "CREEPER!"));
+        assertArrayEquals(new int[] {2}, scan(matcher, "brainsemote"));
+        assertArrayEquals(new int[] {}, scan(matcher, "creepers zombieland"));
+        assertArrayEquals(new int[] {1, 2}, scan(matcher, "creeper, 2"));
+    }
+
+    @Test
+    void optionNamedAsNumberVotesOnce() {
+        OptionMatcher matcher = OptionMatcher.withKeywords(List.of("3", "2", "1"), Map.of());
+        // "1" is option 1 by number; the name of option 3 must not count it again
+        assertArrayEquals(new int[] {1}, scan(matcher, "1"));
+        assertArrayEquals(new int[] {3}, scan(matcher, "3"));
+    }
+
+    @Test
+    void keepsNumericAliasesOutsideTheOptionRange() {
+        OptionMatcher matcher = OptionMatcher.withKeywords(List.of("Creeper", "Zombie"),
+                Map.of("creeper", List.of("1", "42")));
+        assertArrayEquals(new int[] {1}, scan(matcher, "1"));
+        assertArrayEquals(new int[] {1}, scan(matcher, "42"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.czacha994.twitchvoting;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ParticipationStoreTest {
+    // More than 70% of the initial table, so recording them grows it
+    private static final int VIEWERS = 12_000;
+
+    private Path folder;
+
+    @BeforeEach
+    void createFolder() throws IOException {
+        folder = Files.createTempDirectory("participation");
+    }
+
+    @AfterEach
+    void deleteFolder() throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void growingKeepsEveryViewerAcrossRestarts() throws IOException {
+        ExactBallotStore ballots = new ExactBallotStore(2);
+        for (long userId = 1; userId <= VIEWERS; userId++) {
+            ballots.vote(userId, "viewer" + userId, userId % 7 == 0 ? 1 : 2, true);
+        }
+
+        try (ParticipationStore store = new ParticipationStore(folder.toFile())) {
+            assertEquals(VIEWERS, store.recordVote(ballots, Set.of(1)));
+            assertEquals(VIEWERS, store.recordVote(ballots, Set.of(1)));
+        }
+        assertFalse(new File(folder.toFile(), ParticipationStore.FILE_NAME + ".resize").exists());
+
+        try (ParticipationStore store = new ParticipationStore(folder.toFile())) {
+            assertEquals(VIEWERS, store.size());
+            assertEquals(2, store.getVotesRecorded());
+            for (long userId = 1; userId <= VIEWERS; userId++) {
+                ParticipationStore.Viewer viewer = store.get(userId);
+                assertNotNull(viewer, "viewer " + userId);
+                assertEquals("viewer" + userId, viewer.name());
+                assertEquals(2, viewer.votes());
+                assertEquals(userId % 7 == 0 ? 2 : 0, viewer.wins());
+                assertEquals(2, viewer.streak());
+            }
+            assertNull(store.get(VIEWERS + 1));
+            assertEquals(0, store.top(1).get(0).userId() % 7, "best viewer backed the winner");
+        }
+    }
+
+    @Test
+    void unfinishedResizeFileIsDiscarded() throws IOException {
+        ExactBallotStore ballots = new ExactBallotStore(2);
+        ballots.vote(42, "viewer", 1, true);
+        try (ParticipationStore store = new ParticipationStore(folder.toFile())) {
+            store.recordVote(ballots, Set.of(1));
+        }
+        // Left behind by a server that stopped before the new table was complete
+        File resize = new File(folder.toFile(), ParticipationStore.FILE_NAME + ".resize");
+        Files.write(resize.toPath(), new byte[4096]);
+
+        try (ParticipationStore store = new ParticipationStore(folder.toFile())) {
+            assertEquals(1, store.size());
+            assertEquals(1, store.get(42).votes());
+        }
+        assertFalse(resize.exists());
+    }
+}
@@ -0,0 +1,53 @@
+package com.czacha994.twitchvoting;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RaidQuarantineTest {
+
+    @Test
+    void movedBallotLeavesTheSessionStore() {
+        ExactBallotStore ballots = new ExactBallotStore(3);
+        ExactBallotStore quarantine = new ExactBallotStore(3);
+        ballots.vote(1, "trusted", 1, false);
+        ballots.vote(2, "raider", 1, false);
+        ballots.vote(2, "raider", 2, false);
+
+        assertTrue(ballots.moveBallot(2, quarantine));
+        assertArrayEquals(new int[] {1, 0, 0}, ballots.counts());
+        assertArrayEquals(new int[] {1, 1, 0}, quarantine.counts());
+        assertEquals(1, ballots.voterCount());
+        // Both stores together count the raider once per option
+        assertArrayEquals(new int[] {2, 1, 0}, ballots.countsWith(quarantine));
+    }
+
+    @Test
+    void viewerVotingAgainAfterTheMoveCountsAgain() {
+        ExactBallotStore ballots = new ExactBallotStore(3);
+        ballots.vote(2, "raider", 1, false);
+        ballots.moveBallot(2, new ExactBallotStore(3));
+        ballots.vote(2, "raider", 3, false);
+        assertArrayEquals(new int[] {0, 0, 1}, ballots.counts());
+        assertEquals(1, ballots.voterCount());
+    }
+
+    @Test
+    void sketchesMergeInsteadOfAdding() {
+        ApproximateBallotStore ballots = new ApproximateBallotStore(2);
+        ApproximateBallotStore quarantine = new ApproximateBallotStore(2);
+        for (long viewer = 1; viewer <= 500; viewer++) {
+            ballots.vote(viewer, null, 1, false);
+            quarantine.vote(viewer, null, 1, false);
+        }
+        for (long viewer = 501; viewer <= 1000; viewer++) {
+            quarantine.vote(viewer, null, 1, false);
+        }
+
+        int merged = ballots.countsWith(quarantine)[0];
+        // 1000 distinct viewers, not 1500
+        assertTrue(Math.abs(merged - 1000) < 100, "merged estimate " + merged);
+    }
+}
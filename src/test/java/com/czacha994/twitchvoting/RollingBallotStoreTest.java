@@ -0,0 +1,52 @@
+package com.czacha994.twitchvoting;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RollingBallotStoreTest {
+
+    @Test
+    void countsEachOptionOncePerViewer() {
+        RollingBallotStore store = new RollingBallotStore(3, 3600);
+        store.vote(7, "viewer", 1, false);
+        store.vote(7, "viewer", 2, false);
+        store.vote(7, "viewer", 1, false);
+        assertArrayEquals(new int[] {1, 1, 0}, store.counts());
+        assertEquals(2, store.voterCount());
+    }
+
+    @Test
+    void singleVoteKeepsTheLatestChoice() {
+        RollingBallotStore store = new RollingBallotStore(3, 3600);
+        store.vote(7, "viewer", 1, true);
+        store.vote(7, "viewer", 2, true);
+        store.vote(8, "other", 2, true);
+        assertArrayEquals(new int[] {0, 2, 0}, store.counts());
+        assertEquals(2, store.voterCount());
+    }
+
+    @Test
+    void repeatingAcrossBucketsStillCountsOnce() throws InterruptedException {
+        // 3 seconds in 30 buckets of 100 ms
+        RollingBallotStore store = new RollingBallotStore(2, 3);
+        for (int i = 0; i < 5; i++) {
+            store.vote(7, "viewer", 1, false);
+            Thread.sleep(120);
+        }
+        assertArrayEquals(new int[] {1, 0}, store.counts());
+    }
+
+    @Test
+    void manyViewersAreNeitherForgottenNorCountedTwice() {
+        RollingBallotStore store = new RollingBallotStore(2, 3600);
+        for (int round = 0; round < 2; round++) {
+            for (long viewer = 1; viewer <= 50_000; viewer++) {
+                store.vote(viewer, null, (int) (viewer % 2) + 1, false);
+            }
+        }
+        assertArrayEquals(new int[] {25_000, 25_000}, store.counts());
+        assertEquals(50_000, store.voterCount());
+    }
+}
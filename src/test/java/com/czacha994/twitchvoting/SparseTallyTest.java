@@ -0,0 +1,40 @@
+package com.czacha994.twitchvoting;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class SparseTallyTest {
+
+    @Test
+    void leadersAreOrderedByCount() {
+        SparseTally tally = new SparseTally(3);
+        tally.add(5, 1);
+        tally.add(9, 3);
+        tally.add(2, 2);
+        tally.add(7, 1);
+        assertArrayEquals(new int[] {9, 2, 5}, tally.leaders(3));
+    }
+
+    @Test
+    void optionWithoutVotesLeavesTheLeaderboard() {
+        SparseTally tally = new SparseTally(3);
+        tally.add(1, 1);
+        tally.add(2, 2);
+        tally.add(1, -1);
+        assertArrayEquals(new int[] {2}, tally.leaders(3));
+
+        tally.add(2, -2);
+        assertArrayEquals(new int[] {}, tally.leaders(3));
+    }
+
+    @Test
+    void optionOutsideTheLeaderboardMovesUp() {
+        SparseTally tally = new SparseTally(2);
+        tally.add(1, 3);
+        tally.add(2, 2);
+        tally.add(3, 1);
+        tally.add(1, -3);
+        assertArrayEquals(new int[] {2, 3}, tally.leaders(2));
+    }
+}
@@ -0,0 +1,157 @@
+package com.czacha994.twitchvoting;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.mockbukkit.mockbukkit.world.WorldMock;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs whole votes on a mock server full of players, through the /vote command: start, a chat
+ * flood, switching display modes, stopping and hiding the results. What the vote cost the server
+ * is printed for comparison, but only the vote's behavior is checked.
+ */
+class VoteLifecycleTest {
+    private static final int PLAYERS = 300;
+    private static final int VIEWERS = 2000;
+    private static final int MESSAGES_PER_TICK = 50;
+    private static final String CHANNEL = "teststreamer";
+
+    private ServerMock server;
+    private WorldMock world;
+    private TwitchVotingPlugin plugin;
+    private final AtomicReference<ChatIngest.Listener> chat = new AtomicReference<>();
+    private int messages = 0;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        world = server.addSimpleWorld("world");
+        plugin = MockBukkit.load(TwitchVotingPlugin.class);
+        // Chat comes from the test instead of Twitch
+        plugin.setChatIngestFactory(listener -> {
+            chat.set(listener);
+            return new FakeChat();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void voteRunsFromStartToResults() {
+        PlayerMock admin = server.addPlayer();
+        admin.setOp(true);
+        for (int i = 1; i < PLAYERS; i++) {
+            server.addPlayer();
+        }
+        VoteCommandExecutor executor = plugin.getVoteExecutor();
+
+        assertTrue(admin.performCommand("vote start 120 " + CHANNEL + " Creeper Zombie Skeleton Spider"));
+        server.getScheduler().waitAsyncTasksFinished();
+        tick(1);
+        assertTrue(executor.isVoteActive(), "vote started");
+        assertNotNull(chat.get(), "chat connected");
+        BallotStore ballots = executor.getVoteState().session().getBallots();
+
+        flood(10 * 20);
+        assertTrue(admin.performCommand("vote togglemode chat"));
+        flood(5 * 20);
+        assertTrue(admin.performCommand("vote togglemode scoreboard"));
+        flood(5 * 20);
+
+        assertEquals(VIEWERS, ballots.voterCount(), "every viewer counted");
+        assertTrue(executor.stopVote());
+        server.getScheduler().waitAsyncTasksFinished();
+        // Results stay up for results_display_time, then are hidden
+        tick(plugin.getVoteConfig().resultsDisplayTime() * 20L + 40);
+        server.getScheduler().waitAsyncTasksFinished();
+        assertNull(executor.getVoteState(), "vote over");
+
+        for (String line : plugin.getVoteMetrics().summary().describe()) {
+            System.out.println("Vote lifecycle: " + line);
+        }
+    }
+
+    @Test
+    void failedStartLetsTheNextVoteStart() {
+        PlayerMock admin = server.addPlayer();
+        admin.setOp(true);
+        VoteCommandExecutor executor = plugin.getVoteExecutor();
+        plugin.setChatIngestFactory(listener -> {
+            throw new IllegalStateException("Twitch4J is missing from the plugin jar");
+        });
+
+        CompletableFuture<?> started = plugin.getVotingService().startVote(world, CHANNEL, List.of("Yes", "No"), 60);
+        server.getScheduler().waitAsyncTasksFinished();
+        tick(1);
+        assertTrue(started.isCompletedExceptionally(), "start failed");
+        assertFalse(executor.isStarting(), "start given up");
+        assertFalse(executor.isVoteActive(), "no vote");
+
+        plugin.setChatIngestFactory(listener -> {
+            chat.set(listener);
+            return new FakeChat();
+        });
+        assertTrue(admin.performCommand("vote start 60 " + CHANNEL + " Yes No"));
+        server.getScheduler().waitAsyncTasksFinished();
+        tick(1);
+        assertTrue(executor.isVoteActive(), "next vote started");
+    }
+
+    /**
+     * Sends chat for a number of ticks, each viewer voting for one option, running the server in between.
+     */
+    private void flood(int floodTicks) {
+        ChatIngest.Listener listener = chat.get();
+        for (int t = 0; t < floodTicks; t++) {
+            for (int i = 0; i < MESSAGES_PER_TICK; i++) {
+                int viewer = messages % VIEWERS + 1;
+                listener.onMessage("msg-" + messages, CHANNEL, String.valueOf(viewer), "viewer" + viewer,
+                        String.valueOf(messages % 4 + 1));
+                messages++;
+            }
+            tick(1);
+        }
+    }
+
+    private void tick(long count) {
+        server.getScheduler().performTicks(count);
+    }
+
+    /**
+     * A chat connection that is always up and never touches the network.
+     */
+    private static final class FakeChat implements ChatIngest {
+        @Override
+        public void join(String channel) {
+        }
+
+        @Override
+        public void leave(String channel) {
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}